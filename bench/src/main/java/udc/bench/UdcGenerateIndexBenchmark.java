@@ -0,0 +1,78 @@
+/* *********************************************************************
+ * @(#)UdcGenerateIndexBenchmark.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.bench;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import udc.util.*;
+
+/**
+ * ユニークインデックス生成(allocateIndex)のスループットを計測するベンチマーク。
+ * ストライプ数(stripe)が0の場合は払い出し毎に共有カウンタを更新し、正数の場合は
+ * スレッド毎にストライプ数分を予約して払い出します。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcGenerateIndex
+ * @since	UDC1.3
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UdcGenerateIndexBenchmark
+{
+	/**
+	 * ストライプ数
+	 * @since	UDC1.3
+	 */
+	@Param({"0", "64"})
+	public int			stripe;
+
+	/**
+	 * 計測対象のインデックス生成
+	 * @since	UDC1.3
+	 */
+	UdcGenerateIndex	generator;
+
+	/**
+	 * インデックス生成を初期化する。
+	 *
+	 * @since	UDC1.3
+	 */
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		generator = new UdcGenerateIndex();
+		generator.setStripeSize(stripe);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public int allocate() throws InterruptedException
+	{
+		return generator.allocateIndex();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public int allocateContended4() throws InterruptedException
+	{
+		return generator.allocateIndex();
+	}
+
+	@Benchmark
+	@Threads(16)
+	public int allocateContended16() throws InterruptedException
+	{
+		return generator.allocateIndex();
+	}
+}
@@ -0,0 +1,139 @@
+/* *********************************************************************
+ * @(#)UdcMutexBenchmark.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.bench;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import udc.util.*;
+
+/**
+ * 排他制御(UdcMutex/UdcConditionMutex)を計測するベンチマーク。
+ * 以下を計測します。
+ *   lockUnlock … 排他の獲得・解放(1・4・16スレッド)
+ *   handoff    … cond_signalとcond_timewaitによるスレッド間の起床
+ * 計測対象は、UdcMutex・UdcConditionMutex(非公平)・UdcConditionMutex(公平)を
+ * パラメータで切り替えます。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcMutex
+ * @see		UdcConditionMutex
+ * @since	UDC1.3
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class UdcMutexBenchmark
+{
+	/**
+	 * cond_timewaitの待ち時間(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	static final long	WaitTime	= 10;
+
+	/**
+	 * 計測対象の排他制御クラス
+	 * @since	UDC1.3
+	 */
+	@Param({"UdcMutex", "UdcConditionMutex", "UdcConditionMutexFair"})
+	public String		mutexType;
+
+	/**
+	 * 計測対象の排他制御
+	 * @since	UDC1.3
+	 */
+	UdcMutex			mutex;
+
+	/**
+	 * 排他中に更新する値
+	 * @since	UDC1.3
+	 */
+	long				counter;
+
+	/**
+	 * 排他制御を生成する。
+	 *
+	 * @since	UDC1.3
+	 */
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		if ("UdcConditionMutexFair".equals(mutexType)) {
+			mutex = new UdcConditionMutex(true);
+		} else if ("UdcConditionMutex".equals(mutexType)) {
+			mutex = new UdcConditionMutex();
+		} else {
+			mutex = new UdcMutex();
+		}
+	}
+
+	/**
+	 * 排他を獲得して値を更新し、解放する。
+	 *
+	 * @return	更新後の値
+	 * @since	UDC1.3
+	 */
+	long lockUnlock() throws InterruptedException
+	{
+		mutex.lock();
+		try {
+			return ++ counter;
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	@Benchmark
+	@Group("lock1")
+	@GroupThreads(1)
+	public long lockUnlock1() throws InterruptedException
+	{
+		return lockUnlock();
+	}
+
+	@Benchmark
+	@Group("lock4")
+	@GroupThreads(4)
+	public long lockUnlock4() throws InterruptedException
+	{
+		return lockUnlock();
+	}
+
+	@Benchmark
+	@Group("lock16")
+	@GroupThreads(16)
+	public long lockUnlock16() throws InterruptedException
+	{
+		return lockUnlock();
+	}
+
+	@Benchmark
+	@Group("handoff")
+	@GroupThreads(1)
+	public void handoffSignal()
+	{
+		mutex.cond_signal();
+	}
+
+	@Benchmark
+	@Group("handoff")
+	@GroupThreads(1)
+	public void handoffWait() throws InterruptedException
+	{
+		mutex.lock();
+		try {
+			mutex.cond_timewait(WaitTime);
+		} finally {
+			mutex.unlock();
+		}
+	}
+}
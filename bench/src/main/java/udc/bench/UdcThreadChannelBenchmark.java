@@ -0,0 +1,247 @@
+/* *********************************************************************
+ * @(#)UdcThreadChannelBenchmark.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.bench;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.*;
+
+import udc.util.*;
+
+/**
+ * スレッド間通信チャネルの送受信スループットを計測するベンチマーク。
+ * 送信(push)スレッドと受信(pull)スレッドをJMHのグループとして同時に実行し、
+ * 単位時間あたりの送信数・受信数を計測します。計測対象のチャネルは、UdcThreadChannelと
+ * UdcLockFreeThreadChannelをパラメータで切り替えます。
+ *
+ * 計測するグループは以下のとおりです。
+ *   spsc      … 送信1・受信1スレッドのFIFO受信
+ *   mpsc      … 送信4・受信1スレッドのFIFO受信
+ *   mpmc      … 送信4・受信4スレッドのFIFO受信
+ *   priority  … 優先度をばらつかせたメッセージの受信
+ * スレッド数は、実行時に -tg オプション(例: -tg 8,2)で変更できます。
+ *
+ * (注意)
+ *   受信が送信に追いつかない場合にメッセージが際限なく滞留しないよう、未受信のメッセージ数が
+ *   bound件に達している間は送信側が待ち合わせます。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcThreadChannel
+ * @see		UdcLockFreeThreadChannel
+ * @see		UdcThreadChannelLatencyBenchmark
+ * @since	UDC1.3
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class UdcThreadChannelBenchmark
+{
+	/**
+	 * 計測用メッセージ種別
+	 * @since	UDC1.3
+	 */
+	static final int	Type_Message	= 0x7fff0001;
+
+	/**
+	 * 受信待ち時間(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	static final long	PullWaitTime	= 10;
+
+	/**
+	 * 計測対象のチャネルクラス名
+	 * @since	UDC1.3
+	 */
+	@Param({"UdcThreadChannel", "UdcLockFreeThreadChannel"})
+	public String		channelType;
+
+	/**
+	 * 未受信メッセージ数の上限
+	 * @since	UDC1.3
+	 */
+	@Param({"1024"})
+	public int			bound;
+
+	/**
+	 * 計測対象のチャネル
+	 * @since	UDC1.3
+	 */
+	UdcThreadChannel	channel;
+
+	/**
+	 * 未受信のメッセージ数
+	 * @since	UDC1.3
+	 */
+	final AtomicInteger	inflight = new AtomicInteger();
+
+	/**
+	 * 送信メッセージのインボークID
+	 * @since	UDC1.3
+	 */
+	final AtomicInteger	sequence = new AtomicInteger();
+
+	/**
+	 * 計測対象のチャネルを生成する。
+	 *
+	 * @return	チャネル
+	 * @param	type	チャネルクラス名
+	 * @since	UDC1.3
+	 */
+	static UdcThreadChannel newChannel(String type)
+	{
+		if ("UdcLockFreeThreadChannel".equals(type)) {
+			return new UdcLockFreeThreadChannel("bench");
+		}
+		return new UdcThreadChannel("bench");
+	}
+
+	/**
+	 * 計測の繰返し毎にチャネルを生成する。
+	 *
+	 * @since	UDC1.3
+	 */
+	@Setup(Level.Iteration)
+	public void setup()
+	{
+		channel = newChannel(channelType);
+		inflight.set(0);
+	}
+
+	/**
+	 * 計測の繰返し毎にチャネルに残ったメッセージを破棄する。
+	 *
+	 * @since	UDC1.3
+	 */
+	@TearDown(Level.Iteration)
+	public void tearDown() throws InterruptedException
+	{
+		channel.reset();
+	}
+
+	/**
+	 * 未受信のメッセージ数が上限未満になるまで待ち合わせる。
+	 *
+	 * @return	送信可能か否か(計測終了時は偽)
+	 * @param	ctl		JMHの計測制御
+	 * @since	UDC1.3
+	 */
+	boolean acquire(Control ctl)
+	{
+		while (inflight.get() >= bound) {
+			if (ctl.stopMeasurement) {
+				return false;
+			}
+			Thread.onSpinWait();
+		}
+		inflight.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * メッセージを送信する。
+	 *
+	 * @param	level	優先度
+	 * @param	ctl		JMHの計測制御
+	 * @since	UDC1.3
+	 */
+	void send(int level, Control ctl) throws InterruptedException
+	{
+		if (! acquire(ctl)) {
+			return;
+		}
+		UdcThreadChannelDtr dtr = UdcThreadChannelDtr.obtain(sequence.incrementAndGet(), Type_Message);
+		dtr.set_dtrLevel(level);
+		channel.push(dtr);
+	}
+
+	/**
+	 * 受信したメッセージを解放する。
+	 *
+	 * @param	dtr		受信メッセージ
+	 * @param	bh		JMHのBlackhole
+	 * @since	UDC1.3
+	 */
+	void received(UdcThreadChannelDtr dtr, Blackhole bh)
+	{
+		if (dtr == null) {
+			return;
+		}
+		inflight.decrementAndGet();
+		bh.consume(dtr.get_invokeId());
+		dtr.release();
+	}
+
+	@Benchmark
+	@Group("spsc")
+	@GroupThreads(1)
+	public void spscPush(Control ctl) throws InterruptedException
+	{
+		send(50, ctl);
+	}
+
+	@Benchmark
+	@Group("spsc")
+	@GroupThreads(1)
+	public void spscPull(Blackhole bh) throws InterruptedException
+	{
+		received(channel.pull(PullWaitTime), bh);
+	}
+
+	@Benchmark
+	@Group("mpsc")
+	@GroupThreads(4)
+	public void mpscPush(Control ctl) throws InterruptedException
+	{
+		send(50, ctl);
+	}
+
+	@Benchmark
+	@Group("mpsc")
+	@GroupThreads(1)
+	public void mpscPull(Blackhole bh) throws InterruptedException
+	{
+		received(channel.pull(PullWaitTime), bh);
+	}
+
+	@Benchmark
+	@Group("mpmc")
+	@GroupThreads(4)
+	public void mpmcPush(Control ctl) throws InterruptedException
+	{
+		send(50, ctl);
+	}
+
+	@Benchmark
+	@Group("mpmc")
+	@GroupThreads(4)
+	public void mpmcPull(Blackhole bh) throws InterruptedException
+	{
+		received(channel.pull(PullWaitTime), bh);
+	}
+
+	@Benchmark
+	@Group("priority")
+	@GroupThreads(1)
+	public void priorityPush(Control ctl) throws InterruptedException
+	{
+		send(ThreadLocalRandom.current().nextInt(100), ctl);
+	}
+
+	@Benchmark
+	@Group("priority")
+	@GroupThreads(1)
+	public void priorityPull(Blackhole bh) throws InterruptedException
+	{
+		received(channel.pull(PullWaitTime), bh);
+	}
+}
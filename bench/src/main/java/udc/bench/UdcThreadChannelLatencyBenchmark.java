@@ -0,0 +1,171 @@
+/* *********************************************************************
+ * @(#)UdcThreadChannelLatencyBenchmark.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.bench;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import udc.util.*;
+
+/**
+ * スレッド間通信チャネルの要求・応答の往復時間を計測するベンチマーク。
+ * 計測スレッド毎に要求チャネルと応答チャネル、および要求をそのまま応答として返却する
+ * 応答スレッドを用意し、要求の送信から応答の指定受信(pull(invId,type,waittime))までの
+ * 時間をサンプリングします。結果にはp50/p90/p99/p99.9等のパーセンタイルが出力されます。
+ * 応答チャネルには、指定受信で読み飛ばされる滞留メッセージをbacklog件送信しておきます。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcThreadChannel#pull(int,int,long)
+ * @see		UdcThreadChannelBenchmark
+ * @since	UDC1.3
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class UdcThreadChannelLatencyBenchmark implements Runnable
+{
+	/**
+	 * 要求メッセージ種別
+	 * @since	UDC1.3
+	 */
+	static final int	Type_Request	= 0x7fff0011;
+
+	/**
+	 * 応答メッセージ種別
+	 * @since	UDC1.3
+	 */
+	static final int	Type_Reply		= 0x7fff0012;
+
+	/**
+	 * 指定受信されない滞留メッセージ種別
+	 * @since	UDC1.3
+	 */
+	static final int	Type_Backlog	= 0x7fff0013;
+
+	/**
+	 * 応答待ち時間(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	static final long	ReplyWaitTime	= 1000;
+
+	/**
+	 * 計測対象のチャネルクラス名
+	 * @since	UDC1.3
+	 */
+	@Param({"UdcThreadChannel", "UdcLockFreeThreadChannel"})
+	public String		channelType;
+
+	/**
+	 * 応答チャネルの滞留メッセージ数
+	 * @since	UDC1.3
+	 */
+	@Param({"0", "1024"})
+	public int			backlog;
+
+	/**
+	 * 要求チャネル
+	 * @since	UDC1.3
+	 */
+	UdcThreadChannel	request;
+
+	/**
+	 * 応答チャネル
+	 * @since	UDC1.3
+	 */
+	UdcThreadChannel	reply;
+
+	/**
+	 * 応答スレッド
+	 * @since	UDC1.3
+	 */
+	Thread				thread;
+
+	/**
+	 * 応答スレッドの処理継続フラグ
+	 * @since	UDC1.3
+	 */
+	volatile boolean	threadLoop;
+
+	/**
+	 * チャネルを生成し、応答スレッドを開始する。
+	 *
+	 * @since	UDC1.3
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws InterruptedException
+	{
+		request = UdcThreadChannelBenchmark.newChannel(channelType);
+		reply = UdcThreadChannelBenchmark.newChannel(channelType);
+		for (int i=0; i<backlog; i++) {
+			reply.push( new UdcThreadChannelDtr(-1 - i, Type_Backlog) );
+		}
+		threadLoop = true;
+		thread = new Thread(this, "UdcThreadChannelLatencyBenchmark");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * 応答スレッドを停止する。
+	 *
+	 * @since	UDC1.3
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws InterruptedException
+	{
+		threadLoop = false;
+		thread.join();
+		request.reset();
+		reply.reset();
+	}
+
+	/**
+	 * 応答スレッドの処理。
+	 * 受信した要求のインボークIDで応答を返却します。
+	 *
+	 * @since	UDC1.3
+	 */
+	public void run()
+	{
+		try {
+			while (threadLoop) {
+				UdcThreadChannelDtr dtr = request.pull(10);
+				if (dtr == null) {
+					continue;
+				}
+				int invId = dtr.get_invokeId();
+				dtr.release();
+				reply.push( UdcThreadChannelDtr.obtain(invId, Type_Reply) );
+			}
+		} catch (InterruptedException exp) {
+		}
+	}
+
+	/**
+	 * 要求を送信し、その応答を指定受信する。
+	 *
+	 * @return	応答のインボークID
+	 * @since	UDC1.3
+	 */
+	@Benchmark
+	public int roundTrip() throws InterruptedException
+	{
+		int invId = request.newInvokeId();
+		request.push( UdcThreadChannelDtr.obtain(invId, Type_Request) );
+		UdcThreadChannelDtr dtr = reply.pull(invId, Type_Reply, ReplyWaitTime);
+		if (dtr == null) {
+			return -1;
+		}
+		dtr.release();
+		return invId;
+	}
+}
@@ -0,0 +1,163 @@
+/* *********************************************************************
+ * @(#)UdcThreadOperationPoolBenchmark.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.bench;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import udc.util.*;
+
+/**
+ * スレッドプールの確保(allocateOperationThread)・解放(releaseOperationThread)の
+ * スループットと所要時間を計測するベンチマーク。
+ * 計測スレッド数がプールのスレッド数を上回る場合は、空きスレッドの確保待ちが発生します。
+ * 計測対象のプールは、UdcThreadOperationPoolとUdcVirtualThreadOperationPoolを
+ * パラメータで切り替えます。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcThreadOperationPool
+ * @see		UdcVirtualThreadOperationPool
+ * @since	UDC1.3
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UdcThreadOperationPoolBenchmark
+{
+	/**
+	 * 確保待ち時間(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	static final long	AllocateWaitTime	= 1000;
+
+	/**
+	 * 計測対象のプールクラス名
+	 * @since	UDC1.3
+	 */
+	@Param({"UdcThreadOperationPool", "UdcVirtualThreadOperationPool"})
+	public String		poolType;
+
+	/**
+	 * プールのスレッド数
+	 * @since	UDC1.3
+	 */
+	@Param({"4", "64"})
+	public int			poolSize;
+
+	/**
+	 * 確保待ちを監視するタイマ管理
+	 * @since	UDC1.3
+	 */
+	UdcTimerManager			timer;
+
+	/**
+	 * 計測対象のプール
+	 * @since	UDC1.3
+	 */
+	UdcThreadOperationPool	pool;
+
+	/**
+	 * プールを生成し、スレッドを開始する。
+	 *
+	 * @since	UDC1.3
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws Exception
+	{
+		timer = new UdcTimerManager(1000);
+		timer.start();
+
+		UdcThreadOperation th = new UdcThreadOperation();
+		th.setOperation(new UdcBenchOperation());
+		if ("UdcVirtualThreadOperationPool".equals(poolType)) {
+			pool = new UdcVirtualThreadOperationPool(poolSize, th, timer);
+		} else {
+			pool = new UdcThreadOperationPool(poolSize, th, timer);
+		}
+		if (pool.startOperation() != 0) {
+			throw new IllegalStateException("cannot start pool: " + poolType);
+		}
+	}
+
+	/**
+	 * プールのスレッドを停止する。
+	 *
+	 * @since	UDC1.3
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception
+	{
+		pool.stopOperation();
+		UdcTimerManagerBenchmark.stopTimer(timer);
+	}
+
+	/**
+	 * スレッドを確保し、直ちに解放する。
+	 *
+	 * @return	確保したスレッドの識別子(確保失敗時は負値)
+	 * @since	UDC1.3
+	 */
+	public int allocateRelease()
+	{
+		UdcThreadOperationBase th = pool.allocateOperationThread(AllocateWaitTime);
+		if (th == null) {
+			return -1;
+		}
+		int index = th.getThreadIndex();
+		pool.releaseOperationThread(index);
+		return index;
+	}
+
+	@Benchmark
+	@Threads(1)
+	public int uncontended()
+	{
+		return allocateRelease();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public int contended8()
+	{
+		return allocateRelease();
+	}
+
+	@Benchmark
+	@Threads(64)
+	public int contended64()
+	{
+		return allocateRelease();
+	}
+}
+
+/**
+ * 何も処理しないオペレーション処理。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+class UdcBenchOperation implements UdcOperationFace
+{
+	public void setThreadOperation(UdcThreadOperation ope) {}
+
+	public Object clone() throws CloneNotSupportedException
+	{
+		return new UdcBenchOperation();
+	}
+
+	public int startTransaction() { return 0; }
+
+	public int stopTransaction() { return 0; }
+
+	public int action(UdcThreadChannelDtr request) { return 0; }
+}
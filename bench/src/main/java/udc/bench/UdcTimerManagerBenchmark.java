@@ -0,0 +1,213 @@
+/* *********************************************************************
+ * @(#)UdcTimerManagerBenchmark.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import udc.util.*;
+
+/**
+ * タイマ管理の登録・解除・タイムアウト通知を計測するベンチマーク。
+ * 登録中のタイマ数(timers)を1千〜100万件とした状態で、以下を計測します。
+ *   registerCancel … タイマの登録と解除の組(スループット・所要時間)
+ *   fire           … timers件のタイマを登録し、全てのタイムアウト通知を受信するまでの時間
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcTimerManager
+ * @since	UDC1.3
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class UdcTimerManagerBenchmark
+{
+	/**
+	 * 登録したまま計測中にタイムアウトしないタイマの時間(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	static final long	IdleTimeout		= 3600000;
+
+	/**
+	 * fireで登録するタイマの時間の幅(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	static final int	FireSpread		= 100;
+
+	/**
+	 * 登録中のタイマ数
+	 * @since	UDC1.3
+	 */
+	@Param({"1000", "100000", "1000000"})
+	public int			timers;
+
+	/**
+	 * 計測対象のタイマ管理
+	 * @since	UDC1.3
+	 */
+	UdcTimerManager		timer;
+
+	/**
+	 * タイムアウトの通知先チャネル
+	 * @since	UDC1.3
+	 */
+	UdcThreadChannel	channel;
+
+	/**
+	 * タイマ管理を停止する。
+	 * Thread.stopを使用できないJDKでは、タイマ処理スレッドは停止されずに残ります。
+	 *
+	 * @param	timer	タイマ管理
+	 * @since	UDC1.3
+	 */
+	static void stopTimer(UdcTimerManager timer) throws Exception
+	{
+		try {
+			timer.stop();
+		} catch (UnsupportedOperationException exp) {
+		}
+	}
+
+	/**
+	 * タイマ管理を開始する。
+	 *
+	 * @since	UDC1.3
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws Exception
+	{
+		timer = new UdcTimerManager(1000);
+		timer.start();
+		channel = new UdcLockFreeThreadChannel("bench");
+	}
+
+	/**
+	 * タイマ管理を停止する。
+	 *
+	 * @since	UDC1.3
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception
+	{
+		stopTimer(timer);
+	}
+
+	/**
+	 * 登録中のタイマ数を計測対象の件数にする。
+	 *
+	 * @since	UDC1.3
+	 */
+	@State(Scope.Benchmark)
+	public static class Populated
+	{
+		/**
+		 * 登録したタイマ識別子
+		 * @since	UDC1.3
+		 */
+		int[]	indexes;
+
+		/**
+		 * タイムアウトしないタイマをtimers件登録する。
+		 *
+		 * @param	bench	ベンチマーク
+		 * @since	UDC1.3
+		 */
+		@Setup(Level.Trial)
+		public void setup(UdcTimerManagerBenchmark bench) throws InterruptedException
+		{
+			indexes = new int[bench.timers];
+			for (int i=0; i<indexes.length; i++) {
+				indexes[i] = bench.timer.registrateTimer(UdcThreadMsgDtrEventTimeout.Timeout,
+										IdleTimeout + i, bench.channel);
+			}
+		}
+
+		/**
+		 * 登録したタイマを解除する。
+		 *
+		 * @param	bench	ベンチマーク
+		 * @since	UDC1.3
+		 */
+		@TearDown(Level.Trial)
+		public void tearDown(UdcTimerManagerBenchmark bench) throws InterruptedException
+		{
+			for (int i=0; i<indexes.length; i++) {
+				bench.timer.unregistrateTimer(indexes[i]);
+			}
+		}
+	}
+
+	/**
+	 * タイマを登録し、直ちに解除する。
+	 *
+	 * @return	登録したタイマ識別子
+	 * @param	populated	登録中のタイマ
+	 * @since	UDC1.3
+	 */
+	@Benchmark
+	@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+	@Warmup(iterations = 3, time = 2)
+	@Measurement(iterations = 5, time = 2)
+	@Threads(1)
+	public int registerCancel(Populated populated) throws InterruptedException
+	{
+		int index = timer.registrateTimer(UdcThreadMsgDtrEventTimeout.Timeout, IdleTimeout, channel);
+		timer.unregistrateTimer(index);
+		return index;
+	}
+
+	/**
+	 * 複数スレッドからタイマを登録し、直ちに解除する。
+	 *
+	 * @return	登録したタイマ識別子
+	 * @param	populated	登録中のタイマ
+	 * @since	UDC1.3
+	 */
+	@Benchmark
+	@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+	@Warmup(iterations = 3, time = 2)
+	@Measurement(iterations = 5, time = 2)
+	@Threads(4)
+	public int registerCancelContended(Populated populated) throws InterruptedException
+	{
+		return registerCancel(populated);
+	}
+
+	/**
+	 * timers件のタイマを1〜FireSpreadミリ秒後に登録し、全てのタイムアウト通知を受信する。
+	 *
+	 * @return	受信したタイムアウト通知数
+	 * @since	UDC1.3
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 2)
+	@Measurement(iterations = 5)
+	public int fire() throws InterruptedException
+	{
+		for (int i=0; i<timers; i++) {
+			timer.registrateTimer(UdcThreadMsgDtrEventTimeout.Timeout, 1 + i % FireSpread, channel);
+		}
+		ArrayList list = new ArrayList();
+		int count = 0;
+		while (count < timers) {
+			int n = channel.drainTo(list, 4096, IdleTimeout);
+			for (int i=0; i<n; i++) {
+				UdcThreadChannelDtr dtr = (UdcThreadChannelDtr)list.get(i);
+				((UdcThreadMsgDtrEventTimeout)dtr.get_data()).release();
+				dtr.release();
+			}
+			list.clear();
+			count += n;
+		}
+		return count;
+	}
+}
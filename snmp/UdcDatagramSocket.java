@@ -9,6 +9,8 @@ package udc.snmp;
 import java.io.*;
 import java.net.*;
 
+import udc.util.UdcTrace;
+
 
 /**
  * DatagramSocketのカプセルクラス。
@@ -233,6 +235,10 @@ public class UdcDatagramSocket
 			byte [] data = new byte[readLen];
 			p = new DatagramPacket(data,readLen);
 			soc.receive(p);
+			if (UdcTrace.isPacketTrace()) {
+				UdcTrace.trace(UdcTrace.PacketLevel, "UdcDatagramSocket.receive", " - from " + p.getSocketAddress(),
+								p.getData(), p.getOffset(), p.getLength());
+			}
 		}
 		return p;
 	}
@@ -9,6 +9,8 @@ package udc.snmp;
 import java.io.*;
 import java.net.*;
 
+import udc.util.UdcTrace;
+
 /**
  * UdcDatagramSocketの制御クラス。
  *
@@ -160,6 +162,10 @@ public class UdcDatagramSocketControler
 	 */
 	public void send(DatagramPacket data) throws IOException
 	{
+		if (UdcTrace.isPacketTrace()) {
+			UdcTrace.trace(UdcTrace.PacketLevel, "UdcDatagramSocketControler.send", " - to " + data.getSocketAddress(),
+							data.getData(), data.getOffset(), data.getLength());
+		}
 		if (sender == null) {
 			if (socket == null) {
 				String str = "socket problem - not instanciate";
@@ -122,6 +122,13 @@ public class UdcSnmpAgentContext implements Runnable , UdcSnmpConstants , UdcThr
 	 */
 	protected long		pararelThreadWaitTime = 60000;
 
+	/**
+	 * SNMP要求をパラレルに処理する場合の、オペレーション処理の実行クラス。
+	 * 設定されている場合、スレッドプールからスレッドを確保せずに本クラスに要求を投入します。
+	 * @since	UDC1.3
+	 */
+	protected UdcThreadOperationExecutor	pararelExecutor = null;
+
 
 	/**
 	 * コンストラクタ。
@@ -217,6 +224,28 @@ public class UdcSnmpAgentContext implements Runnable , UdcSnmpConstants , UdcThr
 		pararelThreadWaitTime = milsec;
 	}
 
+	/**
+	 * SNMP要求をオペレーション処理の実行クラスでパラレルに処理するモードに設定する。
+	 * 本モードでは、SNMP要求毎にスレッドプールからスレッドを確保・解放することなく、
+	 * ワークスティーリング型のスレッドプールに要求を投入します。処理待ちの要求数が
+	 * 上限に達している場合は、従来どおり自スレッドでMIB処理を行います。
+	 * 本メンバ関数は、startメンバ関数の前に呼び出す必要があります。
+	 *
+	 * @param	parallelism	ワーカスレッド数
+	 * @param	queuesize	処理待ち要求数の上限
+	 * @since	UDC1.3
+	 */
+	public void setPararelExecutor(int parallelism, int queuesize)
+	{
+		UdcSnmpRequestReceiver rec = new UdcSnmpRequestReceiver();
+		rec.setContext(this);
+		UdcThreadOperation ope = new UdcThreadOperation();
+		ope.setOperation(rec);
+		pararelExecutor = new UdcThreadOperationExecutor(parallelism, queuesize, ope,
+										UdcThreadOperationExecutor.Reject_CallerRuns, 0);
+		isPararel = true;
+	}
+
 	/**
 	 * SNMP-Agent処理を開始する。
 	 * 本メンバ関数を実行することで、Agent機能が開始される。具体的には
@@ -238,7 +267,7 @@ public class UdcSnmpAgentContext implements Runnable , UdcSnmpConstants , UdcThr
 			if (opeSocketControler.getSender() != null) {
 				opeSocketControler.getSender().start();
 			}
-			if (isPararel == true) {
+			if (isPararel == true && pararelThreadPool != null) {
 				pararelThreadPool.startOperation();
 			}
 			UdcMutex mute = new UdcMutex();
@@ -269,6 +298,9 @@ public class UdcSnmpAgentContext implements Runnable , UdcSnmpConstants , UdcThr
 			}
 			thread.stop();
 			thread = null;
+			if (pararelExecutor != null) {
+				pararelExecutor.shutdown();
+			}
 		}
 	}
 
@@ -608,6 +640,14 @@ public class UdcSnmpAgentContext implements Runnable , UdcSnmpConstants , UdcThr
 	 */
 	public void receiveRequestPararel(UdcPdu pdu)
 	{
+			// 実行クラスへの要求投入(処理待ち上限時は自スレッドで行う)
+		if (pararelExecutor != null) {
+			int invId = 1;	// 同期通信はしないため、固定値
+			if (pararelExecutor.submit(new UdcThreadChannelDtr(invId, Request_Snmp, pdu)) < 0) {
+				receiveRequest(pdu);
+			}
+			return;
+		}
 			// 空きスレッドの確保
 		UdcThreadOperation paraOpeThread = (UdcThreadOperation)pararelThreadPool.allocateOperationThread(pararelThreadWaitTime);
 		if (paraOpeThread == null) {
@@ -621,7 +661,7 @@ public class UdcSnmpAgentContext implements Runnable , UdcSnmpConstants , UdcThr
 		try {
 			opeChannel.push(dtr);
 		} catch (InterruptedException iexp) {
-			UdcTrace.trace(UdcTrace.Level,"receiveRequestPararel : " + iexp);
+			UdcTrace.tracef(UdcTrace.Level,null,"receiveRequestPararel : %s", iexp);
 		}
 	}
 
@@ -644,8 +684,10 @@ public class UdcSnmpAgentContext implements Runnable , UdcSnmpConstants , UdcThr
 				try {
 					dtr = channel.pull();
 					int dtrtype = dtr.get_dtrType();
+					Object dtrdata = dtr.get_data();
+					dtr.release();
 					if (dtrtype == Request_Snmp) {
-						UdcPdu pdu = (UdcPdu)dtr.get_data();
+						UdcPdu pdu = (UdcPdu)dtrdata;
 							// versionチェック
 						if (pdu.getVersion() != agentMib.getVersion()) {
 							UdcTrace.trace(UdcTrace.Level,"UdcSnmpAgentContext.run", " - unmatch version.");
@@ -805,6 +847,10 @@ class UdcSnmpAgentOpeReceiver implements UdcDatagramSocketReceiverFace , UdcSnmp
 			byte [] data = new byte[UdcSnmpContext.MaxSize_SnmpMessage];
 			packet = new DatagramPacket(data,UdcSnmpContext.MaxSize_SnmpMessage);
 			soc.receive(packet);
+			if (UdcTrace.isPacketTrace()) {
+				UdcTrace.trace(UdcTrace.PacketLevel, "UdcSnmpAgentOpeReceiver.receive", " - from " + packet.getSocketAddress(),
+								packet.getData(), packet.getOffset(), packet.getLength());
+			}
 		}
 		return packet;
 	}
@@ -858,10 +904,10 @@ class UdcSnmpAgentOpeReceiver implements UdcDatagramSocketReceiverFace , UdcSnmp
 
 					}
 				} catch(IOException exp) {
-					UdcTrace.trace(UdcTrace.Level,"UdcSnmpAgentOpeReceiver.run", " - io exception : " + exp);
+					UdcTrace.tracef(UdcTrace.Level,"UdcSnmpAgentOpeReceiver.run", " - io exception : %s", exp);
 					continue;
 				} catch(UdcDecodingException dexp) {
-					UdcTrace.trace(UdcTrace.Level,"UdcSnmpAgentOpeReceiver.run", " - decode exception : " + dexp);
+					UdcTrace.tracef(UdcTrace.Level,"UdcSnmpAgentOpeReceiver.run", " - decode exception : %s", dexp);
 					continue;
 				}
 					// wakeup request wait
@@ -869,7 +915,7 @@ class UdcSnmpAgentOpeReceiver implements UdcDatagramSocketReceiverFace , UdcSnmp
 					if (pdu != null) {
 						pdu.setSourceAddress( packet.getAddress() );
 						pdu.setSourcePort( packet.getPort() );
-						context.channel.push( new UdcThreadChannelDtr(-1,dtrType,pdu) );
+						context.channel.push( UdcThreadChannelDtr.obtain(-1,dtrType,pdu) );
 					}
 				} catch(InterruptedException exp) {
 					continue;
@@ -1093,7 +1139,7 @@ class UdcSnmpRequestReceiver implements UdcOperationFace, UdcThreadMsgId
 		UdcPdu pdu = (UdcPdu)request.get_data();
 		context.receiveRequest(pdu);
 			// 自身でスレッド解放
-		if (context.pararelThreadPool != null) {
+		if (context.pararelThreadPool != null && opeTh.getPool() == context.pararelThreadPool) {
 			context.pararelThreadPool.releaseOperationThread(opeTh.getThreadIndex());
 		}
 		UdcTrace.trace(UdcTrace.Level,"UdcSnmpRequestReceiver.action", " - end.");
@@ -203,7 +203,7 @@ public class UdcSnmpAgentMIBObject extends UdcBranchElem implements UdcSnmpConst
 			if (ret == 0) {
 				return null;
 			} else if (ret < 0) {
-				addBranch(i,elm);
+				addBranch(i,childMib);
 				childMib.setAgentMIB(mib);
 				return childMib;
 			}
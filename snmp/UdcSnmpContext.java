@@ -134,6 +134,8 @@ public class UdcSnmpContext implements UdcSnmpConstants , UdcThreadMsgId, Runnab
 		waitList = new UdcSnmpResponseWaitList();
 		trapSendChannel = trapChannel;
 		channel = new UdcThreadChannel();
+		channel.setTimeoutCoalesce(true);
+		channel.setTimeoutRecycle(true);
 		replyChannel = new UdcThreadChannel();
 	}
 
@@ -300,6 +302,7 @@ public class UdcSnmpContext implements UdcSnmpConstants , UdcThreadMsgId, Runnab
 		UdcPdu respPdu = null;
 		UdcThreadChannelDtr dtr = replyChannel.pull(sendIndex,-1);
 		respPdu = (UdcPdu)dtr.get_data();
+		dtr.release();
 		return respPdu;
 	}
 
@@ -320,6 +323,7 @@ public class UdcSnmpContext implements UdcSnmpConstants , UdcThreadMsgId, Runnab
 		if (dtr != null) {
 			respPdu = (UdcPdu)dtr.get_data();
 			respPdu.result = dtr.get_result();
+			dtr.release();
 		}
 		return respPdu;
 	}
@@ -344,6 +348,52 @@ public class UdcSnmpContext implements UdcSnmpConstants , UdcThreadMsgId, Runnab
 		return receive(sendIndex);
 	}
 
+	/**
+	 * 同時にタイムアウトした応答待ちをまとめて処理する。
+	 * 応答待ちリストの排他は一度のみ獲得し、タイムアウト結果は応答待ちユーザスレッドの
+	 * 待ちスレッドチャネル毎にまとめて送信する。
+	 *
+	 * @param	batch	一括タイムアウト情報
+	 * @since	UDC1.3
+	 */
+	void timeoutAll(UdcThreadMsgDtrEventTimeoutBatch batch)
+		throws InterruptedException
+	{
+		ArrayList timeouts = new ArrayList(batch.size());
+		UdcSnmpResponseWait elm;
+		waitList.lock();
+		for (int i=0; i<batch.size(); i++) {
+			if ((elm=waitList.searchTimerId(batch.get_timerIndex(i))) != null) {
+				waitList.remove(elm);
+				timeouts.add(elm);
+			}
+		}
+		waitList.unlock();
+		batch.release();
+
+		LinkedHashMap replies = new LinkedHashMap();
+		ArrayList list;
+		for (int i=0; i<timeouts.size(); i++) {
+			elm = (UdcSnmpResponseWait)timeouts.get(i);
+			if (elm.replyChannel == null) {
+				continue;
+			}
+			if ((list=(ArrayList)replies.get(elm.replyChannel)) == null) {
+				list = new ArrayList();
+				replies.put(elm.replyChannel, list);
+			}
+			elm.requestPdu.result = UdcSnmpContext.Error_Timeout;
+			UdcThreadChannelDtr sdtr = UdcThreadChannelDtr.obtain(elm.replyInvokeId,-1,elm.requestPdu);
+			sdtr.set_result(0);
+			list.add(sdtr);
+		}
+		Iterator it = replies.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry ent = (Map.Entry)it.next();
+			((UdcThreadChannel)ent.getKey()).pushAll((ArrayList)ent.getValue());
+		}
+	}
+
 	/**
 	 * SNMP応答受信処理を行うスレッド。
 	 *
@@ -362,8 +412,10 @@ public class UdcSnmpContext implements UdcSnmpConstants , UdcThreadMsgId, Runnab
 				try {
 					dtr = channel.pull();
 					int dtrtype = dtr.get_dtrType();
+					Object dtrdata = dtr.get_data();
+					dtr.release();
 					if (dtrtype == Response_Snmp) {
-						UdcPdu respPdu = (UdcPdu)dtr.get_data();
+						UdcPdu respPdu = (UdcPdu)dtrdata;
 						waitList.lock();
 						if ((elm=waitList.searchRequestId(respPdu.getRequestId())) != null) {
 							waitList.remove(elm);
@@ -371,23 +423,26 @@ public class UdcSnmpContext implements UdcSnmpConstants , UdcThreadMsgId, Runnab
 						waitList.unlock();
 						if (elm != null && elm.replyChannel != null) {
 							respPdu.result = UdcSnmpContext.Success;
-							sdtr = new UdcThreadChannelDtr(elm.replyInvokeId,-1,respPdu);
+							sdtr = UdcThreadChannelDtr.obtain(elm.replyInvokeId,-1,respPdu);
 							sdtr.set_result(0);
 							elm.replyChannel.push( sdtr );
 						}
 					} else if (dtrtype == UdcThreadMsgId.Event_Timeout) {
-						UdcThreadMsgDtrEventTimeout event = (UdcThreadMsgDtrEventTimeout)dtr.get_data();
+						UdcThreadMsgDtrEventTimeout event = (UdcThreadMsgDtrEventTimeout)dtrdata;
 						waitList.lock();
 						if ((elm=waitList.searchTimerId(event.get_timerIndex())) != null) {
 							waitList.remove(elm);
 						}
 						waitList.unlock();
+						event.release();
 						if (elm != null && elm.replyChannel != null) {
 							elm.requestPdu.result = UdcSnmpContext.Error_Timeout;
-							sdtr = new UdcThreadChannelDtr(elm.replyInvokeId,-1,elm.requestPdu);
+							sdtr = UdcThreadChannelDtr.obtain(elm.replyInvokeId,-1,elm.requestPdu);
 							sdtr.set_result(0);
 							elm.replyChannel.push( sdtr );
 						}
+					} else if (dtrtype == UdcThreadMsgId.Event_TimeoutBatch) {
+						timeoutAll((UdcThreadMsgDtrEventTimeoutBatch)dtrdata);
 					} else {
 					}
 				} catch(InterruptedException exp) {
@@ -793,22 +848,21 @@ class UdcSnmpOpeReceiver implements UdcDatagramSocketReceiverFace , UdcSnmpConst
 					} else {
 					}
 				} catch(IOException exp) {
-					UdcTrace.trace(UdcTrace.Level, "UdcSnmpOpeReceiver.run : ", "io exception : " + exp);
+					UdcTrace.tracef(UdcTrace.Level, "UdcSnmpOpeReceiver.run : ", "io exception : %s", exp);
 					continue;
 				} catch(UdcDecodingException dexp) {
-					UdcTrace.trace(UdcTrace.Level, "UdcSnmpOpeReceiver.run : ", "decode exception : " + dexp);
+					UdcTrace.tracef(UdcTrace.Level, "UdcSnmpOpeReceiver.run : ", "decode exception : %s", dexp);
 					continue;
 				}
 					// wakeup response wait
 				try {
 					if (pdu != null) {
-UdcTrace.trace(UdcTrace.Level, "UdcSnmpOpeReceiver.run : ", "<<reply-receive>>\n" + pdu.toString()); // uchiiiii
 						pdu.setSourceAddress( packet.getAddress() );
 						pdu.setSourcePort( packet.getPort() );
-						context.channel.push( new UdcThreadChannelDtr(-1,dtrType,pdu) );
+						context.channel.push( UdcThreadChannelDtr.obtain(-1,dtrType,pdu) );
 					}
 				} catch(InterruptedException exp) {
-					UdcTrace.trace(UdcTrace.Level, "UdcSnmpOpeReceiver.run : ", "cannot wake up for responce wait thread : " + exp);
+					UdcTrace.tracef(UdcTrace.Level, "UdcSnmpOpeReceiver.run : ", "cannot wake up for responce wait thread : %s", exp);
 					continue;
 				}
 			}
@@ -1118,10 +1172,10 @@ class UdcSnmpTrapReceiver implements UdcDatagramSocketReceiverFace , UdcSnmpCons
 					} else {
 					}
 				} catch(IOException exp) {
-					UdcTrace.trace(UdcTrace.Level, "UdcSnmpTrapReceiver::run : ", "io exception : " + exp);
+					UdcTrace.tracef(UdcTrace.Level, "UdcSnmpTrapReceiver::run : ", "io exception : %s", exp);
 					continue;
 				} catch(UdcDecodingException dexp) {
-					UdcTrace.trace(UdcTrace.Level, "UdcSnmpTrapReceiver::run : ", "decode exception : " + dexp);
+					UdcTrace.tracef(UdcTrace.Level, "UdcSnmpTrapReceiver::run : ", "decode exception : %s", dexp);
 					continue;
 				}
 					// push trap to trapChannel
@@ -1129,7 +1183,7 @@ class UdcSnmpTrapReceiver implements UdcDatagramSocketReceiverFace , UdcSnmpCons
 					if (trap != null) {
 						trap.setSourceAddress( packet.getAddress() );
 						trap.setSourcePort( packet.getPort() );
-						context.trapSendChannel.push( new UdcThreadChannelDtr(-1,dtrType,trap) );
+						context.trapSendChannel.push( UdcThreadChannelDtr.obtain(-1,dtrType,trap) );
 					}
 				} catch(InterruptedException exp) {
 					continue;
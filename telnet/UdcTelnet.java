@@ -163,6 +163,9 @@ public class UdcTelnet implements UdcTelnetConstants, UdcTelnetStateChangeFace
 		if (len < 0) {
 			throw new IOException("Connection closed.");
 		}
+		if (UdcTrace.isPacketTrace()) {
+			UdcTrace.trace(UdcTrace.PacketLevel, "UdcTelnet.receive", "", buf, 0, len);
+		}
 		return handleProtcol(buf,len);
 	}
 
@@ -175,6 +178,9 @@ public class UdcTelnet implements UdcTelnetConstants, UdcTelnetStateChangeFace
 	public void send(byte[] buf)
 			throws IOException
 	{
+		if (UdcTrace.isPacketTrace()) {
+			UdcTrace.trace(UdcTrace.PacketLevel, "UdcTelnet.send", "", buf);
+		}
 		os.write(buf);
 		os.flush();
 	}
@@ -164,6 +164,9 @@ public class UdcTelnetServer implements UdcTelnetConstants
 		if (len < 0) {
 			return null;	
 		}
+		if (UdcTrace.isPacketTrace()) {
+			UdcTrace.trace(UdcTrace.PacketLevel, "UdcTelnetServer.receive", "", received_buf, 0, len);
+		}
 		return handleProtcol(received_buf,len);
 	}
 
@@ -176,6 +179,9 @@ public class UdcTelnetServer implements UdcTelnetConstants
 	public void send(byte[] buf)
 			throws IOException
 	{
+		if (UdcTrace.isPacketTrace()) {
+			UdcTrace.trace(UdcTrace.PacketLevel, "UdcTelnetServer.send", "", buf);
+		}
 		os.write(buf);
 		os.flush();
 	}
@@ -25,6 +25,12 @@ public class UdcActionFace
 	 */	
 	public static long	timeout	= 180*1000;
 
+	/**
+	 * アクション処理のDB検索のフェッチサイズのデフォルト(0の場合はJDBCドライバのデフォルト)。
+	 * @since	UDC1.3
+	 */
+	public static int	fetchSize = 0;
+
 	/**
 	 * UGBViewが管理する負荷分散スレッド
 	 */
@@ -82,6 +88,16 @@ public class UdcActionFace
 		return UdcActionFace.timeout;
 	}
 
+	/**
+  	 * アクション処理のDB検索のフェッチサイズを取得する。
+  	 *	@return アクション処理のDB検索のフェッチサイズ
+	 *	@since	UDC1.3
+	 */
+	public int get_fetchSize()
+	{
+		return UdcActionFace.fetchSize;
+	}
+
 	/**
   	 * UGBViewが管理する分散スレッド情報をアクションクラスに設定するインタフェース関数。
 	 *	@param	ope [in]	UGBViewが管理する分散スレッド情報。	
@@ -104,6 +120,23 @@ public class UdcActionFace
 		return request;
 	}
 
+	/**
+  	 * 負荷分散スレッドのDB-ConnectionからSQL文のPreparedStatementを取得する。
+  	 * 同じSQL文の再実行時は、生成済みのPreparedStatementを再利用します(closeしないこと)。
+	 *	@param	sql	SQL文
+  	 *	@return PreparedStatement
+	 *	@see	UdcThreadOperation#prepareStatement(String)
+	 *	@since	UDC1.3
+	 */
+    public PreparedStatement prepareStatement(String sql)
+			throws SQLException
+	{
+		if (myThread == null || myThread.getStatementCache() == null) {
+			return dbconn.prepareStatement(sql);
+		}
+		return myThread.prepareStatement(sql);
+	}
+
 	/**
   	 * Statement.executeQueryで取得したResultSetをキャッシュリストに設定する。
 	 *	@param	rs	Statement.executeQueryで取得したResultSet
@@ -112,12 +145,109 @@ public class UdcActionFace
     public Vector ResultSet2CacheList(ResultSet rs)
 			throws SQLException
 	{
-		UdcCache ca;
-		Vector clist = new Vector();
+		final Vector clist = new Vector();
+		ResultSet2Handler(rs, new UdcRecordHandlerFace() {
+			public boolean handleRecord(UdcRecord record) {
+				clist.add(record.toCache());
+				return true;
+			}
+		});
+		return clist;
+	}
+
+	/**
+  	 * Statement.executeQueryで取得したResultSetをキャッシュリストに設定する。
+  	 * compactがtrueの場合は、全てのキャッシュが一つの列構成を共有するコンパクト形式となります。
+	 *	@param	rs		Statement.executeQueryで取得したResultSet
+	 *	@param	compact	コンパクト形式のキャッシュとするか否か
+  	 *	@return ResultSetをキャッシュリストに変換した情報
+	 *	@see	UdcCache#UdcCache(UdcRecordSchema)
+	 *	@since	UDC1.3
+	 */
+    public Vector ResultSet2CacheList(ResultSet rs, final boolean compact)
+			throws SQLException
+	{
+		final Vector clist = new Vector();
+		ResultSet2Handler(rs, new UdcRecordHandlerFace() {
+			public boolean handleRecord(UdcRecord record) {
+				clist.add(compact ? record.toCompactCache() : record.toCache());
+				return true;
+			}
+		});
+		return clist;
+	}
+
+	/**
+  	 * Statement.executeQueryで取得したResultSetをレコードリストに設定する。
+  	 * 全てのレコードは一つの列構成(UdcRecordSchema)を共有します。
+	 *	@param	rs	Statement.executeQueryで取得したResultSet
+  	 *	@return ResultSetをレコード(UdcRecord)のリストに変換した情報
+	 *	@since	UDC1.3
+	 */
+    public Vector ResultSet2RecordList(ResultSet rs)
+			throws SQLException
+	{
+		final Vector rlist = new Vector();
+		ResultSet2Handler(rs, new UdcRecordHandlerFace() {
+			public boolean handleRecord(UdcRecord record) {
+				rlist.add(record);
+				return true;
+			}
+		});
+		return rlist;
+	}
+
+	/**
+  	 * Statement.executeQueryで取得したResultSetを1行ずつレコードに変換し、handlerで処理する。
+  	 * 列構成(ResultSetMetaData)の参照は1回のみで、全てのレコードは一つの列構成を共有します。
+  	 * 行をリストに格納しないため、大量の行も一定のメモリで処理できます。
+  	 * get_fetchSize()が正の場合は、ResultSetのフェッチサイズに設定します。
+	 *	@param	rs		Statement.executeQueryで取得したResultSet
+	 *	@param	handler	レコードの処理
+  	 *	@return 処理した行数
+	 *	@since	UDC1.3
+	 */
+    public int ResultSet2Handler(ResultSet rs, UdcRecordHandlerFace handler)
+			throws SQLException
+	{
+		int fetch = get_fetchSize();
+		if (fetch > 0) {
+			rs.setFetchSize(fetch);
+		}
+		UdcRecordSchema schema = UdcRecordSchema.valueOf(rs.getMetaData());
+		int count = 0;
 		while (rs.next()) {
-			clist.add(ResultSet2Cache(rs));
+			count ++;
+			if (! handler.handleRecord(UdcRecord.valueOf(schema, rs))) {
+				break;
+			}
+		}
+		return count;
+	}
+
+	/**
+  	 * PreparedStatementで検索し、結果を1行ずつレコードに変換してhandlerで処理する。
+  	 * get_fetchSize()が正の場合は、PreparedStatementのフェッチサイズに設定します。
+  	 * 検索結果のResultSetは処理後にクローズします。
+	 *	@param	ps		検索するPreparedStatement(パラメータ設定済み)
+	 *	@param	handler	レコードの処理
+  	 *	@return 処理した行数
+	 *	@see	#ResultSet2Handler(ResultSet,UdcRecordHandlerFace)
+	 *	@since	UDC1.3
+	 */
+    public int executeQuery(PreparedStatement ps, UdcRecordHandlerFace handler)
+			throws SQLException
+	{
+		int fetch = get_fetchSize();
+		if (fetch > 0) {
+			ps.setFetchSize(fetch);
+		}
+		ResultSet rs = ps.executeQuery();
+		try {
+			return ResultSet2Handler(rs, handler);
+		} finally {
+			rs.close();
 		}
-		return clist;
 	}
 
 	/**
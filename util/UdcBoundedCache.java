@@ -0,0 +1,986 @@
+/* *********************************************************************
+ * @(#)UdcBoundedCache.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * 容量制限付きキャッシュクラス。
+ * アクション処理のDB検索結果(UdcCache、UdcCacheのリスト)等を、検索パラメータから生成したキー
+ * (keyOf)で保持し、同じ検索の再実行時にDBへのアクセスを省略します。<br>
+ * 保持数の上限を超えると、最近参照されていない値から削除します(セカンドチャンス方式のLRU近似)。
+ * 値には有効期間(TTL)があり、期間を過ぎた値は保持していないものとして扱います。
+ * 先行更新時間(setRefreshAhead)を指定すると、有効期間の終了前に参照された値は、現在の値を返却しつつ
+ * 別スレッドで再取得します。<br>
+ * 値の取得中に削除(invalidate)された場合、取得した値は呼び出し元に返却しますが、キャッシュには
+ * 保持しません(削除前の古い値を保持しないため)。<br>
+ * 保持していない値の取得(UdcCacheLoaderFace.load)は、同じキーに対して同時に1回のみ実行し、
+ * 同時に同じキーを取得したスレッドは、その結果を待ち合わせて共有します。
+ *
+ * 参照は排他なしに行い、削除処理のみ一つのスレッドで行います。
+ *
+ * (注意)
+ *	保持している値は複数スレッドで共有されるため、取得した値を変更しないでください。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcCacheLoaderFace
+ * @see		UdcActionFace
+ * @since	UDC1.3
+ */
+public class UdcBoundedCache
+{
+	/**
+	 * 保持している値(キー:キー 値:UdcBoundedCacheEntry)
+	 * @since	UDC1.3
+	 */
+	protected ConcurrentHashMap		map = new ConcurrentHashMap();
+
+	/**
+	 * 取得中の値(キー:キー 値:UdcBoundedCacheLoad)
+	 * @since	UDC1.3
+	 */
+	protected ConcurrentHashMap		loading = new ConcurrentHashMap();
+
+	/**
+	 * 削除候補の走査順(UdcBoundedCacheEntry)
+	 * @since	UDC1.3
+	 */
+	protected ConcurrentLinkedQueue	clock = new ConcurrentLinkedQueue();
+
+	/**
+	 * 走査順に並んでいる数(削除済みの値を含む)
+	 * @since	UDC1.3
+	 */
+	protected AtomicInteger			clockSize = new AtomicInteger(0);
+
+	/**
+	 * 削除処理の排他
+	 * @since	UDC1.3
+	 */
+	protected ReentrantLock			evictLock = new ReentrantLock();
+
+	/**
+	 * 保持数の上限
+	 * @since	UDC1.3
+	 */
+	protected volatile int			maxSize;
+
+	/**
+	 * 有効期間のデフォルト(ナノ秒、0以下は無期限)
+	 * @since	UDC1.3
+	 */
+	protected volatile long			ttl;
+
+	/**
+	 * 先行更新時間(ナノ秒、0以下は先行更新しない)
+	 * @since	UDC1.3
+	 */
+	protected volatile long			refreshAhead = 0;
+
+	/**
+	 * 先行更新を実行するスレッド(setRefreshAheadで設定)
+	 * @since	UDC1.3
+	 */
+	protected volatile Executor		refreshExecutor = null;
+
+	/**
+	 * 先行更新を実行するスレッドを指定しない場合に使用する作業スレッド数
+	 * @since	UDC1.3
+	 */
+	final public static int			RefreshThreads = 2;
+
+	/**
+	 * デフォルトの値の取得
+	 * @since	UDC1.3
+	 */
+	protected volatile UdcCacheLoaderFace	loader;
+
+	/**
+	 * 統計情報：保持している値を返却した回数
+	 * @since	UDC1.3
+	 */
+	protected LongAdder	hitCount = new LongAdder();
+
+	/**
+	 * 統計情報：保持していなかった回数
+	 * @since	UDC1.3
+	 */
+	protected LongAdder	missCount = new LongAdder();
+
+	/**
+	 * 統計情報：値を取得(load)した回数
+	 * @since	UDC1.3
+	 */
+	protected LongAdder	loadCount = new LongAdder();
+
+	/**
+	 * 統計情報：値の取得に失敗した回数
+	 * @since	UDC1.3
+	 */
+	protected LongAdder	loadErrorCount = new LongAdder();
+
+	/**
+	 * 統計情報：値の取得を他スレッドと共有した回数
+	 * @since	UDC1.3
+	 */
+	protected LongAdder	loadShareCount = new LongAdder();
+
+	/**
+	 * 統計情報：先行更新した回数
+	 * @since	UDC1.3
+	 */
+	protected LongAdder	refreshCount = new LongAdder();
+
+	/**
+	 * 統計情報：保持数の上限により削除した回数
+	 * @since	UDC1.3
+	 */
+	protected LongAdder	evictCount = new LongAdder();
+
+	/**
+	 * 統計情報：有効期間切れで削除した回数
+	 * @since	UDC1.3
+	 */
+	protected LongAdder	expireCount = new LongAdder();
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	size	保持数の上限
+	 * @param	ttlMs	有効期間のデフォルト(ミリ秒、0以下は無期限)
+	 * @since	UDC1.3
+	 */
+	public UdcBoundedCache(int size, long ttlMs)
+	{
+		this(size, ttlMs, null);
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	size	保持数の上限
+	 * @param	ttlMs	有効期間のデフォルト(ミリ秒、0以下は無期限)
+	 * @param	ld		デフォルトの値の取得(get(Object)で使用)
+	 * @since	UDC1.3
+	 */
+	public UdcBoundedCache(int size, long ttlMs, UdcCacheLoaderFace ld)
+	{
+		maxSize = size;
+		ttl = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+		loader = ld;
+	}
+
+	/**
+	 * 検索パラメータからキーを生成する。キーは名前と各属性の値のリストで、
+	 * 名前・属性の値が全て等しい(equals)場合に同じキーとなります。
+	 *
+	 * @return	キー
+	 * @param	name		検索の名前(SQL文、アクション名等)
+	 * @param	args		検索パラメータ
+	 * @param	attrNames	キーとする検索パラメータの属性名
+	 * @since	UDC1.3
+	 */
+	public static Object keyOf(String name, UdcCache args, String[] attrNames)
+	{
+		Object[] key = new Object[attrNames.length + 1];
+		key[0] = name;
+		for (int i=0; i<attrNames.length; i++) {
+			key[i + 1] = (args != null) ? args.getAttr(attrNames[i]) : null;
+		}
+		return Arrays.asList(key);
+	}
+
+	/**
+	 * 値を取得する。保持していない場合は、コンストラクタで指定した値の取得で取得します。
+	 *
+	 * @return	値(取得できない場合はnull)
+	 * @param	key		キー
+	 * @exception	Exception	値の取得エラー
+	 * @since	UDC1.3
+	 */
+	public Object get(Object key) throws Exception
+	{
+		return get(key, loader);
+	}
+
+	/**
+	 * 値を取得する。保持していない場合は、ldで取得してキャッシュに保持します。
+	 * 同じキーを他スレッドで取得中の場合は、その結果を待ち合わせます。
+	 *
+	 * @return	値(取得できない場合はnull)
+	 * @param	key		キー
+	 * @param	ld		値の取得(nullの場合は保持している値のみ返却)
+	 * @exception	Exception	値の取得エラー
+	 * @since	UDC1.3
+	 */
+	public Object get(Object key, UdcCacheLoaderFace ld) throws Exception
+	{
+		UdcBoundedCacheEntry ent = (UdcBoundedCacheEntry)map.get(key);
+		if (ent != null) {
+			long now = System.nanoTime();
+			if (! ent.isExpired(now)) {
+				hitCount.increment();
+				if (! ent.referenced) { ent.referenced = true; }
+				if (ld != null && ent.isRefreshTime(now) && ent.startRefresh()) {
+					refresh(key, ent, ld);
+				}
+				return ent.value;
+			}
+			if (removeEntry(key, ent)) { expireCount.increment(); }
+		}
+		missCount.increment();
+		if (ld == null) {
+			return null;
+		}
+		return load(key, ld);
+	}
+
+	/**
+	 * 保持している値を取得する。値の取得は行いません。
+	 *
+	 * @return	値(保持していない場合はnull)
+	 * @param	key		キー
+	 * @since	UDC1.3
+	 */
+	public Object getIfPresent(Object key)
+	{
+		try {
+			return get(key, null);
+		} catch (Exception exp) {
+			return null;
+		}
+	}
+
+	/**
+	 * 値を取得し、デフォルトの有効期間でキャッシュに保持する。同じキーの取得は同時に1回のみ実行します。
+	 *
+	 * @return	値
+	 * @param	key		キー
+	 * @param	ld		値の取得
+	 * @exception	Exception	値の取得エラー
+	 * @since	UDC1.3
+	 */
+	protected Object load(Object key, UdcCacheLoaderFace ld) throws Exception
+	{
+		return load(key, ld, ttl);
+	}
+
+	/**
+	 * 値を取得し、有効期間を指定してキャッシュに保持する。同じキーの取得は同時に1回のみ実行します。
+	 * 削除(invalidate)された取得中の値は待ち合わせず、新たに取得します。
+	 *
+	 * @return	値
+	 * @param	key			キー
+	 * @param	ld			値の取得
+	 * @param	ttlNanos	有効期間(ナノ秒、0以下は無期限)
+	 * @exception	Exception	値の取得エラー
+	 * @since	UDC1.3
+	 */
+	protected Object load(Object key, UdcCacheLoaderFace ld, long ttlNanos) throws Exception
+	{
+		UdcBoundedCacheLoad task = new UdcBoundedCacheLoad(this, key, ld, ttlNanos);
+		UdcBoundedCacheLoad running;
+		while ((running = (UdcBoundedCacheLoad)loading.putIfAbsent(key, task)) != null) {
+			if (! running.invalidated) {
+				loadShareCount.increment();
+				return waitLoad(running.task);
+			}
+			loading.remove(key, running);
+		}
+		try {
+			task.task.run();
+		} finally {
+			loading.remove(key, task);
+		}
+		return waitLoad(task.task);
+	}
+
+	/**
+	 * 取得した値をキャッシュに保持する。
+	 * 取得中に削除(invalidate)された場合は保持しません。保持した直後に削除された場合は、
+	 * 保持した値を削除します。
+	 *
+	 * @param	task	値の取得
+	 * @param	val		取得した値
+	 * @since	UDC1.3
+	 */
+	void publish(UdcBoundedCacheLoad task, Object val)
+	{
+		if (task.invalidated) {
+			return;
+		}
+		UdcBoundedCacheEntry ent = putNanos(task.key, val, task.ttlNanos);
+		if (task.invalidated) {
+			removeEntry(task.key, ent);
+		}
+	}
+
+	/**
+	 * 値の取得の完了を待ち合わせる。
+	 *
+	 * @return	値
+	 * @param	task	値の取得
+	 * @exception	Exception	値の取得エラー
+	 * @since	UDC1.3
+	 */
+	protected Object waitLoad(FutureTask task) throws Exception
+	{
+		try {
+			return task.get();
+		} catch (ExecutionException exp) {
+			Throwable cause = exp.getCause();
+			if (cause instanceof Exception) { throw (Exception)cause; }
+			if (cause instanceof Error) { throw (Error)cause; }
+			throw exp;
+		}
+	}
+
+	/**
+	 * 値を先行更新する。更新した値は現在の値と同じ有効期間で保持します。
+	 * 更新に失敗した場合は、有効期間まで現在の値を保持します。
+	 *
+	 * @param	key		キー
+	 * @param	ent		先行更新する値
+	 * @param	ld		値の取得
+	 * @since	UDC1.3
+	 */
+	protected void refresh(final Object key, final UdcBoundedCacheEntry ent, final UdcCacheLoaderFace ld)
+	{
+		Executor ex = refreshExecutor;
+		if (ex == null) {
+			ent.refreshing = false;
+			return;
+		}
+		try {
+			ex.execute(new Runnable() {
+				public void run() {
+					try {
+						refreshCount.increment();
+						load(key, ld, ent.ttlNanos);
+					} catch (Exception exp) {
+						UdcTrace.tracef(UdcTrace.Level, "UdcBoundedCache.refresh", " - refresh error [%s] : %s", key, exp);
+					} finally {
+						ent.refreshing = false;
+					}
+				}
+			});
+		} catch (RejectedExecutionException exp) {
+			ent.refreshing = false;
+		}
+	}
+
+	/**
+	 * 値をデフォルトの有効期間で保持する。
+	 *
+	 * @param	key		キー
+	 * @param	val		値
+	 * @since	UDC1.3
+	 */
+	public void put(Object key, Object val)
+	{
+		putNanos(key, val, ttl);
+	}
+
+	/**
+	 * 値を有効期間を指定して保持する。
+	 *
+	 * @param	key		キー
+	 * @param	val		値
+	 * @param	ttlMs	有効期間(ミリ秒、0以下は無期限)
+	 * @since	UDC1.3
+	 */
+	public void put(Object key, Object val, long ttlMs)
+	{
+		putNanos(key, val, TimeUnit.MILLISECONDS.toNanos(ttlMs));
+	}
+
+	/**
+	 * 値を有効期間を指定して保持する。
+	 *
+	 * @param	key		キー
+	 * @param	val		値
+	 * @param	ttlNanos	有効期間(ナノ秒、0以下は無期限)
+	 * @return	値を保持したUdcBoundedCacheEntry
+	 * @since	UDC1.3
+	 */
+	protected UdcBoundedCacheEntry putNanos(Object key, Object val, long ttlNanos)
+	{
+		if (val == null) {
+			throw new NullPointerException();
+		}
+		long now = System.nanoTime();
+		UdcBoundedCacheEntry ent;
+		while (true) {
+			ent = (UdcBoundedCacheEntry)map.get(key);
+			if (ent == null) {
+				ent = new UdcBoundedCacheEntry(key);
+				ent.set(val, now, ttlNanos, refreshAhead);
+				if (map.putIfAbsent(key, ent) == null) {
+					clockSize.incrementAndGet();
+					clock.offer(ent);
+					break;
+				}
+				continue;
+			}
+			synchronized (ent) {
+				if (! ent.removed) {
+					ent.set(val, now, ttlNanos, refreshAhead);
+					break;
+				}
+			}
+			map.remove(key, ent);
+		}
+		if (map.size() > maxSize || clockSize.get() > 2 * Math.max(maxSize, 16)) {
+			evict();
+		}
+		return ent;
+	}
+
+	/**
+	 * 値を削除する。
+	 *
+	 * @param	key		キー
+	 * @since	UDC1.3
+	 */
+	public void invalidate(Object key)
+	{
+			/* 取得中の値は保持させず、以降の取得にも待ち合わせさせない */
+		UdcBoundedCacheLoad task = (UdcBoundedCacheLoad)loading.get(key);
+		if (task != null) {
+			task.invalidated = true;
+			loading.remove(key, task);
+		}
+		UdcBoundedCacheEntry ent = (UdcBoundedCacheEntry)map.get(key);
+		if (ent != null) {
+			removeEntry(key, ent);
+		}
+	}
+
+	/**
+	 * 全ての値を削除する。
+	 *
+	 * @since	UDC1.3
+	 */
+	public void invalidateAll()
+	{
+		Iterator it = loading.values().iterator();
+		while (it.hasNext()) {
+			((UdcBoundedCacheLoad)it.next()).invalidated = true;
+			it.remove();
+		}
+		it = map.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry me = (Map.Entry)it.next();
+			removeEntry(me.getKey(), (UdcBoundedCacheEntry)me.getValue());
+		}
+		evict();
+	}
+
+	/**
+	 * 保持している値を削除する。
+	 *
+	 * @return	削除したか否か(既に削除・置換されていた場合はfalse)
+	 * @param	key		キー
+	 * @param	ent		値
+	 * @since	UDC1.3
+	 */
+	protected boolean removeEntry(Object key, UdcBoundedCacheEntry ent)
+	{
+		synchronized (ent) {
+			if (ent.removed) { return false; }
+			ent.removed = true;
+		}
+		map.remove(key, ent);
+		return true;
+	}
+
+	/**
+	 * 保持数の上限を超えた値と有効期間切れの値を削除する。
+	 * 走査順に、参照された値は参照有無を消して走査順の末尾に戻し、参照されていない値を削除します。
+	 * 他スレッドで削除処理中の場合は何もしません。
+	 *
+	 * @since	UDC1.3
+	 */
+	protected void evict()
+	{
+		if (! evictLock.tryLock()) {
+			return;
+		}
+		try {
+			long now = System.nanoTime();
+			int limit = 2 * clockSize.get() + 1;
+			for (int scan=0; scan<limit; scan++) {
+				boolean over = (map.size() > maxSize);
+				if (! over && clockSize.get() <= 2 * Math.max(map.size(), 16)) {
+					break;
+				}
+				UdcBoundedCacheEntry ent = (UdcBoundedCacheEntry)clock.poll();
+				if (ent == null) {
+					break;
+				}
+				clockSize.decrementAndGet();
+				if (ent.removed) {
+					continue;
+				}
+				if (ent.isExpired(now)) {
+					if (removeEntry(ent.key, ent)) { expireCount.increment(); }
+					continue;
+				}
+				if (over && ! ent.referenced) {
+					if (removeEntry(ent.key, ent)) { evictCount.increment(); }
+					continue;
+				}
+					/* 参照された値は次の走査まで残す(上限以下の場合は削除済みの値の整理のみ) */
+				if (over) { ent.referenced = false; }
+				clockSize.incrementAndGet();
+				clock.offer(ent);
+			}
+		} finally {
+			evictLock.unlock();
+		}
+	}
+
+	/**
+	 * 有効期間切れの値を削除する。有効期間切れの値は参照時にも削除されますが、
+	 * 参照されない値を早期に解放する場合に定期的に呼び出してください。
+	 *
+	 * @return	削除した数
+	 * @since	UDC1.3
+	 */
+	public int cleanUp()
+	{
+		int num = 0;
+		long now = System.nanoTime();
+		Iterator it = map.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry me = (Map.Entry)it.next();
+			UdcBoundedCacheEntry ent = (UdcBoundedCacheEntry)me.getValue();
+			if (ent.isExpired(now) && removeEntry(me.getKey(), ent)) {
+				expireCount.increment();
+				num ++;
+			}
+		}
+		evict();
+		return num;
+	}
+
+	/**
+	 * 保持している値の数を取得する。有効期間切れで未削除の値を含みます。
+	 *
+	 * @return	値の数
+	 * @since	UDC1.3
+	 */
+	public int size() { return map.size(); }
+
+	/**
+	 * 保持数の上限を取得する。
+	 *
+	 * @return	保持数の上限
+	 * @since	UDC1.3
+	 */
+	public int getMaxSize() { return maxSize; }
+
+	/**
+	 * 保持数の上限を設定する。上限を超えている値は、最近参照されていない値から削除します。
+	 *
+	 * @param	size	保持数の上限
+	 * @since	UDC1.3
+	 */
+	public void setMaxSize(int size)
+	{
+		maxSize = size;
+		evict();
+	}
+
+	/**
+	 * 有効期間のデフォルトを取得する。
+	 *
+	 * @return	有効期間(ミリ秒、0以下は無期限)
+	 * @since	UDC1.3
+	 */
+	public long getTtl() { return TimeUnit.NANOSECONDS.toMillis(ttl); }
+
+	/**
+	 * 有効期間のデフォルトを設定する。設定済みの値の有効期間は変わりません。
+	 *
+	 * @param	ttlMs	有効期間(ミリ秒、0以下は無期限)
+	 * @since	UDC1.3
+	 */
+	public void setTtl(long ttlMs) { ttl = TimeUnit.MILLISECONDS.toNanos(ttlMs); }
+
+	/**
+	 * 先行更新時間を設定する。有効期間の終了までの時間が先行更新時間以下の値を参照すると、
+	 * 現在の値を返却し、別スレッドで値を再取得します。以降に保持する値から有効です。
+	 *
+	 * @param	aheadMs		先行更新時間(ミリ秒、0以下は先行更新しない)
+	 * @param	ex			先行更新を実行するスレッド(nullの場合は本インスタンス専用の作業スレッド
+	 *						(最大RefreshThreads)を生成)
+	 * @since	UDC1.3
+	 */
+	public synchronized void setRefreshAhead(long aheadMs, Executor ex)
+	{
+		if (ex == null) {
+			ex = (refreshExecutor instanceof UdcWorkerExecutor) ? refreshExecutor
+					: new UdcWorkerExecutor("UdcBoundedCacheRefresh", RefreshThreads);
+		}
+		refreshAhead = TimeUnit.MILLISECONDS.toNanos(aheadMs);
+		refreshExecutor = ex;
+	}
+
+	/**
+	 * デフォルトの値の取得を設定する。
+	 *
+	 * @param	ld		値の取得
+	 * @since	UDC1.3
+	 */
+	public void setLoader(UdcCacheLoaderFace ld) { loader = ld; }
+
+	/**
+	 * 保持している値を返却した回数を取得する。
+	 *
+	 * @return	回数
+	 * @since	UDC1.3
+	 */
+	public long getHitCount() { return hitCount.sum(); }
+
+	/**
+	 * 保持していなかった回数を取得する。
+	 *
+	 * @return	回数
+	 * @since	UDC1.3
+	 */
+	public long getMissCount() { return missCount.sum(); }
+
+	/**
+	 * 値を取得(load)した回数を取得する。
+	 *
+	 * @return	回数
+	 * @since	UDC1.3
+	 */
+	public long getLoadCount() { return loadCount.sum(); }
+
+	/**
+	 * 値の取得に失敗した回数を取得する。
+	 *
+	 * @return	回数
+	 * @since	UDC1.3
+	 */
+	public long getLoadErrorCount() { return loadErrorCount.sum(); }
+
+	/**
+	 * 値の取得を他スレッドと共有した(取得を待ち合わせた)回数を取得する。
+	 *
+	 * @return	回数
+	 * @since	UDC1.3
+	 */
+	public long getLoadShareCount() { return loadShareCount.sum(); }
+
+	/**
+	 * 先行更新した回数を取得する。
+	 *
+	 * @return	回数
+	 * @since	UDC1.3
+	 */
+	public long getRefreshCount() { return refreshCount.sum(); }
+
+	/**
+	 * 保持数の上限により削除した回数を取得する。
+	 *
+	 * @return	回数
+	 * @since	UDC1.3
+	 */
+	public long getEvictCount() { return evictCount.sum(); }
+
+	/**
+	 * 有効期間切れで削除した回数を取得する。
+	 *
+	 * @return	回数
+	 * @since	UDC1.3
+	 */
+	public long getExpireCount() { return expireCount.sum(); }
+
+	/**
+	 * ヒット率を取得する。
+	 *
+	 * @return	ヒット率(0.0〜1.0)
+	 * @since	UDC1.3
+	 */
+	public double getHitRatio()
+	{
+		long hit = hitCount.sum();
+		long total = hit + missCount.sum();
+		return (total > 0) ? (double)hit / total : 0.0;
+	}
+
+	/**
+	 * 統計情報をリセットする。
+	 *
+	 * @since	UDC1.3
+	 */
+	public void resetCount()
+	{
+		hitCount.reset();
+		missCount.reset();
+		loadCount.reset();
+		loadErrorCount.reset();
+		loadShareCount.reset();
+		refreshCount.reset();
+		evictCount.reset();
+		expireCount.reset();
+	}
+
+	/**
+	 * 本インスタンスの文字列情報を取得する。
+	 *
+	 * @return	本インスタンス情報
+	 * @since	UDC1.3
+	 */
+	public String toString()
+	{
+		return "UdcBoundedCache size=" + map.size() + "/" + maxSize
+				+ " hit=" + hitCount.sum() + " miss=" + missCount.sum()
+				+ " load=" + loadCount.sum() + " loadError=" + loadErrorCount.sum() + " loadShare=" + loadShareCount.sum()
+				+ " refresh=" + refreshCount.sum() + " evict=" + evictCount.sum() + " expire=" + expireCount.sum();
+	}
+}
+
+/**
+ * 容量制限付きキャッシュの値クラス。
+ * 値・有効期間の更新は本インスタンスで排他し、参照は排他なしに行います。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcBoundedCache
+ * @since	UDC1.3
+ */
+class UdcBoundedCacheEntry
+{
+	/**
+	 * キー
+	 * @since	UDC1.3
+	 */
+	final Object		key;
+
+	/**
+	 * 値
+	 * @since	UDC1.3
+	 */
+	volatile Object		value;
+
+	/**
+	 * 有効期間の終了時刻(System.nanoTime)
+	 * @since	UDC1.3
+	 */
+	volatile long		expireTime;
+
+	/**
+	 * 先行更新の開始時刻(System.nanoTime)
+	 * @since	UDC1.3
+	 */
+	volatile long		refreshTime;
+
+	/**
+	 * 有効期間(ナノ秒、0以下は無期限)
+	 * @since	UDC1.3
+	 */
+	volatile long		ttlNanos;
+
+	/**
+	 * 有効期間の有無と先行更新の有無(0x01:有効期間あり 0x02:先行更新あり)
+	 * @since	UDC1.3
+	 */
+	volatile int		flags;
+
+	/**
+	 * 前回の走査以降に参照されたか否か
+	 * @since	UDC1.3
+	 */
+	volatile boolean	referenced = false;
+
+	/**
+	 * 先行更新中か否か
+	 * @since	UDC1.3
+	 */
+	volatile boolean	refreshing = false;
+
+	/**
+	 * キャッシュから削除されたか否か
+	 * @since	UDC1.3
+	 */
+	volatile boolean	removed = false;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	k		キー
+	 * @since	UDC1.3
+	 */
+	UdcBoundedCacheEntry(Object k)
+	{
+		key = k;
+	}
+
+	/**
+	 * 値と有効期間を設定する。
+	 *
+	 * @param	val			値
+	 * @param	now			現在時刻(System.nanoTime)
+	 * @param	ttlNanos	有効期間(ナノ秒、0以下は無期限)
+	 * @param	aheadNanos	先行更新時間(ナノ秒、0以下は先行更新しない)
+	 * @since	UDC1.3
+	 */
+	void set(Object val, long now, long ttlNanos, long aheadNanos)
+	{
+		int f = 0;
+		if (ttlNanos > 0) {
+			f |= 0x01;
+			expireTime = now + ttlNanos;
+			if (aheadNanos > 0) {
+				f |= 0x02;
+				refreshTime = expireTime - Math.min(aheadNanos, ttlNanos);
+			}
+		}
+		value = val;
+		this.ttlNanos = ttlNanos;
+		flags = f;
+	}
+
+	/**
+	 * 有効期間切れか否かを取得する。
+	 *
+	 * @return	有効期間切れか否か
+	 * @param	now		現在時刻(System.nanoTime)
+	 * @since	UDC1.3
+	 */
+	boolean isExpired(long now)
+	{
+		return (flags & 0x01) != 0 && now - expireTime >= 0;
+	}
+
+	/**
+	 * 先行更新の時刻か否かを取得する。
+	 *
+	 * @return	先行更新の時刻か否か
+	 * @param	now		現在時刻(System.nanoTime)
+	 * @since	UDC1.3
+	 */
+	boolean isRefreshTime(long now)
+	{
+		return (flags & 0x02) != 0 && ! refreshing && now - refreshTime >= 0;
+	}
+
+	/**
+	 * 先行更新を開始する。
+	 *
+	 * @return	開始したか否か(他スレッドで先行更新中の場合はfalse)
+	 * @since	UDC1.3
+	 */
+	synchronized boolean startRefresh()
+	{
+		if (refreshing || removed) {
+			return false;
+		}
+		refreshing = true;
+		return true;
+	}
+}
+
+/**
+ * 容量制限付きキャッシュの値の取得クラス。
+ * 同じキーの取得を1回のみ実行するため、取得中はUdcBoundedCache.loadingに登録されます。
+ * 取得中に値が削除(invalidate)された場合は削除済みとしてloadingから除き、取得した値を
+ * キャッシュに保持しません。以降の同じキーの取得は、本取得を待ち合わせずに新たに取得します。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcBoundedCache
+ * @since	UDC1.3
+ */
+class UdcBoundedCacheLoad implements Callable
+{
+	/**
+	 * 取得した値を保持するキャッシュ
+	 * @since	UDC1.3
+	 */
+	final UdcBoundedCache		cache;
+
+	/**
+	 * キー
+	 * @since	UDC1.3
+	 */
+	final Object				key;
+
+	/**
+	 * 値の取得
+	 * @since	UDC1.3
+	 */
+	final UdcCacheLoaderFace	loader;
+
+	/**
+	 * 取得の完了を待ち合わせるFutureTask
+	 * @since	UDC1.3
+	 */
+	final FutureTask			task;
+
+	/**
+	 * 取得中に削除されたか否か
+	 * @since	UDC1.3
+	 */
+	volatile boolean			invalidated = false;
+
+	/**
+	 * 取得した値の有効期間(ナノ秒、0以下は無期限)
+	 * @since	UDC1.3
+	 */
+	final long					ttlNanos;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	c		取得した値を保持するキャッシュ
+	 * @param	k		キー
+	 * @param	ld		値の取得
+	 * @param	ttl		取得した値の有効期間(ナノ秒、0以下は無期限)
+	 * @since	UDC1.3
+	 */
+	UdcBoundedCacheLoad(UdcBoundedCache c, Object k, UdcCacheLoaderFace ld, long ttl)
+	{
+		cache = c;
+		key = k;
+		loader = ld;
+		ttlNanos = ttl;
+		task = new FutureTask(this);
+	}
+
+	/**
+	 * 値を取得し、キャッシュに保持する。
+	 *
+	 * @return	値
+	 * @exception	Exception	値の取得エラー
+	 * @since	UDC1.3
+	 */
+	public Object call() throws Exception
+	{
+		Object val;
+		try {
+			val = loader.load(key);
+		} catch (Exception exp) {
+			cache.loadErrorCount.increment();
+			throw exp;
+		}
+		cache.loadCount.increment();
+		if (val != null) {
+			cache.publish(this, val);
+		}
+		return val;
+	}
+}
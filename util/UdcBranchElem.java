@@ -11,6 +11,10 @@ import java.util.*;
 /**
  * 分岐木リスト要素クラス
  *
+ * 分岐木リンク群は配列(ArrayList)で保持し、各要素は親要素の分岐木リンク群での自身の格納位置を
+ * 保持します。これにより、兄弟要素への移動(getNextLeaf等)を親要素の検索なしに行います。
+ * 属性情報は、属性数が一定数(AttrMapThreshold)を超えた場合に属性名の索引を作成します。
+ *
  * @author  Takayuki Uchida
  * @version 1.0, 18 Jan 2003
  * @since   UDC1.0
@@ -29,7 +33,21 @@ public class UdcBranchElem implements Comparable
 	 *
 	 * @since	UDC1.0
 	 */
-	protected LinkedList	branch;
+	protected ArrayList	branch;
+
+	/**
+	 * 親リンクの分岐木リンク群での自身の格納位置(親リンクがない場合は-1)。
+	 *
+	 * @since	UDC1.3
+	 */
+	protected int	branchIndex = -1;
+
+	/**
+	 * 属性名の索引を作成する属性数。
+	 *
+	 * @since	UDC1.3
+	 */
+	public static final int AttrMapThreshold = 8;
 
 	/**
 	 * 要素名。
@@ -49,6 +67,18 @@ public class UdcBranchElem implements Comparable
 	 */
 	LinkedList	attrList;
 
+	/**
+	 * 属性名の索引(キー:属性名 値:属性情報)。属性数がAttrMapThresholdを超えた場合に作成します。
+	 * @since	UDC1.3
+	 */
+	HashMap		attrMap = null;
+
+	/**
+	 * 属性名の索引を作成した時点の属性数。属性情報リストの直接の変更を検出するために使用します。
+	 * @since	UDC1.3
+	 */
+	int			attrMapSize = 0;
+
 	/**
 	 * コンストラクタ
 	 *
@@ -57,7 +87,7 @@ public class UdcBranchElem implements Comparable
 	public UdcBranchElem()
 	{
 		trunk= null;
-		branch = new LinkedList();
+		branch = new ArrayList();
 		attrList = new LinkedList();
 	}
 
@@ -117,9 +147,16 @@ public class UdcBranchElem implements Comparable
 	public UdcBranchElem getAttr(String name)
 	{
 		if (attrList == null) { return null; }
+		if (attrList.size() > AttrMapThreshold) {
+			if (attrMap == null || attrMapSize != attrList.size()) {
+				buildAttrMap();
+			}
+			return (UdcBranchElem)attrMap.get(name);
+		}
 		UdcBranchElem elm;
-		for (int i=0; i<attrList.size(); i++) {
-			elm = (UdcBranchElem)attrList.get(i);
+		Iterator it = attrList.iterator();
+		while (it.hasNext()) {
+			elm = (UdcBranchElem)it.next();
 			if (name.equals(elm.getTagName())) {
 				return elm;
 			}
@@ -127,6 +164,25 @@ public class UdcBranchElem implements Comparable
 		return null;
 	}
 
+	/**
+	 * 属性名の索引を作成する。同一名の属性情報がある場合は、先頭の属性情報を索引します。
+	 *
+	 * @since	UDC1.3
+	 */
+	protected void buildAttrMap()
+	{
+		attrMap = new HashMap(attrList.size() * 2);
+		UdcBranchElem elm;
+		Iterator it = attrList.iterator();
+		while (it.hasNext()) {
+			elm = (UdcBranchElem)it.next();
+			if (elm.getTagName() != null && ! attrMap.containsKey(elm.getTagName())) {
+				attrMap.put(elm.getTagName(), elm);
+			}
+		}
+		attrMapSize = attrList.size();
+	}
+
 	/**
 	 * 指定された名前の属性情報を追加する。
 	 *
@@ -139,6 +195,10 @@ public class UdcBranchElem implements Comparable
 		if (getAttr(attr.getTagName()) != null) { return null; }
 		if (attrList == null) { attrList = new LinkedList(); }
 		attrList.add(attr);
+		if (attrMap != null) {
+			attrMap.put(attr.getTagName(), attr);
+			attrMapSize = attrList.size();
+		}
 		return attr;
 	}
 
@@ -154,11 +214,17 @@ public class UdcBranchElem implements Comparable
 		UdcBranchElem attr;
 		if ((attr=getAttr(name)) == null) { return null; }
 		attrList.remove(attr);
+		if (attrMap != null) {
+			attrMap.remove(name);
+			attrMapSize = attrList.size();
+		}
 		return attr;
 	}
 
 	/**
 	 * 属性情報リストを取得する。
+	 * 属性情報の追加・削除はaddAttr/removeAttrで行ってください(リストを直接変更した場合、
+	 * 属性数が変わらない変更はgetAttrに反映されません)。
 	 *
 	 * @return 属性情報リスト
 	 * @since	UDC1.2
@@ -171,7 +237,12 @@ public class UdcBranchElem implements Comparable
 	 * @param	attrlist 属性情報リスト
 	 * @since	UDC1.2
 	 */
-	public void setAttrList(LinkedList attrlist) { attrList = attrlist; }
+	public void setAttrList(LinkedList attrlist)
+	{
+		attrList = attrlist;
+		attrMap = null;
+		attrMapSize = 0;
+	}
 
 	/**
 	 * 分岐木リストの親リンクを取得します。
@@ -219,7 +290,7 @@ public class UdcBranchElem implements Comparable
 		if (br == this) {
 			return true;
 		}
-		return branch.contains(br);
+		return indexOfBranch(br) >= 0;
 	}
 
 	/**
@@ -260,9 +331,26 @@ public class UdcBranchElem implements Comparable
 		if (branch.size() <= 0) {
 			return -1;
 		}
+		int idx = br.branchIndex;
+		if (br.trunk == this && idx >= 0 && idx < branch.size() && branch.get(idx) == br) {
+			return idx;
+		}
 		return branch.indexOf(br);
 	}
 
+	/**
+	 * 分岐木リンク群の指定位置以降の要素の格納位置を更新する。
+	 *
+	 * @param	from	更新を開始する格納位置
+	 * @since	UDC1.3
+	 */
+	protected void reindexBranch(int from)
+	{
+		for (int i=from; i<branch.size(); i++) {
+			((UdcBranchElem)branch.get(i)).branchIndex = i;
+		}
+	}
+
 	/**
 	 * 自身１階層配下の分岐木リスト要素を先頭からの位置指定で取得する。
 	 *
@@ -289,7 +377,7 @@ public class UdcBranchElem implements Comparable
 		if (branch.size() <= 0) {
 			return null;
 		}
-		return (UdcBranchElem)branch.getFirst();
+		return (UdcBranchElem)branch.get(0);
 	}
 
 	/**
@@ -303,7 +391,7 @@ public class UdcBranchElem implements Comparable
 		if (branch.size() <= 0) {
 			return null;
 		}
-		return (UdcBranchElem)branch.getLast();
+		return (UdcBranchElem)branch.get(branch.size() - 1);
 	}
 
 	/**
@@ -316,6 +404,7 @@ public class UdcBranchElem implements Comparable
 	public boolean addBranch(UdcBranchElem br)
 	{
 		br.trunk = this;
+		br.branchIndex = branch.size();
 		return branch.add(br);
 	}
 
@@ -330,6 +419,7 @@ public class UdcBranchElem implements Comparable
 	{
 		br.trunk = this;
 		branch.add(index,br);
+		reindexBranch(index);
 	}
 
 	/**
@@ -341,8 +431,15 @@ public class UdcBranchElem implements Comparable
 	 */
 	public boolean removeBranch(UdcBranchElem br)
 	{
+		int idx = indexOfBranch(br);
 		br.trunk = null;
-		return branch.remove(br);
+		br.branchIndex = -1;
+		if (idx < 0) {
+			return false;
+		}
+		branch.remove(idx);
+		reindexBranch(idx);
+		return true;
 	}
 
 	/**
@@ -353,11 +450,11 @@ public class UdcBranchElem implements Comparable
 	 */
 	public UdcBranchElem getFirstLeaf()
 	{
-		UdcBranchElem elm = getFirstBranch();
-		if (elm != null) {
-			return elm.getFirstLeaf();
+		UdcBranchElem elm = this;
+		while (elm.branch.size() > 0) {
+			elm = (UdcBranchElem)elm.branch.get(0);
 		}
-		return this;
+		return elm;
 	}
 
 	/**
@@ -374,29 +471,61 @@ public class UdcBranchElem implements Comparable
 			return elm.getFirstLeaf();
 		}
 
-		UdcBranchElem parent = trunk;
-		UdcBranchElem child  = this;
-		int pos = parent.indexOfBranch(child);
-		if (pos < 0) {
-			return null;
-		}
-		while (parent != null) {
-			for (int i=pos+1; i<parent.sizeBranch(); i++) {
-				elm = parent.get(i);
-				if ((elm=elm.getFirstLeaf()) != null) {
-					return elm;
-				}
+		return nextLeaf(this, null);
+	}
+
+	/**
+	 * 末端要素の次の末端要素を取得します。兄弟要素への移動は、各要素が保持する格納位置で行います。
+	 *
+	 * @return	次の末端要素(bound配下に次の末端要素がない場合はnull)
+	 * @param	leaf	末端要素
+	 * @param	bound	探索範囲の最上位要素(nullの場合は分岐木リスト全体)
+	 * @since	UDC1.3
+	 */
+	static UdcBranchElem nextLeaf(UdcBranchElem leaf, UdcBranchElem bound)
+	{
+		UdcBranchElem child = leaf;
+		UdcBranchElem parent = leaf.trunk;
+		while (child != bound && parent != null) {
+			int pos = parent.indexOfBranch(child);
+			if (pos < 0) {
+				return null;
+			}
+			if (pos + 1 < parent.branch.size()) {
+				return ((UdcBranchElem)parent.branch.get(pos + 1)).getFirstLeaf();
 			}
 			child = parent;
 			parent = parent.trunk;
-			pos = (parent != null) ? parent.indexOfBranch(child) : 0;
-			if (pos < 0) {
-				break;
-			}
 		}
 		return null;
 	}
 
+	/**
+	 * 自身配下の末端要素を先頭から順に返却するイテレータを取得します。
+	 * 自身が末端要素の場合は、自身のみを返却します。全ての末端要素の走査は、要素数に比例した時間で行えます。
+	 * 走査中に分岐木リストを変更しないでください。
+	 *
+	 * @return	末端要素(UdcBranchElem)のイテレータ
+	 * @since	UDC1.3
+	 */
+	public Iterator leafIterator()
+	{
+		final UdcBranchElem root = this;
+		return new Iterator() {
+			UdcBranchElem next = root.getFirstLeaf();
+			public boolean hasNext() { return next != null; }
+			public Object next() {
+				if (next == null) {
+					throw new NoSuchElementException();
+				}
+				UdcBranchElem cur = next;
+				next = (cur == root) ? null : nextLeaf(cur, root);
+				return cur;
+			}
+			public void remove() { throw new UnsupportedOperationException(); }
+		};
+	}
+
 	/**
 	 * 自身配下の分岐木要素からタグ名たtagに一致した最初の要素を取得する。
 	 *
@@ -492,6 +621,7 @@ public class UdcBranchElem implements Comparable
 	public void sortBranchTag()
 	{
 		Collections.sort(branch);			
+		reindexBranch(0);
 	}
 
 	/**
@@ -502,6 +632,7 @@ public class UdcBranchElem implements Comparable
 	public void sortTag()
 	{
 		Collections.sort(branch);			
+		reindexBranch(0);
 
 		UdcBranchElem elm;
 		for (int i=0; i<branch.size(); i++) {
@@ -12,6 +12,17 @@ import java.lang.*;
 /**
  * 汎用キャッシュクラス。
  *
+ * UdcRecordSchemaを指定して生成した場合はコンパクト形式となり、属性名を列構成として
+ * 複数のキャッシュで共有し、属性値を列位置の配列で、変更属性の有無をビット集合で保持します。
+ * 大量のキャッシュを保持する場合に、属性ハッシュより大幅に少ないメモリで保持できます。
+ * コンパクト形式では、attrList・modListはnullです。また、変更属性を設定した属性の変更前の
+ * 値は、setAttr(String, Object)で設定した値を保持します。
+ *
+ * (注意)
+ *	publicメンバ変数attrList・modListの直接参照は推奨しません(UDC1.3以降)。
+ *	コンパクト形式のキャッシュではnullのため、直接参照するとNullPointerExceptionとなります。
+ *	属性の参照・変更は、getAttr・getModAttr・getModAttrList・setAttr等のメンバ関数を使用してください。
+ *
  * @author  Takayuki Uchida
  * @version 1.2, 30 Jun 2006
  * @see UdcThreadOperation
@@ -20,20 +31,105 @@ import java.lang.*;
 public class UdcCache implements Comparable
 {
 	/**
-	 * キャッシュに格納している属性ハッシュ
+	 * キャッシュに格納している属性ハッシュ(コンパクト形式時はnull)
 	 */	
-	public Hashtable 	attrList = new Hashtable();
+	public Hashtable 	attrList;
 
 	/**
-	 * キャッシュに格納している属性ハッシュで変化のあった属性ハッシュ
+	 * キャッシュに格納している属性ハッシュで変化のあった属性ハッシュ(コンパクト形式時はnull)
 	 */	
-	public Hashtable 	modList = new Hashtable();
+	public Hashtable 	modList;
+
+	/**
+	 * コンパクト形式時の属性名の列構成(通常形式時はnull)
+	 * @since	UDC1.3
+	 */
+	protected UdcRecordSchema	schema = null;
+
+	/**
+	 * コンパクト形式時の属性値(列位置順)
+	 * @since	UDC1.3
+	 */
+	protected Object[]	slots = null;
+
+	/**
+	 * コンパクト形式時の変更属性値(列位置順、変更属性の設定時に生成)
+	 * @since	UDC1.3
+	 */
+	protected Object[]	modSlots = null;
+
+	/**
+	 * コンパクト形式時の変更属性の列位置の集合(変更属性の設定時に生成)
+	 * @since	UDC1.3
+	 */
+	protected BitSet	modBits = null;
+
+	/**
+	 * 属性の変更を通知するリスナ(未登録時はnull)
+	 * @since	UDC1.3
+	 */
+	protected volatile UdcCacheListenerFace[]	listeners = null;
 
 	/**
 	 * toString()メンバ関数出力時の属性キー
 	 */
 	public String		toStringKey = null;
 
+	/**
+	 * コンストラクタ。属性ハッシュで属性を保持するキャッシュを生成する。
+	 */
+	public UdcCache()
+	{
+		attrList = new Hashtable();
+		modList = new Hashtable();
+	}
+
+	/**
+	 * コンストラクタ。コンパクト形式のキャッシュを生成する。
+	 * 属性名は列構成に登録され、同じ列構成を指定した全てのキャッシュで共有されます。
+	 *
+	 * @param	sc	属性名の列構成
+	 * @since	UDC1.3
+	 */
+	public UdcCache(UdcRecordSchema sc)
+	{
+		schema = sc;
+		slots = new Object[sc.getColumnCount()];
+	}
+
+	/**
+	 * コンストラクタ。属性値を指定してコンパクト形式のキャッシュを生成する。
+	 *
+	 * @param	sc		属性名の列構成
+	 * @param	values	属性値(列位置順、nullは属性なし)
+	 * @since	UDC1.3
+	 */
+	UdcCache(UdcRecordSchema sc, Object[] values)
+	{
+		schema = sc;
+		slots = values.clone();
+	}
+
+	/**
+  	 *	コンパクト形式か否かを取得する。
+  	 *	@return コンパクト形式か否か
+	 *	@since	UDC1.3
+	 */
+	public boolean isCompact()
+	{
+		return schema != null;
+	}
+
+	/**
+  	 *	コンパクト形式時の属性名の列構成を取得する。
+  	 *	@return 属性名の列構成(通常形式時はnull)
+	 *	@since	UDC1.3
+	 */
+	public UdcRecordSchema getSchema()
+	{
+		return schema;
+	}
+
 	/**
 	 * 二つのUdcCacheを辞書的に比較します。比較は、toStringkeyが設定されている場合にはその情報で比較を行い、設定されていない場合は無条件に１を返却します。
 	 * また比較対象情報がComparableでない 場合にも無条件に１を返却します。
@@ -66,6 +162,14 @@ public class UdcCache implements Comparable
 	 */
 	public boolean isAttrSet()
 	{
+		if (schema != null) {
+			synchronized (this) {
+				for (int i=0; i<slots.length; i++) {
+					if (slots[i] != null) { return true; }
+				}
+				return false;
+			}
+		}
 		return ((attrList.size() > 0) ? true: false);
 	}
 
@@ -75,6 +179,11 @@ public class UdcCache implements Comparable
 	 */
 	public boolean isModAttrSet()
 	{
+		if (schema != null) {
+			synchronized (this) {
+				return (modBits != null && ! modBits.isEmpty());
+			}
+		}
 		return ((modList.size() > 0) ? true: false);
 	}
 
@@ -85,6 +194,14 @@ public class UdcCache implements Comparable
 	 */
 	public Object getAttr(String attrName) 
 	{
+		if (schema != null) {
+			int idx = schema.indexOf(attrName);
+			if (idx < 0) { return null; }
+			synchronized (this) {
+				if (modBits != null && modBits.get(idx)) { return modSlots[idx]; }
+				return (idx < slots.length) ? slots[idx] : null;
+			}
+		}
 		Object obj = getModAttr(attrName);
 		if (obj != null) { return obj; }
 		return attrList.get(attrName);
@@ -97,9 +214,96 @@ public class UdcCache implements Comparable
 	 */
 	public Object getModAttr(String attrName) 
 	{
+		if (schema != null) {
+			int idx = schema.indexOf(attrName);
+			if (idx < 0) { return null; }
+			synchronized (this) {
+				return (modBits != null && modBits.get(idx)) ? modSlots[idx] : null;
+			}
+		}
 		return modList.get(attrName);
 	}
 
+	/**
+  	 *	変更前の属性を取得する。変更属性の有無に関わらず、変更属性に反映していない値を返却します。
+	 *	@param	attrName	属性名
+  	 *	@return 属性名に対応する変更前のキャッシュ情報
+	 *	@since	UDC1.3
+	 */
+	public Object getOrgAttr(String attrName) 
+	{
+		if (schema != null) {
+			int idx = schema.indexOf(attrName);
+			if (idx < 0) { return null; }
+			synchronized (this) {
+				return (idx < slots.length) ? slots[idx] : null;
+			}
+		}
+		return attrList.get(attrName);
+	}
+
+	/**
+  	 *	変更属性の一覧を取得する。返却する一覧は複製で、以降の変更は反映されません。
+  	 *	@return 変更属性(キー:属性名 値:変更後のキャッシュ情報)
+	 *	@since	UDC1.3
+	 */
+	public Hashtable getModAttrList()
+	{
+		if (schema != null) {
+			Hashtable mods = new Hashtable();
+			synchronized (this) {
+				if (modBits == null) { return mods; }
+				for (int i=modBits.nextSetBit(0); i>=0; i=modBits.nextSetBit(i + 1)) {
+					mods.put(schema.getColumnName(i), modSlots[i]);
+				}
+			}
+			return mods;
+		}
+		return (Hashtable)modList.clone();
+	}
+
+	/**
+  	 *	全ての変更属性を確定する。変更後の値を変更前の値とし、変更属性をクリアします。
+	 *	@since	UDC1.3
+	 */
+	public void commitModAttr()
+	{
+		commitModAttr(getModAttrList());
+	}
+
+	/**
+  	 *	getModAttrListで取得した変更属性を確定する。取得後に再度変更された属性は確定しません。
+  	 *	DBへの反映後に、反映した変更属性のみを確定する場合に使用します。
+	 *	@param	mods	getModAttrListで取得した変更属性
+	 *	@since	UDC1.3
+	 */
+	public void commitModAttr(Hashtable mods)
+	{
+		Iterator it = mods.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry me = (Map.Entry)it.next();
+			String attrName = (String)me.getKey();
+			Object val = me.getValue();
+			if (schema != null) {
+				int idx = schema.indexOf(attrName);
+				synchronized (this) {
+					if (idx >= 0 && modBits != null && modBits.get(idx) && modSlots[idx] == val) {
+						slots[idx] = val;
+						modSlots[idx] = null;
+						modBits.clear(idx);
+					}
+				}
+				continue;
+			}
+			synchronized (modList) {
+				if (modList.get(attrName) == val) {
+					attrList.put(attrName, val);
+					modList.remove(attrName);
+				}
+			}
+		}
+	}
+
 	/**
   	 *	任意の属性を設定する。本メンバ関数では、変更属性への設定は行なわない
 	 *	@param	attrName	属性名
@@ -120,6 +324,11 @@ public class UdcCache implements Comparable
 	 */
 	public void setAttr(String attrName, Object attrVal, boolean update) 
 	{
+		if (schema != null) {
+			setSlot(schema.intern(attrName), attrVal, update);
+			fireAttrChanged(attrName);
+			return;
+		}
 		if (update) {
 			Object obj = getAttr(attrName);
 			if (obj != null && !obj.equals(attrVal)) {
@@ -132,6 +341,40 @@ public class UdcCache implements Comparable
 			if (getAttr(attrName) != null) { attrList.remove(attrName); }
 			attrList.put(attrName, attrVal);
 		}
+		fireAttrChanged(attrName);
+	}
+
+	/**
+  	 *	コンパクト形式時に列位置の属性を設定する。設定の判定はsetAttr(String, Object, boolean)と同様です。
+	 *	@param	idx			列位置
+	 *	@param	attrVal 	属性名に対応するキャッシュ情報
+	 *	@param	update	 	設定を変更属性に反映させるか否か
+	 *	@since	UDC1.3
+	 */
+	protected synchronized void setSlot(int idx, Object attrVal, boolean update)
+	{
+		if (attrVal == null) {
+			throw new NullPointerException();
+		}
+		if (idx >= slots.length) {
+			slots = Arrays.copyOf(slots, schema.getColumnCount());
+		}
+		if (update) {
+			boolean mod = (modBits != null && modBits.get(idx));
+			Object obj = mod ? modSlots[idx] : slots[idx];
+			if (obj != null && !obj.equals(attrVal)) {
+				if (modBits == null) {
+					modBits = new BitSet();
+				}
+				if (modSlots == null || idx >= modSlots.length) {
+					modSlots = (modSlots == null) ? new Object[slots.length] : Arrays.copyOf(modSlots, slots.length);
+				}
+				modSlots[idx] = attrVal;
+				modBits.set(idx);
+				return;
+			}
+		}
+		slots[idx] = attrVal;
 	}
 
 	/**
@@ -140,9 +383,23 @@ public class UdcCache implements Comparable
 	 */
 	public void resetAttr(String attrName) 
 	{
+		if (schema != null) {
+			int idx = schema.indexOf(attrName);
+			if (idx < 0) { return; }
+			synchronized (this) {
+				if (idx < slots.length) { slots[idx] = null; }
+				if (modBits != null && modBits.get(idx)) {
+					modBits.clear(idx);
+					modSlots[idx] = null;
+				}
+			}
+			fireAttrChanged(attrName);
+			return;
+		}
 		if (getAttr(attrName) != null) {
 			attrList.remove(attrName);
 			if (getModAttr(attrName) != null) { modList.remove(attrName); }
+			fireAttrChanged(attrName);
 		}
 	}
 
@@ -151,8 +408,77 @@ public class UdcCache implements Comparable
 	 */
 	public void clear() 
 	{
+		if (schema != null) {
+			synchronized (this) {
+				Arrays.fill(slots, null);
+				modSlots = null;
+				modBits = null;
+			}
+			fireAttrChanged(null);
+			return;
+		}
 		attrList.clear();
 		modList.clear();
+		fireAttrChanged(null);
+	}
+
+	/**
+  	 *	属性の変更を通知するリスナを登録する。
+	 *	@param	listener	リスナ
+	 *	@since	UDC1.3
+	 */
+	public synchronized void addCacheListener(UdcCacheListenerFace listener)
+	{
+		UdcCacheListenerFace[] ls = listeners;
+		if (ls == null) {
+			listeners = new UdcCacheListenerFace[] { listener };
+			return;
+		}
+		for (int i=0; i<ls.length; i++) {
+			if (ls[i] == listener) { return; }
+		}
+		UdcCacheListenerFace[] nls = new UdcCacheListenerFace[ls.length + 1];
+		System.arraycopy(ls, 0, nls, 0, ls.length);
+		nls[ls.length] = listener;
+		listeners = nls;
+	}
+
+	/**
+  	 *	属性の変更を通知するリスナを削除する。
+	 *	@param	listener	リスナ
+	 *	@since	UDC1.3
+	 */
+	public synchronized void removeCacheListener(UdcCacheListenerFace listener)
+	{
+		UdcCacheListenerFace[] ls = listeners;
+		if (ls == null) { return; }
+		for (int i=0; i<ls.length; i++) {
+			if (ls[i] == listener) {
+				if (ls.length == 1) {
+					listeners = null;
+				} else {
+					UdcCacheListenerFace[] nls = new UdcCacheListenerFace[ls.length - 1];
+					System.arraycopy(ls, 0, nls, 0, i);
+					System.arraycopy(ls, i + 1, nls, i, ls.length - i - 1);
+					listeners = nls;
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+  	 *	登録されているリスナに属性の変更を通知する。本キャッシュの排他を保持せずに呼び出すこと。
+	 *	@param	attrName	変更された属性名(全ての属性の場合はnull)
+	 *	@since	UDC1.3
+	 */
+	protected void fireAttrChanged(String attrName)
+	{
+		UdcCacheListenerFace[] ls = listeners;
+		if (ls == null) { return; }
+		for (int i=0; i<ls.length; i++) {
+			ls[i].attrChanged(this, attrName);
+		}
 	}
 
 	/**
@@ -0,0 +1,31 @@
+/* *********************************************************************
+ * @(#)UdcCacheListenerFace.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+
+/**
+ * キャッシュ(UdcCache)の属性の変更を受け取るインタフェースクラス。
+ * 属性の設定(setAttr)・クリア(resetAttr/clear)の後に、設定を行ったスレッドから呼び出されます。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcCache#addCacheListener(UdcCacheListenerFace)
+ * @see		UdcIndexedCacheList
+ * @since	UDC1.3
+ */
+public interface UdcCacheListenerFace
+{
+	/**
+	 * キャッシュの属性が変更された場合に呼び出されるインタフェース関数。
+	 * 変更後の値はUdcCache.getAttrで取得してください。
+	 *
+	 * @param	cache		変更されたキャッシュ
+	 * @param	attrName	変更された属性名(clearで全ての属性がクリアされた場合はnull)
+	 * @since	UDC1.3
+	 */
+	public void attrChanged(UdcCache cache, String attrName);
+}
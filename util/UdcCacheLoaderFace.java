@@ -0,0 +1,30 @@
+/* *********************************************************************
+ * @(#)UdcCacheLoaderFace.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+
+/**
+ * 容量制限付きキャッシュ(UdcBoundedCache)に保持していない値を取得(DB検索等)するインタフェースクラス。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcBoundedCache#get(Object,UdcCacheLoaderFace)
+ * @since	UDC1.3
+ */
+public interface UdcCacheLoaderFace
+{
+	/**
+	 * キーに対応する値を取得するインタフェース関数。
+	 * 同じキーに対して同時に複数のスレッドから呼び出されることはありません。
+	 *
+	 * @return	値(UdcCache、UdcCacheのリスト等。nullの場合はキャッシュに保持しない)
+	 * @param	key		キー
+	 * @exception	Exception	値の取得エラー
+	 * @since	UDC1.3
+	 */
+	public Object load(Object key) throws Exception;
+}
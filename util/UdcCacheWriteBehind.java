@@ -0,0 +1,877 @@
+/* *********************************************************************
+ * @(#)UdcCacheWriteBehind.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.sql.*;
+
+
+/**
+ * キャッシュ(UdcCache)の変更属性を遅延してDBに書き込むクラス。
+ * 変更属性を設定したキャッシュをmarkで登録すると、一定周期(flushInterval)あるいは登録数が
+ * 上限(maxBatch)に達した時点で、まとめてUPDATE文を実行します。<br>
+ * 書き込みはテーブル・変更属性の組合せ毎に同じPreparedStatementを使用し、addBatch/executeBatch
+ * によりまとめて実行します。DBコネクションはDBコネクションプールから確保し、1回の書き込みを
+ * 1トランザクションとします。<br>
+ * 書き込みに成功した変更属性は、UdcCache.commitModAttrで確定します。書き込み中に再度変更された
+ * 属性は確定せず、次回の書き込み対象となります。書き込みに失敗した場合は、全てのキャッシュを
+ * 再度登録します。<br>
+ * executeBatchの更新行数はキャッシュ毎に確認し、更新行数が0のキャッシュは変更属性を確定せずに
+ * 破棄(rejectCount)、EXECUTE_FAILEDのキャッシュは変更属性を確定せずに再度登録します。<br>
+ * executeBatchがBatchUpdateExceptionで失敗した場合は、ロールバックして失敗したキャッシュを除き、
+ * 残りのキャッシュを同じ書き込みで再実行します。除いたキャッシュは再度登録し、再登録の回数が
+ * 上限(maxRetry)に達したキャッシュは変更属性を確定せずに破棄(rejectCount)します。
+ *
+ * (注意)
+ *	キー属性(UPDATE文のWHERE句)は変更前の値(UdcCache.getOrgAttr)を使用し、キー属性の変更は
+ *	書き込みません。属性名はDBの列名として、そのままSQL文に使用します。
+ *	周期的な書き込みはタイマ管理のスレッドではなく、作業スレッド(UdcWorkerExecutor)で実行されます。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcCache#getModAttrList()
+ * @see		UdcCache#commitModAttr(Hashtable)
+ * @see		UdcDBConnectionPool
+ * @since	UDC1.3
+ */
+public class UdcCacheWriteBehind
+{
+	/**
+	 * 登録数の上限のデフォルト
+	 * @since	UDC1.3
+	 */
+	public static final int DefaultMaxBatch = 500;
+
+	/**
+	 * DBコネクションの確保待ち時間のデフォルト(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	public static final long DefaultAllocateTimeout = 10 * 1000;
+
+	/**
+	 * 書き込みに失敗したキャッシュの再登録回数の上限のデフォルト
+	 * @since	UDC1.3
+	 */
+	public static final int DefaultMaxRetry = 3;
+
+	/**
+	 * DBコネクションプール
+	 * @since	UDC1.3
+	 */
+	protected UdcDBConnectionPool	pool;
+
+	/**
+	 * タイマ管理(nullの場合は周期的な書き込みを行わない)
+	 * @since	UDC1.3
+	 */
+	protected UdcTimerManager		timerManager;
+
+	/**
+	 * 周期的な書き込みのタイマ番号(未登録時は-1)
+	 * @since	UDC1.3
+	 */
+	protected int					flushTimerIndex = -1;
+
+	/**
+	 * 登録数の上限(1回のexecuteBatchの最大数)
+	 * @since	UDC1.3
+	 */
+	protected volatile int			maxBatch;
+
+	/**
+	 * DBコネクションの確保待ち時間(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	protected volatile long			allocateTimeout = DefaultAllocateTimeout;
+
+	/**
+	 * 書き込みに失敗したキャッシュの再登録回数の上限
+	 * @since	UDC1.3
+	 */
+	protected volatile int			maxRetry = DefaultMaxRetry;
+
+	/**
+	 * 登録されているキャッシュ(キー:UdcCache 値:UdcWriteBehindTarget)
+	 * @since	UDC1.3
+	 */
+	protected ConcurrentHashMap		dirty = new ConcurrentHashMap();
+
+	/**
+	 * 登録順のキャッシュ
+	 * @since	UDC1.3
+	 */
+	protected ConcurrentLinkedQueue	queue = new ConcurrentLinkedQueue();
+
+	/**
+	 * 書き込みの排他
+	 * @since	UDC1.3
+	 */
+	protected ReentrantLock			flushLock = new ReentrantLock();
+
+	/**
+	 * 周期的な書き込みの作業スレッドへの依頼中
+	 * @since	UDC1.3
+	 */
+	protected AtomicBoolean			flushRequested = new AtomicBoolean(false);
+
+	/**
+	 * 統計情報：書き込み回数(トランザクション数)
+	 * @since	UDC1.3
+	 */
+	protected AtomicLong	flushCount = new AtomicLong(0);
+
+	/**
+	 * 統計情報：書き込んだキャッシュ数
+	 * @since	UDC1.3
+	 */
+	protected AtomicLong	recordCount = new AtomicLong(0);
+
+	/**
+	 * 統計情報：executeBatchの実行回数
+	 * @since	UDC1.3
+	 */
+	protected AtomicLong	batchCount = new AtomicLong(0);
+
+	/**
+	 * 統計情報：書き込みの失敗回数
+	 * @since	UDC1.3
+	 */
+	protected AtomicLong	errorCount = new AtomicLong(0);
+
+	/**
+	 * 統計情報：書き込めなかったキャッシュ数(更新行数0、再登録回数の上限到達)
+	 * @since	UDC1.3
+	 */
+	protected AtomicLong	rejectCount = new AtomicLong(0);
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	p			DBコネクションプール
+	 * @param	timer		タイマ管理(nullの場合は周期的な書き込みを行わない)
+	 * @param	interval	書き込み周期(単位：ミリ秒、0以下は周期的な書き込みを行わない)
+	 * @param	max			登録数の上限(1回のexecuteBatchの最大数)
+	 * @since	UDC1.3
+	 */
+	public UdcCacheWriteBehind(UdcDBConnectionPool p, UdcTimerManager timer, long interval, int max)
+	{
+		pool = p;
+		timerManager = timer;
+		maxBatch = (max > 0) ? max : DefaultMaxBatch;
+		setFlushInterval(interval);
+	}
+
+	/**
+	 * 書き込み周期を設定する。
+	 *
+	 * @param	interval	書き込み周期(単位：ミリ秒、0以下は周期的な書き込みを停止)
+	 * @since	UDC1.3
+	 */
+	public synchronized void setFlushInterval(long interval)
+	{
+		if (timerManager == null) {
+			return;
+		}
+		try {
+			if (flushTimerIndex >= 0) {
+				timerManager.unregistrateTimer(flushTimerIndex);
+				flushTimerIndex = -1;
+			}
+			if (interval > 0) {
+				flushTimerIndex = timerManager.registrateTimer(UdcThreadMsgDtrEventTimeout.TimeInterval,
+											interval, new UdcWriteBehindFlushChannel(this));
+			}
+		} catch (InterruptedException exp) {}
+	}
+
+	/**
+	 * DBコネクションの確保待ち時間を設定する。
+	 *
+	 * @param	milisec		確保待ち時間(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	public void setAllocateTimeout(long milisec) { allocateTimeout = milisec; }
+
+	/**
+	 * 書き込みに失敗したキャッシュの再登録回数の上限を設定する。
+	 * 上限に達したキャッシュは、変更属性を確定せずに書き込み対象から除きます。
+	 *
+	 * @param	max		再登録回数の上限(1以上)
+	 * @since	UDC1.3
+	 */
+	public void setMaxRetry(int max) { maxRetry = (max > 0) ? max : 1; }
+
+	/**
+	 * 変更属性を設定したキャッシュを書き込み対象として登録する。
+	 * 登録済みのキャッシュは、最初に登録したテーブル・キー属性で書き込みます。
+	 * 登録数が上限に達した場合は、呼び出したスレッドで書き込みを行います。
+	 *
+	 * @param	ca			キャッシュ
+	 * @param	table		テーブル名
+	 * @param	keyNames	キー属性名(WHERE句の列名)
+	 * @exception	SQLException	上限到達時の書き込みエラー
+	 * @since	UDC1.3
+	 */
+	public void mark(UdcCache ca, String table, String[] keyNames)
+		throws SQLException
+	{
+		if (dirty.putIfAbsent(ca, new UdcWriteBehindTarget(table, keyNames)) == null) {
+			queue.offer(ca);
+		}
+		if (dirty.size() >= maxBatch) {
+			flush();
+		}
+	}
+
+	/**
+	 * 書き込み待ちのキャッシュ数を取得する。
+	 *
+	 * @return	キャッシュ数
+	 * @since	UDC1.3
+	 */
+	public int getPendingSize() { return dirty.size(); }
+
+	/**
+	 * 登録されている全てのキャッシュを書き込む。他スレッドで書き込み中の場合は完了を待ちます。
+	 *
+	 * @return	書き込んだキャッシュ数
+	 * @exception	SQLException	書き込みエラー
+	 * @since	UDC1.3
+	 */
+	public int flush()
+		throws SQLException
+	{
+		flushLock.lock();
+		try {
+			return flushLocked();
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	/**
+	 * 周期的な書き込みを行う。他スレッドで書き込み中の場合は何もしません。
+	 * 書き込みエラーはトレースに出力します。
+	 *
+	 * @since	UDC1.3
+	 */
+	protected void flushPeriodic()
+	{
+		if (! flushLock.tryLock()) {
+			return;
+		}
+		try {
+			flushLocked();
+		} catch (SQLException exp) {
+			UdcTrace.tracef(UdcTrace.Level, "UdcCacheWriteBehind.flushPeriodic", " - flush error : %s", exp);
+		} catch (RuntimeException exp) {
+			UdcTrace.tracef(UdcTrace.Level, "UdcCacheWriteBehind.flushPeriodic", " - flush error : %s", exp);
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	/**
+	 * 周期的な書き込み(flushPeriodic)を作業スレッドに依頼する。
+	 * タイマスレッドでDBコネクションの確保待ち・DBへの書き込みを行わないため、周期タイマの通知から
+	 * 呼び出されます。依頼済みの書き込みが未実行の場合は、新たに依頼しません。
+	 *
+	 * @see		UdcWorkerExecutor#getShared()
+	 * @since	UDC1.3
+	 */
+	void requestFlush()
+	{
+		if (! flushRequested.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			UdcWorkerExecutor.getShared().execute(new Runnable() {
+				public void run() {
+					flushRequested.set(false);
+					flushPeriodic();
+				}
+			});
+		} catch (RuntimeException exp) {
+			flushRequested.set(false);
+			UdcTrace.trace(UdcTrace.Level,"UdcCacheWriteBehind.requestFlush", " - exception - " + exp);
+		}
+	}
+
+	/**
+	 * 登録されている全てのキャッシュを書き込む。flushLockを確保して呼び出すこと。
+	 *
+	 * @return	書き込んだキャッシュ数
+	 * @exception	SQLException	書き込みエラー
+	 * @since	UDC1.3
+	 */
+	protected int flushLocked()
+		throws SQLException
+	{
+			/* テーブル・キー属性・変更属性の組合せ毎にまとめる */
+		LinkedHashMap groups = new LinkedHashMap();
+		ArrayList drained = new ArrayList();
+		UdcCache ca;
+		while ((ca = (UdcCache)queue.poll()) != null) {
+			UdcWriteBehindTarget target = (UdcWriteBehindTarget)dirty.remove(ca);
+			if (target == null) {
+				continue;
+			}
+			drained.add(ca);
+			drained.add(target);
+			Hashtable mods = ca.getModAttrList();
+			for (int i=0; i<target.keyNames.length; i++) {
+				mods.remove(target.keyNames[i]);
+			}
+			if (mods.isEmpty()) {
+				continue;
+			}
+			String[] cols = (String[])mods.keySet().toArray(new String[mods.size()]);
+			Arrays.sort(cols);
+			String sql = target.updateSql(cols);
+			UdcWriteBehindGroup grp = (UdcWriteBehindGroup)groups.get(sql);
+			if (grp == null) {
+				grp = new UdcWriteBehindGroup(sql, cols, target.keyNames);
+				groups.put(sql, grp);
+			}
+			grp.caches.add(ca);
+			grp.mods.add(mods);
+			grp.targets.add(target);
+		}
+		if (groups.isEmpty()) {
+			return 0;
+		}
+
+		Connection conn = pool.allocate(allocateTimeout);
+		if (conn == null) {
+			remark(drained);
+			errorCount.incrementAndGet();
+			throw new SQLException("UdcCacheWriteBehind: DB connection allocate timeout.");
+		}
+		int num = 0;
+		boolean autoCommit = true;
+		ArrayList failed = new ArrayList();
+		try {
+			autoCommit = conn.getAutoCommit();
+			conn.setAutoCommit(false);
+				/* BatchUpdateExceptionの場合は失敗したキャッシュを除いて再実行する */
+			while (! groups.isEmpty()) {
+				UdcWriteBehindGroup grp = null;
+				try {
+					num = 0;
+					Iterator it = groups.values().iterator();
+					while (it.hasNext()) {
+						grp = (UdcWriteBehindGroup)it.next();
+						num += executeGroup(conn, grp);
+					}
+					grp = null;
+					conn.commit();
+					break;
+				} catch (BatchUpdateException exp) {
+					if (grp == null) {
+						throw exp;
+					}
+					try { conn.rollback(); } catch (SQLException e) {}
+					errorCount.incrementAndGet();
+					UdcTrace.tracef(UdcTrace.Level, "UdcCacheWriteBehind.flushLocked", " - batch update error : %s", exp);
+					removeFailed(groups, grp, drained, failed);
+				}
+			}
+		} catch (SQLException exp) {
+			rollback(conn, drained);
+			throw exp;
+		} catch (RuntimeException exp) {
+			rollback(conn, drained);
+			throw exp;
+		} finally {
+			try { conn.setAutoCommit(autoCommit); } catch (SQLException e) {}
+			pool.release(conn);
+			for (int i=0; i<failed.size(); i+=2) {
+				requeue((UdcCache)failed.get(i), (UdcWriteBehindTarget)failed.get(i + 1));
+			}
+		}
+
+			/* 書き込んだ変更属性を確定する(更新行数0・EXECUTE_FAILEDのキャッシュは確定しない) */
+		Iterator it = groups.values().iterator();
+		while (it.hasNext()) {
+			UdcWriteBehindGroup grp = (UdcWriteBehindGroup)it.next();
+			for (int i=0; i<grp.caches.size(); i++) {
+				ca = (UdcCache)grp.caches.get(i);
+				int count = grp.counts[i];
+				if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+					ca.commitModAttr((Hashtable)grp.mods.get(i));
+					continue;
+				}
+				if (count == 0) {
+					rejectCount.incrementAndGet();
+					UdcTrace.tracef(UdcTrace.Level, "UdcCacheWriteBehind.flushLocked", " - no row updated : %s", ca);
+				} else {
+					UdcTrace.tracef(UdcTrace.Level, "UdcCacheWriteBehind.flushLocked", " - update failed : %s", ca);
+					requeue(ca, (UdcWriteBehindTarget)grp.targets.get(i));
+				}
+			}
+		}
+		flushCount.incrementAndGet();
+		recordCount.addAndGet(num);
+		return num;
+	}
+
+	/**
+	 * BatchUpdateExceptionで失敗したキャッシュを書き込み対象から除く。
+	 * 失敗したキャッシュを特定できない場合は、組合せの全てのキャッシュを除きます。
+	 *
+	 * @param	groups		テーブル・変更属性の組合せ(キー:UPDATE文 値:UdcWriteBehindGroup)
+	 * @param	grp			失敗した組合せ
+	 * @param	drained		キャッシュと書き込み先の組(UdcCache, UdcWriteBehindTarget)のリスト
+	 * @param	failed		除いたキャッシュと書き込み先の組を格納するリスト
+	 * @since	UDC1.3
+	 */
+	protected void removeFailed(Map groups, UdcWriteBehindGroup grp, ArrayList drained, ArrayList failed)
+	{
+		if (grp.failed.isEmpty()) {
+			for (int i=0; i<grp.caches.size(); i++) {
+				grp.failed.add(Integer.valueOf(i));
+			}
+		}
+		for (int i=grp.failed.size() - 1; i>=0; i--) {
+			int idx = ((Integer)grp.failed.get(i)).intValue();
+			Object ca = grp.caches.remove(idx);
+			Object target = grp.targets.remove(idx);
+			grp.mods.remove(idx);
+			for (int j=0; j<drained.size(); j+=2) {
+				if (drained.get(j) == ca) {
+					drained.remove(j + 1);
+					drained.remove(j);
+					break;
+				}
+			}
+			failed.add(ca);
+			failed.add(target);
+		}
+		grp.failed.clear();
+		if (grp.caches.isEmpty()) {
+			groups.remove(grp.sql);
+		}
+	}
+
+	/**
+	 * 書き込みに失敗したキャッシュを再度登録する。
+	 * 再登録の回数が上限に達したキャッシュは、変更属性を確定せずに書き込み対象から除きます。
+	 *
+	 * @param	ca			キャッシュ
+	 * @param	target		書き込み先
+	 * @since	UDC1.3
+	 */
+	protected void requeue(UdcCache ca, UdcWriteBehindTarget target)
+	{
+		if (++target.retries >= maxRetry) {
+			rejectCount.incrementAndGet();
+			UdcTrace.tracef(UdcTrace.Level, "UdcCacheWriteBehind.requeue", " - dropped after %d retries : %s", target.retries, ca);
+			return;
+		}
+		if (dirty.putIfAbsent(ca, target) == null) {
+			queue.offer(ca);
+		}
+	}
+
+	/**
+	 * 書き込みエラー時にロールバックし、書き込めなかったキャッシュを再度登録する。
+	 *
+	 * @param	conn		DBコネクション
+	 * @param	drained		キャッシュと書き込み先の組(UdcCache, UdcWriteBehindTarget)のリスト
+	 * @since	UDC1.3
+	 */
+	protected void rollback(Connection conn, ArrayList drained)
+	{
+		try { conn.rollback(); } catch (SQLException e) {}
+		remark(drained);
+		errorCount.incrementAndGet();
+	}
+
+	/**
+	 * テーブル・変更属性の組合せ1つ分のUPDATE文をexecuteBatchで実行する。
+	 * キャッシュ毎の更新行数はgrp.countsに、BatchUpdateExceptionで失敗したキャッシュの位置は
+	 * grp.failedに設定します。
+	 *
+	 * @return	書き込んだキャッシュ数(更新行数が1以上、あるいはSUCCESS_NO_INFOのキャッシュ数)
+	 * @param	conn	DBコネクション
+	 * @param	grp		テーブル・変更属性の組合せ
+	 * @exception	SQLException	書き込みエラー
+	 * @since	UDC1.3
+	 */
+	protected int executeGroup(Connection conn, UdcWriteBehindGroup grp)
+		throws SQLException
+	{
+		PreparedStatement ps = pool.prepareStatement(conn, grp.sql);
+		grp.counts = new int[grp.caches.size()];
+		grp.failed.clear();
+		int base = 0;
+		int to = 0;
+		try {
+			int num = 0;
+			for (int i=0; i<grp.caches.size(); i++) {
+				UdcCache ca = (UdcCache)grp.caches.get(i);
+				Hashtable mods = (Hashtable)grp.mods.get(i);
+				int pos = 1;
+				for (int j=0; j<grp.cols.length; j++) {
+					ps.setObject(pos++, mods.get(grp.cols[j]));
+				}
+				for (int j=0; j<grp.keyNames.length; j++) {
+					ps.setObject(pos++, ca.getOrgAttr(grp.keyNames[j]));
+				}
+				ps.addBatch();
+				if (i + 1 - base >= maxBatch) {
+					to = i + 1;
+					num += setCounts(grp, base, to, ps.executeBatch());
+					base = to;
+				}
+			}
+			if (base < grp.caches.size()) {
+				to = grp.caches.size();
+				num += setCounts(grp, base, to, ps.executeBatch());
+			}
+			return num;
+		} catch (BatchUpdateException exp) {
+				/* EXECUTE_FAILEDのキャッシュ、なければ更新行数が返らなかった先頭のキャッシュを失敗とする */
+			int[] counts = exp.getUpdateCounts();
+			int len = (counts != null) ? counts.length : 0;
+			for (int i=0; i<len && base + i < to; i++) {
+				if (counts[i] == Statement.EXECUTE_FAILED) {
+					grp.failed.add(Integer.valueOf(base + i));
+				}
+			}
+			if (grp.failed.isEmpty() && base + len < to) {
+				grp.failed.add(Integer.valueOf(base + len));
+			}
+			throw exp;
+		} finally {
+				/* PreparedStatementキャッシュを使用しない場合はクローズし、使用する場合は残ったバッチをクリアする */
+			if (pool.getStatementCacheSize() <= 0) {
+				try { ps.close(); } catch (SQLException exp) {}
+			} else {
+				try { ps.clearBatch(); } catch (SQLException exp) {}
+			}
+		}
+	}
+
+	/**
+	 * executeBatchの更新行数をキャッシュ毎に設定する。
+	 * 更新行数が返らなかったキャッシュはEXECUTE_FAILEDとします。
+	 *
+	 * @return	書き込んだキャッシュ数(更新行数が1以上、あるいはSUCCESS_NO_INFOのキャッシュ数)
+	 * @param	grp		テーブル・変更属性の組合せ
+	 * @param	from	executeBatchで実行した先頭のキャッシュ位置
+	 * @param	to		executeBatchで実行した末尾のキャッシュ位置(この位置は含まない)
+	 * @param	counts	executeBatchの更新行数
+	 * @since	UDC1.3
+	 */
+	protected int setCounts(UdcWriteBehindGroup grp, int from, int to, int[] counts)
+	{
+		batchCount.incrementAndGet();
+		int num = 0;
+		for (int i=from; i<to; i++) {
+			int count = (counts != null && i - from < counts.length) ? counts[i - from] : Statement.EXECUTE_FAILED;
+			grp.counts[i] = count;
+			if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+				num++;
+			}
+		}
+		return num;
+	}
+
+	/**
+	 * 書き込めなかったキャッシュを再度登録する。
+	 *
+	 * @param	drained		キャッシュと書き込み先の組(UdcCache, UdcWriteBehindTarget)のリスト
+	 * @since	UDC1.3
+	 */
+	protected void remark(ArrayList drained)
+	{
+		for (int i=0; i<drained.size(); i+=2) {
+			UdcCache ca = (UdcCache)drained.get(i);
+			if (dirty.putIfAbsent(ca, drained.get(i + 1)) == null) {
+				queue.offer(ca);
+			}
+		}
+	}
+
+	/**
+	 * 周期的な書き込みを停止し、登録されている全てのキャッシュを書き込む。
+	 *
+	 * @exception	SQLException	書き込みエラー
+	 * @since	UDC1.3
+	 */
+	public void close()
+		throws SQLException
+	{
+		setFlushInterval(0);
+		flush();
+	}
+
+	/**
+	 * 書き込み回数(トランザクション数)を取得する。
+	 *
+	 * @return	回数
+	 * @since	UDC1.3
+	 */
+	public long getFlushCount() { return flushCount.get(); }
+
+	/**
+	 * 書き込んだキャッシュ数を取得する。
+	 *
+	 * @return	キャッシュ数
+	 * @since	UDC1.3
+	 */
+	public long getRecordCount() { return recordCount.get(); }
+
+	/**
+	 * executeBatchの実行回数を取得する。
+	 *
+	 * @return	回数
+	 * @since	UDC1.3
+	 */
+	public long getBatchCount() { return batchCount.get(); }
+
+	/**
+	 * 書き込みの失敗回数を取得する。
+	 *
+	 * @return	回数
+	 * @since	UDC1.3
+	 */
+	public long getErrorCount() { return errorCount.get(); }
+
+	/**
+	 * 書き込めなかったキャッシュ数(更新行数0、再登録回数の上限到達)を取得する。
+	 *
+	 * @return	キャッシュ数
+	 * @since	UDC1.3
+	 */
+	public long getRejectCount() { return rejectCount.get(); }
+
+	/**
+	 * 本インスタンスの文字列情報を取得する。
+	 *
+	 * @return	本インスタンス情報
+	 * @since	UDC1.3
+	 */
+	public String toString()
+	{
+		return "UdcCacheWriteBehind pending=" + dirty.size() + " flush=" + flushCount.get()
+				+ " record=" + recordCount.get() + " batch=" + batchCount.get() + " error=" + errorCount.get()
+				+ " reject=" + rejectCount.get();
+	}
+}
+
+/**
+ * 遅延書き込みの書き込み先(テーブル・キー属性)クラス。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcCacheWriteBehind#mark(UdcCache,String,String[])
+ * @since	UDC1.3
+ */
+class UdcWriteBehindTarget
+{
+	/**
+	 * テーブル名
+	 * @since	UDC1.3
+	 */
+	String		table;
+
+	/**
+	 * キー属性名
+	 * @since	UDC1.3
+	 */
+	String[]	keyNames;
+
+	/**
+	 * 書き込みに失敗して再登録した回数(flushLockを確保して更新)
+	 * @since	UDC1.3
+	 */
+	int			retries;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	t		テーブル名
+	 * @param	keys	キー属性名
+	 * @since	UDC1.3
+	 */
+	UdcWriteBehindTarget(String t, String[] keys)
+	{
+		table = t;
+		keyNames = keys;
+	}
+
+	/**
+	 * UPDATE文を生成する。
+	 *
+	 * @return	UPDATE文
+	 * @param	cols	更新する列名
+	 * @since	UDC1.3
+	 */
+	String updateSql(String[] cols)
+	{
+		StringBuffer sql = new StringBuffer("UPDATE ").append(table).append(" SET ");
+		for (int i=0; i<cols.length; i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append(cols[i]).append("=?");
+		}
+		sql.append(" WHERE ");
+		for (int i=0; i<keyNames.length; i++) {
+			if (i > 0) {
+				sql.append(" AND ");
+			}
+			sql.append(keyNames[i]).append("=?");
+		}
+		return sql.toString();
+	}
+}
+
+/**
+ * 遅延書き込みの同一UPDATE文のキャッシュの組クラス。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcCacheWriteBehind#executeGroup(Connection,UdcWriteBehindGroup)
+ * @since	UDC1.3
+ */
+class UdcWriteBehindGroup
+{
+	/**
+	 * UPDATE文
+	 * @since	UDC1.3
+	 */
+	String		sql;
+
+	/**
+	 * 更新する列名(UPDATE文のパラメータ順)
+	 * @since	UDC1.3
+	 */
+	String[]	cols;
+
+	/**
+	 * キー属性名(UPDATE文のパラメータ順)
+	 * @since	UDC1.3
+	 */
+	String[]	keyNames;
+
+	/**
+	 * 書き込むキャッシュ
+	 * @since	UDC1.3
+	 */
+	ArrayList	caches = new ArrayList();
+
+	/**
+	 * 書き込む変更属性(cachesと同順)
+	 * @since	UDC1.3
+	 */
+	ArrayList	mods = new ArrayList();
+
+	/**
+	 * 書き込み先(cachesと同順、UdcWriteBehindTarget)
+	 * @since	UDC1.3
+	 */
+	ArrayList	targets = new ArrayList();
+
+	/**
+	 * executeBatchの更新行数(cachesと同順、executeGroupで設定)
+	 * @since	UDC1.3
+	 */
+	int[]		counts;
+
+	/**
+	 * BatchUpdateExceptionで失敗したキャッシュの位置(Integer、executeGroupで設定)
+	 * @since	UDC1.3
+	 */
+	ArrayList	failed = new ArrayList();
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	s		UPDATE文
+	 * @param	c		更新する列名
+	 * @param	k		キー属性名
+	 * @since	UDC1.3
+	 */
+	UdcWriteBehindGroup(String s, String[] c, String[] k)
+	{
+		sql = s;
+		cols = c;
+		keyNames = k;
+	}
+}
+
+/**
+ * 遅延書き込みの周期的な書き込みを行うタイムアウト通知の受信チャネルクラス。
+ * タイムアウト通知を受信メッセージとして保持せず、タイマ処理スレッド上で
+ * UdcCacheWriteBehind.requestFlushを呼び出します。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcCacheWriteBehind#setFlushInterval(long)
+ * @since	UDC1.3
+ */
+class UdcWriteBehindFlushChannel extends UdcThreadChannel
+{
+	/**
+	 * 書き込みを行う遅延書き込み
+	 * @since	UDC1.3
+	 */
+	private UdcCacheWriteBehind	writer;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	w	書き込みを行う遅延書き込み
+	 * @since	UDC1.3
+	 */
+	UdcWriteBehindFlushChannel(UdcCacheWriteBehind w)
+	{
+		writer = w;
+		setTimeoutRecycle(true);
+	}
+
+	/**
+	 * タイムアウト通知を受信し、書き込みを作業スレッドに依頼する。
+	 *
+	 * @param 	data	タイムアウト通知
+	 * @since	UDC1.3
+	 */
+	public void push(UdcThreadChannelDtr data)
+		throws InterruptedException
+	{
+		if (data.get_dtrType() == UdcThreadMsgId.Event_Timeout && data.get_data() instanceof UdcThreadMsgDtrEventTimeout) {
+			((UdcThreadMsgDtrEventTimeout)data.get_data()).release();
+		}
+		data.release();
+		writer.requestFlush();
+	}
+
+	/**
+	 * 一括送信されたタイムアウト通知を受信する。周期的な書き込みは1回のみ依頼します。
+	 *
+	 * @param 	datas	タイムアウト通知(UdcThreadChannelDtr)のリスト
+	 * @since	UDC1.3
+	 */
+	protected void pushBatch(List datas)
+		throws InterruptedException
+	{
+		for (int i=0; i<datas.size(); i++) {
+			UdcThreadChannelDtr data = (UdcThreadChannelDtr)datas.get(i);
+			if (data.get_dtrType() == UdcThreadMsgId.Event_Timeout && data.get_data() instanceof UdcThreadMsgDtrEventTimeout) {
+				((UdcThreadMsgDtrEventTimeout)data.get_data()).release();
+			}
+			data.release();
+		}
+		writer.requestFlush();
+	}
+}
@@ -0,0 +1,377 @@
+/* *********************************************************************
+ * @(#)UdcConditionMutex.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * スレッド間の排他制御を行うmutexユーティリティ。
+ * 本クラスは、UdcMutexと同一のlock/unlock/cond_wait/cond_signalのインタフェースを、
+ * ReentrantLock/Conditionの組合せによって実現しています。
+ * UdcMutexでは、cond_signal毎に全ての待ちスレッドを起床(notifyAll)しますが、本クラスでは
+ * cond_signalでは待ちスレッドを１つのみ起床し、全ての待ちスレッドを起床する場合は
+ * cond_broadcastを使用します。また、待ち時間はSystem.nanoTimeによる期限で管理するため、
+ * システム時刻の変更の影響を受けません。
+ * 排他獲得の公平性(獲得待ちの順に排他権を獲得するか否か)はコンストラクタで指定します。
+ * 排他獲得・cond_wait等の回数は統計情報として取得できます。
+ *
+ * (注意)
+ *   UdcMutexと同様、cond_waitしているスレッドが存在しない時のcond_signalは保持され、
+ *   次のcond_wait/cond_timewaitは待ち合わせることなく復帰します。
+ *   保持されるcond_signalは、cond_waitしているスレッド数+1件を上限とします。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcMutex
+ * @since	UDC1.3
+ */
+public class UdcConditionMutex extends UdcMutex
+{
+	/**
+	 * 排他制御ロック
+	 * @since	UDC1.3
+	 */
+	private ReentrantLock	mutex;
+
+	/**
+	 * cond_wait起床条件
+	 * @since	UDC1.3
+	 */
+	private Condition		condition;
+
+	/**
+	 * 保持されているcond_signal数
+	 * @since	UDC1.3
+	 */
+	private int				signals = 0;
+
+	/**
+	 * cond_wait状態のスレッド数
+	 * @since	UDC1.3
+	 */
+	private int				waiters = 0;
+
+	/**
+	 * 排他獲得回数
+	 * @since	UDC1.3
+	 */
+	private volatile long	lockCount = 0;
+
+	/**
+	 * 排他獲得時に他スレッドと競合した回数
+	 * @since	UDC1.3
+	 */
+	private volatile long	contendCount = 0;
+
+	/**
+	 * cond_wait/cond_timewait回数
+	 * @since	UDC1.3
+	 */
+	private volatile long	waitCount = 0;
+
+	/**
+	 * cond_timewaitが起床されずに復帰した回数
+	 * @since	UDC1.3
+	 */
+	private volatile long	timeoutCount = 0;
+
+	/**
+	 * cond_signal/cond_broadcast回数
+	 * @since	UDC1.3
+	 */
+	private volatile long	signalCount = 0;
+
+	/**
+	 * コンストラクタ(非公平モード)
+	 *
+	 * @since	UDC1.3
+	 */
+	public UdcConditionMutex()
+	{
+		this(false);
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	fair	公平モード(排他獲得待ちの順に排他権を獲得する)か否か
+	 * @since	UDC1.3
+	 */
+	public UdcConditionMutex(boolean fair)
+	{
+		mutex = new ReentrantLock(fair);
+		condition = mutex.newCondition();
+	}
+
+	/**
+	 * 公平モードか否かを取得する。
+	 *
+	 * @return	公平モードか否か
+	 * @since	UDC1.3
+	 */
+	public boolean isFair()
+	{
+		return mutex.isFair();
+	}
+
+	/**
+	 * 他スレッドとの排他権獲得を行います。既に他スレッドによって排他権獲得中の場合、
+	 * 排他権獲得スレッドが解放するまで待ち状態となります。
+	 * (注意）
+	 *   排他権の解放(unlock)は、排他権を獲得したスレッドと同一でないと解放できません。
+	 *
+	 * @since	UDC1.3
+	 */
+	public void lock() throws InterruptedException
+	{
+		boolean contend = false;
+		if (! mutex.tryLock()) {
+			contend = true;
+			mutex.lockInterruptibly();
+		}
+		lockCount ++;
+		if (contend) {
+			contendCount ++;
+		}
+	}
+
+	/**
+	 * 他スレッドとの排他権解放を行います。自スレッドで排他権獲得中ならば、排他権を解放する
+	 * と同時に他スレッドで排他権獲得待ち状態のスレッドを起床します。
+	 * 自スレッドで排他権獲得中でなければ何も行いません。
+	 *
+	 * @since	UDC1.3
+	 */
+	public void unlock()
+	{
+		if (mutex.isHeldByCurrentThread()) {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * cond_wait状態のスレッドを１つ起床します。
+	 * 自スレッドで排他権獲得中でない場合、一時的に排他権を獲得して起床します。
+	 *
+	 * @since	UDC1.3
+	 */
+	public void cond_signal()
+	{
+		boolean held = mutex.isHeldByCurrentThread();
+		if (! held) {
+			mutex.lock();
+		}
+		try {
+			if (signals <= waiters) {
+				signals ++;
+			}
+			signalCount ++;
+			condition.signal();
+		} finally {
+			if (! held) {
+				mutex.unlock();
+			}
+		}
+	}
+
+	/**
+	 * cond_wait状態の全てのスレッドを起床します。
+	 * 自スレッドで排他権獲得中でない場合、一時的に排他権を獲得して起床します。
+	 *
+	 * @since	UDC1.3
+	 */
+	public void cond_broadcast()
+	{
+		boolean held = mutex.isHeldByCurrentThread();
+		if (! held) {
+			mutex.lock();
+		}
+		try {
+			signals = waiters + 1;
+			signalCount ++;
+			condition.signalAll();
+		} finally {
+			if (! held) {
+				mutex.unlock();
+			}
+		}
+	}
+
+	/**
+	 * 自スレッドをcond_wait状態(cond_signalによる起床待ち)にします。
+	 * 注意）
+	 * 　本メンバは、自スレッドで排他権獲得中でなければcond_wait状態に遷移しません。
+	 *   内部的には、一次的に排他権が解放されますが、起床と同時に排他権が確保されます。
+	 *
+	 * @since	UDC1.3
+	 */
+	public void cond_wait() throws InterruptedException
+	{
+		if (! mutex.isHeldByCurrentThread()) {
+			return;
+		}
+		waitCount ++;
+		waiters ++;
+		try {
+			while (signals <= 0) {
+				condition.await();
+			}
+			signals --;
+		} finally {
+			waiters --;
+		}
+	}
+
+	/**
+	 * 自スレッドをcond_wait状態(cond_signalによる起床待ち)にします。
+	 * cond_waitメンバとの違いは、指定したmilisecミリ秒待って起床されなかったら
+	 * 自動的に起床・復帰します。milisecが0以下の場合は、UdcMutexと同様に
+	 * cond_signalで起床されるまで待ちます。
+	 * 注意）
+	 * 　本メンバは、自スレッドで排他権獲得中でなければcond_wait状態に遷移しません。
+	 *
+	 * @param	milisec		cond_wait状態から復帰するまでの最大待ち時間(ミリ秒、0以下は無期限)
+	 * @since	UDC1.3
+	 */
+	public void cond_timewait(long milisec) throws InterruptedException
+	{
+		if (! mutex.isHeldByCurrentThread()) {
+			return;
+		}
+		if (milisec <= 0) {
+			cond_wait();
+			return;
+		}
+		long remain = TimeUnit.MILLISECONDS.toNanos(milisec);
+		waitCount ++;
+		waiters ++;
+		try {
+			while (signals <= 0) {
+				if (remain <= 0) {
+					timeoutCount ++;
+					return;
+				}
+				remain = condition.awaitNanos(remain);
+			}
+			signals --;
+		} finally {
+			waiters --;
+		}
+	}
+
+	/**
+	 * 自スレッドでmilisecミリ秒間就寝します。他スレッドからcond_signalがコール
+	 * されるとmilisecで指定した時間に満たなくとも起床されます。
+	 *
+	 * @param	milisec	就寝時間(ミリ秒)
+	 * @since	UDC1.3
+	 */
+	public void sleep(long milisec) throws InterruptedException
+	{
+		lock();
+		try {
+			cond_timewait(milisec);
+		} finally {
+			unlock();
+		}
+	}
+
+	/**
+	 * 排他獲得回数を取得する。
+	 *
+	 * @return	排他獲得回数
+	 * @since	UDC1.3
+	 */
+	public long getLockCount()
+	{
+		return lockCount;
+	}
+
+	/**
+	 * 排他獲得時に他スレッドと競合した回数を取得する。
+	 *
+	 * @return	競合回数
+	 * @since	UDC1.3
+	 */
+	public long getContendCount()
+	{
+		return contendCount;
+	}
+
+	/**
+	 * cond_wait/cond_timewait回数を取得する。
+	 *
+	 * @return	cond_wait/cond_timewait回数
+	 * @since	UDC1.3
+	 */
+	public long getWaitCount()
+	{
+		return waitCount;
+	}
+
+	/**
+	 * cond_timewaitが起床されずに復帰した回数を取得する。
+	 *
+	 * @return	タイムアウト回数
+	 * @since	UDC1.3
+	 */
+	public long getTimeoutCount()
+	{
+		return timeoutCount;
+	}
+
+	/**
+	 * cond_signal/cond_broadcast回数を取得する。
+	 *
+	 * @return	cond_signal/cond_broadcast回数
+	 * @since	UDC1.3
+	 */
+	public long getSignalCount()
+	{
+		return signalCount;
+	}
+
+	/**
+	 * 排他獲得待ち状態のスレッド数(概数)を取得する。
+	 *
+	 * @return	排他獲得待ち状態のスレッド数
+	 * @since	UDC1.3
+	 */
+	public int getQueueLength()
+	{
+		return mutex.getQueueLength();
+	}
+
+	/**
+	 * 統計情報を初期化する。
+	 *
+	 * @since	UDC1.3
+	 */
+	public void resetCount()
+	{
+		mutex.lock();
+		lockCount = 0;
+		contendCount = 0;
+		waitCount = 0;
+		timeoutCount = 0;
+		signalCount = 0;
+		mutex.unlock();
+	}
+
+	/**
+	 * 本インスタンスの文字列情報を取得する。
+	 *
+	 * @return	本インスタンス情報
+	 * @since	UDC1.3
+	 */
+	public String toString()
+	{
+		return "lock=" + lockCount + " contend=" + contendCount + " wait=" + waitCount
+				+ " timeout=" + timeoutCount + " signal=" + signalCount + " queue=" + getQueueLength();
+	}
+}
@@ -7,6 +7,9 @@
 package udc.util;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
 import java.lang.*;
 import java.io.*;
 import java.sql.*;
@@ -16,11 +19,25 @@ import java.sql.*;
  * JDBCのDBコネクションプールクラス。
  * 本クラスでは、ユーザが確保したDBコネクションをリスト管理する。
  *
+ * DBコネクションの確保・解放は以下のように行い、タイマ登録や待ち毎のチャネル生成を伴いません。
+ *  ・スレッド毎に最後に使用したDBコネクションを保持し、未使用状態であれば優先して確保します。
+ *  ・未使用状態のDBコネクションは、最後に解放されたものから順に確保します。
+ *  ・空きがなく確保待ちのスレッドがある場合、解放されたDBコネクションは最も長く待っている
+ *    スレッドに直接引き渡します。
+ *  ・DBコネクションからプール内の管理情報へは、同一性(==)による検索を行います。
+ * 確保時には、一定時間(validateIdleTime)以上未使用だったDBコネクションの有効性を
+ * Connection.isValidで確認し、無効なDBコネクションはプールから削除します。
+ * URL等を指定してオープンしたDBコネクションの場合は、同じDBコネクション名で再オープンします。
+ * また、未使用時間(idleTimeout)を設定すると、タイマ管理により周期的に長時間未使用の
+ * DBコネクションをクローズしてプールから削除します(evictIdle)。
+ * プール内のDBコネクションは、それぞれPreparedStatementキャッシュ(UdcStatementCache)を持ち、
+ * prepareStatementで取得したPreparedStatementを再利用します。
+ *
  * @author  Takayuki Uchida
  * @version 1.0, 18 Jan 2003
  * @since   UDC1.0
  */
-public class UdcDBConnectionPool extends UdcMutex
+public class UdcDBConnectionPool extends UdcConditionMutex
 {
 	public final static String 	Cache_url		= "url";
 	public final static String 	Cache_usr		= "usr";
@@ -31,29 +48,110 @@ public class UdcDBConnectionPool extends UdcMutex
 	public final static String 	Cache_timerId	= "timerId";
 
 	/**
-	 * 未使用状態のDBコネクションリスト。
-	 * @since   UDC1.0
+	 * プールしている全DBコネクション(キー:Connection 値:UdcDBConnectionEntry)。
+	 * キーは同一性(==)で比較します。参照・更新はconnMapで排他すること。
+	 * @since   UDC1.3
 	 */
-	protected Vector emptyList = new Vector();
+	protected IdentityHashMap connMap = new IdentityHashMap();
 
 	/**
-	 * 使用状態のDBコネクションリスト。
-	 * @since   UDC1.0
+	 * プールしている全DBコネクション(キー:DBコネクション名 値:UdcDBConnectionEntry)。
+	 * 参照・更新はconnMapで排他すること。
+	 * @since   UDC1.3
 	 */
-	protected Vector usedList = new Vector();
+	protected LinkedHashMap nameMap = new LinkedHashMap();
 
 	/**
-	 * DBコネクション空き待ちリスト。
-	 * @since   UDC1.0
+	 * 未使用状態のDBコネクション(UdcDBConnectionEntry)。先頭が最後に解放されたDBコネクション。
+	 * 他スレッドに確保済みのDBコネクションが残っている場合があり、確保時に読み飛ばします。
+	 * @since   UDC1.3
+	 */
+	protected ConcurrentLinkedDeque idleList = new ConcurrentLinkedDeque();
+
+	/**
+	 * 確保待ちのスレッド(UdcDBConnectionWaiter)。先頭が最も長く待っているスレッド。
+	 * @since   UDC1.3
+	 */
+	protected ConcurrentLinkedQueue waitList = new ConcurrentLinkedQueue();
+
+	/**
+	 * スレッド毎に最後に使用したDBコネクション(UdcDBConnectionEntry)。
+	 * @since   UDC1.3
+	 */
+	protected ThreadLocal affinity = new ThreadLocal();
+
+	/**
+	 * 使用状態のDBコネクション数。
+	 * @since   UDC1.3
 	 */
-	protected Vector waitList = new Vector();
+	protected AtomicInteger usedCount = new AtomicInteger();
 
 	/**
-	 *  空きスレッド確保待ちタイマー。
+	 *  未使用DBコネクションの削除タイマー。
 	 * @since   UDC1.0
 	 */
 	protected UdcTimerManager timerManager;
 
+	/**
+	 * 有効性を確認する未使用時間(単位：ミリ秒)。
+	 * @since   UDC1.3
+	 */
+	protected long validateIdleTime = 500;
+
+	/**
+	 * 有効性の確認(Connection.isValid)の待ち時間(単位：秒)。負値の場合は確認しない。
+	 * @since   UDC1.3
+	 */
+	protected int validateTimeout = 5;
+
+	/**
+	 * 未使用DBコネクションを削除する未使用時間(単位：ミリ秒)。0の場合は削除しない。
+	 * @since   UDC1.3
+	 */
+	protected long idleTimeout = 0;
+
+	/**
+	 * 未使用DBコネクションの削除時に残す未使用DBコネクション数。
+	 * @since   UDC1.3
+	 */
+	protected int minIdle = 0;
+
+	/**
+	 * 未使用DBコネクションの削除タイマの識別子。
+	 * @since   UDC1.3
+	 */
+	protected int evictTimerIndex = -1;
+
+	/**
+	 * DBコネクション毎のPreparedStatementキャッシュの保持数。
+	 * @since   UDC1.3
+	 */
+	protected int statementCacheSize = UdcStatementCache.DefaultSize;
+
+	/**
+	 * 確保待ちのスレッドに直接引き渡した回数。
+	 * @since   UDC1.3
+	 */
+	protected AtomicLong handoffCount = new AtomicLong();
+
+	/**
+	 * 有効性の確認で無効だったDBコネクション数。
+	 * @since   UDC1.3
+	 */
+	protected AtomicLong invalidCount = new AtomicLong();
+
+	/**
+	 * 未使用時間の経過により削除したDBコネクション数。
+	 * @since   UDC1.3
+	 */
+	protected AtomicLong evictCount = new AtomicLong();
+
+	/**
+	 * 未使用DBコネクションの削除を作業スレッドに依頼済みか否か。
+	 * @since   UDC1.3
+	 */
+	protected AtomicBoolean evictRequested = new AtomicBoolean(false);
+
 
 	/**
 	 * コンストラクタ。
@@ -74,7 +172,7 @@ public class UdcDBConnectionPool extends UdcMutex
 	 */
 	public int getSize()
 	{
-		return emptyList.size() + usedList.size();
+		synchronized (connMap) { return connMap.size(); }
 	}
 
 	/**
@@ -85,7 +183,8 @@ public class UdcDBConnectionPool extends UdcMutex
 	 */
 	public int getEmptySize()
 	{
-		return emptyList.size();
+		int num = getSize() - usedCount.get();
+		return (num > 0) ? num : 0;
 	}
 
 	/**
@@ -96,7 +195,261 @@ public class UdcDBConnectionPool extends UdcMutex
 	 */
 	public int getUsedSize()
 	{
-		return usedList.size();
+		return usedCount.get();
+	}
+
+	/**
+	 * 確保待ちのスレッド数を取得する。
+	 *
+	 * @return 確保待ちのスレッド数
+	 * @since   UDC1.3
+	 */
+	public int getWaitSize()
+	{
+		return waitList.size();
+	}
+
+	/**
+	 * 確保待ちのスレッドに直接引き渡した回数を取得する。
+	 *
+	 * @return 引き渡した回数
+	 * @since   UDC1.3
+	 */
+	public long getHandoffCount()
+	{
+		return handoffCount.get();
+	}
+
+	/**
+	 * 有効性の確認で無効だったDBコネクション数を取得する。
+	 *
+	 * @return 無効だったDBコネクション数
+	 * @since   UDC1.3
+	 */
+	public long getInvalidCount()
+	{
+		return invalidCount.get();
+	}
+
+	/**
+	 * 未使用時間の経過により削除したDBコネクション数を取得する。
+	 *
+	 * @return 削除したDBコネクション数
+	 * @since   UDC1.3
+	 */
+	public long getEvictCount()
+	{
+		return evictCount.get();
+	}
+
+	/**
+	 * 確保時に有効性を確認する未使用時間を取得する。
+	 *
+	 * @return 未使用時間(単位：ミリ秒)
+	 * @since   UDC1.3
+	 */
+	public long getValidateIdleTime()
+	{
+		return validateIdleTime;
+	}
+
+	/**
+	 * 確保時に有効性を確認する未使用時間を設定する。
+	 * 指定時間以上未使用だったDBコネクションは、確保時にConnection.isValidで有効性を確認します。
+	 * 0を指定すると、確保の度に確認します。デフォルトは500ミリ秒です。
+	 *
+	 * @param	milisec		未使用時間(単位：ミリ秒)
+	 * @since   UDC1.3
+	 */
+	public void setValidateIdleTime(long milisec)
+	{
+		validateIdleTime = milisec;
+	}
+
+	/**
+	 * 有効性の確認の待ち時間を取得する。
+	 *
+	 * @return 待ち時間(単位：秒)
+	 * @since   UDC1.3
+	 */
+	public int getValidateTimeout()
+	{
+		return validateTimeout;
+	}
+
+	/**
+	 * 有効性の確認(Connection.isValid)の待ち時間を設定する。
+	 * 負値を指定すると、有効性を確認しません。デフォルトは5秒です。
+	 *
+	 * @param	sec		待ち時間(単位：秒)
+	 * @since   UDC1.3
+	 */
+	public void setValidateTimeout(int sec)
+	{
+		validateTimeout = sec;
+	}
+
+	/**
+	 * 未使用DBコネクションを削除する未使用時間を取得する。
+	 *
+	 * @return 未使用時間(単位：ミリ秒)
+	 * @since   UDC1.3
+	 */
+	public long getIdleTimeout()
+	{
+		return idleTimeout;
+	}
+
+	/**
+	 * 未使用DBコネクションを削除する未使用時間を設定する。
+	 * 0より大きい値を指定すると、タイマ管理により指定時間周期でevictIdleを実行します。
+	 * 0を指定すると、周期的な削除を停止します。
+	 *
+	 * @param	milisec		未使用時間(単位：ミリ秒)
+	 * @param	min			削除時に残す未使用DBコネクション数
+	 * @see		#evictIdle()
+	 * @since   UDC1.3
+	 */
+	public void setIdleTimeout(long milisec, int min)
+	{
+		synchronized (connMap) {
+			idleTimeout = milisec;
+			minIdle = min;
+			if (timerManager == null) {
+				return;
+			}
+			try {
+				if (evictTimerIndex >= 0) {
+					timerManager.unregistrateTimer(evictTimerIndex);
+					evictTimerIndex = -1;
+				}
+				if (idleTimeout > 0) {
+					evictTimerIndex = timerManager.registrateTimer(UdcThreadMsgDtrEventTimeout.TimeInterval,
+												idleTimeout, new UdcDBConnectionEvictChannel(this));
+				}
+			} catch (InterruptedException exp) {}
+		}
+	}
+
+	/**
+	 * DBコネクション毎のPreparedStatementキャッシュの保持数を取得する。
+	 *
+	 * @return 保持数
+	 * @since   UDC1.3
+	 */
+	public int getStatementCacheSize()
+	{
+		return statementCacheSize;
+	}
+
+	/**
+	 * DBコネクション毎のPreparedStatementキャッシュの保持数を設定する。
+	 * 生成済みのキャッシュにも反映します。0を指定すると、キャッシュを行いません。
+	 * デフォルトはUdcStatementCache.DefaultSizeです。
+	 *
+	 * @param	size	保持数
+	 * @since   UDC1.3
+	 */
+	public void setStatementCacheSize(int size)
+	{
+		Object[] entries;
+		synchronized (connMap) {
+			statementCacheSize = size;
+			entries = nameMap.values().toArray();
+		}
+		for (int i=0; i<entries.length; i++) {
+			UdcStatementCache cache = ((UdcDBConnectionEntry)entries[i]).stmtCache;
+			if (cache != null) {
+				cache.setMaxSize(size);
+			}
+		}
+	}
+
+	/**
+	 * プール内のDBコネクションのPreparedStatementキャッシュを取得する。
+	 *
+	 * @return PreparedStatementキャッシュ(プール内のDBコネクションでない場合はnull)
+	 * @param	conn	DBコネクション
+	 * @since   UDC1.3
+	 */
+	public UdcStatementCache getStatementCache(Connection conn)
+	{
+		UdcDBConnectionEntry e = findEntry(conn);
+		if (e == null) {
+			return null;
+		}
+		synchronized (e) {
+			if (e.stmtCache == null) {
+				e.stmtCache = new UdcStatementCache(e.conn, statementCacheSize);
+			}
+			return e.stmtCache;
+		}
+	}
+
+	/**
+	 * DBコネクションのPreparedStatementキャッシュからSQL文のPreparedStatementを取得する。
+	 * 取得したPreparedStatementはキャッシュで保持しているため、closeしないでください。
+	 * プール内のDBコネクションでない場合は、Connection.prepareStatementで生成します。
+	 *
+	 * @return PreparedStatement
+	 * @param	conn	allocateで確保したDBコネクション
+	 * @param	sql		SQL文
+	 * @exception	SQLException	PreparedStatementの生成エラー
+	 * @see		UdcStatementCache#prepareStatement(String)
+	 * @since   UDC1.3
+	 */
+	public PreparedStatement prepareStatement(Connection conn, String sql)
+		throws SQLException
+	{
+		UdcStatementCache cache = getStatementCache(conn);
+		if (cache == null) {
+			return conn.prepareStatement(sql);
+		}
+		return cache.prepareStatement(sql);
+	}
+
+	/**
+	 * 全DBコネクションのPreparedStatementキャッシュのヒット数の合計を取得する。
+	 *
+	 * @return ヒット数
+	 * @since   UDC1.3
+	 */
+	public long getStatementHitCount()
+	{
+		Object[] entries;
+		synchronized (connMap) {
+			entries = nameMap.values().toArray();
+		}
+		long num = 0;
+		for (int i=0; i<entries.length; i++) {
+			UdcStatementCache cache = ((UdcDBConnectionEntry)entries[i]).stmtCache;
+			if (cache != null) {
+				num += cache.getHitCount();
+			}
+		}
+		return num;
+	}
+
+	/**
+	 * 全DBコネクションのPreparedStatementキャッシュのミス数の合計を取得する。
+	 *
+	 * @return ミス数
+	 * @since   UDC1.3
+	 */
+	public long getStatementMissCount()
+	{
+		Object[] entries;
+		synchronized (connMap) {
+			entries = nameMap.values().toArray();
+		}
+		long num = 0;
+		for (int i=0; i<entries.length; i++) {
+			UdcStatementCache cache = ((UdcDBConnectionEntry)entries[i]).stmtCache;
+			if (cache != null) {
+				num += cache.getMissCount();
+			}
+		}
+		return num;
 	}
 
 	/**
@@ -110,14 +463,12 @@ public class UdcDBConnectionPool extends UdcMutex
 	 */
 	public Connection add(Connection conn, String connName)
 	{
-		if (UdcCache.searchCacheList(emptyList, Cache_connName, connName) != null
-		  || UdcCache.searchCacheList(usedList, Cache_connName, connName) != null) {
-			return null;
-		}
 		UdcCache c = new UdcCache();
 		c.setAttr(Cache_conn, conn);
 		c.setAttr(Cache_connName, new String(connName));
-		synchronized (emptyList) { emptyList.add(c); }
+		if (addEntry(c) == null) {
+			return null;
+		}
 		return conn;
 	}
 
@@ -135,9 +486,10 @@ public class UdcDBConnectionPool extends UdcMutex
 	public Connection add(String url, String user, String passwd, String connName)
 		throws SQLException
 	{
-		if (UdcCache.searchCacheList(emptyList, Cache_connName, connName) != null
-		  || UdcCache.searchCacheList(usedList, Cache_connName, connName) != null) {
-			return null;
+		synchronized (connMap) {
+			if (nameMap.containsKey(connName)) {
+				return null;
+			}
 		}
 
 		Connection conn = DriverManager.getConnection(url,user,passwd);
@@ -148,10 +500,36 @@ public class UdcDBConnectionPool extends UdcMutex
 		c.setAttr(Cache_url, new String(url));
 		c.setAttr(Cache_usr, new String(user));
 		c.setAttr(Cache_passwd, new String(passwd));
-		synchronized (emptyList) { emptyList.add(c); }
+		if (addEntry(c) == null) {
+			try { conn.close(); } catch(Exception ex) {}
+			return null;
+		}
 		return conn;
 	}
 
+	/**
+	 * DBコネクション情報をプールに登録し、未使用状態にする。
+	 * 確保待ちのスレッドがある場合は、そのスレッドに引き渡します。
+	 *
+	 * @return 登録したDBコネクション情報(DBコネクション名またはDBコネクションが登録済みの場合はnull)
+	 * @param	c			DBコネクション情報
+	 * @since   UDC1.3
+	 */
+	protected UdcDBConnectionEntry addEntry(UdcCache c)
+	{
+		UdcDBConnectionEntry e = new UdcDBConnectionEntry(c);
+		synchronized (connMap) {
+			if (nameMap.containsKey(e.name) || connMap.containsKey(e.conn)) {
+				return null;
+			}
+			connMap.put(e.conn, e);
+			nameMap.put(e.name, e);
+			usedCount.incrementAndGet();
+		}
+		checkin(e);
+		return e;
+	}
+
 	/**
 	 * 指定したDBコネクションをプールから削除する。本メンバ関数では
 	 * 使用/未使用状態に関わらず無条件にプールから削除する。
@@ -163,18 +541,65 @@ public class UdcDBConnectionPool extends UdcMutex
 	 */
 	public Connection remove(Connection conn)
 	{
-		UdcCache c;
-		synchronized (emptyList) {
-			if ((c=searchList(emptyList, conn)) != null) {
-				emptyList.remove(c);
-				return conn;
+		UdcDBConnectionEntry e = findEntry(conn);
+		if (e == null || ! removeEntry(e)) {
+			return null;
+		}
+		return conn;
+	}
+
+	/**
+	 * DBコネクションのDBコネクション情報を検索する。
+	 * 本スレッドが最後に使用したDBコネクションであれば、プール内の検索を行いません。
+	 *
+	 * @return DBコネクション情報(プール内のDBコネクションでない場合はnull)
+	 * @param	conn	DBコネクション
+	 * @since   UDC1.3
+	 */
+	protected UdcDBConnectionEntry findEntry(Connection conn)
+	{
+		if (conn == null) {
+			return null;
+		}
+		UdcDBConnectionEntry e = (UdcDBConnectionEntry)affinity.get();
+		if (e != null && e.conn == conn && e.state.get() != UdcDBConnectionEntry.Removed) {
+			return e;
+		}
+		synchronized (connMap) {
+			return (UdcDBConnectionEntry)connMap.get(conn);
+		}
+	}
+
+	/**
+	 * DBコネクション情報をプールから削除する。
+	 * PreparedStatementキャッシュで保持しているPreparedStatementはクローズします。
+	 *
+	 * @return 削除したか否か(削除済みの場合はfalse)
+	 * @param	e		DBコネクション情報
+	 * @since   UDC1.3
+	 */
+	protected boolean removeEntry(UdcDBConnectionEntry e)
+	{
+		synchronized (connMap) {
+			int old = e.state.getAndSet(UdcDBConnectionEntry.Removed);
+			if (old == UdcDBConnectionEntry.Removed) {
+				return false;
 			}
-			if ((c=searchList(usedList, conn)) != null) {
-				usedList.remove(c);
-				return conn;
+			if (old == UdcDBConnectionEntry.Used) {
+				usedCount.decrementAndGet();
 			}
+			connMap.remove(e.conn);
+			nameMap.remove(e.name);
 		}
-		return null;
+		if (e.queued.get()) {
+			idleList.remove(e);
+		}
+		synchronized (e) {
+			if (e.stmtCache != null) {
+				e.stmtCache.clear();
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -186,25 +611,17 @@ public class UdcDBConnectionPool extends UdcMutex
 	 */
 	public void removeAndClose()
 	{
-		int i;
-		UdcCache c;
-		Connection conn;
-		synchronized (emptyList) {
-			for (i=0; i<emptyList.size(); i++) {
-				c = (UdcCache)emptyList.get(i);
-				if ((conn=(Connection)c.getAttr(Cache_conn)) != null) {
-					try { conn.close(); } catch(Exception ex) {}
-				}
-			}
-			for (i=0; i<usedList.size(); i++) {
-				c = (UdcCache)usedList.get(i);
-				if ((conn=(Connection)c.getAttr(Cache_conn)) != null) {
-					try { conn.close(); } catch(Exception ex) {}
-				}
+		Object[] entries;
+		synchronized (connMap) {
+			entries = nameMap.values().toArray();
+		}
+		for (int i=0; i<entries.length; i++) {
+			UdcDBConnectionEntry e = (UdcDBConnectionEntry)entries[i];
+			if (removeEntry(e) && e.conn != null) {
+				try { e.conn.close(); } catch(Exception ex) {}
 			}
-			emptyList.clear();
-			usedList.clear();
 		}
+		idleList.clear();
 	}
 
 	/**
@@ -216,19 +633,14 @@ public class UdcDBConnectionPool extends UdcMutex
 	 */
 	public Connection try_allocate()
 	{
-		int ecnt;
-		synchronized (emptyList) { ecnt = emptyList.size(); }
-		if (ecnt <= 0) {
+		UdcDBConnectionEntry e;
+		do {
+			e = acquire();
+		} while (e != null && ! validate(e));
+		if (e == null) {
 			return null;
 		}
-
-		UdcCache c;
-		synchronized (emptyList) {
-			c = (UdcCache)emptyList.get(0);
-			emptyList.remove(c);
-			usedList.add(c);
-		}
-		return (Connection)c.getAttr(Cache_conn);
+		return e.conn;
 	}
 
 	/**
@@ -236,32 +648,37 @@ public class UdcDBConnectionPool extends UdcMutex
 	 * 確保されたDBコネクションは使用状態に状態遷移する。本メンバでは、空きがなければ空きが確保できるまで待ちます。
 	 *
 	 * @return	確保したDBコネクション
+	 * @param	waittime	空DB-connection無し時の確保待ち時間(単位：ミリ秒)
 	 * @since   UDC1.0
 	 */
 	public Connection allocate(long waittime)
 	{
-		int ecnt;
-		synchronized (emptyList) { ecnt = emptyList.size(); }
-		if (ecnt <= 0) {
-			allocateWait(waittime);
-			synchronized (emptyList) { ecnt = emptyList.size(); }
-			if (ecnt <= 0) {
-				return null;
+		Object fr = UdcFlightRecorder.checkoutBegin();
+		long deadline = System.nanoTime() + waittime * 1000000L;
+		UdcDBConnectionEntry e;
+		while (true) {
+			e = acquire();
+			if (e == null) {
+				long remain = deadline - System.nanoTime();
+				if (remain > 0) {
+					e = acquireWait(remain);
+				}
+			}
+			if (e == null || validate(e)) {
+				break;
 			}
 		}
-
-		UdcCache c;
-		synchronized (emptyList) {
-			c = (UdcCache)emptyList.get(0);
-			emptyList.remove(c);
-			usedList.add(c);
+		UdcFlightRecorder.dbCheckout(this, fr, (e != null));
+		if (e == null) {
+			return null;
 		}
-		return (Connection)c.getAttr(Cache_conn);
+		return e.conn;
 	}
 
 	/**
 	 * allocateによって確保されたDBコネクションを解放する。
 	 * 解放されたDBコネクションは未使用状態に状態遷移する。
+	 * 確保待ちのスレッドがある場合は、最も長く待っているスレッドに引き渡します。
 	 *
 	 * @return 解放したか否か（解放できない場合は指定したDBコネクションが確保されていない場合）
 	 * @param	conn	DBコネクション
@@ -269,86 +686,224 @@ public class UdcDBConnectionPool extends UdcMutex
 	 */
 	public boolean release(Connection conn)
 	{
-		boolean res = false;
-		synchronized (emptyList) {
-			UdcCache c = searchList(usedList, conn);
-			if (c != null) {
-				usedList.remove(c);
-				emptyList.add(c);
-				resumeWait();
-				res = true;
+		UdcDBConnectionEntry e = findEntry(conn);
+		if (e == null || e.state.get() != UdcDBConnectionEntry.Used) {
+			return false;
+		}
+		affinity.set(e);
+		return checkin(e);
+	}
+
+	/**
+	 * 使用状態のDBコネクションを確保待ちのスレッドに引き渡すか、未使用状態にする。
+	 *
+	 * @return 引き渡したか未使用状態にしたか(削除済みの場合はfalse)
+	 * @param	e		DBコネクション情報
+	 * @since   UDC1.3
+	 */
+	protected boolean checkin(UdcDBConnectionEntry e)
+	{
+		e.lastUsed = System.nanoTime();
+		while (true) {
+			if (e.state.get() != UdcDBConnectionEntry.Used) {
+				return false;
 			}
+			UdcDBConnectionWaiter w;
+			while ((w = (UdcDBConnectionWaiter)waitList.poll()) != null) {
+				if (w.handoff(e)) {
+					handoffCount.incrementAndGet();
+					return true;
+				}
+			}
+			if (! e.state.compareAndSet(UdcDBConnectionEntry.Used, UdcDBConnectionEntry.Idle)) {
+				return false;
+			}
+			usedCount.decrementAndGet();
+			if (e.queued.compareAndSet(false, true)) {
+				e.queuedAt = e.lastUsed;
+				idleList.addFirst(e);
+			}
+				/* 未使用状態にする間に待ち登録したスレッドがあれば、取り戻して引き渡す */
+			if (waitList.isEmpty() || ! e.state.compareAndSet(UdcDBConnectionEntry.Idle, UdcDBConnectionEntry.Used)) {
+				return true;
+			}
+			usedCount.incrementAndGet();
 		}
-		return res;
 	}
 
 	/**
-	 * 空DB-Connectionが存在しないため、waittime時間の間にDB-Connectionが
-	 * 空くのを待って確保する。本メンバ関数は、この空き待ち登録を行ないます。
+	 * 未使用状態のDBコネクションを確保する。
+	 * 本スレッドが最後に使用したDBコネクション、最後に解放されたDBコネクションの順に確保を試みます。
 	 *
-	 * @param	waittime	空DB-connection無し時の確保待ち時間(単位：ミリ秒)
-	 * @since	UDC1.0
+	 * @return 確保したDBコネクション情報(空きがない場合はnull)
+	 * @since   UDC1.3
 	 */
-	protected void allocateWait(long waittime)
+	protected UdcDBConnectionEntry acquire()
 	{
-		int index = -1;
-		UdcThreadChannel channel = new UdcThreadChannel();
-		try {	
-			index = timerManager.registrateTimer(UdcThreadMsgDtrEventTimeout.Timeout, waittime, channel);
-		} catch (InterruptedException exp) {
-			return;
+		UdcDBConnectionEntry e = (UdcDBConnectionEntry)affinity.get();
+		if (e != null && e.state.compareAndSet(UdcDBConnectionEntry.Idle, UdcDBConnectionEntry.Used)) {
+			usedCount.incrementAndGet();
+			return e;
 		}
-		UdcCache wc = new UdcCache();
-		wc.setAttr(Cache_channel, channel);
-		wc.setAttr(Cache_timerId, new Integer(index));
-		synchronized (waitList) {
-			waitList.add(wc);
+		while ((e = (UdcDBConnectionEntry)idleList.pollFirst()) != null) {
+			e.queued.set(false);
+			if (e.state.compareAndSet(UdcDBConnectionEntry.Idle, UdcDBConnectionEntry.Used)) {
+				usedCount.incrementAndGet();
+				affinity.set(e);
+				return e;
+			}
 		}
-		// T.O|起床待ち 
-		try { channel.pull(); } catch(Exception exp) {}
+		return null;
 	}
 
 	/**
-	 * 空DB-Connectionが存在しないため、waittime時間の間にDB-Connectionが
-	 * 空くのを待って確保する。本メンバ関数は、DB-Connection解放時に待ち中の確保処理を起床する。
+	 * 空DB-Connectionが存在しないため、指定時間の間にDB-Connectionが
+	 * 空くのを待って確保する。本メンバ関数は、DB-Connectionが引き渡されるか指定時間が経過するまで
+	 * 待ち合わせます。割り込まれた場合は、割り込み状態を保持したまま待ちを終了します。
 	 *
-	 * @since	UDC1.0
+	 * @return 確保したDBコネクション情報(確保できない場合はnull)
+	 * @param	nanos		確保待ち時間(単位：ナノ秒)
+	 * @since	UDC1.3
 	 */
-	protected void resumeWait()
+	protected UdcDBConnectionEntry acquireWait(long nanos)
 	{
-		int wcnt;
-		UdcCache wc;
-		synchronized (waitList) { wcnt = waitList.size(); }
-		if (wcnt <= 0) {
-			return;
+		long deadline = System.nanoTime() + nanos;
+		UdcDBConnectionWaiter w = new UdcDBConnectionWaiter(Thread.currentThread());
+		waitList.offer(w);
+		while (true) {
+			UdcDBConnectionEntry e = w.get();
+			if (e != null) {
+				affinity.set(e);
+				return e;
+			}
+				/* 待ち登録前に解放されたDBコネクションを確保 */
+			e = acquire();
+			if (e != null) {
+				if (w.cancel()) {
+					waitList.remove(w);
+					return e;
+				}
+				checkin(e);
+				continue;
+			}
+			long remain = deadline - System.nanoTime();
+			if (remain <= 0 || Thread.currentThread().isInterrupted()) {
+				if (w.cancel()) {
+					waitList.remove(w);
+					return null;
+				}
+				continue;
+			}
+			LockSupport.parkNanos(this, remain);
+		}
+	}
+
+	/**
+	 * 確保したDBコネクションの有効性を確認する。
+	 * 無効な場合はプールから削除してクローズし、URL等を指定してオープンしたDBコネクションであれば
+	 * 同じDBコネクション名で再オープンします。
+	 *
+	 * @return 有効か否か
+	 * @param	e		確保したDBコネクション情報
+	 * @since   UDC1.3
+	 */
+	protected boolean validate(UdcDBConnectionEntry e)
+	{
+		if (validateTimeout < 0 || System.nanoTime() - e.lastUsed < validateIdleTime * 1000000L) {
+			return true;
+		}
+		try {
+			if (e.conn.isValid(validateTimeout)) {
+				return true;
+			}
+		} catch (SQLException exp) {
 		}
-		synchronized (waitList) {
-			wc = (UdcCache)waitList.get(0);
-			waitList.remove(0);
+		invalidCount.incrementAndGet();
+		if (removeEntry(e)) {
+			try { e.conn.close(); } catch(Exception ex) {}
+			String url = (String)e.cache.getAttr(Cache_url);
+			if (url != null) {
+				try {
+					add(url, (String)e.cache.getAttr(Cache_usr), (String)e.cache.getAttr(Cache_passwd), e.name);
+				} catch (SQLException exp) {
+					UdcTrace.tracef(UdcTrace.Level, "UdcDBConnectionPool.validate", " - reopen failed [%s] : %s", e.name, exp);
+				}
+			}
 		}
-		UdcThreadChannel channel = (UdcThreadChannel)wc.getAttr(Cache_channel);
-		try { channel.push(new UdcThreadChannelDtr(0,0xFFFFFFFF)); } catch (InterruptedException exp) {}
+		return false;
 	}
 
 	/**
-	 * DBコネクションリストからDBコネクションで検索する。
+	 * 未使用時間(idleTimeout)以上未使用のDBコネクションをクローズし、プールから削除する。
+	 * 未使用状態のDBコネクションは、setIdleTimeoutで指定した数だけ残します。
+	 * setIdleTimeoutで未使用時間を設定した場合は、タイマ管理の通知を受けた作業スレッド
+	 * (UdcWorkerExecutor)により周期的に実行されます。
 	 *
-	 * @return 検索されたDBコネクション
-	 * @param	list	DBコネクションリスト
-	 * @param	con		DBコネクション
-	 * @since   UDC1.0
+	 * @return	削除したDBコネクション数
+	 * @see		#setIdleTimeout(long,int)
+	 * @since   UDC1.3
 	 */
-	protected UdcCache searchList(Vector list, Connection con)
+	public int evictIdle()
 	{
-		if (con == null) {
-			return null;
+		if (idleTimeout <= 0) {
+			return 0;
 		}
-		for (int i=0; i<list.size(); i++) {
-			if (con == (Connection)((UdcCache)list.get(i)).getAttr(Cache_conn)) {
-				return (UdcCache)list.get(i);
+		long now = System.nanoTime();
+		long timeout = idleTimeout * 1000000L;
+		int idle = getEmptySize();
+		ArrayList victims = new ArrayList();
+		Iterator it = idleList.descendingIterator();
+		while (it.hasNext() && idle > minIdle) {
+			UdcDBConnectionEntry e = (UdcDBConnectionEntry)it.next();
+				/* 格納の古い順に走査し、格納後に未使用時間を経過していなければ以降も経過していない */
+			if (now - e.queuedAt < timeout) {
+				break;
+			}
+				/* 本スレッドが最後に使用したDBコネクションとして格納位置のまま再使用されたものは残す */
+			if (now - e.lastUsed < timeout) {
+				continue;
+			}
+				/* 確保されないよう使用状態にしてから削除 */
+			if (! e.state.compareAndSet(UdcDBConnectionEntry.Idle, UdcDBConnectionEntry.Used)) {
+				continue;
+			}
+			usedCount.incrementAndGet();
+			if (removeEntry(e)) {
+				victims.add(e);
+				idle --;
 			}
 		}
-		return null;
+		for (int i=0; i<victims.size(); i++) {
+			try { ((UdcDBConnectionEntry)victims.get(i)).conn.close(); } catch(Exception ex) {}
+		}
+		evictCount.addAndGet(victims.size());
+		return victims.size();
+	}
+
+	/**
+	 * 未使用DBコネクションの削除(evictIdle)を作業スレッドに依頼する。
+	 * タイマスレッドでDBコネクションのクローズを行わないため、削除タイマの通知から呼び出されます。
+	 * 依頼済みの削除が未実行の場合は、新たに依頼しません。
+	 *
+	 * @see		UdcWorkerExecutor#getShared()
+	 * @since   UDC1.3
+	 */
+	void requestEvict()
+	{
+		if (! evictRequested.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			UdcWorkerExecutor.getShared().execute(new Runnable() {
+				public void run() {
+					evictRequested.set(false);
+					evictIdle();
+				}
+			});
+		} catch (RuntimeException exp) {
+			evictRequested.set(false);
+			UdcTrace.trace(UdcTrace.Level,"UdcDBConnectionPool.requestEvict", " - exception - " + exp);
+		}
 	}
 
 	/**
@@ -359,34 +914,270 @@ public class UdcDBConnectionPool extends UdcMutex
 	 */
 	public String toString()
 	{
-		int i;
-		UdcCache c;
-		Connection conn;
-		StringBuffer str = new StringBuffer();
-		str.append("All Connection Number = " + getSize());		str.append("\n");
-
-		str.append("  EmptyConnection = " + getEmptySize());	str.append("\n");
-		for (i=0; i<emptyList.size(); i++) {
-			c = (UdcCache)emptyList.get(i);
-			str.append("    Name[");	str.append((String)c.getAttr(Cache_connName));	str.append("] ");
-			if ((conn=(Connection)c.getAttr(Cache_conn)) != null) {
-				str.append(conn.toString());		str.append("\n");
+		Object[] entries;
+		synchronized (connMap) {
+			entries = nameMap.values().toArray();
+		}
+		StringBuffer empty = new StringBuffer();
+		StringBuffer used = new StringBuffer();
+		for (int i=0; i<entries.length; i++) {
+			UdcDBConnectionEntry e = (UdcDBConnectionEntry)entries[i];
+			StringBuffer str = (e.state.get() == UdcDBConnectionEntry.Idle) ? empty : used;
+			str.append("    Name[");	str.append(e.name);	str.append("] ");
+			if (e.conn != null) {
+				str.append(e.conn.toString());		str.append("\n");
 			} else {
 				str.append("null\n");
 			}
 		}
 
+		StringBuffer str = new StringBuffer();
+		str.append("All Connection Number = " + entries.length);	str.append("\n");
+		str.append("  EmptyConnection = " + getEmptySize());	str.append("\n");
+		str.append(empty);
 		str.append("  UsedConnection = " + getUsedSize());		str.append("\n");
-		for (i=0; i<usedList.size(); i++) {
-			c = (UdcCache)usedList.get(i);
-			str.append("    Name[");	str.append((String)c.getAttr(Cache_connName));	str.append("] ");
-			if ((conn=(Connection)c.getAttr(Cache_conn)) != null) {
-				str.append(conn.toString());		str.append("\n");
-			} else {
-				str.append("null\n");
-			}
-		}
+		str.append(used);
+		str.append("  WaitThread = " + getWaitSize() + " Handoff = " + getHandoffCount()
+					+ " Invalid = " + getInvalidCount() + " Evict = " + getEvictCount());
+		str.append("\n");
 		return str.toString();
 	}
 }
 
+
+
+/**
+ * DBコネクションプールが管理するDBコネクション情報クラス。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcDBConnectionPool
+ * @since	UDC1.3
+ */
+class UdcDBConnectionEntry
+{
+	/**
+	 * 状態：未使用
+	 * @since	UDC1.3
+	 */
+	static final int	Idle	= 0;
+
+	/**
+	 * 状態：使用中
+	 * @since	UDC1.3
+	 */
+	static final int	Used	= 1;
+
+	/**
+	 * 状態：プールから削除済み
+	 * @since	UDC1.3
+	 */
+	static final int	Removed	= -1;
+
+	/**
+	 * DBコネクション情報(UdcDBConnectionPool.Cache_xxx属性)
+	 * @since	UDC1.3
+	 */
+	final UdcCache		cache;
+
+	/**
+	 * DBコネクション
+	 * @since	UDC1.3
+	 */
+	final Connection	conn;
+
+	/**
+	 * DBコネクション名
+	 * @since	UDC1.3
+	 */
+	final String		name;
+
+	/**
+	 * 状態
+	 * @since	UDC1.3
+	 */
+	final AtomicInteger	state = new AtomicInteger(Used);
+
+	/**
+	 * 未使用DBコネクションリストに格納済みか否か
+	 * @since	UDC1.3
+	 */
+	final AtomicBoolean	queued = new AtomicBoolean(false);
+
+	/**
+	 * 最後に解放された時刻(System.nanoTime)
+	 * @since	UDC1.3
+	 */
+	volatile long		lastUsed;
+
+	/**
+	 * 未使用DBコネクションリストに格納した時刻(System.nanoTime)。
+	 * スレッド親和性により再確保された場合、リスト上の位置は格納時のまま変わりません。
+	 * @since	UDC1.3
+	 */
+	volatile long		queuedAt;
+
+	/**
+	 * PreparedStatementキャッシュ(未使用時はnull)。生成は本インスタンスで排他すること。
+	 * @since	UDC1.3
+	 */
+	volatile UdcStatementCache	stmtCache;
+
+	/**
+	 * コンストラクタ。使用中の状態で生成します。
+	 *
+	 * @param	c		DBコネクション情報
+	 * @since	UDC1.3
+	 */
+	UdcDBConnectionEntry(UdcCache c)
+	{
+		cache = c;
+		conn = (Connection)c.getAttr(UdcDBConnectionPool.Cache_conn);
+		name = (String)c.getAttr(UdcDBConnectionPool.Cache_connName);
+		lastUsed = System.nanoTime();
+	}
+}
+
+
+
+/**
+ * DBコネクションの確保待ちスレッドの情報クラス。
+ * 解放されたDBコネクションは、handoffにより待ちスレッドに直接引き渡されます。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcDBConnectionPool
+ * @since	UDC1.3
+ */
+class UdcDBConnectionWaiter
+{
+	/**
+	 * 待ちを取り消したことを示す値
+	 * @since	UDC1.3
+	 */
+	static final Object	Cancelled = new Object();
+
+	/**
+	 * 待ちスレッド
+	 * @since	UDC1.3
+	 */
+	final Thread		thread;
+
+	/**
+	 * 引き渡されたDBコネクション情報(待ち中はnull、取り消し後はCancelled)
+	 * @since	UDC1.3
+	 */
+	final AtomicReference	slot = new AtomicReference();
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	th		待ちスレッド
+	 * @since	UDC1.3
+	 */
+	UdcDBConnectionWaiter(Thread th)
+	{
+		thread = th;
+	}
+
+	/**
+	 * DBコネクションを引き渡し、待ちスレッドを起床する。
+	 *
+	 * @return 引き渡したか否か(待ちが取り消されていた場合はfalse)
+	 * @param	e		DBコネクション情報
+	 * @since	UDC1.3
+	 */
+	boolean handoff(UdcDBConnectionEntry e)
+	{
+		if (! slot.compareAndSet(null, e)) {
+			return false;
+		}
+		LockSupport.unpark(thread);
+		return true;
+	}
+
+	/**
+	 * 待ちを取り消す。
+	 *
+	 * @return 取り消したか否か(既に引き渡されていた場合はfalse)
+	 * @since	UDC1.3
+	 */
+	boolean cancel()
+	{
+		return slot.compareAndSet(null, Cancelled);
+	}
+
+	/**
+	 * 引き渡されたDBコネクション情報を取得する。
+	 *
+	 * @return DBコネクション情報(引き渡されていない場合はnull)
+	 * @since	UDC1.3
+	 */
+	UdcDBConnectionEntry get()
+	{
+		Object o = slot.get();
+		return (o instanceof UdcDBConnectionEntry) ? (UdcDBConnectionEntry)o : null;
+	}
+}
+
+
+
+/**
+ * 未使用DBコネクションの削除タイマの通知先チャネル。
+ * タイマ管理からのタイムアウト通知を受信すると、DBコネクションプールのevictIdleを作業スレッドに依頼します。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcDBConnectionPool#evictIdle()
+ * @since	UDC1.3
+ */
+class UdcDBConnectionEvictChannel extends UdcThreadChannel
+{
+	/**
+	 * 未使用DBコネクションを削除するDBコネクションプール
+	 * @since	UDC1.3
+	 */
+	private UdcDBConnectionPool	pool;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	p	未使用DBコネクションを削除するDBコネクションプール
+	 * @since	UDC1.3
+	 */
+	UdcDBConnectionEvictChannel(UdcDBConnectionPool p)
+	{
+		pool = p;
+		setTimeoutRecycle(true);
+	}
+
+	/**
+	 * タイムアウト通知を受信し、未使用DBコネクションの削除を依頼する。
+	 *
+	 * @param 	data	タイムアウト通知
+	 * @since	UDC1.3
+	 */
+	public void push(UdcThreadChannelDtr data)
+		throws InterruptedException
+	{
+		if (data.get_dtrType() == UdcThreadMsgId.Event_Timeout && data.get_data() instanceof UdcThreadMsgDtrEventTimeout) {
+			((UdcThreadMsgDtrEventTimeout)data.get_data()).release();
+		}
+		data.release();
+		pool.requestEvict();
+	}
+
+	/**
+	 * 一括送信されたタイムアウト通知を受信する。
+	 *
+	 * @param 	datas	タイムアウト通知(UdcThreadChannelDtr)のリスト
+	 * @since	UDC1.3
+	 */
+	protected void pushBatch(List datas)
+		throws InterruptedException
+	{
+		for (int i=0; i<datas.size(); i++) {
+			push((UdcThreadChannelDtr)datas.get(i));
+		}
+	}
+}
@@ -0,0 +1,586 @@
+/* *********************************************************************
+ * @(#)UdcFlightRecorder.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.util.*;
+import jdk.jfr.*;
+
+/**
+ * JDK Flight Recorder(JFR)へのイベント記録を行うユーティリティ。
+ * udc.utilのスレッド間通信・スレッドプール・タイマ・DBコネクションプールの各処理から
+ * 呼び出され、以下のイベントを記録します。
+ *   udc.ChannelEnqueue		スレッドチャネルへのメッセージ送信(受信待ちメッセージ数)
+ *   udc.ChannelDequeue		スレッドチャネルからのメッセージ受信(pull/drainTo、受信待ち時間)
+ *   udc.PoolAllocate		オペレーションスレッドの確保待ち
+ *   udc.TimerExpire		タイムアウトイベントの通知(起床時刻からの遅延)
+ *   udc.Transaction		オペレーションスレッドの確保から解放までのトランザクション
+ *   udc.DBCheckout			DBコネクションの確保
+ * 各イベントの有効・無効はJFRの記録設定(jfcファイル、jcmd JFR.start等)に従います。
+ * 記録中でないイベントについては、呼び出し元はフラグの参照のみで復帰するため、
+ * 記録していない状態での負荷はほとんどありません。
+ * 記録状態は記録の開始・停止時に自動的に反映されます。記録中に設定のみを変更した場合は
+ * refreshを呼び出してください。
+ *
+ * (注意)
+ *   JFRを含まない実行環境では、イベントは記録されません。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+public class UdcFlightRecorder
+{
+	/**
+	 * JFRが使用可能か否か
+	 * @since	UDC1.3
+	 */
+	private static boolean				available = false;
+
+	/**
+	 * udc.ChannelEnqueueイベントを記録中か否か
+	 * @since	UDC1.3
+	 */
+	static volatile boolean				channelEnqueue = false;
+
+	/**
+	 * udc.ChannelDequeueイベントを記録中か否か
+	 * @since	UDC1.3
+	 */
+	static volatile boolean				channelDequeue = false;
+
+	/**
+	 * udc.PoolAllocateイベントを記録中か否か
+	 * @since	UDC1.3
+	 */
+	static volatile boolean				poolAllocate = false;
+
+	/**
+	 * udc.TimerExpireイベントを記録中か否か
+	 * @since	UDC1.3
+	 */
+	static volatile boolean				timerExpire = false;
+
+	/**
+	 * udc.Transactionイベントを記録中か否か
+	 * @since	UDC1.3
+	 */
+	static volatile boolean				transaction = false;
+
+	/**
+	 * udc.DBCheckoutイベントを記録中か否か
+	 * @since	UDC1.3
+	 */
+	static volatile boolean				dbCheckout = false;
+
+	static {
+		try {
+			Class.forName("jdk.jfr.FlightRecorder");
+			FlightRecorder.addListener(new UdcFlightRecorderListener());
+			available = true;
+			refresh();
+		} catch (Throwable exp) {
+			available = false;
+		}
+	}
+
+	/**
+	 * JFRが使用可能か否かを取得する。
+	 *
+	 * @return	JFRが使用可能か否か
+	 * @since	UDC1.3
+	 */
+	public static boolean isAvailable()
+	{
+		return available;
+	}
+
+	/**
+	 * 各イベントの記録状態をJFRの記録設定から再取得する。
+	 *
+	 * @since	UDC1.3
+	 */
+	public static synchronized void refresh()
+	{
+		if (! available || ! FlightRecorder.isInitialized()) {
+			channelEnqueue = channelDequeue = poolAllocate = timerExpire = transaction = dbCheckout = false;
+			return;
+		}
+		channelEnqueue = EventType.getEventType(UdcChannelEnqueueEvent.class).isEnabled();
+		channelDequeue = EventType.getEventType(UdcChannelDequeueEvent.class).isEnabled();
+		poolAllocate = EventType.getEventType(UdcPoolAllocateEvent.class).isEnabled();
+		timerExpire = EventType.getEventType(UdcTimerExpireEvent.class).isEnabled();
+		transaction = EventType.getEventType(UdcTransactionEvent.class).isEnabled();
+		dbCheckout = EventType.getEventType(UdcDBCheckoutEvent.class).isEnabled();
+	}
+
+	/**
+	 * スレッドチャネルへのメッセージ送信を記録する。
+	 *
+	 * @param	ch		スレッドチャネル
+	 * @param	dtr		送信メッセージ
+	 * @since	UDC1.3
+	 */
+	public static void channelEnqueue(UdcThreadChannel ch, UdcThreadChannelDtr dtr)
+	{
+		if (! channelEnqueue) {
+			return;
+		}
+		UdcChannelEnqueueEvent ev = new UdcChannelEnqueueEvent();
+		if (ev.shouldCommit()) {
+			ev.channel = ch.getChannelName();
+			ev.invokeId = dtr.get_invokeId();
+			ev.dtrType = dtr.get_dtrType();
+			ev.count = 1;
+			ev.depth = ch.depth();
+			ev.commit();
+		}
+	}
+
+	/**
+	 * スレッドチャネルへのメッセージの一括送信を記録する。
+	 *
+	 * @param	ch		スレッドチャネル
+	 * @param	datas	送信メッセージ(UdcThreadChannelDtr)のリスト
+	 * @since	UDC1.3
+	 */
+	public static void channelEnqueue(UdcThreadChannel ch, List datas)
+	{
+		if (! channelEnqueue) {
+			return;
+		}
+		UdcChannelEnqueueEvent ev = new UdcChannelEnqueueEvent();
+		if (ev.shouldCommit()) {
+			ev.channel = ch.getChannelName();
+			ev.invokeId = -1;
+			ev.dtrType = -1;
+			ev.count = datas.size();
+			ev.depth = ch.depth();
+			ev.commit();
+		}
+	}
+
+	/**
+	 * スレッドチャネルからのメッセージ受信の開始を記録する。
+	 *
+	 * @return	記録中のイベント(記録しない場合はnull)
+	 * @since	UDC1.3
+	 */
+	public static Object channelBegin()
+	{
+		if (! channelDequeue) {
+			return null;
+		}
+		UdcChannelDequeueEvent ev = new UdcChannelDequeueEvent();
+		ev.begin();
+		return ev;
+	}
+
+	/**
+	 * スレッドチャネルからのメッセージ受信を記録する。
+	 *
+	 * @return	受信メッセージ(dtrをそのまま返却)
+	 * @param	ch		スレッドチャネル
+	 * @param	dtr		受信メッセージ(受信できなかった場合はnull)
+	 * @param	begin	channelBeginで取得したイベント
+	 * @since	UDC1.3
+	 */
+	public static UdcThreadChannelDtr channelDequeue(UdcThreadChannel ch, UdcThreadChannelDtr dtr, Object begin)
+	{
+		if (begin == null) {
+			return dtr;
+		}
+		UdcChannelDequeueEvent ev = (UdcChannelDequeueEvent)begin;
+		ev.end();
+		if (ev.shouldCommit()) {
+			ev.channel = ch.getChannelName();
+			if (dtr != null) {
+				ev.invokeId = dtr.get_invokeId();
+				ev.dtrType = dtr.get_dtrType();
+				ev.count = 1;
+			} else {
+				ev.invokeId = -1;
+				ev.dtrType = -1;
+				ev.count = 0;
+			}
+			ev.depth = ch.depth();
+			ev.commit();
+		}
+		return dtr;
+	}
+
+	/**
+	 * スレッドチャネルからのメッセージの一括受信を記録する。
+	 *
+	 * @return	受信メッセージ数(countをそのまま返却)
+	 * @param	ch		スレッドチャネル
+	 * @param	count	受信メッセージ数
+	 * @param	begin	channelBeginで取得したイベント
+	 * @since	UDC1.3
+	 */
+	public static int channelDequeue(UdcThreadChannel ch, int count, Object begin)
+	{
+		if (begin == null) {
+			return count;
+		}
+		UdcChannelDequeueEvent ev = (UdcChannelDequeueEvent)begin;
+		ev.end();
+		if (ev.shouldCommit()) {
+			ev.channel = ch.getChannelName();
+			ev.invokeId = -1;
+			ev.dtrType = -1;
+			ev.count = count;
+			ev.depth = ch.depth();
+			ev.commit();
+		}
+		return count;
+	}
+
+	/**
+	 * オペレーションスレッドの確保待ちの開始を記録する。
+	 *
+	 * @return	記録中のイベント(記録しない場合はnull)
+	 * @since	UDC1.3
+	 */
+	public static Object poolBegin()
+	{
+		if (! poolAllocate) {
+			return null;
+		}
+		UdcPoolAllocateEvent ev = new UdcPoolAllocateEvent();
+		ev.begin();
+		return ev;
+	}
+
+	/**
+	 * オペレーションスレッドの確保待ちの終了を記録する。
+	 *
+	 * @param	pool		スレッドプール
+	 * @param	begin		poolBeginで取得したイベント
+	 * @param	waittime	確保待ち時間の上限(単位：ミリ秒)
+	 * @param	success		確保できたか否か
+	 * @since	UDC1.3
+	 */
+	public static void poolAllocate(UdcThreadOperationPool pool, Object begin, long waittime, boolean success)
+	{
+		if (begin == null) {
+			return;
+		}
+		UdcPoolAllocateEvent ev = (UdcPoolAllocateEvent)begin;
+		ev.end();
+		if (ev.shouldCommit()) {
+			ev.pool = pool.getClass().getName();
+			ev.waitLimit = waittime;
+			ev.success = success;
+			ev.emptySize = pool.getEmptySize();
+			ev.usedSize = pool.getUsedSize();
+			ev.commit();
+		}
+	}
+
+	/**
+	 * タイムアウトイベントの通知を記録する。
+	 *
+	 * @param	timerIndex	タイマ識別子
+	 * @param	timerType	タイマ種別
+	 * @param	lateness	起床時刻からの遅延(単位：ナノ秒)
+	 * @param	ch			通知先スレッドチャネル
+	 * @since	UDC1.3
+	 */
+	public static void timerExpire(int timerIndex, int timerType, long lateness, UdcThreadChannel ch)
+	{
+		if (! timerExpire) {
+			return;
+		}
+		UdcTimerExpireEvent ev = new UdcTimerExpireEvent();
+		if (ev.shouldCommit()) {
+			ev.timerIndex = timerIndex;
+			ev.timerType = timerType;
+			ev.lateness = lateness;
+			ev.channel = (ch != null) ? ch.getChannelName() : null;
+			ev.commit();
+		}
+	}
+
+	/**
+	 * トランザクションの開始を記録する。
+	 *
+	 * @return	記録中のイベント(記録しない場合はnull)
+	 * @since	UDC1.3
+	 */
+	public static Object transactionBegin()
+	{
+		if (! transaction) {
+			return null;
+		}
+		UdcTransactionEvent ev = new UdcTransactionEvent();
+		ev.begin();
+		return ev;
+	}
+
+	/**
+	 * トランザクションの終了を記録する。
+	 *
+	 * @param	thread	オペレーションスレッド
+	 * @param	begin	transactionBeginで取得したイベント
+	 * @param	result	トランザクション停止結果(UdcThreadOperationBase.stopTransaction)
+	 * @since	UDC1.3
+	 */
+	public static void transactionEnd(UdcThreadOperationBase thread, Object begin, int result)
+	{
+		if (begin == null) {
+			return;
+		}
+		UdcTransactionEvent ev = (UdcTransactionEvent)begin;
+		ev.end();
+		if (ev.shouldCommit()) {
+			ev.operation = thread.getClass().getName();
+			ev.threadIndex = thread.getThreadIndex();
+			ev.result = result;
+			ev.commit();
+		}
+	}
+
+	/**
+	 * DBコネクションの確保の開始を記録する。
+	 *
+	 * @return	記録中のイベント(記録しない場合はnull)
+	 * @since	UDC1.3
+	 */
+	public static Object checkoutBegin()
+	{
+		if (! dbCheckout) {
+			return null;
+		}
+		UdcDBCheckoutEvent ev = new UdcDBCheckoutEvent();
+		ev.begin();
+		return ev;
+	}
+
+	/**
+	 * DBコネクションの確保の終了を記録する。
+	 *
+	 * @param	pool		DBコネクションプール
+	 * @param	begin		checkoutBeginで取得したイベント
+	 * @param	success		確保できたか否か
+	 * @since	UDC1.3
+	 */
+	public static void dbCheckout(UdcDBConnectionPool pool, Object begin, boolean success)
+	{
+		if (begin == null) {
+			return;
+		}
+		UdcDBCheckoutEvent ev = (UdcDBCheckoutEvent)begin;
+		ev.end();
+		if (ev.shouldCommit()) {
+			ev.success = success;
+			ev.emptySize = pool.getEmptySize();
+			ev.usedSize = pool.getUsedSize();
+			ev.commit();
+		}
+	}
+}
+
+/**
+ * JFRの記録状態の変化を受け、イベントの記録状態を更新するリスナ。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+class UdcFlightRecorderListener implements FlightRecorderListener
+{
+	/**
+	 * JFRが初期化された時に呼び出される。
+	 *
+	 * @param	recorder	FlightRecorder
+	 * @since	UDC1.3
+	 */
+	public void recorderInitialized(FlightRecorder recorder)
+	{
+		UdcFlightRecorder.refresh();
+	}
+
+	/**
+	 * 記録の状態が変化した時に呼び出される。
+	 *
+	 * @param	recording	状態が変化した記録
+	 * @since	UDC1.3
+	 */
+	public void recordingStateChanged(Recording recording)
+	{
+		UdcFlightRecorder.refresh();
+	}
+}
+
+/**
+ * udc.ChannelEnqueueイベント
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+@Name("udc.ChannelEnqueue")
+@Label("Channel Enqueue")
+@Category({"UDC", "Thread Channel"})
+@Description("スレッドチャネルへのメッセージ送信")
+@StackTrace(false)
+class UdcChannelEnqueueEvent extends Event
+{
+	@Label("Channel")
+	String	channel;
+
+	@Label("Invoke ID")
+	int		invokeId;
+
+	@Label("Message Type")
+	int		dtrType;
+
+	@Label("Message Count")
+	int		count;
+
+	@Label("Queue Depth")
+	@Description("送信後の受信待ちメッセージ数")
+	int		depth;
+}
+
+/**
+ * udc.ChannelDequeueイベント(イベントの期間が受信待ち時間)
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+@Name("udc.ChannelDequeue")
+@Label("Channel Dequeue")
+@Category({"UDC", "Thread Channel"})
+@Description("スレッドチャネルからのメッセージ受信(期間は受信待ち時間)")
+@StackTrace(false)
+class UdcChannelDequeueEvent extends Event
+{
+	@Label("Channel")
+	String	channel;
+
+	@Label("Invoke ID")
+	int		invokeId;
+
+	@Label("Message Type")
+	int		dtrType;
+
+	@Label("Message Count")
+	@Description("受信メッセージ数(0はタイムアウト)")
+	int		count;
+
+	@Label("Queue Depth")
+	@Description("受信後の受信待ちメッセージ数")
+	int		depth;
+}
+
+/**
+ * udc.PoolAllocateイベント(イベントの期間が確保待ち時間)
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+@Name("udc.PoolAllocate")
+@Label("Operation Thread Allocation Wait")
+@Category({"UDC", "Thread Pool"})
+@Description("オペレーションスレッドの確保待ち(期間は確保待ち時間)")
+class UdcPoolAllocateEvent extends Event
+{
+	@Label("Pool")
+	String	pool;
+
+	@Label("Wait Limit")
+	@Timespan(Timespan.MILLISECONDS)
+	long	waitLimit;
+
+	@Label("Success")
+	boolean	success;
+
+	@Label("Empty Threads")
+	int		emptySize;
+
+	@Label("Used Threads")
+	int		usedSize;
+}
+
+/**
+ * udc.TimerExpireイベント
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+@Name("udc.TimerExpire")
+@Label("Timer Expire")
+@Category({"UDC", "Timer"})
+@Description("タイムアウトイベントの通知")
+@StackTrace(false)
+class UdcTimerExpireEvent extends Event
+{
+	@Label("Timer Index")
+	int		timerIndex;
+
+	@Label("Timer Type")
+	int		timerType;
+
+	@Label("Lateness")
+	@Description("起床時刻からの遅延")
+	@Timespan(Timespan.NANOSECONDS)
+	long	lateness;
+
+	@Label("Channel")
+	String	channel;
+}
+
+/**
+ * udc.Transactionイベント(イベントの期間が確保から解放までの時間)
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+@Name("udc.Transaction")
+@Label("Operation Transaction")
+@Category({"UDC", "Thread Pool"})
+@Description("オペレーションスレッドの確保から解放まで(期間はトランザクション時間)")
+@StackTrace(false)
+class UdcTransactionEvent extends Event
+{
+	@Label("Operation")
+	String	operation;
+
+	@Label("Thread Index")
+	int		threadIndex;
+
+	@Label("Result")
+	int		result;
+}
+
+/**
+ * udc.DBCheckoutイベント(イベントの期間が確保時間)
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+@Name("udc.DBCheckout")
+@Label("DB Connection Checkout")
+@Category({"UDC", "Database"})
+@Description("DBコネクションの確保(期間は確保時間)")
+class UdcDBCheckoutEvent extends Event
+{
+	@Label("Success")
+	boolean	success;
+
+	@Label("Empty Connections")
+	int		emptySize;
+
+	@Label("Used Connections")
+	int		usedSize;
+}
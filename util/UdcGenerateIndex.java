@@ -7,9 +7,16 @@
 package udc.util;
 
 import java.util.*;
+import java.util.concurrent.atomic.*;
 
 /**
  * ユニークなIndex値の確保を可能とするクラス
+ * インデックスの確保は排他を行わず、compare-and-setによって行います。
+ * ストライプ数(setStripeSize)を設定すると、各スレッドは指定数分のインデックスを
+ * まとめて予約し、予約したインデックスを順に払い出します。そのため、複数スレッドから
+ * 同時に確保する場合でも共有のカウンタを更新するのは予約時のみとなります。
+ * (注意)
+ *   ストライプ使用時は、スレッドを跨いだインデックスの払い出し順は確保順と一致しません。
  *
  * @author  Takayuki Uchida
  * @version 1.0, 18 Jan 2003
@@ -17,10 +24,12 @@ import java.util.*;
  */
 public class UdcGenerateIndex
 {
-	private	UdcMutex	usedGeneratedIdMutex = new UdcMutex();
-	private int			usedGeneratedId = 0;
-	private int			minIndex = 1;
-	private int			maxIndex = (int)0x7FFFFFFF;
+	private	AtomicInteger	usedGeneratedId = new AtomicInteger(0);
+	private int				minIndex = 1;
+	private int				maxIndex = (int)0x7FFFFFFF;
+	private volatile int	stripeSize = 0;
+	private volatile int	generation = 0;
+	private ThreadLocal		lease = new ThreadLocal();
 
 	/**
 	 * コンストラクタ
@@ -42,11 +51,12 @@ public class UdcGenerateIndex
 	{
 		minIndex = min;
 		maxIndex = max;
-		usedGeneratedId = minIndex - 1;
+		usedGeneratedId.set(minIndex - 1);
 	}
 
 	/**
 	 * 現在のインデックス確保値を初期化します。
+	 * ストライプ使用時は、各スレッドが予約済みのインデックスは破棄されます。
 	 *
 	 * @return	正常(true)/異常(false) 異常となるケースは、currentIdが制限範囲内にない場合
 	 * @param	currentId	初期化するインデックス値
@@ -57,10 +67,35 @@ public class UdcGenerateIndex
 		if (currentId < minIndex || currentId > maxIndex) {
 			return false;
 		}
-		usedGeneratedId = currentId;
+		usedGeneratedId.set(currentId);
+		generation ++;
 		return true;
 	}
 
+	/**
+	 * スレッド毎に予約するインデックス数(ストライプ数)を設定します。
+	 * 0以下を設定するとストライプを使用せず、確保毎に共有のカウンタを更新します。
+	 *
+	 * @param	size	ストライプ数
+	 * @since	UDC1.3
+	 */
+	public void setStripeSize(int size)
+	{
+		stripeSize = (size > 1) ? size : 0;
+		generation ++;
+	}
+
+	/**
+	 * スレッド毎に予約するインデックス数(ストライプ数)を取得します。
+	 *
+	 * @return	ストライプ数(0:ストライプ未使用)
+	 * @since	UDC1.3
+	 */
+	public int getStripeSize()
+	{
+		return stripeSize;
+	}
+
 	/**
 	 * 新たにユニークなインデックスを取得します。
 	 *
@@ -69,19 +104,102 @@ public class UdcGenerateIndex
 	 */
 	public int allocateIndex() throws InterruptedException
 	{
-		usedGeneratedIdMutex.lock();
-		usedGeneratedId ++;
-		if (maxIndex <= 0) {
-			if (usedGeneratedId < minIndex) {
-				usedGeneratedId = minIndex;
-			}
-		} else {
-			if (usedGeneratedId > maxIndex) {
-				usedGeneratedId = minIndex;
-			}
+		int stripe = stripeSize;
+		if (stripe > 0) {
+			return allocateStripe(stripe);
+		}
+		int cur, next;
+		do {
+			cur = usedGeneratedId.get();
+			next = nextIndex(cur);
+		} while (! usedGeneratedId.compareAndSet(cur, next));
+		return next;
+	}
+
+	/**
+	 * 自スレッドで予約済みのインデックスを払い出します。
+	 * 予約済みのインデックスがなければ、新たにストライプ数分を予約します。
+	 * 予約はインデックスの最大値を跨がないため、最大値の直前では予約数が少なくなります。
+	 *
+	 * @return	ユニークなインデックス値
+	 * @param	stripe	ストライプ数
+	 * @since	UDC1.3
+	 */
+	private int allocateStripe(int stripe)
+	{
+		UdcGenerateIndexLease l = (UdcGenerateIndexLease)lease.get();
+		if (l == null) {
+			l = new UdcGenerateIndexLease();
+			lease.set(l);
+		}
+		int gen = generation;
+		if (l.remain <= 0 || l.generation != gen) {
+			int cur, start, end;
+			do {
+				cur = usedGeneratedId.get();
+				start = nextIndex(cur);
+				end = ((long)start + stripe - 1 > upperIndex()) ? upperIndex() : start + stripe - 1;
+			} while (! usedGeneratedId.compareAndSet(cur, end));
+			l.next = start;
+			l.remain = end - start + 1;
+			l.generation = gen;
+		}
+		l.remain --;
+		return l.next ++;
+	}
+
+	/**
+	 * 指定したインデックスの次のインデックスを取得します。
+	 * 最大値を超える場合は最小値に戻ります。
+	 *
+	 * @return	次のインデックス値
+	 * @param	cur		インデックス値
+	 * @since	UDC1.3
+	 */
+	private int nextIndex(int cur)
+	{
+		if (cur >= upperIndex() || cur < minIndex) {
+			return minIndex;
 		}
-		usedGeneratedIdMutex.unlock();
-		return usedGeneratedId;
+		return cur + 1;
+	}
+
+	/**
+	 * インデックスの上限値を取得します。最大値が0以下の場合は上限を設けません。
+	 *
+	 * @return	インデックスの上限値
+	 * @since	UDC1.3
+	 */
+	private int upperIndex()
+	{
+		return (maxIndex <= 0) ? Integer.MAX_VALUE : maxIndex;
 	}
 }
 
+/**
+ * スレッド毎に予約したインデックス
+ *
+ * @author  Takayuki Uchida
+ * @version 1.0, 18 Oct 2026
+ * @since   UDC1.3
+ */
+class UdcGenerateIndexLease
+{
+	/**
+	 * 次に払い出すインデックス
+	 * @since	UDC1.3
+	 */
+	int		next;
+
+	/**
+	 * 払い出し可能な残り数
+	 * @since	UDC1.3
+	 */
+	int		remain = 0;
+
+	/**
+	 * 予約時の世代(初期化・ストライプ数変更で更新)
+	 * @since	UDC1.3
+	 */
+	int		generation;
+}
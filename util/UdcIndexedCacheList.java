@@ -0,0 +1,583 @@
+/* *********************************************************************
+ * @(#)UdcIndexedCacheList.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+
+/**
+ * 索引付きキャッシュリストクラス。
+ * 指定した属性名の値でキャッシュ(UdcCache)を検索するための索引を保持します。
+ * ハッシュ索引(addHashIndex)は一致検索をO(1)で、ソート索引(addSortedIndex)は一致検索と
+ * 範囲検索をO(log n)で行います。索引のない属性の検索は、UdcCache.searchCacheList等と同様に
+ * 全てのキャッシュを走査します。
+ *
+ * 登録したキャッシュの属性をsetAttr/resetAttr/clearで変更すると、索引は自動的に更新されます。
+ * 検索は排他なしに行い、登録・削除・索引の更新は本インスタンスで排他します。
+ *
+ * (注意)
+ *	ソート索引の属性値は、同じクラスの値はComparableで、数値(Number)同士は数値として比較します。
+ *	それ以外の異なるクラスの値はクラス名順に並ぶため、範囲検索では同じクラスの値を指定してください。
+ *	一致検索で同じ値のキャッシュが複数ある場合、結果の並びは索引への登録順です。
+ *	attrList/modListを直接変更した場合、索引は更新されません。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcCache#searchCacheList(Vector,String,Object)
+ * @see		UdcCacheListenerFace
+ * @since	UDC1.3
+ */
+public class UdcIndexedCacheList implements UdcCacheListenerFace
+{
+	/**
+	 * 登録されているキャッシュ(キー:UdcCache 値:索引毎の登録値の配列)
+	 * @since	UDC1.3
+	 */
+	protected ConcurrentHashMap	entries = new ConcurrentHashMap();
+
+	/**
+	 * 索引(登録順)
+	 * @since	UDC1.3
+	 */
+	protected volatile UdcCacheIndex[]	indexes = new UdcCacheIndex[0];
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @since	UDC1.3
+	 */
+	public UdcIndexedCacheList()
+	{
+	}
+
+	/**
+	 * コンストラクタ。キャッシュリストの全てのキャッシュを登録します。
+	 *
+	 * @param	list	キャッシュリスト
+	 * @since	UDC1.3
+	 */
+	public UdcIndexedCacheList(Vector list)
+	{
+		addAll(list);
+	}
+
+	/**
+	 * 属性名のハッシュ索引を追加する。登録済みのキャッシュも索引に登録します。
+	 *
+	 * @param	attrName	属性名
+	 * @since	UDC1.3
+	 */
+	public void addHashIndex(String attrName)
+	{
+		addIndex(attrName, new ConcurrentHashMap(), false);
+	}
+
+	/**
+	 * 属性名のソート索引を追加する。登録済みのキャッシュも索引に登録します。
+	 *
+	 * @param	attrName	属性名
+	 * @since	UDC1.3
+	 */
+	public void addSortedIndex(String attrName)
+	{
+		addIndex(attrName, new ConcurrentSkipListMap(UdcCacheKeyComparator.Instance), true);
+	}
+
+	/**
+	 * 索引を追加する。
+	 *
+	 * @param	attrName	属性名
+	 * @param	map			索引の値とキャッシュの対応
+	 * @param	sorted		ソート索引か否か
+	 * @since	UDC1.3
+	 */
+	protected synchronized void addIndex(String attrName, ConcurrentMap map, boolean sorted)
+	{
+		UdcCacheIndex[] idxs = indexes;
+		for (int i=0; i<idxs.length; i++) {
+				/* ハッシュ索引のある属性にはソート索引を追加できる(検索はソート索引を優先) */
+			if (idxs[i].attrName.equals(attrName) && (idxs[i].sorted || ! sorted)) { return; }
+		}
+		UdcCacheIndex idx = new UdcCacheIndex(attrName, map, sorted);
+		int pos = idxs.length;
+		Iterator it = entries.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry ent = (Map.Entry)it.next();
+			UdcCache ca = (UdcCache)ent.getKey();
+			Object[] keys = Arrays.copyOf((Object[])ent.getValue(), pos + 1);
+			keys[pos] = ca.getAttr(attrName);
+			if (keys[pos] != null) { idx.put(keys[pos], ca); }
+			ent.setValue(keys);
+		}
+		UdcCacheIndex[] nidxs = Arrays.copyOf(idxs, pos + 1);
+		nidxs[pos] = idx;
+		indexes = nidxs;
+	}
+
+	/**
+	 * 属性名に索引があるか否かを取得する。
+	 *
+	 * @return	索引があるか否か
+	 * @param	attrName	属性名
+	 * @since	UDC1.3
+	 */
+	public boolean hasIndex(String attrName)
+	{
+		return findIndex(attrName, false) != null;
+	}
+
+	/**
+	 * 属性名の索引を取得する。同じ属性名の索引が複数ある場合は、ソート索引を優先します。
+	 *
+	 * @return	索引(索引がない場合はnull)
+	 * @param	attrName	属性名
+	 * @param	sorted		ソート索引に限るか否か
+	 * @since	UDC1.3
+	 */
+	protected UdcCacheIndex findIndex(String attrName, boolean sorted)
+	{
+		UdcCacheIndex[] idxs = indexes;
+		UdcCacheIndex found = null;
+		for (int i=0; i<idxs.length; i++) {
+			if (idxs[i].attrName.equals(attrName)) {
+				if (idxs[i].sorted) { return idxs[i]; }
+				if (! sorted) { found = idxs[i]; }
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * キャッシュを登録する。
+	 *
+	 * @return	登録したか否か(登録済みの場合はfalse)
+	 * @param	ca	キャッシュ
+	 * @since	UDC1.3
+	 */
+	public boolean add(UdcCache ca)
+	{
+			/* 登録中の属性変更は、本インスタンスの排他の解除後に反映される */
+		ca.addCacheListener(this);
+		synchronized (this) {
+			if (entries.containsKey(ca)) { return false; }
+			UdcCacheIndex[] idxs = indexes;
+			Object[] keys = new Object[idxs.length];
+			for (int i=0; i<idxs.length; i++) {
+				keys[i] = ca.getAttr(idxs[i].attrName);
+				if (keys[i] != null) { idxs[i].put(keys[i], ca); }
+			}
+			entries.put(ca, keys);
+			return true;
+		}
+	}
+
+	/**
+	 * キャッシュリストの全てのキャッシュを登録する。
+	 *
+	 * @param	list	キャッシュリスト
+	 * @since	UDC1.3
+	 */
+	public void addAll(Vector list)
+	{
+		int sz = list.size();
+		for (int i=0; i<sz; i++) {
+			add((UdcCache)list.get(i));
+		}
+	}
+
+	/**
+	 * キャッシュを削除する。
+	 *
+	 * @return	削除したか否か(登録されていない場合はfalse)
+	 * @param	ca	キャッシュ
+	 * @since	UDC1.3
+	 */
+	public boolean remove(UdcCache ca)
+	{
+		synchronized (this) {
+			Object[] keys = (Object[])entries.remove(ca);
+			if (keys == null) { return false; }
+			UdcCacheIndex[] idxs = indexes;
+			for (int i=0; i<idxs.length; i++) {
+				if (keys[i] != null) { idxs[i].remove(keys[i], ca); }
+			}
+		}
+		ca.removeCacheListener(this);
+		return true;
+	}
+
+	/**
+	 * 全てのキャッシュを削除する。索引の定義は残ります。
+	 *
+	 * @since	UDC1.3
+	 */
+	public void clear()
+	{
+		Vector list = getCacheList();
+		for (int i=0; i<list.size(); i++) {
+			remove((UdcCache)list.get(i));
+		}
+	}
+
+	/**
+	 * キャッシュの属性の変更を索引に反映する。
+	 *
+	 * @param	ca			変更されたキャッシュ
+	 * @param	attrName	変更された属性名(全ての属性の場合はnull)
+	 * @since	UDC1.3
+	 */
+	public synchronized void attrChanged(UdcCache ca, String attrName)
+	{
+		Object[] keys = (Object[])entries.get(ca);
+		if (keys == null) { return; }
+		UdcCacheIndex[] idxs = indexes;
+		for (int i=0; i<idxs.length; i++) {
+			if (attrName != null && ! idxs[i].attrName.equals(attrName)) { continue; }
+			Object val = ca.getAttr(idxs[i].attrName);
+			if (val == null ? keys[i] == null : val.equals(keys[i])) { continue; }
+			if (keys[i] != null) { idxs[i].remove(keys[i], ca); }
+			if (val != null) { idxs[i].put(val, ca); }
+			keys[i] = val;
+		}
+	}
+
+	/**
+	 * 登録されているキャッシュ数を取得する。
+	 *
+	 * @return	キャッシュ数
+	 * @since	UDC1.3
+	 */
+	public int size() { return entries.size(); }
+
+	/**
+	 * キャッシュが登録されているか否かを取得する。
+	 *
+	 * @return	登録されているか否か
+	 * @param	ca	キャッシュ
+	 * @since	UDC1.3
+	 */
+	public boolean contains(UdcCache ca) { return entries.containsKey(ca); }
+
+	/**
+	 * 登録されている全てのキャッシュを取得する。並びは不定です。
+	 *
+	 * @return	キャッシュリスト
+	 * @since	UDC1.3
+	 */
+	public Vector getCacheList()
+	{
+		return new Vector(entries.keySet());
+	}
+
+	/**
+	 * 属性の値が一致するキャッシュを検索する。
+	 *
+	 * @return	検索条件にマッチしたキャッシュ(一致するキャッシュがない場合はnull)
+	 * @param	keyName		属性名
+	 * @param	key			属性の値
+	 * @see		UdcCache#searchCacheList(Vector,String,Object)
+	 * @since	UDC1.3
+	 */
+	public UdcCache search(String keyName, Object key)
+	{
+		UdcCacheIndex idx = findIndex(keyName, false);
+		if (idx != null) {
+			Object bucket = idx.map.get(key);
+			if (bucket == null) { return null; }
+			return (bucket instanceof UdcCache) ? (UdcCache)bucket : ((UdcCache[])bucket)[0];
+		}
+		Iterator it = entries.keySet().iterator();
+		while (it.hasNext()) {
+			UdcCache ca = (UdcCache)it.next();
+			Object obj = ca.getAttr(keyName);
+			if (obj != null && key.equals(obj)) { return ca; }
+		}
+		return null;
+	}
+
+	/**
+	 * 属性の値が一致する全てのキャッシュを検索する。
+	 *
+	 * @return	検索条件にマッチしたキャッシュリスト
+	 * @param	keyName		属性名
+	 * @param	key			属性の値
+	 * @see		UdcCache#searchCachesList(Vector,String,Object)
+	 * @since	UDC1.3
+	 */
+	public Vector searchAll(String keyName, Object key)
+	{
+		Vector mlist = new Vector();
+		UdcCacheIndex idx = findIndex(keyName, false);
+		if (idx != null) {
+			addBucket(mlist, idx.map.get(key));
+			return mlist;
+		}
+		Iterator it = entries.keySet().iterator();
+		while (it.hasNext()) {
+			UdcCache ca = (UdcCache)it.next();
+			Object obj = ca.getAttr(keyName);
+			if (obj != null && key.equals(obj)) { mlist.add(ca); }
+		}
+		return mlist;
+	}
+
+	/**
+	 * 属性の値が範囲内の全てのキャッシュを検索する。ソート索引がある場合は値の昇順で返却します。
+	 *
+	 * @return	検索条件にマッチしたキャッシュリスト
+	 * @param	keyName			属性名
+	 * @param	from			範囲の下限(nullの場合は下限なし)
+	 * @param	fromInclusive	下限の値を含むか否か
+	 * @param	to				範囲の上限(nullの場合は上限なし)
+	 * @param	toInclusive		上限の値を含むか否か
+	 * @since	UDC1.3
+	 */
+	public Vector searchRange(String keyName, Object from, boolean fromInclusive, Object to, boolean toInclusive)
+	{
+		Vector mlist = new Vector();
+		UdcCacheIndex idx = findIndex(keyName, true);
+		if (idx != null) {
+			NavigableMap map = (NavigableMap)idx.map;
+			if (from != null && to != null) {
+				map = map.subMap(from, fromInclusive, to, toInclusive);
+			} else if (from != null) {
+				map = map.tailMap(from, fromInclusive);
+			} else if (to != null) {
+				map = map.headMap(to, toInclusive);
+			}
+			Iterator it = map.values().iterator();
+			while (it.hasNext()) {
+				addBucket(mlist, it.next());
+			}
+			return mlist;
+		}
+		Iterator it = entries.keySet().iterator();
+		while (it.hasNext()) {
+			UdcCache ca = (UdcCache)it.next();
+			Object obj = ca.getAttr(keyName);
+			if (obj == null) { continue; }
+			if (from != null) {
+				int cmp = UdcCacheKeyComparator.Instance.compare(obj, from);
+				if (cmp < 0 || (cmp == 0 && ! fromInclusive)) { continue; }
+			}
+			if (to != null) {
+				int cmp = UdcCacheKeyComparator.Instance.compare(obj, to);
+				if (cmp > 0 || (cmp == 0 && ! toInclusive)) { continue; }
+			}
+			mlist.add(ca);
+		}
+		return mlist;
+	}
+
+	/**
+	 * 索引の値に対応するキャッシュをリストに追加する。
+	 *
+	 * @param	list	キャッシュリスト
+	 * @param	bucket	索引の値に対応するキャッシュ(UdcCacheまたはUdcCache[])
+	 * @since	UDC1.3
+	 */
+	protected void addBucket(Vector list, Object bucket)
+	{
+		if (bucket == null) { return; }
+		if (bucket instanceof UdcCache) {
+			list.add(bucket);
+			return;
+		}
+		UdcCache[] cas = (UdcCache[])bucket;
+		for (int i=0; i<cas.length; i++) {
+			list.add(cas[i]);
+		}
+	}
+
+	/**
+	 * 本インスタンスの文字列情報を取得する。
+	 *
+	 * @return	本インスタンス情報
+	 * @since	UDC1.3
+	 */
+	public String toString()
+	{
+		StringBuffer str = new StringBuffer("UdcIndexedCacheList size=" + entries.size() + " index=[");
+		UdcCacheIndex[] idxs = indexes;
+		for (int i=0; i<idxs.length; i++) {
+			if (i > 0) {
+				str.append(",");
+			}
+			str.append(idxs[i].attrName).append(idxs[i].sorted ? "(sorted)" : "(hash)");
+		}
+		return str.append("]").toString();
+	}
+}
+
+/**
+ * 索引付きキャッシュリストの1属性分の索引クラス。
+ * 値に対応するキャッシュが1つの場合はUdcCacheを、複数の場合はUdcCache[]を保持します。
+ * 複数の場合の配列は更新毎に作り直すため、検索側は排他なしに参照できます。
+ * 更新はUdcIndexedCacheListの排他内で行うこと。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcIndexedCacheList
+ * @since	UDC1.3
+ */
+class UdcCacheIndex
+{
+	/**
+	 * 属性名
+	 * @since	UDC1.3
+	 */
+	String			attrName;
+
+	/**
+	 * 属性の値とキャッシュの対応
+	 * @since	UDC1.3
+	 */
+	ConcurrentMap	map;
+
+	/**
+	 * ソート索引か否か
+	 * @since	UDC1.3
+	 */
+	boolean			sorted;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	name	属性名
+	 * @param	m		属性の値とキャッシュの対応
+	 * @param	s		ソート索引か否か
+	 * @since	UDC1.3
+	 */
+	UdcCacheIndex(String name, ConcurrentMap m, boolean s)
+	{
+		attrName = name;
+		map = m;
+		sorted = s;
+	}
+
+	/**
+	 * 値にキャッシュを追加する。
+	 *
+	 * @param	key		属性の値
+	 * @param	ca		キャッシュ
+	 * @since	UDC1.3
+	 */
+	void put(Object key, UdcCache ca)
+	{
+		Object bucket = map.get(key);
+		if (bucket == null) {
+			map.put(key, ca);
+		} else if (bucket instanceof UdcCache) {
+			map.put(key, new UdcCache[] { (UdcCache)bucket, ca });
+		} else {
+			UdcCache[] cas = (UdcCache[])bucket;
+			UdcCache[] ncas = Arrays.copyOf(cas, cas.length + 1);
+			ncas[cas.length] = ca;
+			map.put(key, ncas);
+		}
+	}
+
+	/**
+	 * 値からキャッシュを削除する。
+	 *
+	 * @param	key		属性の値
+	 * @param	ca		キャッシュ
+	 * @since	UDC1.3
+	 */
+	void remove(Object key, UdcCache ca)
+	{
+		Object bucket = map.get(key);
+		if (bucket == null) {
+			return;
+		}
+		if (bucket instanceof UdcCache) {
+			if (bucket == ca) { map.remove(key); }
+			return;
+		}
+		UdcCache[] cas = (UdcCache[])bucket;
+		for (int i=0; i<cas.length; i++) {
+			if (cas[i] != ca) { continue; }
+			if (cas.length == 2) {
+				map.put(key, cas[1 - i]);
+			} else {
+				UdcCache[] ncas = new UdcCache[cas.length - 1];
+				System.arraycopy(cas, 0, ncas, 0, i);
+				System.arraycopy(cas, i + 1, ncas, i, cas.length - i - 1);
+				map.put(key, ncas);
+			}
+			return;
+		}
+	}
+}
+
+/**
+ * ソート索引の属性値の比較クラス。
+ * 異なるクラスの値が混在してもClassCastExceptionとならないよう、全ての値を順序付けます。
+ * 同じクラスのComparableな値はcompareToで、数値(Number)同士は数値として比較し、
+ * それ以外はクラス名順(数値はまとめて1つのクラスとみなす)、同じクラス名の場合は文字列表現の順とします。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcIndexedCacheList#addSortedIndex(String)
+ * @since	UDC1.3
+ */
+class UdcCacheKeyComparator implements Comparator
+{
+	/**
+	 * 共用インスタンス
+	 * @since	UDC1.3
+	 */
+	static final UdcCacheKeyComparator	Instance = new UdcCacheKeyComparator();
+
+	/**
+	 * Comparator.compareの実装。
+	 *
+	 * @return	o1がo2より小さい場合は負の整数、等しい場合はゼロ、大きい場合は正の整数
+	 * @param	o1		属性値
+	 * @param	o2		属性値
+	 * @since	UDC1.3
+	 */
+	public int compare(Object o1, Object o2)
+	{
+		if (o1 == o2) {
+			return 0;
+		}
+		if (o1.getClass() == o2.getClass() && o1 instanceof Comparable) {
+			return ((Comparable)o1).compareTo(o2);
+		}
+		int cmp;
+		boolean num1 = o1 instanceof Number;
+		boolean num2 = o2 instanceof Number;
+		if (num1 && num2) {
+			if ((cmp=Double.compare(((Number)o1).doubleValue(), ((Number)o2).doubleValue())) != 0) {
+				return cmp;
+			}
+		} else if ((cmp=groupName(o1, num1).compareTo(groupName(o2, num2))) != 0) {
+			return cmp;
+		}
+		if ((cmp=o1.getClass().getName().compareTo(o2.getClass().getName())) != 0) {
+			return cmp;
+		}
+		return o1.toString().compareTo(o2.toString());
+	}
+
+	/**
+	 * 値を順序付けるクラス名を取得する。
+	 *
+	 * @return	クラス名(数値の場合はjava.lang.Number)
+	 * @param	o		属性値
+	 * @param	num		数値か否か
+	 * @since	UDC1.3
+	 */
+	private static String groupName(Object o, boolean num)
+	{
+		return num ? "java.lang.Number" : o.getClass().getName();
+	}
+}
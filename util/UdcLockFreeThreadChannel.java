@@ -0,0 +1,989 @@
+/* *********************************************************************
+ * @(#)UdcLockFreeThreadChannel.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ロックフリーなスレッド間通信クラス。
+ * UdcThreadChannelと同一のpush/pull/tryPullインタフェースを提供しますが、
+ * 受信メッセージリストを優先度(UdcThreadChannelDtr.dtrLevel)毎のレーンに分割し、
+ * 各レーンをロックフリーなマルチプロデューサキューで管理します。
+ * そのため、滞留メッセージ数に関わらず送信(push)・受信(pull)の処理量は一定です。
+ * また、受信待ちスレッドはLockSupportによって個別に就寝・起床されるため、
+ * 送信毎に全ての受信待ちスレッドが起床されることはありません。
+ * インボークID・メッセージ種別を指定した受信(tryPull/pull)は、受信レーンと並行して
+ * 管理するハッシュインデックスによって行われ、指定受信待ちスレッドは該当する
+ * メッセージが送信された場合にのみ起床されます。
+ *
+ * (注意)
+ *    優先度の異なるメッセージ間では優先度の高いものから受信されますが、同一優先度の
+ *    メッセージは送信順に受信されます。これはUdcThreadChannelと同様です。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcThreadChannel
+ * @see		UdcThreadChannelDtr
+ * @since	UDC1.3
+ */
+public class UdcLockFreeThreadChannel extends UdcThreadChannel
+{
+	/**
+	 * 優先度別受信レーン(優先度 → 受信キュー)。優先度の降順に整列されます。
+	 * @since	UDC1.3
+	 */
+	private ConcurrentSkipListMap	lanes = new ConcurrentSkipListMap(Collections.reverseOrder());
+
+	/**
+	 * 受信メッセージ数
+	 * @since	UDC1.3
+	 */
+	private AtomicInteger			msgCount = new AtomicInteger(0);
+
+	/**
+	 * 応答待ち管理(インボークID・応答メッセージ種別 → 応答待ち数)
+	 * @since	UDC1.3
+	 */
+	private ConcurrentHashMap		replyWaits = new ConcurrentHashMap();
+
+	/**
+	 * 受信待ちスレッドリスト
+	 * @since	UDC1.3
+	 */
+	private ConcurrentLinkedQueue	waiters = new ConcurrentLinkedQueue();
+
+	/**
+	 * 指定受信インデックス(インボークID・メッセージ種別 → 受信メッセージ・指定受信待ちスレッド)
+	 * @since	UDC1.3
+	 */
+	private ConcurrentHashMap		index = new ConcurrentHashMap();
+
+	/**
+	 * 指定受信によって取得済みとなり、受信レーン上に残っている要素数(概数)
+	 * @since	UDC1.3
+	 */
+	private AtomicInteger			garbageCount = new AtomicInteger(0);
+
+	/**
+	 * 受信レーンから取得済み要素を除去中か否か
+	 * @since	UDC1.3
+	 */
+	private AtomicBoolean			sweeping = new AtomicBoolean(false);
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @since	UDC1.3
+	 */
+	public UdcLockFreeThreadChannel()
+	{
+		super();
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	name	スレッドチャネル名
+	 * @since	UDC1.3
+	 */
+	public UdcLockFreeThreadChannel(String name)
+	{
+		super(name);
+	}
+
+	/**
+	 * 受信メッセージが存在するかを取得する。
+	 *
+	 * @return 	真/偽　(真：受信メッセージがない場合)
+	 * @since	UDC1.3
+	 */
+	public boolean isEmpty()
+		throws InterruptedException
+	{
+		return (msgCount.get() <= 0);
+	}
+
+	/**
+	 * 応答メッセージ待ちが存在するかを取得する。
+	 *
+	 * @return 	真/偽　(真：応答メッセージ待ちが存在しない場合)
+	 * @since	UDC1.3
+	 */
+	public boolean isEmptyWaitList()
+		throws InterruptedException
+	{
+		return replyWaits.isEmpty();
+	}
+
+	/**
+	 * 指定した応答メッセージ待ちが存在するかを取得する。
+	 *
+	 * @return 	真/偽　(真：応答メッセージ待ちが存在しない場合)
+	 * @param	invId	応答待ちインボークID
+	 * @param 	dtrType	応答待ちメッセージ種別
+	 * @since	UDC1.3
+	 */
+	public boolean isEmptyWaitList(int invId,int dtrType)
+		throws InterruptedException
+	{
+		AtomicInteger cnt = (AtomicInteger)replyWaits.get(Long.valueOf(key(invId,dtrType)));
+		return (cnt == null || cnt.get() <= 0);
+	}
+
+	/**
+	 * 受信メッセージリスト／応答待ちリストをクリアする。
+	 *
+	 * @since	UDC1.3
+	 */
+	public void reset()
+		throws InterruptedException
+	{
+		Iterator it = lanes.values().iterator();
+		while (it.hasNext()) {
+			ConcurrentLinkedQueue lane = (ConcurrentLinkedQueue)it.next();
+			UdcLockFreeChannelEntry e;
+			while ((e=(UdcLockFreeChannelEntry)lane.poll()) != null) {
+				if (e.claim()) {
+					msgCount.decrementAndGet();
+					removeIndex(e);
+				}
+			}
+		}
+		garbageCount.set(0);
+		replyWaits.clear();
+	}
+
+	/**
+	 * メッセージを受信レーンに追加する。
+	 *
+	 * @param 	data		送信メッセージ
+	 * @param 	replyWait	応答待ちに登録するか否か
+	 * @since	UDC1.3
+	 */
+	protected void push(UdcThreadChannelDtr data, boolean replyWait)
+		throws InterruptedException
+	{
+		if (replyWait) {
+			addReplyWait(key(data.get_invokeId(),data.get_replyDtrType()));
+		}
+		UdcLockFreeChannelEntry e = new UdcLockFreeChannelEntry(data);
+		getLane(data.get_dtrLevel()).offer(e);
+		msgCount.incrementAndGet();
+		addIndex(e);
+		signalWaiter();
+		UdcFlightRecorder.channelEnqueue(this, data);
+	}
+
+	/**
+	 * 受信メッセージを参照します。
+	 * 本メンバは受信メッセージを受信することなく、参照したい場合に使用します。
+	 *
+	 * @return	受信メッセージ
+	 * @see		UdcThreadChannel#tryReference()
+	 * @since	UDC1.3
+	 */
+	public UdcThreadChannelDtr tryReference()
+		throws InterruptedException
+	{
+		Iterator it = lanes.values().iterator();
+		while (it.hasNext()) {
+			Iterator lit = ((ConcurrentLinkedQueue)it.next()).iterator();
+			while (lit.hasNext()) {
+				UdcLockFreeChannelEntry e = (UdcLockFreeChannelEntry)lit.next();
+				if (! e.isClaimed()) {
+					return e.dtr;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 受信メッセージを取得する。受信メッセージは受信順に取得されます。
+	 * 本メンバ関数では、受信待ちに遷移することなく、受信メッセージを取得するのみです。
+	 *
+	 * @return	受信メッセージ
+	 * @since	UDC1.3
+	 */
+	public UdcThreadChannelDtr tryPull()
+		throws InterruptedException
+	{
+		return take(pollEntry());
+	}
+
+	/**
+	 * 指定した受信メッセージを取得する。
+	 * 本メンバ関数では、受信待ちに遷移することなく、受信メッセージを取得するのみです。
+	 *
+	 * @return	受信メッセージ
+	 * @param	invId	応答待ちインボークID
+	 * @param 	dtrtype	応答待ちメッセージ種別
+	 * @since	UDC1.3
+	 */
+	public UdcThreadChannelDtr tryPull(int invId,int dtrtype)
+		throws InterruptedException
+	{
+		return take(searchEntry(invId,dtrtype));
+	}
+
+	/**
+	 * 受信メッセージを取得する。
+	 * 本メンバ関数では、メッセージを受信していない場合、受信するまで待ち状態となります。
+	 *
+	 * @return	受信メッセージ
+	 * @since	UDC1.3
+	 */
+	public UdcThreadChannelDtr pull()
+		throws InterruptedException
+	{
+		Object fr = UdcFlightRecorder.channelBegin();
+		return UdcFlightRecorder.channelDequeue(this, take(waitEntry(false,0)), fr);
+	}
+
+	/**
+	 * 指定した受信メッセージを取得する。
+	 * 本メンバ関数では、メッセージを受信していない場合、受信するまで待ち状態となります。
+	 *
+	 * @return	受信メッセージ
+	 * @param	invId	応答待ちインボークID
+	 * @param 	dtrtype	応答待ちメッセージ種別
+	 * @since	UDC1.3
+	 */
+	public UdcThreadChannelDtr pull(int invId,int dtrtype)
+		throws InterruptedException
+	{
+		Object fr = UdcFlightRecorder.channelBegin();
+		return UdcFlightRecorder.channelDequeue(this, take(waitSelectEntry(invId,dtrtype,false,0)), fr);
+	}
+
+	/**
+	 * 受信メッセージを取得する。
+	 * 本メンバ関数では、メッセージを受信していない場合、waittimeで指定された間を上限とし、
+	 * 受信するまで待ち状態となります。
+	 *
+	 * @return	受信メッセージ
+	 * @param 	waittime	待ち時間上限(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	public UdcThreadChannelDtr pull(long waittime)
+		throws InterruptedException
+	{
+		Object fr = UdcFlightRecorder.channelBegin();
+		return UdcFlightRecorder.channelDequeue(this, take(waitEntry(true,waittime)), fr);
+	}
+
+	/**
+	 * 指定した受信メッセージを取得する。
+	 * 本メンバ関数では、メッセージを受信していない場合、waittimeで指定された間を上限とし、
+	 * 受信するまで待ち状態となります。
+	 *
+	 * @return	受信メッセージ
+	 * @param	invId		応答待ちインボークID
+	 * @param 	dtrtype		応答待ちメッセージ種別
+	 * @param 	waittime	待ち時間上限(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	public UdcThreadChannelDtr pull(int invId,int dtrtype,long waittime)
+		throws InterruptedException
+	{
+		Object fr = UdcFlightRecorder.channelBegin();
+		UdcThreadChannelDtr elm = take(waitSelectEntry(invId,dtrtype,true,waittime));
+		if (elm == null) {
+			removeReplyWait(key(invId,dtrtype));
+		}
+		return UdcFlightRecorder.channelDequeue(this, elm, fr);
+	}
+
+	/**
+	 * 複数のメッセージを受信レーンに一括して追加する。
+	 * 受信待ちスレッドの起床は、全てのメッセージを追加した後に行います。
+	 *
+	 * @param 	datas	送信メッセージ(UdcThreadChannelDtr)のリスト
+	 * @since	UDC1.3
+	 */
+	protected void pushBatch(List datas)
+		throws InterruptedException
+	{
+		UdcThreadChannelDtr data;
+		UdcLockFreeChannelEntry e;
+		for (int i=0; i<datas.size(); i++) {
+			data = (UdcThreadChannelDtr)datas.get(i);
+			if (data.get_replyDtrType() >= 0) {
+				addReplyWait(key(data.get_invokeId(),data.get_replyDtrType()));
+			}
+			e = new UdcLockFreeChannelEntry(data);
+			getLane(data.get_dtrLevel()).offer(e);
+			msgCount.incrementAndGet();
+			addIndex(e);
+		}
+		for (int i=0; i<datas.size(); i++) {
+			if (! signalWaiter()) {
+				break;
+			}
+		}
+		UdcFlightRecorder.channelEnqueue(this, datas);
+	}
+
+	/**
+	 * 受信メッセージを一括して取得する。受信メッセージは受信順に取得されます。
+	 * 本メンバ関数では、メッセージを受信していない場合、waittimeで指定された間を上限とし、
+	 * 受信するまで待ち状態となります。受信メッセージが存在すれば、待ち合わせることなく
+	 * 最大maxnum件を取得します。
+	 *
+	 * @return	取得した受信メッセージ数
+	 * @param 	list		受信メッセージの格納先(末尾に追加されます)
+	 * @param 	maxnum		取得する受信メッセージ数の上限
+	 * @param 	waittime	待ち時間上限(単位：ミリ秒、0の場合は待ち合わせない、負値の場合は無制限)
+	 * @since	UDC1.3
+	 */
+	public int drainTo(List list, int maxnum, long waittime)
+		throws InterruptedException
+	{
+		if (maxnum <= 0) {
+			return 0;
+		}
+		Object fr = UdcFlightRecorder.channelBegin();
+		UdcLockFreeChannelEntry e;
+		if (waittime == 0) {
+			e = pollEntry();
+		} else {
+			e = waitEntry((waittime > 0), waittime);
+		}
+		int cnt = 0;
+		while (e != null) {
+			list.add(take(e));
+			if (++cnt >= maxnum) {
+				break;
+			}
+			e = pollEntry();
+		}
+		return UdcFlightRecorder.channelDequeue(this, cnt, fr);
+	}
+
+	/**
+	 * 受信メッセージ数を取得する。
+	 *
+	 * @return	受信メッセージ数
+	 * @since	UDC1.3
+	 */
+	int depth()
+	{
+		return msgCount.get();
+	}
+
+	/**
+	 * インボークID・メッセージ種別から検索キーを生成する。
+	 *
+	 * @return	検索キー
+	 * @param	invId	インボークID
+	 * @param	dtrtype	メッセージ種別
+	 * @since	UDC1.3
+	 */
+	static long key(int invId, int dtrtype)
+	{
+		return (((long)invId) << 32) | (dtrtype & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * 指定優先度の受信レーンを取得する。存在しなければ生成する。
+	 *
+	 * @return	受信レーン
+	 * @param	level	優先度
+	 * @since	UDC1.3
+	 */
+	private ConcurrentLinkedQueue getLane(int level)
+	{
+		Integer lv = Integer.valueOf(level);
+		ConcurrentLinkedQueue lane = (ConcurrentLinkedQueue)lanes.get(lv);
+		if (lane == null) {
+			ConcurrentLinkedQueue newlane = new ConcurrentLinkedQueue();
+			if ((lane=(ConcurrentLinkedQueue)lanes.putIfAbsent(lv,newlane)) == null) {
+				lane = newlane;
+			}
+		}
+		return lane;
+	}
+
+	/**
+	 * 優先度の高いレーンから受信メッセージを１つ取得(取得済み状態に)する。
+	 *
+	 * @return	取得したメッセージ要素(存在しない場合はnull)
+	 * @since	UDC1.3
+	 */
+	private UdcLockFreeChannelEntry pollEntry()
+	{
+		if (msgCount.get() <= 0) {
+			return null;
+		}
+		Iterator it = lanes.values().iterator();
+		while (it.hasNext()) {
+			ConcurrentLinkedQueue lane = (ConcurrentLinkedQueue)it.next();
+			UdcLockFreeChannelEntry e;
+			while ((e=(UdcLockFreeChannelEntry)lane.poll()) != null) {
+					/* 指定受信で取得済みの要素はここで破棄する */
+				if (e.claim()) {
+					removeIndex(e);
+					return e;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 指定されたインボークID・メッセージ種別の受信メッセージを１つ取得(取得済み状態に)する。
+	 *
+	 * @return	取得したメッセージ要素(存在しない場合はnull)
+	 * @param	invId	インボークID(検索条件)
+	 * @param	dtrtype	メッセージ種別(検索条件)
+	 * @since	UDC1.3
+	 */
+	private UdcLockFreeChannelEntry searchEntry(int invId, int dtrtype)
+	{
+		Long lk = Long.valueOf(key(invId,dtrtype));
+		UdcLockFreeChannelKey k = (UdcLockFreeChannelKey)index.get(lk);
+		if (k == null) {
+			return null;
+		}
+		UdcLockFreeChannelEntry e = null;
+		synchronized (k) {
+			while ((e=(UdcLockFreeChannelEntry)k.entries.poll()) != null) {
+				if (e.claim()) {
+					break;
+				}
+			}
+			releaseKey(lk, k);
+		}
+		if (e != null) {
+				/* 受信レーン上の要素は後で破棄する */
+			if (garbageCount.incrementAndGet() > 64) {
+				sweepLanes();
+			}
+		}
+		return e;
+	}
+
+	/**
+	 * 取得したメッセージ要素の後処理(受信数・応答待ちの更新)を行い、メッセージを返却する。
+	 *
+	 * @return	受信メッセージ
+	 * @param	e	取得したメッセージ要素
+	 * @since	UDC1.3
+	 */
+	private UdcThreadChannelDtr take(UdcLockFreeChannelEntry e)
+	{
+		if (e == null) {
+			return null;
+		}
+		msgCount.decrementAndGet();
+		removeReplyWait(key(e.dtr.get_invokeId(),e.dtr.get_dtrType()));
+		return e.dtr;
+	}
+
+	/**
+	 * 受信メッセージを待ち合わせて１つ取得する。
+	 *
+	 * @return	取得したメッセージ要素(タイムアウト時はnull)
+	 * @param	timed		待ち時間上限を設けるか否か
+	 * @param	waittime	待ち時間上限(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	private UdcLockFreeChannelEntry waitEntry(boolean timed, long waittime)
+		throws InterruptedException
+	{
+		long deadline = (timed) ? System.nanoTime() + waittime * 1000000L : 0;
+		UdcLockFreeChannelEntry e;
+		while (true) {
+			if ((e=pollEntry()) != null) {
+				return e;
+			}
+			long remain = 0;
+			if (timed && (remain=deadline - System.nanoTime()) <= 0) {
+				return null;
+			}
+				/* 受信待ち登録後に再度確認してから就寝する(起床通知の取りこぼし防止) */
+			UdcChannelWaiter w = new UdcChannelWaiter(Thread.currentThread());
+			waiters.offer(w);
+			if ((e=pollEntry()) == null) {
+				park(timed, remain);
+			}
+			boolean signaled = ! w.cancel();
+			if (! signaled) {
+				waiters.remove(w);
+			}
+			if (e != null) {
+					/* 自ら取得したため、受けた起床通知は他の受信待ちスレッドに引き継ぐ */
+				if (signaled) {
+					signalWaiter();
+				}
+				return e;
+			}
+			if (Thread.interrupted()) {
+				if (signaled) {
+					signalWaiter();
+				}
+				throw new InterruptedException();
+			}
+		}
+	}
+
+	/**
+	 * 指定されたインボークID・メッセージ種別の受信メッセージを待ち合わせて１つ取得する。
+	 * 指定受信待ちスレッドは、該当するメッセージが送信された場合にのみ起床されます。
+	 *
+	 * @return	取得したメッセージ要素(タイムアウト時はnull)
+	 * @param	invId		インボークID(検索条件)
+	 * @param	dtrtype		メッセージ種別(検索条件)
+	 * @param	timed		待ち時間上限を設けるか否か
+	 * @param	waittime	待ち時間上限(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	private UdcLockFreeChannelEntry waitSelectEntry(int invId, int dtrtype, boolean timed, long waittime)
+		throws InterruptedException
+	{
+		long deadline = (timed) ? System.nanoTime() + waittime * 1000000L : 0;
+		Long lk = Long.valueOf(key(invId,dtrtype));
+		UdcLockFreeChannelEntry e;
+		while (true) {
+			if ((e=searchEntry(invId,dtrtype)) != null) {
+				return e;
+			}
+			long remain = 0;
+			if (timed && (remain=deadline - System.nanoTime()) <= 0) {
+				return null;
+			}
+			UdcChannelWaiter w = new UdcChannelWaiter(Thread.currentThread());
+			UdcLockFreeChannelKey k = addSelectWaiter(lk, w);
+			if (k == null) {
+					/* 登録中に該当メッセージが送信された */
+				continue;
+			}
+			try {
+				park(timed, remain);
+			} finally {
+				w.cancel();
+				synchronized (k) {
+					k.waiters.remove(w);
+					releaseKey(lk, k);
+				}
+			}
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+	}
+
+	/**
+	 * 受信待ちスレッドを就寝させる。
+	 *
+	 * @param	timed	待ち時間上限を設けるか否か
+	 * @param	nanos	待ち時間上限(単位：ナノ秒)
+	 * @since	UDC1.3
+	 */
+	private void park(boolean timed, long nanos)
+	{
+		if (timed) {
+			LockSupport.parkNanos(this, nanos);
+		} else {
+			LockSupport.park(this);
+		}
+	}
+
+	/**
+	 * 受信待ちスレッドを１つ起床する。
+	 *
+	 * @return	起床したか否か(受信待ちスレッドが存在しない場合はfalse)
+	 * @since	UDC1.3
+	 */
+	private boolean signalWaiter()
+	{
+		UdcChannelWaiter w;
+		while ((w=(UdcChannelWaiter)waiters.poll()) != null) {
+			if (w.signal()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 受信メッセージを指定受信インデックスに追加し、該当する指定受信待ちスレッドを起床する。
+	 * 受信レーンへの追加後に呼び出すため、既に通常受信で取得済みの要素は追加しません。
+	 * 取得済みの判定はインデックス要素の排他中に行うため、判定後に取得された要素は
+	 * 取得したスレッドのremoveIndexで削除されます。
+	 *
+	 * @param	e	受信メッセージ要素
+	 * @since	UDC1.3
+	 */
+	private void addIndex(UdcLockFreeChannelEntry e)
+	{
+		Long lk = Long.valueOf(e.key);
+		while (true) {
+			UdcLockFreeChannelKey k = getKey(lk);
+			synchronized (k) {
+				if (k.removed) {
+					continue;
+				}
+				if (e.isClaimed()) {
+					releaseKey(lk, k);
+					return;
+				}
+				k.entries.add(e);
+				for (int i=0; i<k.waiters.size(); i++) {
+					((UdcChannelWaiter)k.waiters.get(i)).signal();
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 通常受信で取得したメッセージ要素を指定受信インデックスから削除する。
+	 *
+	 * @param	e	受信メッセージ要素
+	 * @since	UDC1.3
+	 */
+	private void removeIndex(UdcLockFreeChannelEntry e)
+	{
+		Long lk = Long.valueOf(e.key);
+		UdcLockFreeChannelKey k = (UdcLockFreeChannelKey)index.get(lk);
+		if (k == null) {
+			return;
+		}
+		synchronized (k) {
+			k.entries.remove(e);
+			releaseKey(lk, k);
+		}
+	}
+
+	/**
+	 * 指定受信待ちスレッドを登録する。
+	 *
+	 * @return	登録先のインデックス要素(既に該当メッセージが存在する場合はnull)
+	 * @param	lk	検索キー
+	 * @param	w	指定受信待ちスレッド
+	 * @since	UDC1.3
+	 */
+	private UdcLockFreeChannelKey addSelectWaiter(Long lk, UdcChannelWaiter w)
+	{
+		while (true) {
+			UdcLockFreeChannelKey k = getKey(lk);
+			synchronized (k) {
+				if (k.removed) {
+					continue;
+				}
+				Iterator it = k.entries.iterator();
+				while (it.hasNext()) {
+					if (! ((UdcLockFreeChannelEntry)it.next()).isClaimed()) {
+						return null;
+					}
+				}
+				k.waiters.add(w);
+				return k;
+			}
+		}
+	}
+
+	/**
+	 * 指定受信インデックス要素を取得する。存在しなければ生成する。
+	 *
+	 * @return	インデックス要素
+	 * @param	lk	検索キー
+	 * @since	UDC1.3
+	 */
+	private UdcLockFreeChannelKey getKey(Long lk)
+	{
+		UdcLockFreeChannelKey k = (UdcLockFreeChannelKey)index.get(lk);
+		if (k == null) {
+			UdcLockFreeChannelKey newk = new UdcLockFreeChannelKey();
+			if ((k=(UdcLockFreeChannelKey)index.putIfAbsent(lk,newk)) == null) {
+				k = newk;
+			}
+		}
+		return k;
+	}
+
+	/**
+	 * 未使用となった指定受信インデックス要素を削除する。
+	 * 本メンバは、インデックス要素の排他中に呼び出す必要があります。
+	 *
+	 * @param	lk	検索キー
+	 * @param	k	インデックス要素
+	 * @since	UDC1.3
+	 */
+	private void releaseKey(Long lk, UdcLockFreeChannelKey k)
+	{
+		if (k.entries.isEmpty() && k.waiters.isEmpty() && ! k.removed) {
+			k.removed = true;
+			index.remove(lk, k);
+		}
+	}
+
+	/**
+	 * 指定受信によって取得済みとなった要素を受信レーンから除去する。
+	 * 除去は同時に１スレッドのみが行い、残っている受信メッセージ数より取得済み要素が
+	 * 多い場合にのみ行うため、除去に要する処理量は取得済み要素数に比例します。
+	 *
+	 * @since	UDC1.3
+	 */
+	private void sweepLanes()
+	{
+		if (garbageCount.get() <= msgCount.get() || ! sweeping.compareAndSet(false,true)) {
+			return;
+		}
+		try {
+			garbageCount.set(0);
+			Iterator it = lanes.values().iterator();
+			while (it.hasNext()) {
+				Iterator lit = ((ConcurrentLinkedQueue)it.next()).iterator();
+				while (lit.hasNext()) {
+					if (((UdcLockFreeChannelEntry)lit.next()).isClaimed()) {
+						lit.remove();
+					}
+				}
+			}
+		} finally {
+			sweeping.set(false);
+		}
+	}
+
+	/**
+	 * 応答待ちを登録する。
+	 *
+	 * @param	k	検索キー
+	 * @since	UDC1.3
+	 */
+	private void addReplyWait(long k)
+	{
+		Long lk = Long.valueOf(k);
+		while (true) {
+			AtomicInteger cnt = (AtomicInteger)replyWaits.get(lk);
+			if (cnt == null) {
+				if (replyWaits.putIfAbsent(lk,new AtomicInteger(1)) == null) {
+					return;
+				}
+				continue;
+			}
+			int c = cnt.get();
+			if (c <= 0) {
+					/* 削除中の要素 */
+				replyWaits.remove(lk,cnt);
+				continue;
+			}
+			if (cnt.compareAndSet(c,c+1)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 応答待ちを解除する。
+	 *
+	 * @param	k	検索キー
+	 * @since	UDC1.3
+	 */
+	private void removeReplyWait(long k)
+	{
+		if (replyWaits.isEmpty()) {
+			return;
+		}
+		Long lk = Long.valueOf(k);
+		while (true) {
+			AtomicInteger cnt = (AtomicInteger)replyWaits.get(lk);
+			if (cnt == null) {
+				return;
+			}
+			int c = cnt.get();
+			if (c <= 0) {
+				replyWaits.remove(lk,cnt);
+				return;
+			}
+			if (cnt.compareAndSet(c,c-1)) {
+				if (c == 1) {
+					replyWaits.remove(lk,cnt);
+				}
+				return;
+			}
+		}
+	}
+}
+
+
+/**
+ * ロックフリースレッド間通信の受信レーン要素。
+ * 受信レーンからの取得は、本要素の取得済み状態をCASで確保したスレッドのみが行えます。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+class UdcLockFreeChannelEntry
+{
+	/**
+	 * スレッド間通信メッセージ
+	 * @since	UDC1.3
+	 */
+	final UdcThreadChannelDtr	dtr;
+
+	/**
+	 * 指定受信インデックスの検索キー
+	 * @since	UDC1.3
+	 */
+	final long					key;
+
+	/**
+	 * 取得済み状態(取得済みの場合はtrue)
+	 * @since	UDC1.3
+	 */
+	final AtomicBoolean			claimed = new AtomicBoolean(false);
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	d	スレッド間通信メッセージ
+	 * @since	UDC1.3
+	 */
+	UdcLockFreeChannelEntry(UdcThreadChannelDtr d)
+	{
+		dtr = d;
+		key = UdcLockFreeThreadChannel.key(d.get_invokeId(), d.get_dtrType());
+	}
+
+	/**
+	 * 本要素を取得済み状態にする。
+	 *
+	 * @return	取得済み状態にできたか否か(他スレッドが取得済みの場合は偽)
+	 * @since	UDC1.3
+	 */
+	boolean claim()
+	{
+		return claimed.compareAndSet(false, true);
+	}
+
+	/**
+	 * 本要素が取得済み状態か否かを取得する。
+	 *
+	 * @return	取得済み状態か否か
+	 * @since	UDC1.3
+	 */
+	boolean isClaimed()
+	{
+		return claimed.get();
+	}
+}
+
+
+/**
+ * ロックフリースレッド間通信の受信待ちスレッド情報。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+class UdcChannelWaiter
+{
+	/**
+	 * 受信待ち状態：就寝中
+	 * @since	UDC1.3
+	 */
+	final static int	Waiting		= 0;
+
+	/**
+	 * 受信待ち状態：起床通知済み
+	 * @since	UDC1.3
+	 */
+	final static int	Signaled	= 1;
+
+	/**
+	 * 受信待ち状態：受信待ち取消
+	 * @since	UDC1.3
+	 */
+	final static int	Cancelled	= 2;
+
+	/**
+	 * 受信待ちスレッド
+	 * @since	UDC1.3
+	 */
+	final Thread			thread;
+
+	/**
+	 * 受信待ち状態
+	 * @since	UDC1.3
+	 */
+	final AtomicInteger		state = new AtomicInteger(Waiting);
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	th		受信待ちスレッド
+	 * @since	UDC1.3
+	 */
+	UdcChannelWaiter(Thread th)
+	{
+		thread = th;
+	}
+
+	/**
+	 * 受信待ちスレッドを起床する。
+	 *
+	 * @return	起床できたか否か(既に起床・取消済みの場合は偽)
+	 * @since	UDC1.3
+	 */
+	boolean signal()
+	{
+		if (state.compareAndSet(Waiting, Signaled)) {
+			LockSupport.unpark(thread);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * 受信待ちを取り消す。
+	 *
+	 * @return	取り消せたか否か(既に起床通知済みの場合は偽)
+	 * @since	UDC1.3
+	 */
+	boolean cancel()
+	{
+		return state.compareAndSet(Waiting, Cancelled);
+	}
+}
+
+
+/**
+ * ロックフリースレッド間通信の指定受信インデックス要素。
+ * 同一のインボークID・メッセージ種別の受信メッセージと指定受信待ちスレッドを管理します。
+ * 本要素の操作は、本要素で排他を行います(同一キーの操作間でのみ排他されます)。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+class UdcLockFreeChannelKey
+{
+	/**
+	 * 受信メッセージ要素リスト(送信順)
+	 * @since	UDC1.3
+	 */
+	final ArrayDeque	entries = new ArrayDeque(2);
+
+	/**
+	 * 指定受信待ちスレッドリスト
+	 * @since	UDC1.3
+	 */
+	final ArrayList		waiters = new ArrayList(1);
+
+	/**
+	 * インデックスから削除済みか否か
+	 * @since	UDC1.3
+	 */
+	boolean				removed = false;
+}
@@ -0,0 +1,345 @@
+/* *********************************************************************
+ * @(#)UdcObjectPool.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * 再利用可能なインスタンスを保持するプールクラス。
+ * 解放(offer)されたインスタンスを上限数まで保持し、取得(poll)時には最後に解放された
+ * インスタンスから返却します。プールが空の場合はnullを返却するため、呼出し側で新たに
+ * インスタンスを生成します。上限数を超えて解放されたインスタンスは保持せずに破棄します。<br>
+ * 保持するインスタンスは複数の区画(ストライプ)に分けて管理し、スレッド毎に異なる区画を
+ * 使用することで、複数のスレッドから同時に取得・解放する場合の競合を抑えます。自スレッドの
+ * 区画が空(取得時)あるいは満杯(解放時)の場合は、他の区画を使用します。
+ * 本クラスは、UdcThreadChannelDtr等のスレッド間通信メッセージの再利用に使用されます。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcThreadChannelDtr#obtain(int,int,Object)
+ * @since	UDC1.3
+ */
+public class UdcObjectPool
+{
+	/**
+	 * 区画
+	 * @since	UDC1.3
+	 */
+	private final UdcObjectPoolStripe[]	stripes;
+
+	/**
+	 * 保持するインスタンス数の上限
+	 * @since	UDC1.3
+	 */
+	private volatile int		capacity;
+
+	/**
+	 * 保持しているインスタンス数
+	 * @since	UDC1.3
+	 */
+	private final AtomicInteger	count = new AtomicInteger(0);
+
+	/**
+	 * 取得回数
+	 * @since	UDC1.3
+	 */
+	private final LongAdder		pollCount = new LongAdder();
+
+	/**
+	 * 取得時にインスタンスを再利用できた回数
+	 * @since	UDC1.3
+	 */
+	private final LongAdder		hitCount = new LongAdder();
+
+	/**
+	 * 解放回数
+	 * @since	UDC1.3
+	 */
+	private final LongAdder		offerCount = new LongAdder();
+
+	/**
+	 * 上限を超えたため破棄した回数
+	 * @since	UDC1.3
+	 */
+	private final LongAdder		dropCount = new LongAdder();
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	capacity	保持するインスタンス数の上限
+	 * @since	UDC1.3
+	 */
+	public UdcObjectPool(int capacity)
+	{
+		int n = 1;
+		while (n < Runtime.getRuntime().availableProcessors() && n < 64) {
+			n <<= 1;
+		}
+		stripes = new UdcObjectPoolStripe[n];
+		for (int i=0; i<n; i++) {
+			stripes[i] = new UdcObjectPoolStripe();
+		}
+		setCapacity(capacity);
+	}
+
+	/**
+	 * 保持しているインスタンスを取得する。
+	 *
+	 * @return	再利用するインスタンス(保持していない場合はnull)
+	 * @since	UDC1.3
+	 */
+	public Object poll()
+	{
+		pollCount.increment();
+		if (count.get() <= 0) {
+			return null;
+		}
+		int base = stripeIndex();
+		Object obj;
+		for (int i=0; i<stripes.length; i++) {
+			if ((obj=stripes[(base + i) & (stripes.length - 1)].poll()) != null) {
+				count.decrementAndGet();
+				hitCount.increment();
+				return obj;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * インスタンスを解放し、再利用のために保持する。
+	 *
+	 * @return	保持したか否か(上限に達している場合は偽)
+	 * @param	obj		解放するインスタンス
+	 * @since	UDC1.3
+	 */
+	public boolean offer(Object obj)
+	{
+		offerCount.increment();
+		if (count.get() < capacity) {
+			int base = stripeIndex();
+			for (int i=0; i<stripes.length; i++) {
+				if (stripes[(base + i) & (stripes.length - 1)].offer(obj)) {
+					count.incrementAndGet();
+					return true;
+				}
+			}
+		}
+		dropCount.increment();
+		return false;
+	}
+
+	/**
+	 * 保持するインスタンス数の上限を設定する。
+	 * 上限を超えて保持しているインスタンスは破棄されます。
+	 *
+	 * @param	capacity	保持するインスタンス数の上限
+	 * @since	UDC1.3
+	 */
+	public synchronized void setCapacity(int capacity)
+	{
+		this.capacity = (capacity > 0) ? capacity : 0;
+		int limit = (this.capacity + stripes.length - 1) / stripes.length;
+		for (int i=0; i<stripes.length; i++) {
+			count.addAndGet(- stripes[i].setCapacity(limit));
+		}
+	}
+
+	/**
+	 * 保持するインスタンス数の上限を取得する。
+	 *
+	 * @return	保持するインスタンス数の上限
+	 * @since	UDC1.3
+	 */
+	public int getCapacity()
+	{
+		return capacity;
+	}
+
+	/**
+	 * 保持しているインスタンス数を取得する。
+	 *
+	 * @return	保持しているインスタンス数
+	 * @since	UDC1.3
+	 */
+	public int size()
+	{
+		return count.get();
+	}
+
+	/**
+	 * 保持しているインスタンスを全て破棄する。
+	 *
+	 * @since	UDC1.3
+	 */
+	public void clear()
+	{
+		for (int i=0; i<stripes.length; i++) {
+			count.addAndGet(- stripes[i].clear());
+		}
+	}
+
+	/**
+	 * 取得回数を取得する。
+	 *
+	 * @return	取得回数
+	 * @since	UDC1.3
+	 */
+	public long getPollCount()
+	{
+		return pollCount.sum();
+	}
+
+	/**
+	 * 取得時にインスタンスを再利用できた回数を取得する。
+	 *
+	 * @return	再利用回数
+	 * @since	UDC1.3
+	 */
+	public long getHitCount()
+	{
+		return hitCount.sum();
+	}
+
+	/**
+	 * 解放回数を取得する。
+	 *
+	 * @return	解放回数
+	 * @since	UDC1.3
+	 */
+	public long getOfferCount()
+	{
+		return offerCount.sum();
+	}
+
+	/**
+	 * 上限を超えたため破棄した回数を取得する。
+	 *
+	 * @return	破棄回数
+	 * @since	UDC1.3
+	 */
+	public long getDropCount()
+	{
+		return dropCount.sum();
+	}
+
+	/**
+	 * 本インスタンスの文字列情報を取得する。
+	 *
+	 * @return	本インスタンス情報
+	 * @since	UDC1.3
+	 */
+	public String toString()
+	{
+		return "size=" + size() + "/" + getCapacity() + " poll=" + getPollCount() + " hit=" + getHitCount()
+				+ " offer=" + getOfferCount() + " drop=" + getDropCount();
+	}
+
+	/**
+	 * 呼出しスレッドが使用する区画の位置を取得する。
+	 *
+	 * @return	区画の位置
+	 * @since	UDC1.3
+	 */
+	private int stripeIndex()
+	{
+		long id = Thread.currentThread().getId();
+		return (int)(id ^ (id >>> 16)) & (stripes.length - 1);
+	}
+}
+
+/**
+ * 再利用可能なインスタンスを保持するプールの区画。
+ * 区画毎に排他を行い、最後に解放されたインスタンスから返却します。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcObjectPool
+ * @since	UDC1.3
+ */
+class UdcObjectPoolStripe
+{
+	/**
+	 * 保持しているインスタンス
+	 * @since	UDC1.3
+	 */
+	private Object[]	elems = new Object[0];
+
+	/**
+	 * 保持しているインスタンス数
+	 * @since	UDC1.3
+	 */
+	private int			count = 0;
+
+	/**
+	 * 保持しているインスタンスを取得する。
+	 *
+	 * @return	インスタンス(保持していない場合はnull)
+	 * @since	UDC1.3
+	 */
+	synchronized Object poll()
+	{
+		if (count <= 0) {
+			return null;
+		}
+		Object obj = elems[--count];
+		elems[count] = null;
+		return obj;
+	}
+
+	/**
+	 * インスタンスを保持する。
+	 *
+	 * @return	保持したか否か(満杯の場合は偽)
+	 * @param	obj		インスタンス
+	 * @since	UDC1.3
+	 */
+	synchronized boolean offer(Object obj)
+	{
+		if (count >= elems.length) {
+			return false;
+		}
+		elems[count++] = obj;
+		return true;
+	}
+
+	/**
+	 * 保持するインスタンス数の上限を設定する。
+	 *
+	 * @return	上限を超えたため破棄したインスタンス数
+	 * @param	capacity	保持するインスタンス数の上限
+	 * @since	UDC1.3
+	 */
+	synchronized int setCapacity(int capacity)
+	{
+		Object[] nelems = new Object[capacity];
+		int drop = 0;
+		if (count > nelems.length) {
+			drop = count - nelems.length;
+			count = nelems.length;
+		}
+		System.arraycopy(elems, 0, nelems, 0, count);
+		elems = nelems;
+		return drop;
+	}
+
+	/**
+	 * 保持しているインスタンスを全て破棄する。
+	 *
+	 * @return	破棄したインスタンス数
+	 * @since	UDC1.3
+	 */
+	synchronized int clear()
+	{
+		int drop = count;
+		for (int i=0; i<count; i++) {
+			elems[i] = null;
+		}
+		count = 0;
+		return drop;
+	}
+}
@@ -105,6 +105,7 @@ public class UdcOpeThreadComReceiver implements Runnable
 			req = new UdcThreadChannelDtr(recInvokeId, recMsgType);
 			req.set_data(act);
 			req.set_replyChannel(channel);
+			req.set_timeout(recTimer);
 
 			/* 処理スレッドへ要求 */
 			ope.getChannel().push(req);
@@ -0,0 +1,173 @@
+/* *********************************************************************
+ * @(#)UdcRecord.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.util.*;
+import java.sql.*;
+
+/**
+ * 列構成(UdcRecordSchema)を共有するレコードクラス。
+ * 列の値を列位置の配列で保持し、列名から列位置への変換は共有する列構成で行います。
+ * ResultSetの1行をUdcCacheより少ないメモリで保持します。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcRecordSchema
+ * @see		UdcActionFace#ResultSet2Handler(ResultSet,UdcRecordHandlerFace)
+ * @since	UDC1.3
+ */
+public class UdcRecord
+{
+	/**
+	 * 列構成
+	 * @since	UDC1.3
+	 */
+	protected UdcRecordSchema	schema;
+
+	/**
+	 * 列の値(列位置順)
+	 * @since	UDC1.3
+	 */
+	protected Object[]			values;
+
+	/**
+	 * コンストラクタ。全ての列の値がnullのレコードを生成します。
+	 *
+	 * @param	sc		列構成
+	 * @since	UDC1.3
+	 */
+	public UdcRecord(UdcRecordSchema sc)
+	{
+		schema = sc;
+		values = new Object[sc.getColumnCount()];
+	}
+
+	/**
+	 * ResultSetの現在行からレコードを生成する。
+	 *
+	 * @return	レコード
+	 * @param	sc		ResultSetの列構成
+	 * @param	rs		ResultSet
+	 * @exception	SQLException	値の取得エラー
+	 * @since	UDC1.3
+	 */
+	public static UdcRecord valueOf(UdcRecordSchema sc, ResultSet rs)
+		throws SQLException
+	{
+		UdcRecord rec = new UdcRecord(sc);
+		for (int i=0; i<rec.values.length; i++) {
+			rec.values[i] = rs.getObject(i + 1);
+		}
+		return rec;
+	}
+
+	/**
+	 * 列構成を取得する。
+	 *
+	 * @return	列構成
+	 * @since	UDC1.3
+	 */
+	public UdcRecordSchema getSchema() { return schema; }
+
+	/**
+	 * 列の値を取得する。
+	 *
+	 * @return	値
+	 * @param	index	列位置(0〜列数-1)
+	 * @since	UDC1.3
+	 */
+	public Object get(int index) { return values[index]; }
+
+	/**
+	 * 列の値を取得する。
+	 *
+	 * @return	値(列がない場合はnull)
+	 * @param	name	列名
+	 * @since	UDC1.3
+	 */
+	public Object get(String name)
+	{
+		int index = schema.indexOf(name);
+		return (index >= 0 && index < values.length) ? values[index] : null;
+	}
+
+	/**
+	 * 列の値を設定する。
+	 *
+	 * @param	index	列位置(0〜列数-1)
+	 * @param	value	値
+	 * @since	UDC1.3
+	 */
+	public void set(int index, Object value) { values[index] = value; }
+
+	/**
+	 * 列の値を設定する。
+	 *
+	 * @return	設定したか否か(列がない場合はfalse)
+	 * @param	name	列名
+	 * @param	value	値
+	 * @since	UDC1.3
+	 */
+	public boolean set(String name, Object value)
+	{
+		int index = schema.indexOf(name);
+		if (index < 0 || index >= values.length) {
+			return false;
+		}
+		values[index] = value;
+		return true;
+	}
+
+	/**
+	 * 本レコードをUdcCacheに変換する。値がnullの列は設定しません。
+	 *
+	 * @return	キャッシュ
+	 * @see		UdcActionFace#ResultSet2Cache(ResultSet)
+	 * @since	UDC1.3
+	 */
+	public UdcCache toCache()
+	{
+		UdcCache ca = new UdcCache();
+		for (int i=0; i<values.length; i++) {
+			if (values[i] != null) {
+				ca.setAttr(schema.getColumnName(i), values[i]);
+			}
+		}
+		return ca;
+	}
+
+	/**
+	 * 本レコードをコンパクト形式のUdcCacheに変換する。キャッシュは本レコードの列構成を共有します。
+	 * 値がnullの列は属性なしとなります。
+	 *
+	 * @return	キャッシュ
+	 * @see		UdcCache#UdcCache(UdcRecordSchema)
+	 * @since	UDC1.3
+	 */
+	public UdcCache toCompactCache()
+	{
+		return new UdcCache(schema, values);
+	}
+
+	/**
+	 * 本インスタンスの文字列情報を取得する。
+	 *
+	 * @return	本インスタンス情報
+	 * @since	UDC1.3
+	 */
+	public String toString()
+	{
+		StringBuffer str = new StringBuffer("{");
+		for (int i=0; i<values.length; i++) {
+			if (i > 0) {
+				str.append(", ");
+			}
+			str.append(schema.getColumnName(i)).append("=").append(values[i]);
+		}
+		return str.append("}").toString();
+	}
+}
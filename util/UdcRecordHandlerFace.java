@@ -0,0 +1,32 @@
+/* *********************************************************************
+ * @(#)UdcRecordHandlerFace.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.sql.*;
+
+
+/**
+ * ResultSetの各行をレコード(UdcRecord)として逐次処理するためのインタフェースクラス。
+ * 全行をリストに格納せずに処理するため、大量の行を一定のメモリで処理できます。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcActionFace#ResultSet2Handler(ResultSet,UdcRecordHandlerFace)
+ * @since	UDC1.3
+ */
+public interface UdcRecordHandlerFace
+{
+	/**
+	 * 1行分のレコードを処理する。
+	 *
+	 * @return	[true]次の行を処理する/[false]処理を終了する
+	 * @param	record	レコード
+	 * @exception	SQLException	処理を中断する場合
+	 * @since	UDC1.3
+	 */
+	public boolean handleRecord(UdcRecord record) throws SQLException;
+}
@@ -0,0 +1,198 @@
+/* *********************************************************************
+ * @(#)UdcRecordSchema.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.sql.*;
+
+/**
+ * レコードの列構成(スキーマ)クラス。
+ * 列名と列位置の対応を保持し、同じ列構成の全てのレコード(UdcRecord)で共有します。
+ * ResultSetから生成する場合は、ResultSetMetaDataの参照は生成時の1回のみです。
+ * 列はinternで追加できます(削除はできません)。列の参照は排他なしに複数スレッドから行えます。
+ * コンパクト形式のUdcCacheでは、属性名を本クラスの列として共有します。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcRecord
+ * @see		UdcCache#UdcCache(UdcRecordSchema)
+ * @since	UDC1.3
+ */
+public class UdcRecordSchema
+{
+	/**
+	 * 列名
+	 * @since	UDC1.3
+	 */
+	protected volatile String[]	names;
+
+	/**
+	 * 列のSQL型(java.sql.Types)。不明な場合はTypes.OTHER。
+	 * @since	UDC1.3
+	 */
+	protected volatile int[]	types;
+
+	/**
+	 * 列名と列位置の対応(キー:列名 値:Integer(列位置))
+	 * @since	UDC1.3
+	 */
+	protected ConcurrentHashMap	indexMap;
+
+	/**
+	 * コンストラクタ。列のない列構成を生成します。
+	 *
+	 * @since	UDC1.3
+	 */
+	public UdcRecordSchema()
+	{
+		this(new String[0], null);
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	columnNames		列名
+	 * @since	UDC1.3
+	 */
+	public UdcRecordSchema(String[] columnNames)
+	{
+		this(columnNames, null);
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	columnNames		列名
+	 * @param	columnTypes		列のSQL型(java.sql.Types、nullの場合は不明)
+	 * @since	UDC1.3
+	 */
+	public UdcRecordSchema(String[] columnNames, int[] columnTypes)
+	{
+		names = columnNames.clone();
+		types = new int[names.length];
+		indexMap = new ConcurrentHashMap(names.length * 2 + 16);
+		for (int i=0; i<names.length; i++) {
+			types[i] = (columnTypes != null) ? columnTypes[i] : Types.OTHER;
+				/* 同名の列は先頭の列を優先 */
+			if (! indexMap.containsKey(names[i])) {
+				indexMap.put(names[i], Integer.valueOf(i));
+			}
+		}
+	}
+
+	/**
+	 * ResultSetMetaDataから列構成を生成する。列名はgetColumnNameの値です。
+	 *
+	 * @return	列構成
+	 * @param	meta	ResultSetMetaData
+	 * @exception	SQLException	メタデータの取得エラー
+	 * @since	UDC1.3
+	 */
+	public static UdcRecordSchema valueOf(ResultSetMetaData meta)
+		throws SQLException
+	{
+		int num = meta.getColumnCount();
+		String[] columnNames = new String[num];
+		int[] columnTypes = new int[num];
+		for (int i=0; i<num; i++) {
+			columnNames[i] = meta.getColumnName(i + 1);
+			columnTypes[i] = meta.getColumnType(i + 1);
+		}
+		return new UdcRecordSchema(columnNames, columnTypes);
+	}
+
+	/**
+	 * 列数を取得する。
+	 *
+	 * @return	列数
+	 * @since	UDC1.3
+	 */
+	public int getColumnCount() { return names.length; }
+
+	/**
+	 * 列名を取得する。
+	 *
+	 * @return	列名
+	 * @param	index	列位置(0〜getColumnCount()-1)
+	 * @since	UDC1.3
+	 */
+	public String getColumnName(int index) { return names[index]; }
+
+	/**
+	 * 列のSQL型を取得する。
+	 *
+	 * @return	SQL型(java.sql.Types)
+	 * @param	index	列位置(0〜getColumnCount()-1)
+	 * @since	UDC1.3
+	 */
+	public int getColumnType(int index) { return types[index]; }
+
+	/**
+	 * 列名の列位置を取得する。
+	 *
+	 * @return	列位置(列がない場合は-1)
+	 * @param	name	列名
+	 * @since	UDC1.3
+	 */
+	public int indexOf(String name)
+	{
+		Integer index = (Integer)indexMap.get(name);
+		return (index != null) ? index.intValue() : -1;
+	}
+
+	/**
+	 * 列名の列位置を取得する。列がない場合は、列構成の末尾に列を追加します。
+	 *
+	 * @return	列位置
+	 * @param	name	列名
+	 * @since	UDC1.3
+	 */
+	public int intern(String name)
+	{
+		Integer index = (Integer)indexMap.get(name);
+		if (index != null) {
+			return index.intValue();
+		}
+		synchronized (this) {
+			index = (Integer)indexMap.get(name);
+			if (index != null) {
+				return index.intValue();
+			}
+			int num = names.length;
+			String[] newNames = new String[num + 1];
+			int[] newTypes = new int[num + 1];
+			System.arraycopy(names, 0, newNames, 0, num);
+			System.arraycopy(types, 0, newTypes, 0, num);
+			newNames[num] = name;
+			newTypes[num] = Types.OTHER;
+			types = newTypes;
+			names = newNames;
+			indexMap.put(name, Integer.valueOf(num));
+			return num;
+		}
+	}
+
+	/**
+	 * 本インスタンスの文字列情報を取得する。
+	 *
+	 * @return	本インスタンス情報
+	 * @since	UDC1.3
+	 */
+	public String toString()
+	{
+		String[] names = this.names;
+		StringBuffer str = new StringBuffer("[");
+		for (int i=0; i<names.length; i++) {
+			if (i > 0) {
+				str.append(",");
+			}
+			str.append(names[i]);
+		}
+		return str.append("]").toString();
+	}
+}
@@ -0,0 +1,329 @@
+/* *********************************************************************
+ * @(#)UdcStatementCache.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.util.*;
+import java.sql.*;
+
+/**
+ * DBコネクション毎のPreparedStatementキャッシュクラス。
+ * SQL文字列をキーにPreparedStatementを保持し、同じSQLの再実行時にSQLの解析・実行計画の作成を
+ * 省略します。保持数の上限を超えると、最も長く使用されていないPreparedStatementをクローズして
+ * 削除します(LRU)。
+ *
+ * (注意)
+ *	本クラスが返却したPreparedStatementはキャッシュで保持しているため、呼び出し元で
+ *	closeしないでください。また、同じDBコネクションを複数スレッドで同時に使用しないでください。
+ *	同じSQL文ではキャッシュにヒットした同じPreparedStatementを返却します(パラメータはクリア済み)。
+ *	同じSQL文を入れ子で実行する(ResultSetの読み込み中に同じSQL文の処理を呼び出す)と、
+ *	同じPreparedStatementを再実行して処理中のResultSetがクローズされるため、入れ子で実行する
+ *	場合は片方のSQL文を別の文字列にするか、キャッシュを使用しないでください。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcDBConnectionPool#prepareStatement(Connection,String)
+ * @see		UdcThreadOperation#prepareStatement(String)
+ * @since	UDC1.3
+ */
+public class UdcStatementCache
+{
+	/**
+	 * PreparedStatementキャッシュの保持数のデフォルト。
+	 * @since	UDC1.3
+	 */
+	public static final int DefaultSize = 64;
+
+	/**
+	 * PreparedStatementを生成するDBコネクション
+	 * @since	UDC1.3
+	 */
+	protected Connection		connection;
+
+	/**
+	 * 保持数の上限
+	 * @since	UDC1.3
+	 */
+	protected int				maxSize;
+
+	/**
+	 * PreparedStatement(キー:SQL文字列 値:PreparedStatement)。使用順に並びます。
+	 * @since	UDC1.3
+	 */
+	protected LinkedHashMap		statements;
+
+	/**
+	 * キャッシュから返却した回数
+	 * @since	UDC1.3
+	 */
+	protected long				hitCount = 0;
+
+	/**
+	 * 新たにPreparedStatementを生成した回数
+	 * @since	UDC1.3
+	 */
+	protected long				missCount = 0;
+
+	/**
+	 * 保持数の上限を超えて削除した回数
+	 * @since	UDC1.3
+	 */
+	protected long				evictCount = 0;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	conn	PreparedStatementを生成するDBコネクション
+	 * @param	size	保持数の上限
+	 * @since	UDC1.3
+	 */
+	public UdcStatementCache(Connection conn, int size)
+	{
+		connection = conn;
+		maxSize = size;
+		statements = new LinkedHashMap(16, 0.75f, true) {
+			protected boolean removeEldestEntry(Map.Entry eldest) {
+				if (size() <= maxSize) {
+					return false;
+				}
+				evictCount ++;
+				closeStatement((PreparedStatement)eldest.getValue());
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * SQL文のPreparedStatementを取得する。
+	 * キャッシュに保持している場合はパラメータをクリアして返却し、保持していない場合は
+	 * Connection.prepareStatementで生成してキャッシュに保持します。
+	 *
+	 * @return	PreparedStatement
+	 * @param	sql		SQL文
+	 * @exception	SQLException	PreparedStatementの生成エラー
+	 * @see		java.sql.Connection#prepareStatement(String)
+	 * @since	UDC1.3
+	 */
+	public synchronized PreparedStatement prepareStatement(String sql)
+		throws SQLException
+	{
+		PreparedStatement ps = lookup(sql);
+		if (ps == null) {
+			ps = connection.prepareStatement(sql);
+			store(sql, ps);
+		}
+		return ps;
+	}
+
+	/**
+	 * 自動生成キーの取得有無を指定して、SQL文のPreparedStatementを取得する。
+	 *
+	 * @return	PreparedStatement
+	 * @param	sql					SQL文
+	 * @param	autoGeneratedKeys	自動生成キーの取得有無(Statement.RETURN_GENERATED_KEYS等)
+	 * @exception	SQLException	PreparedStatementの生成エラー
+	 * @see		java.sql.Connection#prepareStatement(String,int)
+	 * @since	UDC1.3
+	 */
+	public synchronized PreparedStatement prepareStatement(String sql, int autoGeneratedKeys)
+		throws SQLException
+	{
+		String key = sql + "\0k" + autoGeneratedKeys;
+		PreparedStatement ps = lookup(key);
+		if (ps == null) {
+			ps = connection.prepareStatement(sql, autoGeneratedKeys);
+			store(key, ps);
+		}
+		return ps;
+	}
+
+	/**
+	 * ResultSetの型と並行処理モードを指定して、SQL文のPreparedStatementを取得する。
+	 *
+	 * @return	PreparedStatement
+	 * @param	sql						SQL文
+	 * @param	resultSetType			ResultSetの型
+	 * @param	resultSetConcurrency	ResultSetの並行処理モード
+	 * @exception	SQLException	PreparedStatementの生成エラー
+	 * @see		java.sql.Connection#prepareStatement(String,int,int)
+	 * @since	UDC1.3
+	 */
+	public synchronized PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
+		throws SQLException
+	{
+		String key = sql + "\0r" + resultSetType + "," + resultSetConcurrency;
+		PreparedStatement ps = lookup(key);
+		if (ps == null) {
+			ps = connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+			store(key, ps);
+		}
+		return ps;
+	}
+
+	/**
+	 * キャッシュからPreparedStatementを取得する。
+	 * 呼び出し元でクローズされていたPreparedStatementは、キャッシュから削除します。
+	 *
+	 * @return	PreparedStatement(保持していない場合はnull)
+	 * @param	key		キー
+	 * @since	UDC1.3
+	 */
+	protected PreparedStatement lookup(String key)
+	{
+		if (maxSize <= 0) {
+			missCount ++;
+			return null;
+		}
+		PreparedStatement ps = (PreparedStatement)statements.get(key);
+		if (ps != null) {
+			try {
+				if (! ps.isClosed()) {
+					ps.clearParameters();
+					hitCount ++;
+					return ps;
+				}
+			} catch (SQLException exp) {
+				closeStatement(ps);
+			}
+			statements.remove(key);
+		}
+		missCount ++;
+		return null;
+	}
+
+	/**
+	 * 生成したPreparedStatementをキャッシュに保持する。
+	 *
+	 * @param	key		キー
+	 * @param	ps		PreparedStatement
+	 * @since	UDC1.3
+	 */
+	protected void store(String key, PreparedStatement ps)
+	{
+		if (maxSize > 0) {
+			statements.put(key, ps);
+		}
+	}
+
+	/**
+	 * PreparedStatementをクローズする。
+	 *
+	 * @param	ps		PreparedStatement
+	 * @since	UDC1.3
+	 */
+	protected void closeStatement(PreparedStatement ps)
+	{
+		try { ps.close(); } catch (Exception exp) {}
+	}
+
+	/**
+	 * 保持している全てのPreparedStatementをクローズし、キャッシュから削除する。
+	 *
+	 * @since	UDC1.3
+	 */
+	public synchronized void clear()
+	{
+		Iterator it = statements.values().iterator();
+		while (it.hasNext()) {
+			closeStatement((PreparedStatement)it.next());
+		}
+		statements.clear();
+	}
+
+	/**
+	 * 保持しているPreparedStatement数を取得する。
+	 *
+	 * @return	PreparedStatement数
+	 * @since	UDC1.3
+	 */
+	public synchronized int size() { return statements.size(); }
+
+	/**
+	 * 保持数の上限を取得する。
+	 *
+	 * @return	保持数の上限
+	 * @since	UDC1.3
+	 */
+	public synchronized int getMaxSize() { return maxSize; }
+
+	/**
+	 * 保持数の上限を設定する。上限を超えているPreparedStatementは、使用されていない順にクローズします。
+	 * 0を指定すると、キャッシュを行いません。
+	 *
+	 * @param	size	保持数の上限
+	 * @since	UDC1.3
+	 */
+	public synchronized void setMaxSize(int size)
+	{
+		maxSize = size;
+		Iterator it = statements.values().iterator();
+		int num = statements.size();
+		while (num > maxSize && it.hasNext()) {
+			closeStatement((PreparedStatement)it.next());
+			it.remove();
+			evictCount ++;
+			num --;
+		}
+	}
+
+	/**
+	 * キャッシュから返却した回数を取得する。
+	 *
+	 * @return	回数
+	 * @since	UDC1.3
+	 */
+	public synchronized long getHitCount() { return hitCount; }
+
+	/**
+	 * 新たにPreparedStatementを生成した回数を取得する。
+	 *
+	 * @return	回数
+	 * @since	UDC1.3
+	 */
+	public synchronized long getMissCount() { return missCount; }
+
+	/**
+	 * 保持数の上限を超えて削除した回数を取得する。
+	 *
+	 * @return	回数
+	 * @since	UDC1.3
+	 */
+	public synchronized long getEvictCount() { return evictCount; }
+
+	/**
+	 * ヒット率を取得する。
+	 *
+	 * @return	ヒット率(0.0〜1.0)
+	 * @since	UDC1.3
+	 */
+	public synchronized double getHitRatio()
+	{
+		long total = hitCount + missCount;
+		return (total > 0) ? (double)hitCount / total : 0.0;
+	}
+
+	/**
+	 * 統計情報をリセットする。
+	 *
+	 * @since	UDC1.3
+	 */
+	public synchronized void resetCount()
+	{
+		hitCount = missCount = evictCount = 0;
+	}
+
+	/**
+	 * 本インスタンスの文字列情報を取得する。
+	 *
+	 * @return	本インスタンス情報
+	 * @since	UDC1.3
+	 */
+	public synchronized String toString()
+	{
+		return "UdcStatementCache size=" + statements.size() + "/" + maxSize
+				+ " hit=" + hitCount + " miss=" + missCount + " evict=" + evictCount;
+	}
+}
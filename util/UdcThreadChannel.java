@@ -7,9 +7,13 @@
 package udc.util;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
 
 /**
  * スレッド間通信クラス。
+ * 要求・応答型の通信は、pushした要求の応答をpull(invId,dtrtype,waittime)で待ち合わせる方法の他、
+ * callによって応答をCompletableFutureで受け取ることができます。
  *
  * @author	Takayuki Uchida
  * @version	1.0, 18 Jan 2003
@@ -40,7 +44,43 @@ public class UdcThreadChannel
 	 * 受信待ちリスト
 	 * @since	UDC1.0
 	 */
-	private UdcThreadChannelDtrList	waitList = new UdcThreadChannelDtrList();
+	private UdcReplyWaitList		waitList = new UdcReplyWaitList();
+
+	/**
+	 * call時の応答待ちタイムアウトに使用するタイマ管理
+	 * @since	UDC1.3
+	 */
+	private UdcTimerManager			timerManager = null;
+
+	/**
+	 * callによる応答待ち(インボークID・応答メッセージ種別 → CompletableFuture)
+	 * @since	UDC1.3
+	 */
+	private ConcurrentHashMap		replyFutures = new ConcurrentHashMap();
+
+	/**
+	 * callによる応答待ちタイマ(タイマ識別子 → 応答待ちの検索キー)
+	 * @since	UDC1.3
+	 */
+	private HashMap					replyTimers = new HashMap();
+
+	/**
+	 * callによる応答待ちタイムアウトの通知先チャネル
+	 * @since	UDC1.3
+	 */
+	private UdcThreadChannel		replyTimeoutChannel = null;
+
+	/**
+	 * 同時にタイムアウトしたタイマの通知を一括して受信するか否か
+	 * @since	UDC1.3
+	 */
+	private volatile boolean		timeoutCoalesce = false;
+
+	/**
+	 * タイムアウト通知のメッセージを再利用するか否か
+	 * @since	UDC1.3
+	 */
+	private volatile boolean		timeoutRecycle = false;
 
 	/**
 	 * コンストラクタ
@@ -73,6 +113,65 @@ public class UdcThreadChannel
 	 */
 	public String getChannelName() { return channelName; }
 
+	/**
+	 * call時の応答待ちタイムアウトに使用するタイマ管理を取得する。
+	 *
+	 * @return	タイマ管理
+	 * @since	UDC1.3
+	 */
+	public UdcTimerManager getTimerManager() { return timerManager; }
+
+	/**
+	 * call時の応答待ちタイムアウトに使用するタイマ管理を設定する。
+	 *
+	 * @param	timer	タイマ管理
+	 * @since	UDC1.3
+	 */
+	public void setTimerManager(UdcTimerManager timer) { timerManager = timer; }
+
+	/**
+	 * 同時にタイムアウトしたタイマの通知を一括して受信するか否かを設定する。
+	 * 設定すると、タイマ管理の同一目盛りで本チャネルを通知先とする複数のタイマが
+	 * タイムアウトした場合、Event_TimeoutBatch(UdcThreadMsgDtrEventTimeoutBatch)の
+	 * メッセージ１つで通知されます。タイムアウトしたタイマが１つの場合は、従来どおり
+	 * Event_Timeoutで通知されるため、受信側は両方のメッセージを処理する必要があります。
+	 *
+	 * @param	coalesce	一括して受信するか否か
+	 * @see		UdcThreadMsgDtrEventTimeoutBatch
+	 * @since	UDC1.3
+	 */
+	public void setTimeoutCoalesce(boolean coalesce) { timeoutCoalesce = coalesce; }
+
+	/**
+	 * 同時にタイムアウトしたタイマの通知を一括して受信するか否かを取得する。
+	 *
+	 * @return	一括して受信するか否か
+	 * @since	UDC1.3
+	 */
+	public boolean isTimeoutCoalesce() { return timeoutCoalesce; }
+
+	/**
+	 * タイムアウト通知のメッセージを再利用するか否かを設定する。
+	 * 設定すると、タイマ管理は本チャネルへのタイムアウト通知のメッセージ(UdcThreadChannelDtr)と
+	 * タイムアウト情報(UdcThreadMsgDtrEventTimeout)をobtainで取得します。受信側は、
+	 * 不要となった時点で両方を必ずreleaseで解放し、解放後は参照してはいけません。
+	 * 設定しない場合(デフォルト)は、タイムアウト通知毎に新たなインスタンスが生成されます。
+	 *
+	 * @param	recycle	再利用するか否か
+	 * @see		UdcThreadChannelDtr#release()
+	 * @see		UdcThreadMsgDtrEventTimeout#release()
+	 * @since	UDC1.3
+	 */
+	public void setTimeoutRecycle(boolean recycle) { timeoutRecycle = recycle; }
+
+	/**
+	 * タイムアウト通知のメッセージを再利用するか否かを取得する。
+	 *
+	 * @return	再利用するか否か
+	 * @since	UDC1.3
+	 */
+	public boolean isTimeoutRecycle() { return timeoutRecycle; }
+
 	/**
 	 * 新たにインボークIDを確保する。
 	 *
@@ -128,10 +227,9 @@ public class UdcThreadChannel
 	public  boolean isEmptyWaitList(int invId,int dtrType)
 		throws InterruptedException
 	{
-		UdcThreadChannelDtr elm = null;
 		boolean bool = true;
 		waitList.lock();
-		if ((elm=waitList.searchReplyWait(invId,dtrType)) != null) {
+		if (waitList.contains(invId,dtrType)) {
 			bool = false;
 		}
 		waitList.unlock();
@@ -156,24 +254,98 @@ public class UdcThreadChannel
 
 	/**
 	 * メッセージを送信する。
+	 * 送信メッセージがcallによる応答待ちの応答である場合、メッセージは受信メッセージリストに
+	 * 追加されず、応答待ちのCompletableFutureを完了させます。
 	 *
 	 * @param 	data	送信メッセージ
 	 * @since	UDC1.0
 	 */
 	public void push(UdcThreadChannelDtr data)
 		throws InterruptedException
+	{
+		if (completeReply(data)) {
+			return;
+		}
+		push(data, (data.get_replyDtrType() >= 0));
+	}
+
+	/**
+	 * 要求メッセージを送信し、その応答をCompletableFutureで取得する。
+	 * 応答は要求メッセージの応答チャネル(未設定の場合は本チャネル)に、要求メッセージと
+	 * 同一のインボークIDと応答メッセージ種別で送信されたメッセージです。
+	 * 応答がpushされた時点で、応答をpushしたスレッドでCompletableFutureが完了するため、
+	 * 応答待ち毎にスレッドが待ち状態となることはありません。
+	 * 待ち時間上限を過ぎた場合はTimeoutExceptionで完了します。待ち時間の監視は、
+	 * 本チャネル(未設定の場合は応答チャネル)に設定されたタイマ管理で行います。
+	 *
+	 * (注意)
+	 *    CompletableFutureの完了時の処理は、応答をpushしたスレッドあるいはタイマ管理の
+	 *    スレッドで実行されます。時間を要する処理はthenApplyAsync等を使用してください。
+	 *
+	 * @return	応答を取得するCompletableFuture
+	 *			(応答メッセージ種別が未設定、あるいは同一の応答を待ち合わせ中の場合はnull)
+	 * @param 	dtr			要求メッセージ(インボークID・応答メッセージ種別を設定しておくこと)
+	 * @param 	timeout		待ち時間上限(単位：ミリ秒、0以下の場合は無制限)
+	 * @since	UDC1.3
+	 */
+	public CompletableFuture call(UdcThreadChannelDtr dtr, long timeout)
+		throws InterruptedException
+	{
+		if (dtr.get_replyDtrType() < 0) {
+			return null;
+		}
+		UdcThreadChannel repch = dtr.get_replyChannel();
+		if (repch == null) {
+			repch = this;
+			dtr.set_replyChannel(this);
+		}
+		UdcTimerManager timer = (timerManager != null) ? timerManager : repch.timerManager;
+		CompletableFuture future = repch.addReplyFuture(dtr.get_invokeId(), dtr.get_replyDtrType(), timer, timeout);
+		if (future == null) {
+			return null;
+		}
+			/* 応答はFutureで受け取るため、応答待ちリストには登録しない */
+		try {
+			push(dtr, false);
+		} catch (InterruptedException exp) {
+			future.cancel(false);
+			throw exp;
+		}
+		return future;
+	}
+
+	/**
+	 * callによる応答待ちの件数を取得する。
+	 *
+	 * @return 	応答待ちの件数
+	 * @since	UDC1.3
+	 */
+	public int getReplyFutureSize()
+	{
+		return replyFutures.size();
+	}
+
+	/**
+	 * メッセージを受信メッセージリストに追加する。
+	 *
+	 * @param 	data		送信メッセージ
+	 * @param 	replyWait	応答待ちリストに登録するか否か
+	 * @since	UDC1.3
+	 */
+	protected void push(UdcThreadChannelDtr data, boolean replyWait)
+		throws InterruptedException
 	{
 		msgList.lock();
 		msgList.addPriority(data);
-		if (data.get_replyDtrType() >= 0) {
+		if (replyWait) {
 			waitList.lock();
-			try {
-				waitList.add((UdcThreadChannelDtr)data.clone());
-			} catch(java.lang.CloneNotSupportedException ex) {}
+			waitList.add(data.get_invokeId(),data.get_replyDtrType());
 			waitList.unlock();
 		}
-		msgList.unlock();
+		msgList.signalSelectWaiter(data);
 		msgList.cond_signal();
+		msgList.unlock();
+		UdcFlightRecorder.channelEnqueue(this, data);
 	}
 
 	/**
@@ -196,7 +368,7 @@ public class UdcThreadChannel
 	public UdcThreadChannelDtr tryReference()
 		throws InterruptedException
 	{
-		return (UdcThreadChannelDtr)msgList.getFirst();
+		return msgList.getFirst();
 	}
 
 	/**
@@ -211,7 +383,7 @@ public class UdcThreadChannel
 	{
 		UdcThreadChannelDtr elm = null;
 		msgList.lock();
-		if ((elm=(UdcThreadChannelDtr)msgList.getFirst()) != null) {
+		if ((elm=msgList.getFirst()) != null) {
 			msgList.remove(elm);
 			waitList.lock();
 			waitList.removeDeleteReplyWait(elm.get_invokeId(),elm.get_dtrType());
@@ -255,10 +427,11 @@ public class UdcThreadChannel
 	public UdcThreadChannelDtr pull()
 		throws InterruptedException
 	{
+		Object fr = UdcFlightRecorder.channelBegin();
 		UdcThreadChannelDtr elm = null;
 		msgList.lock();
 		while (true) {
-			if ((elm=(UdcThreadChannelDtr)msgList.getFirst()) != null) {
+			if ((elm=msgList.getFirst()) != null) {
 				msgList.remove(elm);
 				waitList.lock();
 				waitList.removeDeleteReplyWait(elm.get_invokeId(),elm.get_dtrType());
@@ -268,7 +441,7 @@ public class UdcThreadChannel
 			msgList.cond_wait();
 		}
 		msgList.unlock();
-		return elm;
+		return UdcFlightRecorder.channelDequeue(this, elm, fr);
 	}
 
 	/**
@@ -283,6 +456,7 @@ public class UdcThreadChannel
 	public UdcThreadChannelDtr pull(int invId,int dtrtype)
 		throws InterruptedException
 	{
+		Object fr = UdcFlightRecorder.channelBegin();
 		UdcThreadChannelDtr elm = null;
 		msgList.lock();
 		while (true) {
@@ -293,10 +467,20 @@ public class UdcThreadChannel
 				waitList.unlock();
 				break;
 			}
-			msgList.cond_wait();
+				/* 指定メッセージの送信時のみ起床されるよう、個別のmutexで待ち合わせる */
+			UdcMutex w = msgList.addSelectWaiter(invId,dtrtype);
+			msgList.unlock();
+			try {
+				w.lock();
+				w.cond_wait();
+				w.unlock();
+			} finally {
+				msgList.removeSelectWaiter(invId,dtrtype,w);
+			}
+			msgList.lock();
 		}
 		msgList.unlock();
-		return elm;
+		return UdcFlightRecorder.channelDequeue(this, elm, fr);
 	}
 
 	/**
@@ -311,25 +495,26 @@ public class UdcThreadChannel
 	public UdcThreadChannelDtr pull(long waittime)
 		throws InterruptedException
 	{
+		Object fr = UdcFlightRecorder.channelBegin();
 		UdcThreadChannelDtr elm = null;
 		msgList.lock();
-		if ((elm=(UdcThreadChannelDtr)msgList.getFirst()) != null) {
+		if ((elm=msgList.getFirst()) != null) {
 			msgList.remove(elm);
 			waitList.lock();
 			waitList.removeDeleteReplyWait(elm.get_invokeId(),elm.get_dtrType());
 			waitList.unlock();
 			msgList.unlock();
-			return elm;
+			return UdcFlightRecorder.channelDequeue(this, elm, fr);
 		}
 		msgList.cond_timewait(waittime);
-		if ((elm=(UdcThreadChannelDtr)msgList.getFirst()) != null) {
+		if ((elm=msgList.getFirst()) != null) {
 			msgList.remove(elm);
 			waitList.lock();
 			waitList.removeDeleteReplyWait(elm.get_invokeId(),elm.get_dtrType());
 			waitList.unlock();
 		}
 		msgList.unlock();
-		return elm;
+		return UdcFlightRecorder.channelDequeue(this, elm, fr);
 	}
 
 	/**
@@ -346,6 +531,7 @@ public class UdcThreadChannel
 	public UdcThreadChannelDtr pull(int invId,int dtrtype,long waittime)
 		throws InterruptedException
 	{
+		Object fr = UdcFlightRecorder.channelBegin();
 		UdcThreadChannelDtr elm = null;
 		msgList.lock();
 		if ((elm=msgList.search(invId,dtrtype)) != null) {
@@ -354,48 +540,465 @@ public class UdcThreadChannel
 			waitList.removeDeleteReplyWait(elm.get_invokeId(),elm.get_dtrType());
 			waitList.unlock();
 			msgList.unlock();
-			return elm;
+			return UdcFlightRecorder.channelDequeue(this, elm, fr);
 		}
-		long cur = System.currentTimeMillis();
-		long wakeup = cur + waittime;
-		long old = cur;
+		long wakeup = System.nanoTime() + waittime * 1000000L;
 		long remain = waittime;
 		while (true) {
-			old = cur;
-			msgList.cond_timewait(waittime);
+				/* 指定メッセージの送信時のみ起床されるよう、個別のmutexで待ち合わせる */
+			UdcMutex w = msgList.addSelectWaiter(invId,dtrtype);
+			msgList.unlock();
+			try {
+				w.lock();
+				w.cond_timewait(remain);
+				w.unlock();
+			} finally {
+				msgList.removeSelectWaiter(invId,dtrtype,w);
+			}
+			msgList.lock();
 			if ((elm=msgList.search(invId,dtrtype)) != null) {
 				msgList.remove(elm);
 				break;
 			}
-			cur = System.currentTimeMillis();
-			if (cur >= wakeup || cur < old || cur > (old+waittime)) {
+			remain = (wakeup - System.nanoTime()) / 1000000L;
+			if (remain <= 0) {
 				break;
 			}
-			remain = wakeup - cur;
 		}
 		waitList.lock();
 		waitList.removeDeleteReplyWait(invId,dtrtype);
 		waitList.unlock();
 		msgList.unlock();
-		return elm;
+		return UdcFlightRecorder.channelDequeue(this, elm, fr);
+	}
+
+	/**
+	 * 複数のメッセージを一括して送信する。
+	 * 受信メッセージリストの排他は送信メッセージ数に関わらず１回のみ行われ、
+	 * 受信待ちスレッドは送信メッセージ数を上限として起床されます。
+	 *
+	 * @param 	datas	送信メッセージ(UdcThreadChannelDtr)のコレクション
+	 * @since	UDC1.3
+	 */
+	public void pushAll(Collection datas)
+		throws InterruptedException
+	{
+		ArrayList list = new ArrayList(datas.size());
+		Iterator it = datas.iterator();
+		while (it.hasNext()) {
+			UdcThreadChannelDtr data = (UdcThreadChannelDtr)it.next();
+			if (! completeReply(data)) {
+				list.add(data);
+			}
+		}
+		if (list.size() <= 0) {
+			return;
+		}
+		pushBatch(list);
+	}
+
+	/**
+	 * 複数のメッセージを受信メッセージリストに一括して追加する。
+	 *
+	 * @param 	datas	送信メッセージ(UdcThreadChannelDtr)のリスト
+	 * @since	UDC1.3
+	 */
+	protected void pushBatch(List datas)
+		throws InterruptedException
+	{
+		UdcThreadChannelDtr data;
+		msgList.lock();
+		for (int i=0; i<datas.size(); i++) {
+			data = (UdcThreadChannelDtr)datas.get(i);
+			msgList.addPriority(data);
+			if (data.get_replyDtrType() >= 0) {
+				waitList.lock();
+				waitList.add(data.get_invokeId(),data.get_replyDtrType());
+				waitList.unlock();
+			}
+			msgList.signalSelectWaiter(data);
+			msgList.cond_signal();
+		}
+		msgList.unlock();
+		UdcFlightRecorder.channelEnqueue(this, datas);
+	}
+
+	/**
+	 * 受信メッセージを一括して取得する。受信メッセージは受信順に取得されます。
+	 * 本メンバ関数では、メッセージを受信していない場合、waittimeで指定された間を上限とし、
+	 * 受信するまで待ち状態となります。受信メッセージが存在すれば、待ち合わせることなく
+	 * 最大maxnum件を取得します。
+	 *
+	 * @return	取得した受信メッセージ数
+	 * @param 	list		受信メッセージの格納先(末尾に追加されます)
+	 * @param 	maxnum		取得する受信メッセージ数の上限
+	 * @param 	waittime	待ち時間上限(単位：ミリ秒、0の場合は待ち合わせない、負値の場合は無制限)
+	 * @since	UDC1.3
+	 */
+	public int drainTo(List list, int maxnum, long waittime)
+		throws InterruptedException
+	{
+		Object fr = UdcFlightRecorder.channelBegin();
+		UdcThreadChannelDtr elm = null;
+		int cnt = 0;
+		msgList.lock();
+		if (msgList.size() <= 0 && waittime != 0) {
+			long wakeup = System.nanoTime() + waittime * 1000000L;
+			long remain = waittime;
+			while (msgList.size() <= 0) {
+				if (waittime < 0) {
+					msgList.cond_wait();
+				} else {
+					msgList.cond_timewait(remain);
+					if ((remain=(wakeup - System.nanoTime()) / 1000000L) <= 0) {
+						break;
+					}
+				}
+			}
+		}
+		if (msgList.size() > 0) {
+			waitList.lock();
+			while (cnt < maxnum && (elm=msgList.getFirst()) != null) {
+				msgList.remove(elm);
+				waitList.removeDeleteReplyWait(elm.get_invokeId(),elm.get_dtrType());
+				list.add(elm);
+				cnt ++;
+			}
+			waitList.unlock();
+		}
+		msgList.unlock();
+		return UdcFlightRecorder.channelDequeue(this, cnt, fr);
+	}
+
+	/**
+	 * 受信メッセージ数を取得する。排他を行わないため、概数となります。
+	 *
+	 * @return	受信メッセージ数
+	 * @since	UDC1.3
+	 */
+	int depth()
+	{
+		return msgList.size();
+	}
+
+	/**
+	 * callによる応答待ちを登録する。
+	 *
+	 * @return	応答を取得するCompletableFuture(同一の応答を待ち合わせ中の場合はnull)
+	 * @param	invId		応答待ちインボークID
+	 * @param 	repdtrtype	応答待ちメッセージ種別
+	 * @param 	timer		待ち時間の監視に使用するタイマ管理(nullの場合はCompletableFutureで監視)
+	 * @param 	timeout		待ち時間上限(単位：ミリ秒、0以下の場合は無制限)
+	 * @since	UDC1.3
+	 */
+	CompletableFuture addReplyFuture(int invId, int repdtrtype, UdcTimerManager timer, long timeout)
+		throws InterruptedException
+	{
+		Long key = Long.valueOf(UdcLockFreeThreadChannel.key(invId,repdtrtype));
+		CompletableFuture future = new CompletableFuture();
+		if (replyFutures.putIfAbsent(key, future) != null) {
+			return null;
+		}
+		int timerIndex = -1;
+		if (timeout > 0) {
+			if (timer != null) {
+					/* タイムアウト通知が登録より先に処理されないよう、登録中は排他する */
+				synchronized (replyTimers) {
+					timerIndex = timer.registrateTimer(UdcThreadMsgDtrEventTimeout.Timeout, timeout, getReplyTimeoutChannel());
+					if (timerIndex >= 0) {
+						replyTimers.put(Integer.valueOf(timerIndex), key);
+					}
+				}
+			}
+			if (timerIndex < 0) {
+				future.orTimeout(timeout, TimeUnit.MILLISECONDS);
+			}
+		}
+		future.whenComplete(new UdcReplyFutureCleanup(this, key, future, timer, timerIndex));
+		return future;
+	}
+
+	/**
+	 * callによる応答待ちを削除する。
+	 *
+	 * @param	key			応答待ちの検索キー
+	 * @param	future		応答を取得するCompletableFuture
+	 * @param 	timer		待ち時間の監視に使用したタイマ管理
+	 * @param 	timerIndex	待ち時間の監視に使用したタイマ識別子(未使用時は負値)
+	 * @since	UDC1.3
+	 */
+	void removeReplyFuture(Long key, CompletableFuture future, UdcTimerManager timer, int timerIndex)
+	{
+		replyFutures.remove(key, future);
+		if (timerIndex >= 0) {
+			synchronized (replyTimers) {
+				replyTimers.remove(Integer.valueOf(timerIndex));
+			}
+			try {
+				timer.unregistrateTimer(timerIndex);
+			} catch (InterruptedException exp) {}
+		}
+	}
+
+	/**
+	 * 送信メッセージがcallによる応答待ちの応答であれば、応答待ちを完了させる。
+	 *
+	 * @return	応答待ちを完了させたか否か
+	 * @param 	data	送信メッセージ
+	 * @since	UDC1.3
+	 */
+	protected boolean completeReply(UdcThreadChannelDtr data)
+	{
+		if (replyFutures.isEmpty()) {
+			return false;
+		}
+		CompletableFuture future = (CompletableFuture)replyFutures.remove(Long.valueOf(UdcLockFreeThreadChannel.key(data.get_invokeId(),data.get_dtrType())));
+		if (future == null) {
+			return false;
+		}
+		future.complete(data);
+		return true;
+	}
+
+	/**
+	 * callによる応答待ちをタイムアウトさせる。
+	 *
+	 * @param 	timerIndex	タイムアウトしたタイマ識別子
+	 * @since	UDC1.3
+	 */
+	void timeoutReply(int timerIndex)
+	{
+		Long key;
+		synchronized (replyTimers) {
+			key = (Long)replyTimers.remove(Integer.valueOf(timerIndex));
+		}
+		if (key == null) {
+			return;
+		}
+		CompletableFuture future = (CompletableFuture)replyFutures.get(key);
+		if (future != null) {
+			future.completeExceptionally(new TimeoutException("reply timeout, channel[" + channelName + "]"));
+		}
+	}
+
+	/**
+	 * callによる応答待ちタイムアウトの通知先チャネルを取得する。
+	 *
+	 * @return 	タイムアウトの通知先チャネル
+	 * @since	UDC1.3
+	 */
+	synchronized UdcThreadChannel getReplyTimeoutChannel()
+	{
+		if (replyTimeoutChannel == null) {
+			replyTimeoutChannel = new UdcReplyTimeoutChannel(this);
+		}
+		return replyTimeoutChannel;
+	}
+}
+
+
+/**
+ * callによる応答待ちタイムアウトの通知先チャネル。
+ * タイマ管理から通知されたタイムアウトを、応答チャネルの応答待ちに反映します。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+class UdcReplyTimeoutChannel extends UdcThreadChannel
+{
+	/**
+	 * 応答チャネル
+	 * @since	UDC1.3
+	 */
+	final UdcThreadChannel	owner;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	ch	応答チャネル
+	 * @since	UDC1.3
+	 */
+	UdcReplyTimeoutChannel(UdcThreadChannel ch)
+	{
+		super(ch.getChannelName() + ".replyTimeout");
+		owner = ch;
+		setTimeoutCoalesce(true);
+		setTimeoutRecycle(true);
+	}
+
+	/**
+	 * タイムアウト通知を受信する。
+	 * 同時にタイムアウトしたタイマの一括通知(Event_TimeoutBatch)の場合は、含まれる全ての
+	 * タイマの応答待ちをタイムアウトさせます。
+	 *
+	 * @param 	data	タイムアウト通知
+	 * @since	UDC1.3
+	 */
+	public void push(UdcThreadChannelDtr data)
+		throws InterruptedException
+	{
+		if (data.get_dtrType() == UdcThreadMsgId.Event_Timeout && data.get_data() instanceof UdcThreadMsgDtrEventTimeout) {
+			UdcThreadMsgDtrEventTimeout event = (UdcThreadMsgDtrEventTimeout)data.get_data();
+			owner.timeoutReply(event.get_timerIndex());
+			event.release();
+		} else if (data.get_dtrType() == UdcThreadMsgId.Event_TimeoutBatch && data.get_data() instanceof UdcThreadMsgDtrEventTimeoutBatch) {
+			UdcThreadMsgDtrEventTimeoutBatch batch = (UdcThreadMsgDtrEventTimeoutBatch)data.get_data();
+			for (int i=0; i<batch.size(); i++) {
+				owner.timeoutReply(batch.get_timerIndex(i));
+			}
+			batch.release();
+		}
+		data.release();
+	}
+
+	/**
+	 * 一括送信されたタイムアウト通知を受信する。
+	 *
+	 * @param 	datas	タイムアウト通知(UdcThreadChannelDtr)のリスト
+	 * @since	UDC1.3
+	 */
+	protected void pushBatch(List datas)
+		throws InterruptedException
+	{
+		for (int i=0; i<datas.size(); i++) {
+			push((UdcThreadChannelDtr)datas.get(i));
+		}
+	}
+}
+
+
+/**
+ * callによる応答待ちの完了時に、応答待ちを削除する処理。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+class UdcReplyFutureCleanup implements BiConsumer
+{
+	/**
+	 * 応答チャネル
+	 * @since	UDC1.3
+	 */
+	final UdcThreadChannel	channel;
+
+	/**
+	 * 応答待ちの検索キー
+	 * @since	UDC1.3
+	 */
+	final Long				key;
+
+	/**
+	 * 応答を取得するCompletableFuture
+	 * @since	UDC1.3
+	 */
+	final CompletableFuture	future;
+
+	/**
+	 * 待ち時間の監視に使用したタイマ管理
+	 * @since	UDC1.3
+	 */
+	final UdcTimerManager	timer;
+
+	/**
+	 * 待ち時間の監視に使用したタイマ識別子(未使用時は負値)
+	 * @since	UDC1.3
+	 */
+	final int				timerIndex;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	ch		応答チャネル
+	 * @param	k		応答待ちの検索キー
+	 * @param	f		応答を取得するCompletableFuture
+	 * @param	tm		待ち時間の監視に使用したタイマ管理
+	 * @param	index	待ち時間の監視に使用したタイマ識別子
+	 * @since	UDC1.3
+	 */
+	UdcReplyFutureCleanup(UdcThreadChannel ch, Long k, CompletableFuture f, UdcTimerManager tm, int index)
+	{
+		channel = ch;
+		key = k;
+		future = f;
+		timer = tm;
+		timerIndex = index;
+	}
+
+	/**
+	 * BiConsumer.acceptの実装。
+	 *
+	 * @param	result		応答メッセージ
+	 * @param	exception	異常完了時の例外
+	 * @since	UDC1.3
+	 */
+	public void accept(Object result, Object exception)
+	{
+		channel.removeReplyFuture(key, future, timer, timerIndex);
 	}
 }
 
 
 /**
  * スレッド間通信メッセージリスト
+ * 本リストは、メッセージを双方向リンクで管理すると同時に、インボークID・メッセージ種別
+ * (応答待ちリストの場合はインボークID・応答メッセージ種別)をキーとするハッシュインデックス
+ * を管理します。そのため、指定メッセージの検索・削除はリスト長に依存しません。
  *
  * @author	Takayuki Uchida
  * @version	1.0, 18 Jan 2003
  * @since	UDC1.0
  */
-class UdcThreadChannelDtrList extends UdcMutex
+class UdcThreadChannelDtrList extends UdcConditionMutex
 {
 	/**
-	 * スレッド間通信メッセージリスト
-	 * @since	UDC1.0
+	 * スレッド間通信メッセージリストの先頭要素
+	 * @since	UDC1.3
+	 */
+	UdcThreadChannelDtrNode	head = null;
+
+	/**
+	 * スレッド間通信メッセージリストの末尾要素
+	 * @since	UDC1.3
+	 */
+	UdcThreadChannelDtrNode	tail = null;
+
+	/**
+	 * スレッド間通信メッセージリストの要素数
+	 * @since	UDC1.3
+	 */
+	int			count = 0;
+
+	/**
+	 * 検索キーに応答メッセージ種別を使用するか否か(応答待ちリストの場合に真)
+	 * @since	UDC1.3
 	 */
-	LinkedList dtrList;
+	boolean		replyIndex = false;
+
+	/**
+	 * 検索インデックス(検索キー → 要素リスト)
+	 * @since	UDC1.3
+	 */
+	HashMap		index = new HashMap();
+
+	/**
+	 * メッセージの要素(メッセージ → 要素)。メッセージの同一性で検索します。
+	 * @since	UDC1.3
+	 */
+	IdentityHashMap	nodes = new IdentityHashMap();
+
+	/**
+	 * 優先度毎の末尾要素(優先度 → 要素)
+	 * @since	UDC1.3
+	 */
+	TreeMap		levelTail = new TreeMap();
+
+	/**
+	 * 指定受信待ちスレッドの起床用mutex(検索キー → mutexリスト)
+	 * @since	UDC1.3
+	 */
+	Hashtable	selectWaiters = new Hashtable();
 
 	/**
 	 * コンストラクタ
@@ -404,7 +1007,18 @@ class UdcThreadChannelDtrList extends UdcMutex
 	 */
 	public UdcThreadChannelDtrList()
 	{
-		dtrList = new LinkedList();
+		this(false);
+	}
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	reply	検索キーに応答メッセージ種別を使用するか否か
+	 * @since	UDC1.3
+	 */
+	public UdcThreadChannelDtrList(boolean reply)
+	{
+		replyIndex = reply;
 	}
 
 	/**
@@ -415,7 +1029,7 @@ class UdcThreadChannelDtrList extends UdcMutex
 	 */
 	public int size()
 	{
-		return dtrList.size();
+		return count;
 	}
 
 	/**
@@ -426,10 +1040,10 @@ class UdcThreadChannelDtrList extends UdcMutex
 	 */
 	public UdcThreadChannelDtr getFirst()
 	{
-		if (dtrList.size() <= 0) {
+		if (head == null) {
 			return null;
 		}
-		return (UdcThreadChannelDtr)dtrList.getFirst();
+		return head.dtr;
 	}
 
 	/**
@@ -440,7 +1054,12 @@ class UdcThreadChannelDtrList extends UdcMutex
 	 */
 	public void clear()
 	{
-		dtrList.clear();
+		head = null;
+		tail = null;
+		count = 0;
+		index.clear();
+		nodes.clear();
+		levelTail.clear();
 	}
 
 	/**
@@ -452,13 +1071,11 @@ class UdcThreadChannelDtrList extends UdcMutex
 	 */
 	public UdcThreadChannelDtr search(int invId)
 	{
-		UdcThreadChannelDtr elm;
-		for (int i=0; i<dtrList.size(); i++) {
-			elm = (UdcThreadChannelDtr)dtrList.get(i);
-			if (elm.get_invokeId() == invId) {
-				return elm;
+		for (UdcThreadChannelDtrNode node=head; node!=null; node=node.next) {
+			if (node.dtr.get_invokeId() == invId) {
+				return node.dtr;
 			}
-		}	
+		}
 		return null;
 	}
 
@@ -472,11 +1089,12 @@ class UdcThreadChannelDtrList extends UdcMutex
 	 */
 	public  UdcThreadChannelDtr search(int invId,int dtrtype)
 	{
-		UdcThreadChannelDtr elm;
-		for (int i=0; i<dtrList.size(); i++) {
-			elm = (UdcThreadChannelDtr)dtrList.get(i);
-			if (elm.get_invokeId() == invId && elm.get_dtrType() == dtrtype) {
-				return elm;
+		if (! replyIndex) {
+			return searchIndex(invId,dtrtype);
+		}
+		for (UdcThreadChannelDtrNode node=head; node!=null; node=node.next) {
+			if (node.dtr.get_invokeId() == invId && node.dtr.get_dtrType() == dtrtype) {
+				return node.dtr;
 			}
 		}
 		return null;
@@ -492,11 +1110,12 @@ class UdcThreadChannelDtrList extends UdcMutex
 	 */
 	public  UdcThreadChannelDtr searchReplyWait(int invId,int repdtrtype)
 	{
-		UdcThreadChannelDtr elm;
-		for (int i=0; i<dtrList.size(); i++) {
-			elm = (UdcThreadChannelDtr)dtrList.get(i);
-			if (elm.get_invokeId() == invId && elm.get_replyDtrType() == repdtrtype) {
-				return elm;
+		if (replyIndex) {
+			return searchIndex(invId,repdtrtype);
+		}
+		for (UdcThreadChannelDtrNode node=head; node!=null; node=node.next) {
+			if (node.dtr.get_invokeId() == invId && node.dtr.get_replyDtrType() == repdtrtype) {
+				return node.dtr;
 			}
 		}
 		return null;
@@ -510,7 +1129,8 @@ class UdcThreadChannelDtrList extends UdcMutex
 	 */
 	public void add(UdcThreadChannelDtr dtr)
 	{
-		dtrList.add(dtr);
+		UdcThreadChannelDtrNode node = newNode(dtr);
+		link(tail, node);
 	}
 
 	/**
@@ -523,25 +1143,36 @@ class UdcThreadChannelDtrList extends UdcMutex
 	 */
 	public void addPriority(UdcThreadChannelDtr dtr)
 	{
-		UdcThreadChannelDtr elm;
-		for (int i=0; i<dtrList.size(); i++) {
-			elm = (UdcThreadChannelDtr)dtrList.get(i);
-			if (dtr.get_dtrLevel() > elm.get_dtrLevel()) {
-				dtrList.add(i,dtr);
-				return;
-			}
-		}
-		dtrList.add(dtr);
+		UdcThreadChannelDtrNode node = newNode(dtr);
+		Integer lv = Integer.valueOf(node.level);
+			/* 自身の優先度以上の要素群の末尾に追加する */
+		Map.Entry ent = levelTail.ceilingEntry(lv);
+		link((ent == null) ? null : (UdcThreadChannelDtrNode)ent.getValue(), node);
+		levelTail.put(lv, node);
 	}
 
 	/**
 	 * 指定されたメッセージを受信メッセージリストから削除する。
+	 * メッセージの同一性で検索するため、リスト追加後にインボークID・メッセージ種別が
+	 * 変更されたメッセージも削除します。
 	 *
 	 * @since	UDC1.0
 	 */
 	public void remove(UdcThreadChannelDtr dtr)
 	{
-		dtrList.remove(dtr);
+		UdcThreadChannelDtrNode node = (UdcThreadChannelDtrNode)nodes.get(dtr);
+		if (node == null) {
+				/* 同じメッセージが重複して追加されている場合 */
+			for (node=head; node!=null; node=node.next) {
+				if (node.dtr == dtr) {
+					break;
+				}
+			}
+			if (node == null) {
+				return;
+			}
+		}
+		unlink(node);
 	}
 
 	/**
@@ -555,8 +1186,413 @@ class UdcThreadChannelDtrList extends UdcMutex
 	{
 		UdcThreadChannelDtr waitElem = searchReplyWait(invId,repdtrtype);
 		if (waitElem != null) {
-			dtrList.remove(waitElem);
+			remove(waitElem);
+		}
+	}
+
+	/**
+	 * 指定受信待ちスレッドの起床用mutexを登録する。
+	 * 本メンバは、本リストの排他権獲得中に呼び出す必要があります。
+	 *
+	 * @return	起床用mutex
+	 * @param	invId	インボークID(受信待ち条件)
+	 * @param	dtrtype	メッセージ種別(受信待ち条件)
+	 * @since	UDC1.3
+	 */
+	public UdcMutex addSelectWaiter(int invId,int dtrtype)
+	{
+		UdcMutex w = new UdcMutex();
+		Long k = Long.valueOf(UdcLockFreeThreadChannel.key(invId,dtrtype));
+		synchronized (selectWaiters) {
+			LinkedList ws = (LinkedList)selectWaiters.get(k);
+			if (ws == null) {
+				ws = new LinkedList();
+				selectWaiters.put(k, ws);
+			}
+			ws.add(w);
+		}
+		return w;
+	}
+
+	/**
+	 * 指定受信待ちスレッドの起床用mutexを登録解除する。
+	 *
+	 * @param	invId	インボークID(受信待ち条件)
+	 * @param	dtrtype	メッセージ種別(受信待ち条件)
+	 * @param	w		起床用mutex
+	 * @since	UDC1.3
+	 */
+	public void removeSelectWaiter(int invId,int dtrtype,UdcMutex w)
+	{
+		Long k = Long.valueOf(UdcLockFreeThreadChannel.key(invId,dtrtype));
+		synchronized (selectWaiters) {
+			LinkedList ws = (LinkedList)selectWaiters.get(k);
+			if (ws != null) {
+				ws.remove(w);
+				if (ws.size() <= 0) {
+					selectWaiters.remove(k);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 指定されたメッセージを待ち合わせている指定受信待ちスレッドを起床する。
+	 *
+	 * @param	dtr	送信メッセージ
+	 * @since	UDC1.3
+	 */
+	public void signalSelectWaiter(UdcThreadChannelDtr dtr)
+	{
+		if (selectWaiters.isEmpty()) {
+			return;
+		}
+		Long k = Long.valueOf(UdcLockFreeThreadChannel.key(dtr.get_invokeId(),dtr.get_dtrType()));
+		synchronized (selectWaiters) {
+			LinkedList ws = (LinkedList)selectWaiters.get(k);
+			if (ws != null) {
+				for (int i=0; i<ws.size(); i++) {
+					((UdcMutex)ws.get(i)).cond_signal();
+				}
+			}
+		}
+	}
+
+	/**
+	 * 検索インデックスからメッセージを検索する。
+	 *
+	 * @return 	検索されたメッセージ
+	 * @param	invId	インボークID(検索条件)
+	 * @param	type	メッセージ種別／応答メッセージ種別(検索条件)
+	 * @since	UDC1.3
+	 */
+	UdcThreadChannelDtr searchIndex(int invId,int type)
+	{
+		LinkedList keyNodes = (LinkedList)index.get(Long.valueOf(UdcLockFreeThreadChannel.key(invId,type)));
+		if (keyNodes == null || keyNodes.size() <= 0) {
+			return null;
+		}
+		return ((UdcThreadChannelDtrNode)keyNodes.getFirst()).dtr;
+	}
+
+	/**
+	 * メッセージの検索キーを取得する。
+	 *
+	 * @return 	検索キー
+	 * @param	dtr	メッセージ
+	 * @since	UDC1.3
+	 */
+	long keyOf(UdcThreadChannelDtr dtr)
+	{
+		return UdcLockFreeThreadChannel.key(dtr.get_invokeId(), (replyIndex) ? dtr.get_replyDtrType() : dtr.get_dtrType());
+	}
+
+	/**
+	 * メッセージのリスト要素を生成する。
+	 *
+	 * @return 	リスト要素
+	 * @param	dtr	メッセージ
+	 * @since	UDC1.3
+	 */
+	UdcThreadChannelDtrNode newNode(UdcThreadChannelDtr dtr)
+	{
+		UdcThreadChannelDtrNode node = new UdcThreadChannelDtrNode();
+		node.dtr = dtr;
+		node.key = keyOf(dtr);
+		node.level = dtr.get_dtrLevel();
+		return node;
+	}
+
+	/**
+	 * リスト要素をリストおよび検索インデックスに追加する。
+	 *
+	 * @param	prev	追加位置の直前要素(先頭に追加する場合はnull)
+	 * @param	node	追加要素
+	 * @since	UDC1.3
+	 */
+	void link(UdcThreadChannelDtrNode prev, UdcThreadChannelDtrNode node)
+	{
+		node.prev = prev;
+		node.next = (prev == null) ? head : prev.next;
+		if (node.next != null) { node.next.prev = node; } else { tail = node; }
+		if (prev != null) { prev.next = node; } else { head = node; }
+		count ++;
+
+		Long k = Long.valueOf(node.key);
+		LinkedList keyNodes = (LinkedList)index.get(k);
+		if (keyNodes == null) {
+			keyNodes = new LinkedList();
+			index.put(k, keyNodes);
+		}
+		keyNodes.add(node);
+		if (! nodes.containsKey(node.dtr)) {
+			nodes.put(node.dtr, node);
+		}
+	}
+
+	/**
+	 * リスト要素をリストおよび検索インデックスから削除する。
+	 *
+	 * @param	node	削除要素
+	 * @since	UDC1.3
+	 */
+	void unlink(UdcThreadChannelDtrNode node)
+	{
+		Integer lv = Integer.valueOf(node.level);
+		if (levelTail.get(lv) == node) {
+			if (node.prev != null && node.prev.level == node.level) {
+				levelTail.put(lv, node.prev);
+			} else {
+				levelTail.remove(lv);
+			}
+		}
+		if (node.prev != null) { node.prev.next = node.next; } else { head = node.next; }
+		if (node.next != null) { node.next.prev = node.prev; } else { tail = node.prev; }
+		node.prev = null;
+		node.next = null;
+		count --;
+
+		Long k = Long.valueOf(node.key);
+		LinkedList keyNodes = (LinkedList)index.get(k);
+		if (keyNodes != null) {
+			keyNodes.remove(node);
+			if (keyNodes.size() <= 0) {
+				index.remove(k);
+			}
+		}
+		if (nodes.get(node.dtr) == node) {
+			nodes.remove(node.dtr);
 		}
 	}
 }
 
+
+/**
+ * スレッド間通信メッセージリストの要素
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+class UdcThreadChannelDtrNode
+{
+	/**
+	 * スレッド間通信メッセージ
+	 * @since	UDC1.3
+	 */
+	UdcThreadChannelDtr		dtr;
+
+	/**
+	 * 直前要素
+	 * @since	UDC1.3
+	 */
+	UdcThreadChannelDtrNode	prev;
+
+	/**
+	 * 直後要素
+	 * @since	UDC1.3
+	 */
+	UdcThreadChannelDtrNode	next;
+
+	/**
+	 * 検索キー
+	 * @since	UDC1.3
+	 */
+	long		key;
+
+	/**
+	 * リスト追加時の優先度
+	 * @since	UDC1.3
+	 */
+	int			level;
+}
+
+
+/**
+ * 応答待ちリスト。
+ * 応答待ちとなっているインボークID・応答メッセージ種別毎の件数のみを管理します。
+ * 送信メッセージの複製を保持しないため、応答待ちの登録・削除時にインスタンスを生成しません。
+ * 件数は、検索キーをオープンアドレス法で格納したハッシュ表で管理します。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+class UdcReplyWaitList extends UdcConditionMutex
+{
+	/**
+	 * 検索キー(インボークID・応答メッセージ種別)
+	 * @since	UDC1.3
+	 */
+	long[]		keys = new long[16];
+
+	/**
+	 * 検索キー毎の応答待ち件数(0の場合は未使用)
+	 * @since	UDC1.3
+	 */
+	int[]		counts = new int[16];
+
+	/**
+	 * 使用中の検索キー数
+	 * @since	UDC1.3
+	 */
+	int			used = 0;
+
+	/**
+	 * 応答待ち件数の合計
+	 * @since	UDC1.3
+	 */
+	int			total = 0;
+
+	/**
+	 * 応答待ち件数の合計を取得する。
+	 *
+	 * @return 	応答待ち件数
+	 * @since	UDC1.3
+	 */
+	public int size()
+	{
+		return total;
+	}
+
+	/**
+	 * 応答待ちを全て削除する。
+	 *
+	 * @since	UDC1.3
+	 */
+	public void clear()
+	{
+		for (int i=0; i<counts.length; i++) {
+			counts[i] = 0;
+		}
+		used = 0;
+		total = 0;
+	}
+
+	/**
+	 * 応答待ちを登録する。
+	 *
+	 * @param	invId		インボークID
+	 * @param	repdtrtype	応答メッセージ種別
+	 * @since	UDC1.3
+	 */
+	public void add(int invId,int repdtrtype)
+	{
+		long key = UdcLockFreeThreadChannel.key(invId,repdtrtype);
+		int i = find(key);
+		if (counts[i] == 0) {
+			if ((used+1)*2 > keys.length) {
+				rehash(keys.length * 2);
+				i = find(key);
+			}
+			keys[i] = key;
+			used ++;
+		}
+		counts[i] ++;
+		total ++;
+	}
+
+	/**
+	 * 指定した応答待ちが存在するか否かを取得する。
+	 *
+	 * @return 	存在するか否か
+	 * @param	invId		インボークID
+	 * @param	repdtrtype	応答メッセージ種別
+	 * @since	UDC1.3
+	 */
+	public boolean contains(int invId,int repdtrtype)
+	{
+		return (counts[find(UdcLockFreeThreadChannel.key(invId,repdtrtype))] > 0);
+	}
+
+	/**
+	 * 指定した応答待ちを１件削除する。
+	 *
+	 * @param	invId		インボークID
+	 * @param	repdtrtype	応答メッセージ種別
+	 * @since	UDC1.3
+	 */
+	public void removeDeleteReplyWait(int invId,int repdtrtype)
+	{
+		if (total <= 0) {
+			return;
+		}
+		int i = find(UdcLockFreeThreadChannel.key(invId,repdtrtype));
+		if (counts[i] == 0) {
+			return;
+		}
+		total --;
+		if (--counts[i] > 0) {
+			return;
+		}
+		used --;
+			/* 後続の要素を詰めて、探索が途切れないようにする */
+		int mask = keys.length - 1;
+		int j = i;
+		while (true) {
+			j = (j + 1) & mask;
+			if (counts[j] == 0) {
+				return;
+			}
+			int k = slot(keys[j], mask);
+			if ((j > i && (k <= i || k > j)) || (j < i && k <= i && k > j)) {
+				keys[i] = keys[j];
+				counts[i] = counts[j];
+				counts[j] = 0;
+				i = j;
+			}
+		}
+	}
+
+	/**
+	 * 検索キーの格納位置を検索する。
+	 *
+	 * @return 	格納位置(存在しない場合は格納すべき空き位置)
+	 * @param	key		検索キー
+	 * @since	UDC1.3
+	 */
+	int find(long key)
+	{
+		int mask = keys.length - 1;
+		int i = slot(key, mask);
+		while (counts[i] != 0 && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	/**
+	 * 検索キーのハッシュ位置を取得する。
+	 *
+	 * @return 	ハッシュ位置
+	 * @param	key		検索キー
+	 * @param	mask	ハッシュ表のサイズ-1
+	 * @since	UDC1.3
+	 */
+	static int slot(long key, int mask)
+	{
+		int h = (int)(key ^ (key >>> 32)) * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * ハッシュ表を拡張する。
+	 *
+	 * @param	size	拡張後のハッシュ表のサイズ(2のべき乗)
+	 * @since	UDC1.3
+	 */
+	void rehash(int size)
+	{
+		long[] okeys = keys;
+		int[]  ocounts = counts;
+		keys = new long[size];
+		counts = new int[size];
+		for (int i=0; i<okeys.length; i++) {
+			if (ocounts[i] != 0) {
+				int j = find(okeys[i]);
+				keys[j] = okeys[i];
+				counts[j] = ocounts[i];
+			}
+		}
+	}
+}
@@ -10,6 +10,8 @@ package udc.util;
  * スレッド間通信のための通信情報クラス。
  * UDCではスレッド間通信のために ThreadChannel クラスを提供する。本クラス
  * このクラスとの組合せで使用することを原則とします。
+ * 大量のメッセージを送受信する場合、コンストラクタの代わりにobtainで取得し、受信側で
+ * 不要となった時点でreleaseで解放することで、インスタンスを再利用することができます。
  *
  * @author	Takayuki Uchida
  * @version	1.0, 18 Jan 2003
@@ -60,6 +62,30 @@ public class UdcThreadChannelDtr implements Cloneable
 	 */
 	private int					dtrLevel = 50;
 
+	/**
+	 * 処理期限(System.nanoTime基準、単位：ナノ秒)
+	 * @since	UDC1.3
+	 */
+	private long				deadline = 0;
+
+	/**
+	 * 処理期限が設定されているか否か
+	 * @since	UDC1.3
+	 */
+	private boolean				hasDeadline = false;
+
+	/**
+	 * 再利用インスタンスのプール
+	 * @since	UDC1.3
+	 */
+	private static UdcObjectPool	pool = new UdcObjectPool(1024);
+
+	/**
+	 * プールに解放済みか否か
+	 * @since	UDC1.3
+	 */
+	private boolean				released = false;
+
 
 	/**
 	 * コンストラクタ
@@ -111,6 +137,104 @@ public class UdcThreadChannelDtr implements Cloneable
 		data = d;
 	}
 
+	/**
+	 * 再利用可能なインスタンスを取得する。
+	 * プールに解放済みのインスタンスがあればこれを再利用し、なければ新たに生成します。
+	 *
+	 * @return	スレッド間通信情報
+	 * @param	invid	スレッド間通信インボークID(スレッド間通信の要求に対する応答の対応識別子)
+	 * @param	type	スレッド間通信メッセージ種別
+	 * @see		#release()
+	 * @since	UDC1.3
+	 */
+	public static UdcThreadChannelDtr obtain(int invid, int type)
+	{
+		return obtain(null, invid, type, -1, null);
+	}
+
+	/**
+	 * 再利用可能なインスタンスを取得する。
+	 * プールに解放済みのインスタンスがあればこれを再利用し、なければ新たに生成します。
+	 *
+	 * @return	スレッド間通信情報
+	 * @param	invid	スレッド間通信インボークID(スレッド間通信の要求に対する応答の対応識別子)
+	 * @param	type	スレッド間通信メッセージ種別
+	 * @param	d		スレッド間通信ユーザ情報
+	 * @see		#release()
+	 * @since	UDC1.3
+	 */
+	public static UdcThreadChannelDtr obtain(int invid, int type, Object d)
+	{
+		return obtain(null, invid, type, -1, d);
+	}
+
+	/**
+	 * 再利用可能なインスタンスを取得する。
+	 * プールに解放済みのインスタンスがあればこれを再利用し、なければ新たに生成します。
+	 *
+	 * @return	スレッド間通信情報
+	 * @param	repch	スレッド間通信の要求に対する応答の返却先スレッドチャンネル
+	 * @param	invid	スレッド間通信インボークID(スレッド間通信の要求に対する応答の対応識別子)
+	 * @param	type	スレッド間通信種別
+	 * @param	res		処理結果(スレッド間通信の応答返却時の要求に対する結果)
+	 * @param	d		スレッド間通信ユーザ情報
+	 * @see		#release()
+	 * @since	UDC1.3
+	 */
+	public static UdcThreadChannelDtr obtain(UdcThreadChannel repch, int invid, int type, int res, Object d)
+	{
+		UdcThreadChannelDtr dtr = (UdcThreadChannelDtr)pool.poll();
+		if (dtr == null) {
+			return new UdcThreadChannelDtr(repch, invid, type, res, d);
+		}
+		dtr.released = false;
+		dtr.replyChannel = repch;
+		dtr.invokeId = invid;
+		dtr.dtrType = type;
+		dtr.result = res;
+		dtr.data = d;
+		return dtr;
+	}
+
+	/**
+	 * 本インスタンスを解放し、再利用のためにプールに戻す。
+	 * 解放後は本インスタンスを参照してはいけません。スレッドチャネルから受信したメッセージは、
+	 * スレッド間通信ユーザ情報等を取り出した後に受信側で解放します。
+	 * 既に解放済みの場合、あるいは本クラスの派生クラスのインスタンスの場合は何も行いません。
+	 *
+	 * @see		#obtain(UdcThreadChannel,int,int,int,Object)
+	 * @since	UDC1.3
+	 */
+	public void release()
+	{
+		if (released || getClass() != UdcThreadChannelDtr.class) {
+			return;
+		}
+		released = true;
+		invokeId = -1;
+		dtrType = -1;
+		result = -1;
+		data = null;
+		replyChannel = null;
+		replyDtrType = -1;
+		dtrLevel = 50;
+		hasDeadline = false;
+		deadline = 0;
+		pool.offer(this);
+	}
+
+	/**
+	 * 再利用インスタンスのプールを取得する。
+	 * プールの上限数の変更・統計情報の参照に使用します。
+	 *
+	 * @return	再利用インスタンスのプール
+	 * @since	UDC1.3
+	 */
+	public static UdcObjectPool getPool()
+	{
+		return pool;
+	}
+
 	/**
 	 * スレッド間通信インボークID(スレッド間通信の要求に対する応答の対応識別子)を取得する。
 	 *
@@ -209,6 +333,81 @@ public class UdcThreadChannelDtr implements Cloneable
 	 */
 	public void set_dtrLevel(int level) { dtrLevel = level; }
 
+	/**
+	 * 処理期限を設定する。
+	 * 処理期限を過ぎた要求は、UdcThreadOperation・UdcThreadOperationExecutorで
+	 * オペレーション処理(UdcOperationFace.action)を実行せずに破棄されます。
+	 *
+	 * @param 	nanotime	処理期限(System.nanoTime基準、単位：ナノ秒)
+	 * @see		#is_expired()
+	 * @since	UDC1.3
+	 */
+	public void set_deadline(long nanotime)
+	{
+		deadline = nanotime;
+		hasDeadline = true;
+	}
+
+	/**
+	 * 処理期限を現在からの時間で設定する。
+	 *
+	 * @param 	milisec		処理期限までの時間(単位：ミリ秒、0以下の場合は処理期限なし)
+	 * @see		#set_deadline(long)
+	 * @since	UDC1.3
+	 */
+	public void set_timeout(long milisec)
+	{
+		if (milisec <= 0) {
+			hasDeadline = false;
+			deadline = 0;
+			return;
+		}
+		set_deadline(System.nanoTime() + milisec * 1000000L);
+	}
+
+	/**
+	 * 処理期限を取得する。
+	 *
+	 * @return 	処理期限(System.nanoTime基準、単位：ナノ秒)
+	 * @since	UDC1.3
+	 */
+	public long get_deadline() { return deadline; }
+
+	/**
+	 * 処理期限が設定されているか否かを取得する。
+	 *
+	 * @return 	処理期限が設定されているか否か
+	 * @since	UDC1.3
+	 */
+	public boolean has_deadline() { return hasDeadline; }
+
+	/**
+	 * 処理期限までの残り時間を取得する。
+	 * 後続の要求に処理期限を引き継ぐ場合に使用します。
+	 *
+	 * @return 	残り時間(単位：ミリ秒、処理期限なしの場合は負値、期限切れの場合は0)
+	 * @since	UDC1.3
+	 */
+	public long get_remainTime()
+	{
+		if (! hasDeadline) {
+			return -1;
+		}
+		long remain = deadline - System.nanoTime();
+		return (remain > 0) ? (remain + 999999L) / 1000000L : 0;
+	}
+
+	/**
+	 * 処理期限を過ぎているか否かを取得する。
+	 *
+	 * @return 	処理期限を過ぎているか否か(処理期限なしの場合は偽)
+	 * @since	UDC1.3
+	 */
+	public boolean is_expired()
+	{
+		return hasDeadline && (System.nanoTime() - deadline) > 0;
+	}
+
 	/**
 	 * 本インスタンスの複製を作成します。
 	 * スレッド間通信ユーザ情報は複製を作成せずにもとの情報をそのまま設定します。
@@ -220,6 +419,8 @@ public class UdcThreadChannelDtr implements Cloneable
 	{
 		UdcThreadChannelDtr obj = new UdcThreadChannelDtr(replyChannel, invokeId, dtrType, result, data);
 		obj.set_replyDtrType(replyDtrType);
+		obj.hasDeadline = hasDeadline;
+		obj.deadline = deadline;
 		return obj;
 	}
 }
@@ -73,6 +73,18 @@ public class UdcThreadMsgDtrEventTimeout implements Cloneable
 	 */
 	protected Date		fixedTime;
 
+	/**
+	 * 再利用インスタンスのプール
+	 * @since	UDC1.3
+	 */
+	private static UdcObjectPool	pool = new UdcObjectPool(1024);
+
+	/**
+	 * プールに解放済みか否か
+	 * @since	UDC1.3
+	 */
+	private boolean		released = false;
+
 	/**
 	 * コンストラクタ
 	 * タイマ種別がタイムアウト/タイムインターバル時のコンストラクタ。
@@ -151,6 +163,64 @@ public class UdcThreadMsgDtrEventTimeout implements Cloneable
 		return obj;
 	}
 
+	/**
+	 * 指定したタイムアウト情報の複製を再利用可能なインスタンスとして取得する。
+	 * プールに解放済みのインスタンスがあればこれを再利用し、なければcloneによって複製します。
+	 *
+	 * @return 	タイムアウト情報の複製
+	 * @param	src	複製元のタイムアウト情報
+	 * @see		#release()
+	 * @since	UDC1.3
+	 */
+	public static UdcThreadMsgDtrEventTimeout obtain(UdcThreadMsgDtrEventTimeout src)
+		throws CloneNotSupportedException
+	{
+		UdcThreadMsgDtrEventTimeout obj = null;
+		if (src.getClass() == UdcThreadMsgDtrEventTimeout.class) {
+			obj = (UdcThreadMsgDtrEventTimeout)pool.poll();
+		}
+		if (obj == null) {
+			return (UdcThreadMsgDtrEventTimeout)src.clone();
+		}
+		obj.released = false;
+		obj.timerIndex = src.timerIndex;
+		obj.timerType = src.timerType;
+		obj.waitTime = src.waitTime;
+		obj.fixedTime = src.fixedTime;
+		return obj;
+	}
+
+	/**
+	 * 本インスタンスを解放し、再利用のためにプールに戻す。
+	 * 解放後は本インスタンスを参照してはいけません。タイムアウトイベントの受信側で、
+	 * タイムアウト情報が不要となった時点で解放します。
+	 * 既に解放済みの場合、あるいは本クラスの派生クラスのインスタンスの場合は何も行いません。
+	 *
+	 * @see		#obtain(UdcThreadMsgDtrEventTimeout)
+	 * @since	UDC1.3
+	 */
+	public void release()
+	{
+		if (released || getClass() != UdcThreadMsgDtrEventTimeout.class) {
+			return;
+		}
+		released = true;
+		timerIndex = -1;
+		fixedTime = null;
+		pool.offer(this);
+	}
+
+	/**
+	 * 再利用インスタンスのプールを取得する。
+	 *
+	 * @return	再利用インスタンスのプール
+	 * @since	UDC1.3
+	 */
+	public static UdcObjectPool getPool()
+	{
+		return pool;
+	}
+
 	/**
 	 * タイマ識別子を設定する。
 	 *
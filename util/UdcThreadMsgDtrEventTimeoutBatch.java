@@ -0,0 +1,124 @@
+/* *********************************************************************
+ * @(#)UdcThreadMsgDtrEventTimeoutBatch.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.util.List;
+
+
+
+/**
+ * スレッド間通信でタイマ管理スレッドからの一括タイムアウトイベント通知時の
+ * タイムアウト情報クラス。
+ * タイムアウト通知の一括送信(UdcThreadChannel.setTimeoutCoalesce)を設定したチャネルに対し、
+ * 同時にタイムアウトした複数のタイマのタイムアウト情報をまとめて通知します。
+ * 本クラスは、UdcThreadChannelDtrに設定されます。
+ *		UdcThreadChannelDtr.dtrType = UdcThreadMsgId.Event_TimeoutBatch
+ *		UdcThreadChannelDtr.data 	= 本インスタンス
+ *		UdcThreadChannelDtr.result	= 0;
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcThreadMsgDtrEventTimeout
+ * @see		UdcThreadChannel#setTimeoutCoalesce(boolean)
+ * @since	UDC1.3
+ */
+public class UdcThreadMsgDtrEventTimeoutBatch
+{
+	/**
+	 * タイムアウト情報
+	 * @since	UDC1.3
+	 */
+	protected UdcThreadMsgDtrEventTimeout[]	events;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	list	タイムアウト情報(UdcThreadMsgDtrEventTimeout)のリスト
+	 * @since	UDC1.3
+	 */
+	public UdcThreadMsgDtrEventTimeoutBatch(List list)
+	{
+		events = new UdcThreadMsgDtrEventTimeout[list.size()];
+		list.toArray(events);
+	}
+
+	/**
+	 * タイムアウトしたタイマ数を取得する。
+	 *
+	 * @return 	タイマ数
+	 * @since	UDC1.3
+	 */
+	public int size() { return events.length; }
+
+	/**
+	 * タイムアウト情報を取得する。
+	 *
+	 * @return 	タイムアウト情報
+	 * @param	i	タイムアウト情報の位置(0〜size()-1)
+	 * @since	UDC1.3
+	 */
+	public UdcThreadMsgDtrEventTimeout get_event(int i) { return events[i]; }
+
+	/**
+	 * タイマ識別子を取得する。
+	 *
+	 * @return 	タイマ識別子
+	 * @param	i	タイムアウト情報の位置(0〜size()-1)
+	 * @since	UDC1.3
+	 */
+	public int get_timerIndex(int i) { return events[i].get_timerIndex(); }
+
+	/**
+	 * 全てのタイマ識別子を取得する。
+	 *
+	 * @return 	タイマ識別子の配列
+	 * @since	UDC1.3
+	 */
+	public int[] get_timerIndexes()
+	{
+		int[] indexes = new int[events.length];
+		for (int i=0; i<events.length; i++) {
+			indexes[i] = events[i].get_timerIndex();
+		}
+		return indexes;
+	}
+
+	/**
+	 * 保持している全てのタイムアウト情報を解放する。
+	 * 解放後はタイムアウト情報を参照してはいけません。
+	 *
+	 * @see		UdcThreadMsgDtrEventTimeout#release()
+	 * @since	UDC1.3
+	 */
+	public void release()
+	{
+		for (int i=0; i<events.length; i++) {
+			if (events[i] != null) {
+				events[i].release();
+				events[i] = null;
+			}
+		}
+	}
+
+	/**
+	 * 本インスタンスの文字列情報を取得する。
+	 *
+	 * @return	本インスタンス情報
+	 * @since	UDC1.3
+	 */
+	public String toString()
+	{
+		StringBuffer str = new StringBuffer("timers=" + events.length + " [");
+		for (int i=0; i<events.length; i++) {
+			if (i > 0) {
+				str.append(",");
+			}
+			str.append((events[i] != null) ? events[i].get_timerIndex() : -1);
+		}
+		return str.append("]").toString();
+	}
+}
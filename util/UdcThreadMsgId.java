@@ -84,5 +84,11 @@ public interface UdcThreadMsgId
 	 */
 	public static final int	Event_Timeout 			= 0x20010001;
 
+	/**
+	 * タイマスレッドからの指定時間超過一括通知(UdcThreadMsgDtrEventTimeoutBatch)
+	 * @since UDC1.3
+	 */
+	public static final int	Event_TimeoutBatch		= 0x20010002;
+
 }
 
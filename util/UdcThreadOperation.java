@@ -8,6 +8,7 @@ package udc.util;
 
 import java.io.*;
 import java.sql.*;
+import java.util.*;
 
 
 /**
@@ -40,6 +41,18 @@ import java.sql.*;
  */
 public class UdcThreadOperation extends UdcThreadOperationBase implements Runnable
 {
+	/**
+	 * オペレーション処理スレッドが１回の起床で取得する要求数の上限
+	 * @since	UDC1.3
+	 */
+	static protected int	PullBatchSize = 32;
+
+	/**
+	 * 処理期限切れのためオペレーション処理を実行せずに破棄した要求数
+	 * @since	UDC1.3
+	 */
+	protected volatile long	expiredCount = 0;
+
 	/**
 	 * オペレーション処理を実装するインタフェース。
 	 * @since	UDC1.0
@@ -56,7 +69,7 @@ public class UdcThreadOperation extends UdcThreadOperationBase implements Runnab
 	 * オペレーション処理を行うスレッドの処理継続フラグ
 	 * @since	UDC1.0
 	 */
-	boolean		threadLoop = true;
+	volatile boolean	threadLoop = true;
 
 	/**
 	 * startメソッドによってオペレーション処理スレッドの起動が完了したか否かの状態。
@@ -70,6 +83,12 @@ public class UdcThreadOperation extends UdcThreadOperationBase implements Runnab
 	 */
 	boolean		isStartError = false;
 
+	/**
+	 * startメソッドでオペレーション処理スレッドの起動完了を待ち合わせるための排他。
+	 * @since	UDC1.3
+	 */
+	UdcMutex	startMutex = new UdcMutex();
+
 	/**
 	 * スレッドに割り当てられるDBコネクション
 	 * @since	UDC1.1
@@ -94,6 +113,18 @@ public class UdcThreadOperation extends UdcThreadOperationBase implements Runnab
 	 */
 	protected String	dbPasswd = null;
 
+	/**
+	 * スレッドに割り当てられるDBコネクションのPreparedStatementキャッシュ
+	 * @since	UDC1.3
+	 */
+	protected UdcStatementCache	statementCache = null;
+
+	/**
+	 * PreparedStatementキャッシュの保持数
+	 * @since	UDC1.3
+	 */
+	protected int		statementCacheSize = UdcStatementCache.DefaultSize;
+
 
 	/**
 	 * オペレーション処理インタフェースを設定する。
@@ -107,6 +138,18 @@ public class UdcThreadOperation extends UdcThreadOperationBase implements Runnab
 		operation.setThreadOperation(this);
 	}
 
+	/**
+	 * 処理期限切れのためオペレーション処理を実行せずに破棄した要求数を取得する。
+	 *
+	 * @return	破棄した要求数
+	 * @see		UdcThreadChannelDtr#set_deadline(long)
+	 * @since	UDC1.3
+	 */
+	public long getExpiredCount()
+	{
+		return expiredCount;
+	}
+
 	/**
 	 * オペレーションスレッドが起動したか否かを取得する。
 	 *
@@ -128,6 +171,7 @@ public class UdcThreadOperation extends UdcThreadOperationBase implements Runnab
 	{
 		UdcThreadOperation th = new UdcThreadOperation();
 		th.setDBInfo(dbUrl, dbUser, dbPasswd);
+		th.statementCacheSize = statementCacheSize;
 		th.setOperation((UdcOperationFace)operation.clone());
 		return th;
 	}
@@ -197,17 +241,22 @@ public class UdcThreadOperation extends UdcThreadOperationBase implements Runnab
 	public int start()
 	{
 		if (thread == null) {
-			int waitbase = 20;
-			int waitcnt = 30000 / waitbase + 1;
+			long waittime = 30000;
 			isStartError = false;
-			thread = new Thread(this);
-			thread.start();
-			UdcMutex mute = new UdcMutex();
-			for (int i=0; ((! isStartComplete()) && i < waitcnt) ; i++) {
-				try { mute.sleep(waitbase); } catch(InterruptedException exp) {}
-				if (isStartError) {
-					return -1;
+			thread = (pool != null) ? pool.createThread(this) : new Thread(this);
+				/* 起動完了(あるいは起動失敗)の通知を待ち合わせる */
+			try {
+				startMutex.lock();
+				thread.start();
+				long wakeup = System.currentTimeMillis() + waittime;
+				long remain;
+				while (! isStartComplete() && ! isStartError && (remain=wakeup - System.currentTimeMillis()) > 0) {
+					startMutex.cond_timewait(remain);
 				}
+				startMutex.unlock();
+			} catch(InterruptedException exp) {}
+			if (isStartError) {
+				return -1;
 			}
 		}
 		return 0;
@@ -217,6 +266,9 @@ public class UdcThreadOperation extends UdcThreadOperationBase implements Runnab
 	 * オペレーションスレッドを停止する。
 	 * 本メンバ関数は、UdcThreadOperationPool.stopOperation内で
 	 * 自動的に起動されるため、ユーザがコールする必要はありません。
+	 * オペレーションスレッド自身から呼び出された場合は、実行中のオペレーション処理が
+	 * 終了した時点でスレッドを終了します。また、強制停止できないスレッド(仮想スレッド等)は
+	 * 割り込みによって停止します。
 	 *
 	 * @return 	結果(0:正常/非0:異常)
 	 * @since	UDC1.0
@@ -225,8 +277,12 @@ public class UdcThreadOperation extends UdcThreadOperationBase implements Runnab
 	{
 		if (thread != null) {
 			threadLoop = false;
-			if (thread.isAlive()) {
-				thread.stop();
+			if (thread.isAlive() && thread != Thread.currentThread()) {
+				try {
+					thread.stop();
+				} catch (UnsupportedOperationException exp) {
+					thread.interrupt();
+				}
 			}
 			thread = null;
 		}
@@ -300,9 +356,60 @@ public class UdcThreadOperation extends UdcThreadOperationBase implements Runnab
 		disconnectDBConnection();
 		connection = DriverManager.getConnection(dbUrl,dbUser,dbPasswd);
 		connection.setAutoCommit(false);
+		statementCache = new UdcStatementCache(connection, statementCacheSize);
 		return connection;
 	}
 
+	/**
+	 * DBコネクションのPreparedStatementキャッシュからSQL文のPreparedStatementを取得する。
+	 * 同じSQL文の再実行時は、生成済みのPreparedStatementを再利用します。
+	 * 取得したPreparedStatementはキャッシュで保持しているため、closeしないでください。
+	 * 同じSQL文では同じPreparedStatementを返却するため、処理中のResultSetがある状態で
+	 * 同じSQL文を入れ子で実行しないでください。
+	 *
+	 * @return	PreparedStatement
+	 * @param	sql		SQL文
+	 * @exception	SQLException	DBコネクション未確立、PreparedStatementの生成エラー
+	 * @see		UdcStatementCache#prepareStatement(String)
+	 * @since	UDC1.3
+	 */
+	public PreparedStatement	prepareStatement(String sql)
+			throws SQLException
+	{
+		UdcStatementCache cache = statementCache;
+		if (cache == null) {
+			throw new SQLException("DB connection not established.");
+		}
+		return cache.prepareStatement(sql);
+	}
+
+	/**
+	 * DBコネクションのPreparedStatementキャッシュを取得する。
+	 *
+	 * @return	PreparedStatementキャッシュ(DBコネクション未確立時はnull)
+	 * @since	UDC1.3
+	 */
+	public UdcStatementCache	getStatementCache()
+	{
+		return statementCache;
+	}
+
+	/**
+	 * PreparedStatementキャッシュの保持数を設定する。
+	 * 0を指定すると、キャッシュを行いません。デフォルトはUdcStatementCache.DefaultSizeです。
+	 *
+	 * @param	size	保持数
+	 * @since	UDC1.3
+	 */
+	public void	setStatementCacheSize(int size)
+	{
+		statementCacheSize = size;
+		UdcStatementCache cache = statementCache;
+		if (cache != null) {
+			cache.setMaxSize(size);
+		}
+	}
+
 	/**
 	 * DBコネクションを切断する。<br>
 	 * 内部では、JDBCインタフェース Connection.close がコールされます。
@@ -318,6 +425,10 @@ public class UdcThreadOperation extends UdcThreadOperationBase implements Runnab
 
 		Connection conn = connection;
 		connection = null;
+		if (statementCache != null) {
+			statementCache.clear();
+			statementCache = null;
+		}
 		conn.close();
 	}
 
@@ -336,6 +447,7 @@ public class UdcThreadOperation extends UdcThreadOperationBase implements Runnab
 									+ "URL[" + dbUrl + "] User[" + dbUser + "] Passwd[" + dbPasswd + "]");
 					isStartComplete = false;
 					isStartError = true;
+					startMutex.cond_signal();
 					return;
 				}
 			} catch(Exception exp) {
@@ -343,25 +455,43 @@ public class UdcThreadOperation extends UdcThreadOperationBase implements Runnab
 								+ "URL[" + dbUrl + "] User[" + dbUser + "] Passwd[" + dbPasswd + "]  exception - " + exp);
 				isStartComplete = false;
 				isStartError = true;
+				startMutex.cond_signal();
 				return;
 			}
 		}
 		isStartError = false;
 		isStartComplete = true;
+		startMutex.cond_signal();
 
 		try {
-			UdcThreadChannelDtr dtr;
+			ArrayList batch = new ArrayList(PullBatchSize);
 			while (threadLoop) {
 				try {
-						// オペレーション要求受信
-					if ((dtr=channel.pull()) == null) {
+						// オペレーション要求受信(起床毎に受信済みの要求をまとめて取得)
+					if (channel.drainTo(batch, PullBatchSize, -1) <= 0) {
 						continue;
 					}
-						// オペレーション処理実行
+						// オペレーション処理実行(処理期限切れの要求は破棄)
 						//	(*) 要求元に応答を返却する場合は、ユーザ処理内で行う。
-					operation.action(dtr);
+						//	(*) 取得済みの要求は、停止要求後も全て処理する。
+					//	(*) ユーザ処理の例外は要求毎にトレース出力し、後続の要求を処理する。
+					for (int i=0; i<batch.size(); i++) {
+						UdcThreadChannelDtr dtr = (UdcThreadChannelDtr)batch.get(i);
+						if (dtr.is_expired()) {
+							expiredCount ++;
+							continue;
+						}
+						try {
+							operation.action(dtr);
+						} catch (RuntimeException exp) {
+							UdcTrace.trace(UdcTrace.Level,"UdcThreadOperation.run", "(" + getThreadIndex() +  ") - exception - " + exp);
+						}
+					}
 
-				} catch (InterruptedException exp) {}
+				} catch (InterruptedException exp) {
+				} finally {
+					batch.clear();
+				}
 			}
 		} catch(ThreadDeath death) {
 			isStartComplete = false;
@@ -370,6 +500,7 @@ public class UdcThreadOperation extends UdcThreadOperationBase implements Runnab
 			throw death;
 		}
 		isStartComplete = false;
+		try { disconnectDBConnection(); } catch(Exception exp) {}
 		UdcTrace.trace(UdcTrace.Level,"UdcThreadOperation.run", "(" + getThreadIndex() +  ") - end.");
 	}
 }
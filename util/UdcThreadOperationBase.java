@@ -63,6 +63,18 @@ public class UdcThreadOperationBase implements UdcThreadMsgId, Cloneable, Compar
 	 */
 	protected UdcThreadOperationPool 	pool = null;
 
+	/**
+	 * 記録中のトランザクションイベント(UdcFlightRecorder)
+	 * @since	UDC1.3
+	 */
+	Object		flightEvent = null;
+
+	/**
+	 * 未使用状態に遷移した時刻(System.nanoTime)
+	 * @since	UDC1.3
+	 */
+	long		idleSince = 0;
+
 
 	/**
 	 * 本インスタンスを管理するスレッドプールクラスを取得する。
@@ -0,0 +1,617 @@
+/* *********************************************************************
+ * @(#)UdcThreadOperationExecutor.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+
+/**
+ * オペレーション処理の実行クラス。
+ * UdcThreadOperationPoolのようにオペレーションスレッドを確保・解放することなく、
+ * 要求メッセージ(UdcThreadChannelDtr)を投入(submit)するだけでオペレーション処理
+ * (UdcOperationFace.action)を実行します。<br>
+ * 要求はワークスティーリング型のスレッドプール(ForkJoinPool)で処理され、各ワーカスレッドは
+ * 起動時に複製したオペレーションスレッドを１つずつ保持します。トランザクションの開始・終了
+ * (UdcOperationFace.startTransaction/stopTransaction)は要求毎ではなく、ワーカスレッドの
+ * 起動・終了時に行われます。<br>
+ * 処理待ちの要求数には上限があり、上限に達した場合の動作は以下から選択します。
+ *
+ *　　Reject_Abort		投入を失敗とする<br>
+ *　　Reject_CallerRuns	投入したスレッドでオペレーション処理を実行する(複製したオペレーションスレッドを
+ *　　					再利用し、同時に実行できる要求数はワーカスレッド数まで。超えた場合は投入失敗とする)<br>
+ *　　Reject_Wait		処理待ちに空きができるまで一定時間待ち合わせ、空かなければ投入を失敗とする<br>
+ *
+ * 処理期限(UdcThreadChannelDtr.set_deadline)を過ぎた要求は、投入時あるいは処理開始時に
+ * オペレーション処理を実行せずに破棄し、破棄数を計数します。
+ *
+ * (注意)
+ *    オペレーション処理内でUdcThreadOperation.getPoolを参照する場合、本クラスで実行される
+ *    オペレーションスレッドはスレッドプールに属していないためnullとなります。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcThreadOperation
+ * @see		UdcOperationFace
+ * @since	UDC1.3
+ */
+public class UdcThreadOperationExecutor implements ForkJoinPool.ForkJoinWorkerThreadFactory
+{
+	/**
+	 * 処理待ち上限時の動作：投入失敗
+	 * @since	UDC1.3
+	 */
+	final public static int	Reject_Abort		= 0;
+
+	/**
+	 * 処理待ち上限時の動作：投入元スレッドで実行
+	 * @since	UDC1.3
+	 */
+	final public static int	Reject_CallerRuns	= 1;
+
+	/**
+	 * 処理待ち上限時の動作：空き待ち合わせ
+	 * @since	UDC1.3
+	 */
+	final public static int	Reject_Wait			= 2;
+
+	/**
+	 * 投入結果：処理待ちに投入
+	 * @since	UDC1.3
+	 */
+	final public static int	Submit_Queued		= 0;
+
+	/**
+	 * 投入結果：投入元スレッドで実行
+	 * @since	UDC1.3
+	 */
+	final public static int	Submit_CallerRuns	= 1;
+
+	/**
+	 * 投入結果：投入失敗
+	 * @since	UDC1.3
+	 */
+	final public static int	Submit_Rejected		= -1;
+
+	/**
+	 * 投入結果：処理期限切れのため破棄
+	 * @since	UDC1.3
+	 */
+	final public static int	Submit_Expired		= -2;
+
+	/**
+	 * オペレーションスレッドの複製元
+	 * @since	UDC1.3
+	 */
+	protected UdcThreadOperation	template;
+
+	/**
+	 * ワークスティーリング型スレッドプール
+	 * @since	UDC1.3
+	 */
+	protected ForkJoinPool			forkJoinPool;
+
+	/**
+	 * 処理待ち要求数の上限
+	 * @since	UDC1.3
+	 */
+	protected int					queueSize;
+
+	/**
+	 * 処理待ち要求数を制限するセマフォ
+	 * @since	UDC1.3
+	 */
+	protected Semaphore				queuePermits;
+
+	/**
+	 * 処理待ち上限時の動作
+	 * @since	UDC1.3
+	 */
+	protected int					rejectPolicy = Reject_Abort;
+
+	/**
+	 * 処理待ち上限時の空き待ち時間(単位：ミリ秒)。Reject_Wait時のみ有効です。
+	 * @since	UDC1.3
+	 */
+	protected long					rejectWaitTime = 0;
+
+	/**
+	 * ワーカスレッドの識別子管理
+	 * @since	UDC1.3
+	 */
+	protected AtomicInteger			workerIndex = new AtomicInteger(0);
+
+	/**
+	 * 処理完了した要求数
+	 * @since	UDC1.3
+	 */
+	protected AtomicLong			completedCount = new AtomicLong(0);
+
+	/**
+	 * 投入失敗した要求数
+	 * @since	UDC1.3
+	 */
+	protected AtomicLong			rejectedCount = new AtomicLong(0);
+
+	/**
+	 * 処理期限切れのため破棄した要求数
+	 * @since	UDC1.3
+	 */
+	protected AtomicLong			expiredCount = new AtomicLong(0);
+
+	/**
+	 * 投入元スレッドで実行するオペレーションスレッドの空き(DBコネクション確立・トランザクション開始済み)
+	 * @since	UDC1.3
+	 */
+	protected ConcurrentLinkedQueue	callerOperations = new ConcurrentLinkedQueue();
+
+	/**
+	 * 投入元スレッドで同時に実行する要求数を制限するセマフォ(上限はワーカスレッド数)
+	 * @since	UDC1.3
+	 */
+	protected Semaphore				callerPermits;
+
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	parallelism	ワーカスレッド数
+	 * @param	queuesize	処理待ち要求数の上限
+	 * @param	ope			オペレーションスレッド(ワーカスレッド毎に複製されます)
+	 * @param	policy		処理待ち上限時の動作(Reject_Abort/Reject_CallerRuns/Reject_Wait)
+	 * @param	waittime	処理待ち上限時の空き待ち時間(単位：ミリ秒、Reject_Wait時のみ有効)
+	 * @since	UDC1.3
+	 */
+	public UdcThreadOperationExecutor(int parallelism, int queuesize, UdcThreadOperation ope, int policy, long waittime)
+	{
+		template = ope;
+		queueSize = queuesize;
+		queuePermits = new Semaphore(queuesize);
+		rejectPolicy = policy;
+		rejectWaitTime = waittime;
+		callerPermits = new Semaphore(Math.max(parallelism, 1));
+		forkJoinPool = new ForkJoinPool(parallelism, this, null, true);
+	}
+
+	/**
+	 * コンストラクタ。
+	 * 処理待ち上限時は投入失敗となります。
+	 *
+	 * @param	parallelism	ワーカスレッド数
+	 * @param	queuesize	処理待ち要求数の上限
+	 * @param	ope			オペレーションスレッド(ワーカスレッド毎に複製されます)
+	 * @since	UDC1.3
+	 */
+	public UdcThreadOperationExecutor(int parallelism, int queuesize, UdcThreadOperation ope)
+	{
+		this(parallelism, queuesize, ope, Reject_Abort, 0);
+	}
+
+	/**
+	 * 要求を投入する。
+	 * 処理待ち要求数が上限に達している場合は、処理待ち上限時の動作に従います。
+	 *
+	 * @return	投入結果(Submit_Queued/Submit_CallerRuns/Submit_Rejected/Submit_Expired)
+	 * @param	dtr	要求メッセージ
+	 * @since	UDC1.3
+	 */
+	public int submit(UdcThreadChannelDtr dtr)
+	{
+		if (forkJoinPool.isShutdown()) {
+			rejectedCount.incrementAndGet();
+			return Submit_Rejected;
+		}
+		if (dtr.is_expired()) {
+			expiredCount.incrementAndGet();
+			return Submit_Expired;
+		}
+		boolean acquired = queuePermits.tryAcquire();
+		if (! acquired) {
+			if (rejectPolicy == Reject_CallerRuns) {
+					/* 投入元スレッドでの同時実行数も上限に達している場合は投入失敗とする */
+				if (callerPermits.tryAcquire()) {
+					try {
+						execute(dtr);
+					} finally {
+						callerPermits.release();
+					}
+					return Submit_CallerRuns;
+				}
+			} else if (rejectPolicy == Reject_Wait && rejectWaitTime > 0) {
+				try {
+					acquired = queuePermits.tryAcquire(rejectWaitTime, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException exp) {
+					acquired = false;
+				}
+			}
+			if (! acquired) {
+				rejectedCount.incrementAndGet();
+				return Submit_Rejected;
+			}
+		}
+		try {
+			forkJoinPool.execute(new UdcThreadOperationTask(this, dtr));
+		} catch (RejectedExecutionException exp) {
+			queuePermits.release();
+			rejectedCount.incrementAndGet();
+			return Submit_Rejected;
+		}
+		return Submit_Queued;
+	}
+
+	/**
+	 * 新たな要求の投入を停止する。投入済みの要求は処理されます。
+	 * 投入元スレッドで実行するオペレーションスレッドは、トランザクション終了とDBコネクションの
+	 * 切断を行います。
+	 *
+	 * @since	UDC1.3
+	 */
+	public void shutdown()
+	{
+		forkJoinPool.shutdown();
+		closeCallerOperations();
+	}
+
+	/**
+	 * 投入済みの要求の処理完了を待ち合わせる。
+	 *
+	 * @return	処理が完了したか否か(タイムアウト時はfalse)
+	 * @param	waittime	待ち時間上限(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	public boolean awaitTermination(long waittime)
+		throws InterruptedException
+	{
+		return forkJoinPool.awaitTermination(waittime, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 処理待ちの要求数を取得する。
+	 *
+	 * @return	処理待ちの要求数
+	 * @since	UDC1.3
+	 */
+	public int getQueuedSize()
+	{
+		return queueSize - queuePermits.availablePermits();
+	}
+
+	/**
+	 * オペレーション処理を実行中のワーカスレッド数を取得する。
+	 *
+	 * @return	実行中のワーカスレッド数
+	 * @since	UDC1.3
+	 */
+	public int getActiveSize()
+	{
+		return forkJoinPool.getActiveThreadCount();
+	}
+
+	/**
+	 * ワーカスレッド数を取得する。
+	 *
+	 * @return	ワーカスレッド数
+	 * @since	UDC1.3
+	 */
+	public int getSize()
+	{
+		return forkJoinPool.getPoolSize();
+	}
+
+	/**
+	 * 処理完了した要求数を取得する。
+	 *
+	 * @return	処理完了した要求数
+	 * @since	UDC1.3
+	 */
+	public long getCompletedCount()
+	{
+		return completedCount.get();
+	}
+
+	/**
+	 * 投入失敗した要求数を取得する。
+	 *
+	 * @return	投入失敗した要求数
+	 * @since	UDC1.3
+	 */
+	public long getRejectedCount()
+	{
+		return rejectedCount.get();
+	}
+
+	/**
+	 * 処理期限切れのため破棄した要求数を取得する。
+	 *
+	 * @return	破棄した要求数
+	 * @since	UDC1.3
+	 */
+	public long getExpiredCount()
+	{
+		return expiredCount.get();
+	}
+
+	/**
+	 * ForkJoinPool.ForkJoinWorkerThreadFactory.newThreadの実装。
+	 * オペレーションスレッドを保持するワーカスレッドを生成する。
+	 *
+	 * @return	ワーカスレッド
+	 * @param	pool	ワークスティーリング型スレッドプール
+	 * @since	UDC1.3
+	 */
+	public ForkJoinWorkerThread newThread(ForkJoinPool pool)
+	{
+		try {
+			return new UdcThreadOperationWorker(pool, newOperation(workerIndex.incrementAndGet()));
+		} catch (CloneNotSupportedException exp) {
+			UdcTrace.trace(UdcTrace.Level,"UdcThreadOperationExecutor.newThread", " - Not definition clone method.");
+			return null;
+		}
+	}
+
+	/**
+	 * 本インスタンスの文字列情報を取得する。
+	 *
+	 * @return	本インスタンス情報
+	 * @since	UDC1.3
+	 */
+	public String toString()
+	{
+		String str = "All Worker Number = " + getSize() + "\n";
+		str += "  ActiveWorker = " + getActiveSize() + "\n";
+		str += "  Queued = " + getQueuedSize() + "/" + queueSize + "\n";
+		str += "  Completed = " + getCompletedCount() + "\n";
+		str += "  Rejected = " + getRejectedCount() + "\n";
+		str += "  Expired = " + getExpiredCount() + "\n";
+		return str;
+	}
+
+	/**
+	 * 要求のオペレーション処理を実行する。
+	 * ワーカスレッドから呼び出された場合はワーカスレッドのオペレーションスレッドで、
+	 * それ以外のスレッドから呼び出された場合は、空きのオペレーションスレッドで実行します。
+	 * 空きがない場合は複製し、DBコネクションの確立とトランザクション開始を行います。
+	 * 実行後のオペレーションスレッドは空きに戻し、shutdownでトランザクション終了と
+	 * DBコネクションの切断を行います。
+	 *
+	 * @param	dtr	要求メッセージ
+	 * @since	UDC1.3
+	 */
+	void execute(UdcThreadChannelDtr dtr)
+	{
+		if (dtr.is_expired()) {
+			expiredCount.incrementAndGet();
+			return;
+		}
+		Thread th = Thread.currentThread();
+		if (th instanceof UdcThreadOperationWorker && ((UdcThreadOperationWorker)th).getPool() == forkJoinPool) {
+			action(((UdcThreadOperationWorker)th).operation, dtr);
+			return;
+		}
+
+		UdcThreadOperation ope = (UdcThreadOperation)callerOperations.poll();
+		if (ope == null) {
+			try {
+				ope = newOperation(0);
+			} catch (CloneNotSupportedException exp) {
+				rejectedCount.incrementAndGet();
+				return;
+			}
+			openOperation(ope);
+		}
+		try {
+			action(ope, dtr);
+		} finally {
+			callerOperations.offer(ope);
+			if (forkJoinPool.isShutdown()) {
+				closeCallerOperations();
+			}
+		}
+	}
+
+	/**
+	 * 投入元スレッドで実行するオペレーションスレッドの空きを全て使用終了する。
+	 *
+	 * @since	UDC1.3
+	 */
+	void closeCallerOperations()
+	{
+		UdcThreadOperation ope;
+		while ((ope=(UdcThreadOperation)callerOperations.poll()) != null) {
+			closeOperation(ope);
+		}
+	}
+
+	/**
+	 * オペレーションスレッドでオペレーション処理を実行する。
+	 *
+	 * @param	ope	オペレーションスレッド
+	 * @param	dtr	要求メッセージ
+	 * @since	UDC1.3
+	 */
+	void action(UdcThreadOperation ope, UdcThreadChannelDtr dtr)
+	{
+		try {
+			ope.operation.action(dtr);
+		} catch (RuntimeException exp) {
+			UdcTrace.trace(UdcTrace.Level,"UdcThreadOperationExecutor.execute", " - exception - " + exp);
+		}
+		completedCount.incrementAndGet();
+	}
+
+	/**
+	 * オペレーションスレッドの使用を開始する。
+	 * DBコネクションの確立(DB接続情報が設定されている場合)とトランザクション開始を行います。
+	 *
+	 * @param	ope	オペレーションスレッド
+	 * @since	UDC1.3
+	 */
+	static void openOperation(UdcThreadOperation ope)
+	{
+		if (ope.getDB_URL() != null) {
+			try {
+				if (ope.connectDBConnection() == null) {
+					UdcTrace.trace(UdcTrace.Level,"UdcThreadOperationExecutor.openOperation", "(" + ope.getThreadIndex() +  ") - failed connect db.");
+				}
+			} catch (Exception exp) {
+				UdcTrace.trace(UdcTrace.Level,"UdcThreadOperationExecutor.openOperation", "(" + ope.getThreadIndex() +  ") - failed connect db, exception - " + exp);
+			}
+		}
+		ope.setStatus(UdcThreadOperationBase.Status_Used);
+		if (ope.startTransaction() != 0) {
+			UdcTrace.trace(UdcTrace.Level,"UdcThreadOperationExecutor.openOperation", "(" + ope.getThreadIndex() +  ") - Cannot start transaction.");
+		}
+	}
+
+	/**
+	 * オペレーションスレッドの使用を終了する。
+	 * トランザクション終了とDBコネクションの切断を行います。
+	 *
+	 * @param	ope	オペレーションスレッド
+	 * @since	UDC1.3
+	 */
+	static void closeOperation(UdcThreadOperation ope)
+	{
+		if (ope.stopTransaction() != 0) {
+			UdcTrace.trace(UdcTrace.Level,"UdcThreadOperationExecutor.closeOperation", "(" + ope.getThreadIndex() +  ") - Cannot stop transaction.");
+		}
+		ope.setStatus(UdcThreadOperationBase.Status_Empty);
+		try { ope.disconnectDBConnection(); } catch (Exception exp) {}
+	}
+
+	/**
+	 * 処理待ちの要求が処理を開始したことを通知する。
+	 *
+	 * @since	UDC1.3
+	 */
+	void dequeued()
+	{
+		queuePermits.release();
+	}
+
+	/**
+	 * ワーカスレッド用のオペレーションスレッドを複製する。
+	 *
+	 * @return	オペレーションスレッド
+	 * @param	index	オペレーションスレッドの識別子
+	 * @since	UDC1.3
+	 */
+	UdcThreadOperation newOperation(int index)
+		throws CloneNotSupportedException
+	{
+		UdcThreadOperation ope = (UdcThreadOperation)template.clone();
+		if (ope == null) {
+			throw (new CloneNotSupportedException("Not definition clone method.") );
+		}
+		ope.threadIndex = index;
+		return ope;
+	}
+}
+
+/**
+ * オペレーション処理を実行するワーカスレッド。
+ * 起動時にDBコネクションの確立(DB接続情報が設定されている場合)とトランザクション開始を行い、
+ * 終了時にトランザクション終了とDBコネクションの切断を行います。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+class UdcThreadOperationWorker extends ForkJoinWorkerThread
+{
+	/**
+	 * ワーカスレッドが保持するオペレーションスレッド
+	 * @since	UDC1.3
+	 */
+	final UdcThreadOperation	operation;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	pool	ワークスティーリング型スレッドプール
+	 * @param	ope		オペレーションスレッド
+	 * @since	UDC1.3
+	 */
+	UdcThreadOperationWorker(ForkJoinPool pool, UdcThreadOperation ope)
+	{
+		super(pool);
+		operation = ope;
+	}
+
+	/**
+	 * ワーカスレッド起動時の処理。
+	 *
+	 * @since	UDC1.3
+	 */
+	protected void onStart()
+	{
+		super.onStart();
+		UdcThreadOperationExecutor.openOperation(operation);
+	}
+
+	/**
+	 * ワーカスレッド終了時の処理。
+	 *
+	 * @param	exception	終了原因となった例外(正常終了時はnull)
+	 * @since	UDC1.3
+	 */
+	protected void onTermination(Throwable exception)
+	{
+		try {
+			UdcThreadOperationExecutor.closeOperation(operation);
+		} finally {
+			super.onTermination(exception);
+		}
+	}
+}
+
+/**
+ * オペレーション処理の実行クラスに投入された要求。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @since	UDC1.3
+ */
+class UdcThreadOperationTask implements Runnable
+{
+	/**
+	 * 投入先の実行クラス
+	 * @since	UDC1.3
+	 */
+	final UdcThreadOperationExecutor	executor;
+
+	/**
+	 * 要求メッセージ
+	 * @since	UDC1.3
+	 */
+	final UdcThreadChannelDtr			dtr;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	exec	投入先の実行クラス
+	 * @param	d		要求メッセージ
+	 * @since	UDC1.3
+	 */
+	UdcThreadOperationTask(UdcThreadOperationExecutor exec, UdcThreadChannelDtr d)
+	{
+		executor = exec;
+		dtr = d;
+	}
+
+	/**
+	 * 要求のオペレーション処理を実行する。
+	 *
+	 * @since	UDC1.3
+	 */
+	public void run()
+	{
+		executor.dequeued();
+		executor.execute(dtr);
+	}
+}
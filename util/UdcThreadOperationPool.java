@@ -7,6 +7,7 @@
 package udc.util;
 
 import java.util.*;
+import java.util.concurrent.atomic.*;
 import java.io.*;
 
 
@@ -17,6 +18,13 @@ import java.io.*;
  * する処理負荷を軽減すると共に、スレッドリソースの上限を制限し、システム
  * 全体でのリソース制限を同時に実現します。
  *
+ * スレッド数は最小数・最大数の範囲で負荷に応じて増減します。空きスレッドがない場合、
+ * 確保待ち時間(growWaitTime)を過ぎても解放されない時、あるいは確保待ちがスレッド数以上に
+ * 滞留している時に、スレッド管理を複製(clone)して最大数までスレッドを追加します。
+ * 最小数を超えるスレッドは、未使用状態のまま保持時間(keepAliveTime)を経過するとタイマ管理に
+ * よって周期的に停止・削除されます。最小数と最大数が同一(従来のコンストラクタ)の場合、
+ * スレッド数は変化しません。
+ *
  * @author	Takayuki Uchida
  * @version	1.0, 18 Jan 2003
  * @see		UdcThreadOperationBase
@@ -36,6 +44,72 @@ public class UdcThreadOperationPool implements UdcThreadMsgId
 	 */
 	protected int				threadNum = 0;
 
+	/**
+	 * スレッド数の最大数
+	 * @since	UDC1.3
+	 */
+	protected int				maxNum = 0;
+
+	/**
+	 * 最小数を超える未使用状態のスレッドを保持する時間(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	protected long				keepAliveTime = 60000;
+
+	/**
+	 * 空きスレッドがない場合に、スレッドを追加するまでの確保待ち時間(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	protected long				growWaitTime = 0;
+
+	/**
+	 * スレッド追加の複製元となるスレッド管理クラス
+	 * @since	UDC1.3
+	 */
+	protected UdcThreadOperationBase	template;
+
+	/**
+	 * 追加処理中のスレッド数
+	 * @since	UDC1.3
+	 */
+	protected int				growingNum = 0;
+
+	/**
+	 * 最後に割り当てたスレッド識別子
+	 * @since	UDC1.3
+	 */
+	protected int				lastThreadIndex = 0;
+
+	/**
+	 * 未使用スレッド削除の周期タイマ識別子
+	 * @since	UDC1.3
+	 */
+	protected int				trimTimerIndex = -1;
+
+	/**
+	 * スレッド追加回数
+	 * @since	UDC1.3
+	 */
+	protected long				growCount = 0;
+
+	/**
+	 * スレッド削除回数
+	 * @since	UDC1.3
+	 */
+	protected long				trimCount = 0;
+
+	/**
+	 * 未使用スレッドの削除を作業スレッドに依頼済みか否か
+	 * @since	UDC1.3
+	 */
+	protected AtomicBoolean		trimRequested = new AtomicBoolean(false);
+
+	/**
+	 * 追加したスレッド管理の起動完了を待ち合わせる時間の上限(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	final public static long	StartWaitTime = 30000;
+
 	/**
 	 * 本クラスが管理するスレッド管理クラス全ての稼動状態の論理和。
 	 * 本クラスをインスタンス化し、直後 isStartComplete メンバ関数で管理スレッド
@@ -88,8 +162,27 @@ public class UdcThreadOperationPool implements UdcThreadMsgId
 	public UdcThreadOperationPool(int poolnum, UdcThreadOperationBase thread, UdcTimerManager timer)
 				throws CloneNotSupportedException
 	{
-		threadNum = poolnum;
+		this(poolnum, poolnum, thread, timer);
+	}
+
+	/**
+	 * コンストラクタ
+	 * 最小数分のスレッド管理を複製し、最大数までは負荷に応じてスレッド管理を追加します。
+	 *
+	 * @param	minnum	スレッド数の最小数
+	 * @param	maxnum	スレッド数の最大数(最小数未満の場合は最小数)
+	 * @param	thread	スレッド管理クラス
+	 * @param	timer	タイマ管理クラス
+	 * @since	UDC1.3
+	 */
+	public UdcThreadOperationPool(int minnum, int maxnum, UdcThreadOperationBase thread, UdcTimerManager timer)
+				throws CloneNotSupportedException
+	{
+		threadNum = minnum;
+		maxNum = (maxnum > minnum) ? maxnum : minnum;
+		template = thread;
 		timerManager = timer;
+		lastThreadIndex = threadNum;
 		for (int i=0; i<threadNum; i++) {
 			UdcThreadOperationBase th = (UdcThreadOperationBase)thread.clone();
 			if (th == null) {
@@ -98,6 +191,7 @@ public class UdcThreadOperationPool implements UdcThreadMsgId
 			}
 			th.setPool(this);
 			th.threadIndex = i + 1;
+			th.idleSince = System.nanoTime();
 			emptyList.add( th );
 		}
 	}
@@ -115,6 +209,114 @@ public class UdcThreadOperationPool implements UdcThreadMsgId
 		}
 	}
 
+	/**
+	 * スレッド数の最小数を取得する。
+	 *
+	 * @return スレッド数の最小数
+	 * @since   UDC1.3
+	 */
+	public int getMinSize()
+	{
+		return threadNum;
+	}
+
+	/**
+	 * スレッド数の最大数を取得する。
+	 *
+	 * @return スレッド数の最大数
+	 * @since   UDC1.3
+	 */
+	public int getMaxSize()
+	{
+		return maxNum;
+	}
+
+	/**
+	 * スレッド数の最小数・最大数を変更する。
+	 * 最小数を超えるスレッドは保持時間の経過後に削除され、最大数までのスレッドは
+	 * 負荷に応じて追加されます。最小数に満たないスレッドを即座に追加することはありません。
+	 *
+	 * @param	minnum	スレッド数の最小数
+	 * @param	maxnum	スレッド数の最大数(最小数未満の場合は最小数)
+	 * @since   UDC1.3
+	 */
+	public void setPoolSize(int minnum, int maxnum)
+	{
+		synchronized (emptyList) {
+			threadNum = (minnum > 0) ? minnum : 0;
+			maxNum = (maxnum > threadNum) ? maxnum : threadNum;
+		}
+	}
+
+	/**
+	 * 最小数を超える未使用状態のスレッドを保持する時間を取得する。
+	 *
+	 * @return	保持時間(単位：ミリ秒)
+	 * @since   UDC1.3
+	 */
+	public long getKeepAliveTime()
+	{
+		return keepAliveTime;
+	}
+
+	/**
+	 * 最小数を超える未使用状態のスレッドを保持する時間を設定する。
+	 * 保持時間は、未使用スレッドの削除を確認する周期にも使用されるため、startOperationの
+	 * 前に設定して下さい。
+	 *
+	 * @param	milisec	保持時間(単位：ミリ秒)
+	 * @since   UDC1.3
+	 */
+	public void setKeepAliveTime(long milisec)
+	{
+		keepAliveTime = milisec;
+	}
+
+	/**
+	 * 空きスレッドがない場合に、スレッドを追加するまでの確保待ち時間を取得する。
+	 *
+	 * @return	確保待ち時間(単位：ミリ秒)
+	 * @since   UDC1.3
+	 */
+	public long getGrowWaitTime()
+	{
+		return growWaitTime;
+	}
+
+	/**
+	 * 空きスレッドがない場合に、スレッドを追加するまでの確保待ち時間を設定する。
+	 * 0以下の場合は、空きスレッドがなければ待ち合わせずにスレッドを追加します。
+	 *
+	 * @param	milisec	確保待ち時間(単位：ミリ秒)
+	 * @since   UDC1.3
+	 */
+	public void setGrowWaitTime(long milisec)
+	{
+		growWaitTime = milisec;
+	}
+
+	/**
+	 * スレッド追加回数を取得する。
+	 *
+	 * @return	スレッド追加回数
+	 * @since   UDC1.3
+	 */
+	public long getGrowCount()
+	{
+		return growCount;
+	}
+
+	/**
+	 * スレッド削除回数を取得する。
+	 *
+	 * @return	スレッド削除回数
+	 * @since   UDC1.3
+	 */
+	public long getTrimCount()
+	{
+		return trimCount;
+	}
+
 	/**
 	 * 未使用状態のスレッド数を取得する。
 	 *
@@ -203,6 +405,13 @@ public class UdcThreadOperationPool implements UdcThreadMsgId
 			while (! isStartComplete()) {
 				try { mute.sleep(30); } catch(InterruptedException exp) {}
 			}
+				/* 最小数を超えるスレッドの削除を周期的に行う */
+			if (maxNum > threadNum && timerManager != null && keepAliveTime > 0) {
+				try {
+					trimTimerIndex = timerManager.registrateTimer(UdcThreadMsgDtrEventTimeout.TimeInterval,
+											keepAliveTime, new UdcPoolTrimChannel(this));
+				} catch (InterruptedException exp) {}
+			}
 		}
 		return 0;
 	}
@@ -225,6 +434,12 @@ public class UdcThreadOperationPool implements UdcThreadMsgId
 			if (status != 0) {
 				return -1;
 			}
+			if (trimTimerIndex >= 0) {
+				try {
+					timerManager.unregistrateTimer(trimTimerIndex);
+				} catch (InterruptedException exp) {}
+				trimTimerIndex = -1;
+			}
 			for (int i=0; i<usedToEmptyList.size(); i++) {
 				th = (UdcThreadOperationBase)usedToEmptyList.get(i);
 				if (th.stopOperation() < 0) {
@@ -254,6 +469,8 @@ public class UdcThreadOperationPool implements UdcThreadMsgId
 	 * 空スレッド確保待ちとし、この間にいずれかのスレッド管理が解放されればそれを
 	 * 割り当てる。しかし、指定時間内に１つもスレッド管理が解放されなければ、確保
 	 * 失敗とする。
+	 * スレッド数が最大数未満の場合は、確保待ち時間(growWaitTime)を過ぎた時点、
+	 * あるいは確保待ちがスレッド数以上に滞留した時点でスレッド管理を追加して割り当てる。
 	 *
 	 * @return	確保スレッド管理インスタンス(確保失敗時：null)
 	 * @param	waittime	空スレッド無し時の確保待ち時間(単位：ミリ秒)
@@ -269,23 +486,24 @@ public class UdcThreadOperationPool implements UdcThreadMsgId
 		/* 空きスレッドリストから使用中スレッドリストにスレッドを移す */
 		UdcThreadOperationBase thread;
 		thread = allocate();
+		/* 空きスレッドがない場合には、待ち合わせずにスレッドを追加する */
+		if (thread == null && growWaitTime <= 0) {
+			thread = grow();
+		}
 		/* 空きスレッドがない場合には、確保待ちに遷移する */
 		if (thread == null) {
 			if (waittime <= 0) {
 				return null;
 			}
-			int index = -1;
-			UdcAllocateWait waitElem = newAllocateWait(waittime);
-			waitElem.waitToAllocate();
-			deleteAllocateWait(waitElem.timerIndex);
-			if (waitElem.status != UdcAllocateWait.Enable) {
-				return null;
-			}
-			if ((thread=allocate()) == null) {
+			Object fr = UdcFlightRecorder.poolBegin();
+			thread = waitAllocate(waittime);
+			UdcFlightRecorder.poolAllocate(this, fr, waittime, (thread != null));
+			if (thread == null) {
 				return null;
 			}
 		}
 			/* トランザクション開始 */
+		thread.flightEvent = UdcFlightRecorder.transactionBegin();
 		int ret = thread.startTransaction();
 				/* トランザクションを開始できなければ、このスレッドは強制的に削除し、新規にスレッドを補完しておく */
 		if (ret != 0) {
@@ -313,6 +531,8 @@ public class UdcThreadOperationPool implements UdcThreadMsgId
 		}
 			/* トランザクション停止 */
 		int ret = thread.stopTransaction();
+		UdcFlightRecorder.transactionEnd(thread, thread.flightEvent, ret);
+		thread.flightEvent = null;
 				/* トランザクションを停止できなければ、このスレッドは強制的に削除し、新規にスレッドを補完しておく */
 		if (ret != 0) {
 			UdcTrace.trace(UdcTrace.Level,"UdcThreadOperationBase.releaseOperationThread", " - Cannot stop transaction, thIndex[" + index + "]");
@@ -322,9 +542,10 @@ public class UdcThreadOperationPool implements UdcThreadMsgId
 				if (th != null) {
 					if (th.startOperation() == 0) {
 						th.setPool(this);
-						UdcMutex mute = new UdcMutex();
-						while (! th.isStartComplete()) {
-							try { mute.sleep(20); } catch(InterruptedException exp) {}
+						if (! waitStartComplete(th)) {
+							UdcTrace.trace(UdcTrace.Level,"UdcThreadOperationBase.releaseOperationThread", " - Cannot recover thread, start timeout.");
+							th.stopOperation();
+							th = null;
 						}
 					} else {
 						UdcTrace.trace(UdcTrace.Level,"UdcThreadOperationBase.releaseOperationThread", " - Cannot recover thread.");
@@ -340,8 +561,24 @@ public class UdcThreadOperationPool implements UdcThreadMsgId
 		return;
 	}
 
+	/**
+	 * 管理スレッドが処理を行うスレッドを生成する。
+	 * 本クラスでは通常のスレッドを生成します。サブクラスでオーバーライドすることで、
+	 * 管理スレッドを動作させるスレッドの種類を変更することができます。
+	 *
+	 * @return	生成したスレッド(未起動)
+	 * @param	r	スレッドで実行する処理
+	 * @since	UDC1.3
+	 */
+	protected Thread createThread(Runnable r)
+	{
+		return new Thread(r);
+	}
+
 	/**
 	 * 空きスレッド管理を１つ確保する。
+	 * 最後に解放されたスレッド管理から確保するため、負荷が下がると最小数を超えるスレッド
+	 * 管理は未使用状態のまま残り、保持時間の経過後に削除されます。
 	 *
 	 * @return	確保スレッド管理インスタンス(確保失敗時：null)
 	 * @since	UDC1.0
@@ -352,14 +589,229 @@ public class UdcThreadOperationPool implements UdcThreadMsgId
 			if (emptyList.size() <= 0) {
 				return null;
 			}
-			UdcThreadOperationBase thread = (UdcThreadOperationBase)emptyList.get(0);
+			UdcThreadOperationBase thread = (UdcThreadOperationBase)emptyList.removeLast();
 			thread.setStatus(UdcThreadOperationBase.Status_Used);
-			emptyList.remove(thread);
 			usedList.add(thread);
 			return thread;
 		}
 	}
 
+	/**
+	 * waittime時間を上限としてスレッド管理が空くのを待ち、スレッド管理を確保する。
+	 * 起床された時点で他スレッドに確保されていた場合は、残り時間で再度待ち合わせます。
+	 * スレッド数が最大数未満の場合は、確保待ち時間(growWaitTime)を過ぎた時点、あるいは
+	 * 確保待ちがスレッド数以上に滞留した時点でスレッド管理を追加します。
+	 *
+	 * @return	確保スレッド管理インスタンス(確保失敗時：null)
+	 * @param	waittime	空スレッド無し時の確保待ち時間(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	protected UdcThreadOperationBase waitAllocate(long waittime)
+	{
+		long now = System.nanoTime();
+		long deadline = now + waittime * 1000000L;
+		long growline = now + growWaitTime * 1000000L;
+		UdcThreadOperationBase thread = null;
+		while (thread == null) {
+			now = System.nanoTime();
+			long remain = (deadline - now) / 1000000L;
+			if (remain <= 0) {
+				break;
+			}
+			long wait = remain;
+			if (isGrowable()) {
+				long grow = (growline - now) / 1000000L;
+				if (grow <= 0 || isWaitPressure()) {
+					thread = grow();
+					if (thread != null) {
+						break;
+					}
+				} else if (grow < wait) {
+					wait = grow;
+				}
+			}
+			UdcAllocateWait waitElem = newAllocateWait(wait);
+			if (waitElem == null) {
+				break;
+			}
+				/* 確保待ち登録までに解放されたスレッドを確認する */
+			thread = allocate();
+			if (thread == null) {
+				waitElem.waitToAllocate();
+				thread = allocate();
+			}
+			deleteAllocateWait(waitElem.timerIndex);
+		}
+		return thread;
+	}
+
+	/**
+	 * スレッド管理を追加可能か否かを取得する。
+	 *
+	 * @return	スレッド数が最大数未満か否か
+	 * @since	UDC1.3
+	 */
+	protected boolean isGrowable()
+	{
+		synchronized (emptyList) {
+			return (emptyList.size() + usedList.size() + usedToEmptyList.size() + growingNum < maxNum);
+		}
+	}
+
+	/**
+	 * 確保待ちがスレッド数以上に滞留しているか否かを取得する。
+	 *
+	 * @return	確保待ちが滞留しているか否か
+	 * @since	UDC1.3
+	 */
+	protected boolean isWaitPressure()
+	{
+		int waits;
+		synchronized (waitList) {
+			waits = waitList.size();
+		}
+		synchronized (emptyList) {
+			return (waits > 0 && waits >= emptyList.size() + usedList.size() + usedToEmptyList.size() + growingNum);
+		}
+	}
+
+	/**
+	 * スレッド管理を複製して開始し、使用状態として追加する。
+	 * スレッド数が最大数に達している場合は追加しません。
+	 *
+	 * @return	追加したスレッド管理インスタンス(追加できない場合：null)
+	 * @since	UDC1.3
+	 */
+	protected UdcThreadOperationBase grow()
+	{
+		int index;
+		synchronized (emptyList) {
+			if (status != 1 || template == null
+					|| emptyList.size() + usedList.size() + usedToEmptyList.size() + growingNum >= maxNum) {
+				return null;
+			}
+			growingNum ++;
+			index = ++ lastThreadIndex;
+		}
+
+		UdcThreadOperationBase th = null;
+		try {
+			th = (UdcThreadOperationBase)template.clone();
+			if (th != null) {
+				th.setPool(this);
+				th.threadIndex = index;
+				if (th.startOperation() == 0) {
+					if (! waitStartComplete(th)) {
+						UdcTrace.trace(UdcTrace.Level,"UdcThreadOperationPool.grow", " - start timeout, thIndex[" + index + "]");
+						th.stopOperation();
+						th = null;
+					}
+				} else {
+					th = null;
+				}
+			}
+		} catch (CloneNotSupportedException exp) {
+			th = null;
+		}
+
+		synchronized (emptyList) {
+			growingNum --;
+			if (th != null && status == 1) {
+				th.setStatus(UdcThreadOperationBase.Status_Used);
+				usedList.add(th);
+				growCount ++;
+				UdcTrace.trace(UdcTrace.Level,"UdcThreadOperationPool.grow", " - thIndex[" + index + "] size[" + getSize() + "]");
+				return th;
+			}
+		}
+		if (th != null) {
+			th.stopOperation();
+		} else {
+			UdcTrace.trace(UdcTrace.Level,"UdcThreadOperationPool.grow", " - Cannot grow thread, thIndex[" + index + "]");
+		}
+		return null;
+	}
+
+	/**
+	 * 開始したスレッド管理の起動完了を待ち合わせる。
+	 * 起動完了待ち時間の上限(StartWaitTime)を過ぎても起動完了しない場合は待ち合わせを終了します。
+	 *
+	 * @return	起動完了したか否か(タイムアウト時は偽)
+	 * @param	th	開始したスレッド管理インスタンス
+	 * @since	UDC1.3
+	 */
+	protected boolean waitStartComplete(UdcThreadOperationBase th)
+	{
+		long wakeup = System.nanoTime() + StartWaitTime * 1000000L;
+		UdcMutex mute = new UdcMutex();
+		while (! th.isStartComplete()) {
+			if (wakeup - System.nanoTime() <= 0) {
+				return false;
+			}
+			try { mute.sleep(20); } catch(InterruptedException exp) {}
+		}
+		return true;
+	}
+
+	/**
+	 * 未使用スレッドの削除(trim)を作業スレッドに依頼する。
+	 * タイマスレッドでスレッドの停止を行わないため、保持時間毎のタイムアウト通知から呼び出されます。
+	 * 依頼済みの削除が未実行の場合は、新たに依頼しません。
+	 *
+	 * @see		UdcWorkerExecutor#getShared()
+	 * @since	UDC1.3
+	 */
+	void requestTrim()
+	{
+		if (! trimRequested.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			UdcWorkerExecutor.getShared().execute(new Runnable() {
+				public void run() {
+					trimRequested.set(false);
+					trim();
+				}
+			});
+		} catch (RuntimeException exp) {
+			trimRequested.set(false);
+			UdcTrace.trace(UdcTrace.Level,"UdcThreadOperationPool.requestTrim", " - exception - " + exp);
+		}
+	}
+
+	/**
+	 * 最小数を超える未使用状態のスレッド管理のうち、保持時間を経過したものを停止・削除する。
+	 * 本メンバ関数は、スレッド数が最小数と最大数で異なる場合、保持時間毎にタイマ管理の通知を
+	 * 受けた作業スレッド(UdcWorkerExecutor)から呼び出されます。
+	 *
+	 * @return	削除したスレッド数
+	 * @since	UDC1.3
+	 */
+	public int trim()
+	{
+		ArrayList removed = new ArrayList();
+		long now = System.nanoTime();
+		synchronized (emptyList) {
+			int size = emptyList.size() + usedList.size() + usedToEmptyList.size();
+			while (size > threadNum && emptyList.size() > 0) {
+				UdcThreadOperationBase th = (UdcThreadOperationBase)emptyList.getFirst();
+				if ((now - th.idleSince) / 1000000L < keepAliveTime) {
+					break;
+				}
+				emptyList.removeFirst();
+				removed.add(th);
+				size --;
+			}
+			trimCount += removed.size();
+		}
+		for (int i=0; i<removed.size(); i++) {
+			UdcThreadOperationBase th = (UdcThreadOperationBase)removed.get(i);
+			th.stopOperation();
+			UdcTrace.trace(UdcTrace.Level,"UdcThreadOperationPool.trim", " - thIndex[" + th.getThreadIndex() + "]");
+		}
+		return removed.size();
+	}
+
 	/**
 	 * 空スレッド管理が存在しないため、waittime時間の間にスレッド管理が
 	 * 空くのを待ってスレッド管理を確保する。waittime時間待っても空スレッド
@@ -373,6 +825,7 @@ public class UdcThreadOperationPool implements UdcThreadMsgId
 	{
 		int index = -1;
 		UdcAllocateWait waitElem = new UdcAllocateWait();
+		waitElem.channel.setTimeoutRecycle(true);
 		try {
 			index = timerManager.registrateTimer(UdcThreadMsgDtrEventTimeout.Timeout, waittime, waitElem.channel);
 		} catch (InterruptedException exp) {
@@ -455,6 +908,7 @@ public class UdcThreadOperationPool implements UdcThreadMsgId
 	{
 		synchronized (emptyList) {
 			thread.setStatus(UdcThreadOperationBase.Status_Empty);
+			thread.idleSince = System.nanoTime();
 			usedToEmptyList.remove(thread);
 			emptyList.add(thread);
 				/* allocate待ちが存在すれば起床 */
@@ -487,6 +941,7 @@ public class UdcThreadOperationPool implements UdcThreadMsgId
 	{
 		synchronized (emptyList) {
 			newthread.setStatus(UdcThreadOperationBase.Status_Empty);
+			newthread.idleSince = System.nanoTime();
 			if (oldthread != null) {
 				usedToEmptyList.remove(oldthread);
 			}
@@ -641,21 +1096,26 @@ class UdcAllocateWait implements Comparable
 			return -1;
 		}
 		if (dtr.get_dtrType() == UdcThreadMsgId.Event_Timeout) {
+			((UdcThreadMsgDtrEventTimeout)dtr.get_data()).release();
+			dtr.release();
 			status = UdcAllocateWait.Disable;
 			return 0;
 		}
+		dtr.release();
 		status = UdcAllocateWait.Enable;
 		return 1;
 	}
 
 	/**
 	 * スレッド管理確保待ち状態のものに確保可能通知を送信する。
+	 * 通知と同時にスレッド空き検出状態とし、後続の解放では別の確保待ちに通知します。
 	 *
 	 * @since	UDC1.0
 	 */
 	public void wakeupToAllocate()
 	{
-		UdcThreadChannelDtr dtr = new UdcThreadChannelDtr(0,0xFFFFFFFF);
+		status = UdcAllocateWait.Enable;
+		UdcThreadChannelDtr dtr = UdcThreadChannelDtr.obtain(0,0xFFFFFFFF);
 		try {
 			channel.push(dtr);
 		} catch (InterruptedException exp) {
@@ -685,3 +1145,66 @@ class UdcAllocateWait implements Comparable
 
 }
 
+/**
+ * 未使用スレッド削除の周期タイマの通知先チャネル。
+ * タイムアウト通知を受信メッセージとして保持せず、タイマ処理スレッド上で
+ * UdcThreadOperationPool.requestTrimを呼び出し、未使用スレッドの削除(trim)を
+ * 作業スレッド(UdcWorkerExecutor)に依頼します。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcThreadOperationPool#requestTrim()
+ * @see		UdcThreadOperationPool#trim()
+ * @since	UDC1.3
+ */
+class UdcPoolTrimChannel extends UdcThreadChannel
+{
+	/**
+	 * 未使用スレッドを削除するスレッドプール
+	 * @since	UDC1.3
+	 */
+	private UdcThreadOperationPool	pool;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	p	未使用スレッドを削除するスレッドプール
+	 * @since	UDC1.3
+	 */
+	UdcPoolTrimChannel(UdcThreadOperationPool p)
+	{
+		pool = p;
+		setTimeoutRecycle(true);
+	}
+
+	/**
+	 * タイムアウト通知を受信し、未使用スレッドの削除を作業スレッドに依頼する。
+	 *
+	 * @param 	data	タイムアウト通知
+	 * @since	UDC1.3
+	 */
+	public void push(UdcThreadChannelDtr data)
+		throws InterruptedException
+	{
+		if (data.get_dtrType() == UdcThreadMsgId.Event_Timeout && data.get_data() instanceof UdcThreadMsgDtrEventTimeout) {
+			((UdcThreadMsgDtrEventTimeout)data.get_data()).release();
+		}
+		data.release();
+		pool.requestTrim();
+	}
+
+	/**
+	 * 一括送信されたタイムアウト通知を受信する。
+	 *
+	 * @param 	datas	タイムアウト通知(UdcThreadChannelDtr)のリスト
+	 * @since	UDC1.3
+	 */
+	protected void pushBatch(List datas)
+		throws InterruptedException
+	{
+		for (int i=0; i<datas.size(); i++) {
+			push((UdcThreadChannelDtr)datas.get(i));
+		}
+	}
+}
+
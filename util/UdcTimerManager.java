@@ -14,7 +14,10 @@ import java.util.*;
 /**
  * タイマ管理クラス。本クラスではスレッドを１つ有し、登録されたタイマが
  * タイムアウトした場合、指定のチャネルにタイマイベントを通知する。
- * JAVA標準機能にもタイマー機能はあるが、本機能はスレッドチャネルイベントによって共通に処理することを目的として実装している。
+ * JAVA標準機能にもタイマー機能はあるが、本機能はスレッドチャネルイベントによって共通に処理することを目的として実装している。<br>
+ * 登録されたタイマは、System.nanoTimeを基準とした階層型タイミングホイールで管理されるため、
+ * タイマの登録・解除は登録数に依存せず一定時間で行われ、タイマスレッドの起床時に
+ * 全てのタイマの残時間を更新することもありません。
  *
  * @author	Takayuki Uchida
  * @version	1.0, 18 Jan 2003
@@ -31,10 +34,10 @@ public class UdcTimerManager implements UdcThreadMsgId , Runnable
 	static protected long BaseWaitTime = 1000;
 
 	/**
-	 * OSシステムコマンドによる時刻変更時の誤差(単位：ミリ秒)
-	 * @since	UDC1.0
+	 * タイミングホイールの１目盛りの時間(単位：ミリ秒)
+	 * @since	UDC1.3
 	 */
-	static protected long DifferenceForUpdateDate = 2000;
+	static protected long TickTime = 10;
 
 	/**
 	 * タイマ登録内部スレッド間メッセージ種別
@@ -43,7 +46,8 @@ public class UdcTimerManager implements UdcThreadMsgId , Runnable
 	static protected int  Request_RegTimer	= 1;
 
 	/**
-	 * タイマ生成ベース周期(単位：ミリ秒)
+	 * タイマ生成ベース周期(単位：ミリ秒)。
+	 * 定時刻タイマは、本周期毎に時刻を確認し直します。
 	 * @since	UDC1.0
 	 */
 	long 				baseWaitTime = UdcTimerManager.BaseWaitTime;
@@ -68,7 +72,7 @@ public class UdcTimerManager implements UdcThreadMsgId , Runnable
 
 	/**
 	 * タイムアウト待ちリスト。
-	 * 本リストは、タイムアウト時間が早いもの順に先頭からリスト管理されます。
+	 * 本リストは、タイムアウト時刻をタイミングホイールで管理します。
 	 * @since	UDC1.0
 	 */
 	UdcTimerManagedList waitList = new UdcTimerManagedList();
@@ -156,7 +160,9 @@ public class UdcTimerManager implements UdcThreadMsgId , Runnable
 
 		waitList.lock();
 		UdcTimerManagedElem elm = waitList.addTimerElem(type, milisec, channel);
-		timerIndex = elm.getTimerIndex();
+		if (elm != null) {
+			timerIndex = elm.getTimerIndex();
+		}
 		waitList.unlock();
 
 		return timerIndex;
@@ -178,7 +184,9 @@ public class UdcTimerManager implements UdcThreadMsgId , Runnable
 
 		waitList.lock();
 		UdcTimerManagedElem elm = waitList.addTimerElem(fixedTime, channel);
-		timerIndex = elm.getTimerIndex();
+		if (elm != null) {
+			timerIndex = elm.getTimerIndex();
+		}
 		waitList.unlock();
 
 		return timerIndex;
@@ -200,121 +208,82 @@ public class UdcTimerManager implements UdcThreadMsgId , Runnable
 	}
 
 	/**
-	 * タイマ周期スレッドで就寝していた時間を算出します。
-	 * 以下の場合、システムコマンド等によって時刻変更されたと見なします。この場合
-	 * 就寝時間は無条件に waittime 値となります。
-	 *	・(就寝後時刻ー就寝前時刻) < 0
-	 *	・(就寝後時刻ー就寝前時刻) > (就寝予定時刻+OSシステムコマンドによる時刻変更時の誤差)
+	 * 登録中のタイマ数を取得する。
 	 *
-	 * @return	タイマ周期スレッドで就寝していた時間(単位：ミリ秒)
-	 * @param	waittime	就寝予定時間(単位：ミリ秒)
-	 * @param	beforetime	就寝前時刻
-	 * @param	aftertime	起床後時刻
-	 * @param	dtr			タイマ周期スレッド要求メッセージ(要求がない場合はnull)
-	 * @since	UDC1.0
+	 * @return	登録中のタイマ数
+	 * @since	UDC1.3
 	 */
-	protected long getPassedTime(long waittime, long beforetime, long aftertime, UdcThreadChannelDtr dtr)
+	public int size()
+		throws InterruptedException
 	{
-		/*
-		 * 時刻変更の可能性はあるが、これを考慮し、就寝ベース時間機能を導入しているため
-		 * 新たな登録要求によって起動されていない場合は原則として waittime を就寝時間とする。
-		 */
-
-		long sleeptime = aftertime - beforetime;
-			/* 時刻変更され、就寝時間が不明となっていることを考慮し、無条件に指定時間を就寝時間とする */
-		if (sleeptime < 0) {
-			sleeptime = waittime;
-		}
-
-			/* 新たな要求があった場合 */
-				/* 規定の就寝時間を就寝していないため、最大でも就寝時間分しか就寝していないはず。 */
-		if (dtr != null) {
-			if (sleeptime > waittime) {
-				sleeptime = waittime;
-			}
-			return sleeptime;
-		}
-
-			/* 新たな要求がない場合 */
-				/*
-				 * 処理遅延で遅れることは十分あるが、時刻変更も考慮する必要があるため
-				 * 大きく時間差がある場合のみ時刻変更として扱う
-				 *		大きな時間差 = DifferenceForUpdateDateミリ秒
-				 * とする。
-				 */
-		if (sleeptime > (waittime + UdcTimerManager.DifferenceForUpdateDate) ) {
-			sleeptime = waittime;
-		}
-		return sleeptime;
+		waitList.lock();
+		int cnt = waitList.size();
+		waitList.unlock();
+		return cnt;
 	}
 
 	/**
-	 * タイムアウト待ちリスト要素
+	 * タイムアウト待ちリスト中でタイムアウトした要素について通知を行う。
+	 * タイムアウトした要素の取り出し(タイマ種別がタイムインターバルの場合は再登録)は
+	 * タイムアウト待ちリストの排他中に行い、通知は排他を解除してから行います。
+	 * 通知は通知先チャネル毎にまとめ、一括して送信します。通知先チャネルがタイムアウト通知の
+	 * 一括受信を設定している場合、複数のタイムアウトはEvent_TimeoutBatchのメッセージ１つで
+	 * 通知します。
 	 *
-	 * @param 	passed	就寝時間
 	 * @since	UDC1.0
 	 */
-	protected void updateWaitList(long passed, long currentTime)
+	protected void operateWaitList()
 	{
-		UdcTimerManagedElem elm;
-		boolean sortFlag = false;
-		long svtime = -1000000000;
-		for (int i=0; i<waitList.size(); i++) {
-			elm = (UdcTimerManagedElem)waitList.get(i);
-				/* タイマ要求された直後の要素はタイマ処理の対象外 */
-			if (elm.init == true) {
-				elm.init = false;
-				continue;
-			}
-				/* 経過時間を更新 */
-			if (elm.getTimerType() == UdcThreadMsgDtrEventTimeout.FixedTime) {
-				long ft = elm.elem.fixedTime.getTime();
-				elm.remainTime = ft - currentTime;
-			} else {
-				elm.remainTime -= passed;
-			}
-			if (svtime > elm.remainTime) {
-				sortFlag = true;
-			}
-			svtime = elm.remainTime;
+		ArrayList expired = new ArrayList();
+		try {
+			waitList.lock();
+			waitList.expire(waitList.currentTick(), expired);
+			waitList.unlock();
+		} catch (InterruptedException exp) {
+			return;
 		}
-			// 起床順に最整列
-		if (sortFlag) {
-			waitList.sortRemainTime();
+		if (expired.size() <= 0) {
+			return;
 		}
-	}
 
-	/**
-	 * タイムアウト待ちリスト中でタイムアウトした要素について通知を行う。
-	 * また、タイムアウト通知を行った要素中でタイマ種別がタイムインターバルの場合、
-	 * 再度タイムアウト待ちリストに登録し直す。
-	 *
-	 * @since	UDC1.0
-	 */
-	protected void operateWaitList()
-	{
-		/* タイムアウトしている要素を検索し、タイムアウトしていればタイムアウトイベントを通知 */
+		/* タイムアウトした要素のタイムアウトイベントを通知先チャネル毎にまとめる */
+		LinkedHashMap events = new LinkedHashMap();
 		UdcTimerManagedElem elm;
-		for (int i=0; i<waitList.size(); i++) {
-			elm = waitList.get(i);
-			/* タイムアウトしている要素のタイムアウトイベント通知 */
-			if (elm.remainTime <= 0) {
-				if (elm.getTimerType() == UdcThreadMsgDtrEventTimeout.TimeInterval) {
-					elm.remainTime = elm.elem.get_waitTime();
+		ArrayList list;
+		for (int i=0; i<expired.size(); i++) {
+			elm = (UdcTimerManagedElem)expired.get(i);
+			if ((list=(ArrayList)events.get(elm.eventChannel)) == null) {
+				list = new ArrayList();
+				events.put(elm.eventChannel, list);
+			}
+			try {
+				if (elm.eventChannel.isTimeoutRecycle()) {
+					list.add( UdcThreadMsgDtrEventTimeout.obtain(elm.elem) );
 				} else {
-					waitList.removeTimerElem(elm.getTimerIndex());
-					i --;
+					list.add( elm.elem.clone() );
 				}
-				Object obj = null;
-				try {
-					obj = elm.elem.clone();
-					elm.eventChannel.push( new UdcThreadChannelDtr(0,Event_Timeout, obj) );
-				} catch (CloneNotSupportedException exp_c) {
-				} catch (InterruptedException exp_i) {
+			} catch (CloneNotSupportedException exp_c) {
+			}
+		}
+
+		/* タイムアウトイベント通知 */
+		Iterator it = events.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry ent = (Map.Entry)it.next();
+			UdcThreadChannel ch = (UdcThreadChannel)ent.getKey();
+			list = (ArrayList)ent.getValue();
+			boolean recycle = ch.isTimeoutRecycle();
+			try {
+				if (list.size() > 1 && ch.isTimeoutCoalesce()) {
+					UdcThreadMsgDtrEventTimeoutBatch batch = new UdcThreadMsgDtrEventTimeoutBatch(list);
+					ch.push( recycle ? UdcThreadChannelDtr.obtain(0,Event_TimeoutBatch,batch) : new UdcThreadChannelDtr(0,Event_TimeoutBatch,batch) );
+					continue;
 				}
-			} else {
-				/* waitListはタイムアウト順に整列しているため、以降の要素は全てタイムアウト対象外 */
-				break;
+				for (int i=0; i<list.size(); i++) {
+					list.set(i, recycle ? UdcThreadChannelDtr.obtain(0,Event_Timeout,list.get(i)) : new UdcThreadChannelDtr(0,Event_Timeout,list.get(i)));
+				}
+				ch.pushAll(list);
+			} catch (InterruptedException exp_i) {
 			}
 		}
 	}
@@ -330,55 +299,31 @@ public class UdcTimerManager implements UdcThreadMsgId , Runnable
 		isStartComplete = true;
 
 		try {
-			long beforetime;
-			long aftertime;
-			long sleeptime;
 			long waittime;
-			UdcThreadChannelDtr dtr;
+			UdcThreadChannelDtr req;
 
 			while ( threadLoop ) {
 				/* タイマ前処理 */
 				waittime = -1;
 				try {
 					waitList.lock();
-					/* 就寝時間の決定 */
-					UdcTimerManagedElem elm = (UdcTimerManagedElem)waitList.get(0);
-					if (elm != null) {
-						waittime = elm.remainTime;
-							/* 時刻変更監視を行うため、定期的に起床させるため固定値で初期化 */
-						if (waittime > baseWaitTime) {
-							waittime = baseWaitTime;
-						}
-							/* システムクロックが10msec程度であるため、処理上この分を減算しておく */
-						if (waittime > 10) {
-							waittime -= 10;
-						}
-					}
+					/* 就寝時間の決定(次に処理が必要となる目盛りまで) */
+					waittime = waitList.getWaitTime();
 					waitList.unlock();
 				} catch (InterruptedException exp) {}
 
-					/* 就寝 */
-				Date date = new Date();
-				beforetime = date.getTime();
-				dtr = null;
+					/* 就寝(新たな登録によって起床時刻が早まった場合は起床される) */
+				req = null;
 				try {
-					if (waittime < 0) { dtr = mychannel.pull(); }
-					else 			  { dtr = mychannel.pull(waittime); }
+					if (waittime < 0) { req = mychannel.pull(); }
+					else if (waittime > 0) { req = mychannel.pull(waittime); }
 				} catch (InterruptedException exp) {}
-				date = new Date();
-				aftertime = date.getTime();
+				if (req != null) {
+					req.release();
+				}
 
-					/* タイマ処理 */
-				try {
-					waitList.lock();
-						/* 就寝していた時間の決定 */
-					sleeptime = getPassedTime(waittime,beforetime,aftertime,dtr);
-						/* タイマ要素全ての残起床時間の更新 */
-					updateWaitList( sleeptime , aftertime );
-						/* タイムアウトしている要素を検索し、タイムアウトしていればタイムアウトイベントを通知 */
-					operateWaitList();
-					waitList.unlock();
-				} catch (InterruptedException exp) {}
+					/* タイムアウトしている要素を検索し、タイムアウトしていればタイムアウトイベントを通知 */
+				operateWaitList();
 			}
 		} catch(ThreadDeath death) {
 			isStartComplete = false;
@@ -400,7 +345,7 @@ public class UdcTimerManager implements UdcThreadMsgId , Runnable
  * @since	UDC1.0
  *
  */
-class UdcTimerManagedElem implements Comparable
+class UdcTimerManagedElem
 {
 	/**
 	 * タイマ登録要求情報
@@ -409,22 +354,46 @@ class UdcTimerManagedElem implements Comparable
 	protected UdcThreadMsgDtrEventTimeout	elem = null;
 
 	/**
-	 * タイマ処理登録中フラグ
+	 * タイムアウト通知先チャネル
 	 * @since	UDC1.0
 	 */
-	protected boolean						init = true;
+	protected UdcThreadChannel				eventChannel = null;
 
 	/**
-	 * タイムアウトまでの残就寝時間(単位：ミリ秒)
-	 * @since	UDC1.0
+	 * 起床時刻(System.nanoTime基準、単位：ナノ秒)
+	 * @since	UDC1.3
 	 */
-	protected long							remainTime = 0;
+	long									deadline = 0;
 
 	/**
-	 * タイムアウト通知先チャネル
-	 * @since	UDC1.0
+	 * 起床時刻のタイミングホイール目盛り
+	 * @since	UDC1.3
 	 */
-	protected UdcThreadChannel				eventChannel = null;
+	long									expireTick = 0;
+
+	/**
+	 * 登録先のタイミングホイール階層(未登録時は負値)
+	 * @since	UDC1.3
+	 */
+	int										level = -1;
+
+	/**
+	 * 登録先のタイミングホイールスロット
+	 * @since	UDC1.3
+	 */
+	int										slot = 0;
+
+	/**
+	 * 同一スロットの前要素
+	 * @since	UDC1.3
+	 */
+	UdcTimerManagedElem						prev = null;
+
+	/**
+	 * 同一スロットの次要素
+	 * @since	UDC1.3
+	 */
+	UdcTimerManagedElem						next = null;
 
 	/**
 	 * コンストラクタ
@@ -437,12 +406,6 @@ class UdcTimerManagedElem implements Comparable
 	{
 		elem = request;
 		eventChannel = channel;
-		if (elem.timerType == UdcThreadMsgDtrEventTimeout.FixedTime) {
-			Date cur = new Date();
-			remainTime = elem.fixedTime.getTime() - cur.getTime();
-		} else {
-			remainTime = elem.get_waitTime();
-		}
 	}
 
 	/**
@@ -475,43 +438,94 @@ class UdcTimerManagedElem implements Comparable
 	 */
 	public long getRemainTime()
 	{
-		return remainTime;
-	}
-
-	/**
-	 * Comparable.compareToの実装。
-	 *
-	 * @return	このオブジェクトが指定されたオブジェクトより小さい場合は負の整数、等しい場合はゼロ、大きい場合は正の整数
-	 * @param	obj	比較対象オブジェクト
-	 * @since	UDC1.0
-	 */
-	public int compareTo(Object obj)
-	{
-		UdcTimerManagedElem elm = (UdcTimerManagedElem)obj;
-		if (getRemainTime() > elm.getRemainTime()) {
-			return 1;
-		} else if (getRemainTime() < elm.getRemainTime()) {
-			return -1;
+		if (elem.get_timerType() == UdcThreadMsgDtrEventTimeout.FixedTime) {
+			return elem.get_fixedTime().getTime() - System.currentTimeMillis();
 		}
-		return 0;
+		return (deadline - System.nanoTime()) / 1000000L;
 	}
 }
 
 /**
- * タイマ管理クラスで管理されるタイムアウトイベント待ち要素管理リスト
+ * タイマ管理クラスで管理されるタイムアウトイベント待ち要素管理リスト。<br>
+ * タイムアウト待ち要素は、256スロット×4階層の階層型タイミングホイールで管理されます。
+ * 最下位階層は１目盛り毎のスロットを持ち、上位階層のスロットは最下位階層が一周する毎に
+ * 下位階層へ再配置されます。また、タイマ識別子からタイムアウト待ち要素への索引を持つため、
+ * タイマの登録・解除は登録数に依存せず一定時間で行われます。<br>
+ * 本クラスのメンバは、排他(lock)中に呼び出す必要があります。
  *
  * @author	Takayuki Uchida
  * @version	1.0, 18 Jan 2003
  * @since	UDC1.0
  *
  */
-class UdcTimerManagedList extends UdcMutex
+class UdcTimerManagedList extends UdcConditionMutex
 {
 	/**
-	 * イベント待ちリスト
-	 * @since	UDC1.0
+	 * タイミングホイール１階層あたりのスロット数のビット数
+	 * @since	UDC1.3
+	 */
+	static final int	WheelBits = 8;
+
+	/**
+	 * タイミングホイール１階層あたりのスロット数
+	 * @since	UDC1.3
+	 */
+	static final int	WheelSize = 1 << WheelBits;
+
+	/**
+	 * タイミングホイールのスロット算出マスク
+	 * @since	UDC1.3
+	 */
+	static final int	WheelMask = WheelSize - 1;
+
+	/**
+	 * タイミングホイールの階層数
+	 * @since	UDC1.3
+	 */
+	static final int	WheelLevels = 4;
+
+	/**
+	 * 最上位階層に配置可能な最大目盛り数。
+	 * これを超える要素は一旦最大目盛りの位置に配置し、再配置時に改めて配置されます。
+	 * @since	UDC1.3
+	 */
+	static final long	MaxTicks = (1L << (WheelBits * WheelLevels)) - (1L << (WheelBits * (WheelLevels - 1)));
+
+	/**
+	 * タイミングホイール(階層×スロット毎のタイムアウト待ち要素リストの先頭)
+	 * @since	UDC1.3
+	 */
+	UdcTimerManagedElem[][]	wheel = new UdcTimerManagedElem[WheelLevels][WheelSize];
+
+	/**
+	 * タイマ識別子 → タイムアウト待ち要素の索引
+	 * @since	UDC1.3
+	 */
+	HashMap 				timerMap = new HashMap();
+
+	/**
+	 * 目盛りの基準時刻(System.nanoTime)
+	 * @since	UDC1.3
+	 */
+	long					origin = System.nanoTime();
+
+	/**
+	 * １目盛りの時間(単位：ナノ秒)
+	 * @since	UDC1.3
+	 */
+	long					tickNanos = UdcTimerManager.TickTime * 1000000L;
+
+	/**
+	 * 次に処理する目盛り
+	 * @since	UDC1.3
 	 */
-	LinkedList timerList;
+	long					nextTick = 0;
+
+	/**
+	 * タイマスレッドの起床予定目盛り(就寝期限がない場合はLong.MAX_VALUE)
+	 * @since	UDC1.3
+	 */
+	long					wakeupTick = Long.MAX_VALUE;
 
 	/**
 	 * タイマ管理クラス
@@ -525,7 +539,6 @@ class UdcTimerManagedList extends UdcMutex
 	 */
 	public UdcTimerManagedList()
 	{
-		timerList = new LinkedList();
 	}
 
 	/**
@@ -545,21 +558,28 @@ class UdcTimerManagedList extends UdcMutex
 	 */
 	public int size()
 	{
-		return timerList.size();
+		return timerMap.size();
 	}
 
 	/**
-	 * タイマ登録要素数を取得する。
-	 * @return	タイマ登録要素
-	 * @param	index	項目の位置
-	 * @since	UDC1.0
+	 * タイマ登録要素を取得する。
+	 * @return	タイマ登録要素(登録されていない場合はnull)
+	 * @param	index	タイマ識別子
+	 * @since	UDC1.3
 	 */
-	public UdcTimerManagedElem get(int index)
+	public UdcTimerManagedElem search(int index)
 	{
-		if (timerList.size() <= index) {
-			return null;
-		}
-		return (UdcTimerManagedElem)timerList.get(index);
+		return (UdcTimerManagedElem)timerMap.get(Integer.valueOf(index));
+	}
+
+	/**
+	 * 現在時刻の目盛りを取得する。
+	 * @return	現在時刻の目盛り
+	 * @since	UDC1.3
+	 */
+	long currentTick()
+	{
+		return (System.nanoTime() - origin) / tickNanos;
 	}
 
 	/**
@@ -595,7 +615,8 @@ class UdcTimerManagedList extends UdcMutex
 
 	/**
 	 * タイマ登録を行う。
-	 * タイマ登録を行うと同時に、タイマ処理スレッドに対して新規登録があったことを通知する。
+	 * タイマ登録を行うと同時に、タイマ処理スレッドの起床予定より早く起床する必要がある
+	 * 場合は、タイマ処理スレッドに対して新規登録があったことを通知する。
 	 *
 	 * @return	登録したタイマ登録情報
 	 * @param	addelm	登録するタイマ情報
@@ -607,11 +628,27 @@ class UdcTimerManagedList extends UdcMutex
 			addelm = null;
 			return null;
 		}
-		timerList.add(addelm);
-		try {
-			timerManager.mychannel.push( new UdcThreadChannelDtr(0,UdcTimerManager.Request_RegTimer) );
-		} catch (InterruptedException exp) {
-			return null;
+			/* 登録要素がない間は目盛りを処理していないため、現在時刻まで進める */
+		if (timerMap.isEmpty()) {
+			nextTick = currentTick();
+		}
+		long now = System.nanoTime();
+		if (addelm.getTimerType() == UdcThreadMsgDtrEventTimeout.FixedTime) {
+			setFixedDeadline(addelm, now);
+		} else {
+			addelm.deadline = now + addelm.elem.get_waitTime() * 1000000L;
+		}
+		timerMap.put(Integer.valueOf(addelm.getTimerIndex()), addelm);
+		schedule(addelm);
+
+		if (addelm.expireTick < wakeupTick) {
+			wakeupTick = addelm.expireTick;
+			try {
+				timerManager.mychannel.push( UdcThreadChannelDtr.obtain(0,UdcTimerManager.Request_RegTimer) );
+			} catch (InterruptedException exp) {
+				removeTimerElem(addelm.getTimerIndex());
+				return null;
+			}
 		}
 		return addelm;
 	}
@@ -624,26 +661,231 @@ class UdcTimerManagedList extends UdcMutex
 	 * @since	UDC1.0
 	 */
 	public UdcTimerManagedElem removeTimerElem(int index)
+	{
+		UdcTimerManagedElem elm = (UdcTimerManagedElem)timerMap.remove(Integer.valueOf(index));
+		if (elm != null) {
+			unlink(elm);
+		}
+		return elm;
+	}
+
+	/**
+	 * タイマ処理スレッドの就寝時間を決定する。
+	 * 就寝時間は、次にタイムアウト要素が存在する目盛り、または上位階層の再配置が必要な
+	 * 目盛りまでの時間となります。
+	 *
+	 * @return	就寝時間(単位：ミリ秒、就寝期限がない場合は負値)
+	 * @since	UDC1.3
+	 */
+	long getWaitTime()
+	{
+		if (timerMap.isEmpty()) {
+			wakeupTick = Long.MAX_VALUE;
+			return -1;
+		}
+		long tick = nextTick;
+		for (int i=0; i<WheelSize; i++, tick++) {
+			if (wheel[0][(int)(tick & WheelMask)] != null || (tick & WheelMask) == 0) {
+				break;
+			}
+		}
+		wakeupTick = tick;
+
+		long remain = origin + tick * tickNanos - System.nanoTime();
+		if (remain <= 0) {
+			return 0;
+		}
+		return (remain + 999999L) / 1000000L;
+	}
+
+	/**
+	 * 指定された目盛りまでを処理し、タイムアウトした要素を取り出す。
+	 * タイマ種別がタイムインターバルの要素は再登録し、定時刻の要素は起床日時を
+	 * 確認し直して、起床日時に達していない場合は再登録します。
+	 *
+	 * @param	curTick	処理する目盛り
+	 * @param	expired	タイムアウトした要素の格納先
+	 * @since	UDC1.3
+	 */
+	void expire(long curTick, List expired)
 	{
 		UdcTimerManagedElem elm;
-		for (int i=0; i<timerList.size(); i++) {
-			elm = (UdcTimerManagedElem)timerList.get(i);
-			if (elm.getTimerIndex() == index) {
-				timerList.remove(elm);
-				return elm;
+		UdcTimerManagedElem nxt;
+		while (nextTick <= curTick) {
+			int index = (int)(nextTick & WheelMask);
+				/* 最下位階層が一周したら上位階層の要素を再配置 */
+			if (index == 0) {
+				for (int lv=1; lv<WheelLevels; lv++) {
+					if (cascade(lv, (int)((nextTick >> (WheelBits * lv)) & WheelMask)) != 0) {
+						break;
+					}
+				}
+			}
+			elm = wheel[0][index];
+			wheel[0][index] = null;
+			nextTick ++;
+			for (; elm != null; elm = nxt) {
+				nxt = elm.next;
+				elm.prev = elm.next = null;
+				elm.level = -1;
+				expireElem(elm, expired);
 			}
 		}
-		return null;
 	}
 
 	/**
-	 * 起床待ち要素を起床時間順に整列する。
+	 * 起床時刻に達した要素を処理する。
 	 *
-	 * @since	UDC1.0
+	 * @param	elm		起床時刻に達した要素
+	 * @param	expired	タイムアウトした要素の格納先
+	 * @since	UDC1.3
+	 */
+	void expireElem(UdcTimerManagedElem elm, List expired)
+	{
+		long now = System.nanoTime();
+		long late = now - elm.deadline;
+		int type = elm.getTimerType();
+		if (type == UdcThreadMsgDtrEventTimeout.FixedTime) {
+				/* 時刻変更を考慮し、起床日時に達していなければ再登録 */
+			if (elm.elem.get_fixedTime().getTime() > System.currentTimeMillis()) {
+				setFixedDeadline(elm, now);
+				schedule(elm);
+				return;
+			}
+			timerMap.remove(Integer.valueOf(elm.getTimerIndex()));
+		} else if (type == UdcThreadMsgDtrEventTimeout.TimeInterval) {
+			long interval = elm.elem.get_waitTime() * 1000000L;
+			elm.deadline += interval;
+			if (elm.deadline < now) {
+				elm.deadline = now + interval;
+			}
+			schedule(elm);
+		} else {
+			timerMap.remove(Integer.valueOf(elm.getTimerIndex()));
+		}
+		UdcFlightRecorder.timerExpire(elm.getTimerIndex(), type, late, elm.eventChannel);
+		expired.add(elm);
+	}
+
+	/**
+	 * 定時刻要素の起床時刻を設定する。
+	 * 時刻変更を監視するため、起床時刻はタイマ生成ベース周期以内に制限されます。
+	 *
+	 * @param	elm	定時刻要素
+	 * @param	now	現在時刻(System.nanoTime)
+	 * @since	UDC1.3
 	 */
-	void sortRemainTime()
+	void setFixedDeadline(UdcTimerManagedElem elm, long now)
 	{
-		Collections.sort(timerList);
+		long rest = elm.elem.get_fixedTime().getTime() - System.currentTimeMillis();
+		if (rest > timerManager.baseWaitTime) {
+			rest = timerManager.baseWaitTime;
+		}
+		if (rest < 0) {
+			rest = 0;
+		}
+		elm.deadline = now + rest * 1000000L;
+	}
+
+	/**
+	 * 要素を起床時刻の目盛りに対応するスロットに登録する。
+	 *
+	 * @param	elm	登録する要素
+	 * @since	UDC1.3
+	 */
+	void schedule(UdcTimerManagedElem elm)
+	{
+			/* 起床時刻より早く起床しないよう目盛りは切り上げる */
+		elm.expireTick = (elm.deadline - origin + tickNanos - 1) / tickNanos;
+		place(elm);
+	}
+
+	/**
+	 * 要素を目盛りと次に処理する目盛りとの差に応じた階層のスロットに配置する。
+	 *
+	 * @param	elm	配置する要素
+	 * @since	UDC1.3
+	 */
+	void place(UdcTimerManagedElem elm)
+	{
+		long expires = elm.expireTick;
+		long idx = expires - nextTick;
+		int lv = 0;
+		if (idx < 0) {
+			expires = nextTick;
+		} else if (idx >= MaxTicks) {
+			lv = WheelLevels - 1;
+			expires = nextTick + MaxTicks;
+		} else {
+			while (lv < WheelLevels - 1 && idx >= (1L << (WheelBits * (lv + 1)))) {
+				lv ++;
+			}
+		}
+		link(elm, lv, (int)((expires >> (WheelBits * lv)) & WheelMask));
 	}
-}
 
+	/**
+	 * 上位階層のスロットの要素を下位階層に再配置する。
+	 *
+	 * @return	再配置したスロット
+	 * @param	lv		階層
+	 * @param	slot	スロット
+	 * @since	UDC1.3
+	 */
+	int cascade(int lv, int slot)
+	{
+		UdcTimerManagedElem elm = wheel[lv][slot];
+		UdcTimerManagedElem nxt;
+		wheel[lv][slot] = null;
+		for (; elm != null; elm = nxt) {
+			nxt = elm.next;
+			elm.prev = elm.next = null;
+			elm.level = -1;
+			place(elm);
+		}
+		return slot;
+	}
+
+	/**
+	 * 要素をスロットのリストに追加する。
+	 *
+	 * @param	elm		追加する要素
+	 * @param	lv		階層
+	 * @param	slot	スロット
+	 * @since	UDC1.3
+	 */
+	void link(UdcTimerManagedElem elm, int lv, int slot)
+	{
+		elm.level = lv;
+		elm.slot = slot;
+		elm.prev = null;
+		elm.next = wheel[lv][slot];
+		if (elm.next != null) {
+			elm.next.prev = elm;
+		}
+		wheel[lv][slot] = elm;
+	}
+
+	/**
+	 * 要素をスロットのリストから削除する。
+	 *
+	 * @param	elm		削除する要素
+	 * @since	UDC1.3
+	 */
+	void unlink(UdcTimerManagedElem elm)
+	{
+		if (elm.level < 0) {
+			return;
+		}
+		if (elm.prev != null) {
+			elm.prev.next = elm.next;
+		} else {
+			wheel[elm.level][elm.slot] = elm.next;
+		}
+		if (elm.next != null) {
+			elm.next.prev = elm.prev;
+		}
+		elm.prev = elm.next = null;
+		elm.level = -1;
+	}
+}
@@ -7,7 +7,12 @@
 package udc.util;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.text.SimpleDateFormat;
 
 /**
@@ -18,6 +23,18 @@ import java.text.SimpleDateFormat;
  * 指定ファイル名.yyyyMMddHHmmssにファイル名を変更し、新たに指定ファイル
  * 名に保存を始めます。
  *
+ * トレース出力許可レベルの判定は排他なしに行い、許可レベル未満のトレースでは日時情報や
+ * トレース出力文字列の編集を行いません。トレース出力文字列の編集コストが大きい場合は、
+ * Supplierを指定するtraceメンバ、またはフォーマットと引数を指定するtracefメンバを使用してください。
+ * 非同期出力(startAsync)を開始すると、トレースはリングバッファに格納されて直ちに復帰し、
+ * 出力スレッドがまとめて出力先ストリームに書き込みます。リングバッファが満杯の場合は
+ * トレースを破棄し、破棄した件数を後続のトレース出力時に出力します。
+ * バイナリ記録(openRecorder)を開始すると、トレースを固定レイアウトのバイナリレコードとして
+ * メモリマップドファイルに循環記録します。テキスト出力とは独立したレベルを設定できるため、
+ * パケット単位のトレース(PacketLevel)を常時記録しておくことができます。
+ * 送受信パケットのダンプは、setPacketTraceで許可しない限り出力されません。ダンプを出力する
+ * 箇所はisPacketTraceで判定してから、PacketLevelでトレースを出力してください。
+ *
  * (注意)
  * 	UDC内部のトレース出力レベルは、[100]です。ユーザで使用する値はこれを考慮してください。
  *
@@ -33,11 +50,31 @@ public class UdcTrace
 	 */
 	public static final int Level = 100;
 
+	/**
+	 * UDC内部の送受信パケットトレースの出力レベル。
+	 * 送受信パケットのダンプはsetPacketTraceで許可した場合のみ行い、テキスト出力・バイナリ記録は
+	 * それぞれの許可レベルに従います。
+	 * @since	UDC1.3
+	 */
+	public static final int PacketLevel = 50;
+
 	/**
 	 * トレース文字列の日時情報のフォーマット。
 	 * @since	UDC1.0
 	 */
-	private static SimpleDateFormat tracedf = new SimpleDateFormat("yy.MM/dd.HH:mm:ss.SSS");
+	private static SimpleDateFormat tracedf = new SimpleDateFormat("yy.MM/dd.HH:mm:ss.");
+
+	/**
+	 * 日時情報をフォーマット済みの時刻(単位：秒)。
+	 * @since	UDC1.3
+	 */
+	private static long tracedfSecond = -1;
+
+	/**
+	 * tracedfSecondのフォーマット結果(ミリ秒を除く日時情報)。
+	 * @since	UDC1.3
+	 */
+	private static String tracedfPrefix = null;
 
 	/**
 	 * トレースファイルの拡張子フォーマット(日時情報フォーマット)。
@@ -49,7 +86,7 @@ public class UdcTrace
 	 * トレース出力先ストリーム。
 	 * @since	UDC1.0
 	 */
-	private static PrintStream traceout = null;
+	private static volatile PrintStream traceout = null;
 
 	/**
 	 * トレース出力先名。
@@ -83,7 +120,55 @@ public class UdcTrace
 	 * より大きければトレース出力対象となります。
 	 * @since	UDC1.0
 	 */
-	private static int traceLevel = 0;
+	private static volatile int traceLevel = 0;
+
+	/**
+	 * 送受信パケットのダンプを出力するか否か。
+	 * @since	UDC1.3
+	 */
+	private static volatile boolean packetTrace = false;
+
+	/**
+	 * 非同期出力時のリングバッファ。同期出力時はnull。
+	 * @since	UDC1.3
+	 */
+	private static volatile ArrayBlockingQueue asyncQueue = null;
+
+	/**
+	 * 非同期出力時の出力スレッド。
+	 * @since	UDC1.3
+	 */
+	private static Thread asyncWriter = null;
+
+	/**
+	 * リングバッファが満杯のため破棄したトレース数。
+	 * @since	UDC1.3
+	 */
+	private static final AtomicLong dropCount = new AtomicLong();
+
+	/**
+	 * 破棄したトレース数のうち、出力先ストリームに通知済みの件数。
+	 * @since	UDC1.3
+	 */
+	private static long dropReported = 0;
+
+	/**
+	 * 出力スレッドの停止を指示するレコード。
+	 * @since	UDC1.3
+	 */
+	private static final UdcTraceRecord StopRecord = new UdcTraceRecord(0, null, null, null, null, null);
+
+	/**
+	 * バイナリ記録。バイナリ記録を行わない場合はnull。
+	 * @since	UDC1.3
+	 */
+	private static volatile UdcTraceRecorder recorder = null;
+
+	/**
+	 * バイナリ記録の許可レベル。
+	 * @since	UDC1.3
+	 */
+	private static volatile int recorderLevel = 0;
 
 	/**
 	 * トレース出力をオープンする。
@@ -118,7 +203,7 @@ public class UdcTrace
 				}
 				traceFile = tracedestination;
 				fileStream = new FileOutputStream(file);
-				traceout = new PrintStream(fileStream);
+				traceout = new PrintStream(new BufferedOutputStream(fileStream));
 			} catch (FileNotFoundException e) {
 				ret = -1;
 			}
@@ -131,25 +216,219 @@ public class UdcTrace
 
 	/**
 	 * トレース出力を停止する。
+	 * 非同期出力中の場合は、リングバッファ内のトレースを出力した後に非同期出力を停止します。
 	 *
 	 * @return	[0]正常/[非0]異常
 	 * @since	UDC1.0
 	 */
-	public synchronized static int closeTrace()
+	public static int closeTrace()
 	{
-		int ret = 0;
-		if (fileStream != null) {
+		stopAsync();
+		synchronized (UdcTrace.class) {
+			int ret = 0;
+			if (traceout != null) {
+				traceout.flush();
+			}
+			if (fileStream != null) {
+				try {
+					fileStream.close();
+				} catch (IOException e) {
+					ret = -1;
+				}
+			}
+			traceCount = 0;
+			traceFile = null;
+			fileStream = null;
+			traceout = null;
+			return ret;
+		}
+	}
+
+	/**
+	 * トレースの非同期出力を開始する。
+	 * 以降のトレースは指定容量のリングバッファに格納され、出力スレッドによって
+	 * 出力先ストリームに書き込まれます。既に非同期出力中の場合は何もしません。
+	 *
+	 * @param	capacity	リングバッファの容量(トレース数)
+	 * @since	UDC1.3
+	 */
+	public synchronized static void startAsync(int capacity)
+	{
+		if (asyncQueue != null) {
+			return;
+		}
+		final ArrayBlockingQueue queue = new ArrayBlockingQueue(capacity);
+		asyncWriter = new Thread("UdcTraceWriter") {
+			public void run() { writeAsync(queue); }
+		};
+		asyncWriter.setDaemon(true);
+		asyncWriter.start();
+		asyncQueue = queue;
+	}
+
+	/**
+	 * トレースの非同期出力を停止する。
+	 * リングバッファ内のトレースを全て出力するまで待ち合わせ、以降のトレースは同期出力に戻ります。
+	 * 非同期出力中でない場合は何もしません。
+	 *
+	 * @since	UDC1.3
+	 */
+	public static void stopAsync()
+	{
+		ArrayBlockingQueue queue;
+		Thread writer;
+		synchronized (UdcTrace.class) {
+			queue = asyncQueue;
+			writer = asyncWriter;
+			asyncQueue = null;
+			asyncWriter = null;
+		}
+		if (queue == null) {
+			return;
+		}
+		boolean interrupted = false;
+		while (true) {
 			try {
-				fileStream.close();
-			} catch (IOException e) {
-				ret = -1;
+				queue.put(StopRecord);
+				writer.join();
+				break;
+			} catch (InterruptedException exp) {
+				interrupted = true;
 			}
 		}
-		traceCount = 0;
-		traceFile = null;
-		fileStream = null;
-		traceout = null;
-		return ret;
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * 非同期出力中かを取得する。
+	 *
+	 * @return	[true]非同期出力中/[false]同期出力中
+	 * @since	UDC1.3
+	 */
+	public static boolean isAsync()
+	{
+		return asyncQueue != null;
+	}
+
+	/**
+	 * リングバッファが満杯のため破棄したトレース数を取得する。
+	 *
+	 * @return	破棄したトレース数
+	 * @since	UDC1.3
+	 */
+	public static long getDropCount()
+	{
+		return dropCount.get();
+	}
+
+	/**
+	 * 指定レベルのトレースが出力対象かを取得する。
+	 * トレース出力文字列の編集前に判定することで、出力対象外のトレースの編集を省略できます。
+	 *
+	 * @param	level		トレース出力のレベル
+	 * @return	[true]出力対象/[false]出力対象外
+	 * @since	UDC1.3
+	 */
+	public static boolean isTrace(int level)
+	{
+		return isText(level) || (recorder != null && level >= recorderLevel);
+	}
+
+	/**
+	 * 指定レベルのトレースがテキスト出力の対象かを取得する。
+	 *
+	 * @param	level		トレース出力のレベル
+	 * @return	[true]出力対象/[false]出力対象外
+	 * @since	UDC1.3
+	 */
+	private static boolean isText(int level)
+	{
+		return traceout != null && level >= traceLevel;
+	}
+
+	/**
+	 * 送受信パケットのダンプが出力対象かを取得する。
+	 * setPacketTraceで許可されており、PacketLevelのトレースが出力対象の場合に出力対象となります。
+	 *
+	 * @return	[true]出力対象/[false]出力対象外
+	 * @since	UDC1.3
+	 */
+	public static boolean isPacketTrace()
+	{
+		return packetTrace && isTrace(PacketLevel);
+	}
+
+	/**
+	 * バイナリ記録を開始する。
+	 * 指定ファイルが既に存在する場合は、openTraceと同様に日時情報を付加したファイル名に変更します。
+	 * 記録したファイルは、UdcTraceRecorder.mainでテキスト形式に変換できます。
+	 *
+	 * @param	recordfile		記録ファイル名
+	 * @param	size			レコード領域のサイズ(バイト数)
+	 * @param	level			バイナリ記録を行うレベル（指定したレベル以上なら記録を行う）
+	 * @return	[0]正常/[非0]異常
+	 * @see		UdcTraceRecorder
+	 * @since	UDC1.3
+	 */
+	public synchronized static int openRecorder(String recordfile, int size, int level)
+	{
+		File file = new File(recordfile);
+		if (file.exists()) {
+			if (file.isDirectory() || ! file.canWrite()) {
+				return -1;
+			}
+			file.renameTo(new File(file.getAbsolutePath() + "." + filedf.format(new Date())));
+		}
+		UdcTraceRecorder rec;
+		try {
+			rec = new UdcTraceRecorder(recordfile, size);
+		} catch (IOException exp) {
+			return -1;
+		}
+		closeRecorder();
+		recorderLevel = level;
+		recorder = rec;
+		return 0;
+	}
+
+	/**
+	 * バイナリ記録を終了する。
+	 *
+	 * @return	[0]正常/[非0]異常
+	 * @since	UDC1.3
+	 */
+	public synchronized static int closeRecorder()
+	{
+		UdcTraceRecorder rec = recorder;
+		recorder = null;
+		if (rec == null) {
+			return 0;
+		}
+		return rec.close();
+	}
+
+	/**
+	 * バイナリ記録を取得する。
+	 *
+	 * @return	バイナリ記録(バイナリ記録を行っていない場合はnull)
+	 * @since	UDC1.3
+	 */
+	public static UdcTraceRecorder getRecorder()
+	{
+		return recorder;
+	}
+
+	/**
+	 * バイナリ記録の許可レベルを設定する。
+	 *
+	 * @param	level			バイナリ記録を行うレベル（指定したレベル以上なら記録を行う）
+	 * @since	UDC1.3
+	 */
+	public static void setRecorderLevel(int level)
+	{
+		recorderLevel = level;
 	}
 
 	/**
@@ -203,46 +482,242 @@ public class UdcTrace
 	 * @return	[0]正常/[非0]異常
 	 * @since	UDC1.0
 	 */
-	public synchronized static int trace(int level,String position,String traceData,byte[] binaryData)
+	public static int trace(int level,String position,String traceData,byte[] binaryData)
 	{
-		if (traceout == null || level < traceLevel) {
+		return trace(level, position, traceData, binaryData, 0, (binaryData != null) ? binaryData.length : 0);
+	}
+
+	/**
+	 * 以下のフォーマットでトレース出力を行う。
+	 * YY.MM/DD.HH:mm:ss.SSS : [トレース出力文字列1] トレース出力文字列2
+	 *     WWXXYYZZ WWXXYYZZ WWXXYYZZ WWXXYYZZ  WWXXYYZZ WWXXYYZZ WWXXYYZZ WWXXYYZZ
+	 * バイナリデータ列は、指定した範囲のみを出力します。送受信バッファのように再利用される
+	 * バイト列も指定できます。
+	 *  (注意)
+	 *	  UdcTrace.openTraceで指定したトレース出力許可レベルより本メンバで指定されるレベル
+	 *    が大きければトレース出力対象となります。
+	 *
+	 * @param	level		トレース出力のレベル
+	 * @param	position	トレース出力文字列1
+	 * @param	traceData	トレース出力文字列2
+	 * @param	binaryData	バイナリデータ列（nullを指定した場合何もしない）
+	 * @param	offset		バイナリデータ列の開始位置
+	 * @param	length		バイナリデータ列の長さ
+	 * @return	[0]正常/[非0]異常
+	 * @since	UDC1.3
+	 */
+	public static int trace(int level,String position,String traceData,byte[] binaryData,int offset,int length)
+	{
+		if (! isTrace(level)) {
 			return -1;
 		}
-		if (position == null) {
-			traceout.println( tracedf.format( new Date() ) + " : " + traceData);
-		} else {
-			traceout.println( tracedf.format( new Date() ) + " : [" + position + "]" + traceData);
-		}
-		if (binaryData != null) {
-			String lineStr = "    ";
-			int len = binaryData.length;
-			for (int i=0; i<len; i++) {
-				lineStr += UdcCoder.byte2HexString(binaryData[i]);
-				if (((i+1)%4) == 0)  {
-					if (((i+1)%16) == 0) {
-						if (((i+1)%32) == 0) {
-							traceout.println(lineStr);
-							lineStr = "    ";
-							continue;
-						}
-						lineStr += " ";
+		long time = System.currentTimeMillis();
+		int ret = -1;
+		UdcTraceRecorder rec = recorder;
+		if (rec != null && level >= recorderLevel) {
+			ret = rec.record(time, level, position, traceData, binaryData, offset, length);
+		}
+		if (isText(level)) {
+			if (binaryData != null && (offset != 0 || length != binaryData.length || asyncQueue != null)) {
+				binaryData = Arrays.copyOfRange(binaryData, offset, offset + length);
+			}
+			ret = put( new UdcTraceRecord(time, position, traceData, binaryData, null, null) );
+		}
+		return ret;
+	}
+
+	/**
+	 * 以下のフォーマットでトレース出力を行う。
+	 * YY.MM/DD.HH:mm:ss.SSS : [トレース出力文字列1] トレース出力文字列2
+	 * トレース出力文字列2は、出力対象のレベルの場合のみ呼び出し元スレッドでmsgから取得します。
+	 *  (注意)
+	 *	  UdcTrace.openTraceで指定したトレース出力許可レベルより本メンバで指定されるレベル
+	 *    が大きければトレース出力対象となります。
+	 *
+	 * @param	level		トレース出力のレベル
+	 * @param	position	トレース出力文字列1
+	 * @param	msg			トレース出力文字列2の取得元
+	 * @return	[0]正常/[非0]異常
+	 * @since	UDC1.3
+	 */
+	public static int trace(int level,String position,Supplier msg)
+	{
+		if (! isTrace(level)) {
+			return -1;
+		}
+		return trace(level, position, String.valueOf(msg.get()), null, 0, 0);
+	}
+
+	/**
+	 * 以下のフォーマットでトレース出力を行う。
+	 * YY.MM/DD.HH:mm:ss.SSS : [トレース出力文字列1] トレース出力文字列2
+	 * トレース出力文字列2は、String.format(format, args)で編集します。編集は出力対象のレベルの
+	 * 場合のみ行い、非同期出力中は出力スレッドで行います(バイナリ記録中は呼び出し元スレッドで行います)。
+	 *  (注意)
+	 *	  UdcTrace.openTraceで指定したトレース出力許可レベルより本メンバで指定されるレベル
+	 *    が大きければトレース出力対象となります。
+	 *	  非同期出力中は引数の文字列化が遅延されるため、呼び出し後に変更されるオブジェクトを
+	 *    引数に指定しないでください。
+	 *
+	 * @param	level		トレース出力のレベル
+	 * @param	position	トレース出力文字列1
+	 * @param	format		トレース出力文字列2のフォーマット
+	 * @param	args		フォーマットの引数
+	 * @return	[0]正常/[非0]異常
+	 * @see		java.lang.String#format(String,Object[])
+	 * @since	UDC1.3
+	 */
+	public static int tracef(int level,String position,String format,Object... args)
+	{
+		if (! isTrace(level)) {
+			return -1;
+		}
+		long time = System.currentTimeMillis();
+		int ret = -1;
+		String data = null;
+		UdcTraceRecorder rec = recorder;
+		if (rec != null && level >= recorderLevel) {
+			data = format(format, args);
+			ret = rec.record(time, level, position, data, null, 0, 0);
+		}
+		if (isText(level)) {
+			if (data != null) {
+				ret = put( new UdcTraceRecord(time, position, data, null, null, null) );
+			} else {
+				ret = put( new UdcTraceRecord(time, position, format, null, null, args) );
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * トレース出力文字列を編集する。フォーマットが不正な場合はフォーマットをそのまま返却します。
+	 *
+	 * @param	format		フォーマット
+	 * @param	args		フォーマットの引数
+	 * @return	トレース出力文字列
+	 * @since	UDC1.3
+	 */
+	private static String format(String format, Object[] args)
+	{
+		try {
+			return String.format(format, args);
+		} catch (RuntimeException exp) {
+			return format;
+		}
+	}
+
+	/**
+	 * トレースを出力する。非同期出力中はリングバッファに格納します。
+	 *
+	 * @param	rec			トレース
+	 * @return	[0]正常/[非0]異常
+	 * @since	UDC1.3
+	 */
+	private static int put(UdcTraceRecord rec)
+	{
+		ArrayBlockingQueue queue = asyncQueue;
+		if (queue != null) {
+			if (queue.offer(rec)) {
+				return 0;
+			}
+			dropCount.incrementAndGet();
+			return -1;
+		}
+		synchronized (UdcTrace.class) {
+			if (traceout == null) {
+				return -1;
+			}
+			int ret = write(rec);
+			traceout.flush();
+			return ret;
+		}
+	}
+
+	/**
+	 * 非同期出力時の出力スレッドの処理。
+	 * リングバッファからトレースをまとめて取り出し、出力先ストリームに書き込みます。
+	 *
+	 * @param	queue		リングバッファ
+	 * @since	UDC1.3
+	 */
+	private static void writeAsync(ArrayBlockingQueue queue)
+	{
+		ArrayList list = new ArrayList();
+		boolean loop = true;
+		while (loop) {
+			try {
+				list.add( queue.take() );
+			} catch (InterruptedException exp) {
+				continue;
+			}
+			queue.drainTo(list);
+			synchronized (UdcTrace.class) {
+				long drop = dropCount.get();
+				if (traceout != null && drop != dropReported) {
+					write( new UdcTraceRecord(System.currentTimeMillis(), "UdcTrace", (drop - dropReported) + " trace(s) dropped.", null, null, null) );
+				}
+				dropReported = drop;
+				int sz = list.size();
+				for (int i=0; i<sz; i++) {
+					UdcTraceRecord rec = (UdcTraceRecord)list.get(i);
+					if (rec == StopRecord) {
+						loop = false;
+					} else if (traceout != null) {
+						write(rec);
 					}
-					lineStr += " ";
+				}
+				if (traceout != null) {
+					traceout.flush();
 				}
 			}
-			if ((len%32) != 0) { traceout.println(lineStr); }
+			list.clear();
+		}
+	}
+
+	/**
+	 * トレースを出力先ストリームに書き込む。UdcTraceクラスの排他中に呼び出すこと。
+	 *
+	 * @param	rec			トレース
+	 * @return	[0]正常/[非0]異常
+	 * @since	UDC1.3
+	 */
+	private static int write(UdcTraceRecord rec)
+	{
+		StringBuilder str = new StringBuilder(128);
+		formatTime(rec.time, str);
+		str.append(" : ");
+		if (rec.position != null) {
+			str.append('[').append(rec.position).append(']');
+		}
+		if (rec.exp == null) {
+			if (rec.args != null) {
+				str.append( format(rec.data, rec.args) );
+			} else {
+				str.append(rec.data);
+			}
+		}
+		traceout.println(str);
+
+		if (rec.exp != null) {
+			rec.exp.printStackTrace(traceout);
+			return 0;
+		}
+		if (rec.binaryData != null) {
+			printBinary(traceout, str, rec.binaryData, 0, rec.binaryData.length);
 		}
 
 		traceCount ++;
 		if (fileStream != null && traceCount >= traceCountMax) {
 			traceCount = 0;
 			try {
+				traceout.flush();
 				fileStream.close();
 				File file = new File(traceFile);
 				file.renameTo( new File(traceFile + "." + filedf.format(new Date())) );
 				file = new File(traceFile);
 				fileStream = new FileOutputStream(file);
-				traceout = new PrintStream(fileStream);
+				traceout = new PrintStream(new BufferedOutputStream(fileStream));
 			} catch (IOException e) {
 				return -1;
 			}
@@ -250,6 +725,61 @@ public class UdcTrace
 		return 0;
 	}
 
+	/**
+	 * バイナリデータ列を1行32バイトの16進数文字列で出力する。
+	 *
+	 * @param	out			出力先
+	 * @param	str			編集用バッファ
+	 * @param	binaryData	バイナリデータ列
+	 * @param	offset		バイナリデータ列の開始位置
+	 * @param	len			バイナリデータ列の長さ
+	 * @since	UDC1.3
+	 */
+	static void printBinary(PrintStream out, StringBuilder str, byte[] binaryData, int offset, int len)
+	{
+		str.setLength(0);
+		str.append("    ");
+		for (int i=0; i<len; i++) {
+			str.append( UdcCoder.byte2HexString(binaryData[offset + i]) );
+			if (((i+1)%4) == 0)  {
+				if (((i+1)%16) == 0) {
+					if (((i+1)%32) == 0) {
+						out.println(str);
+						str.setLength(0);
+						str.append("    ");
+						continue;
+					}
+					str.append(' ');
+				}
+				str.append(' ');
+			}
+		}
+		if ((len%32) != 0) { out.println(str); }
+	}
+
+	/**
+	 * トレース文字列の日時情報を編集する。
+	 * ミリ秒を除く日時情報は秒単位でキャッシュし、同一秒内のトレースではフォーマットを行いません。
+	 * UdcTraceクラスの排他中に呼び出すこと。
+	 *
+	 * @param	time		時刻(単位：ミリ秒)
+	 * @param	str			編集先
+	 * @since	UDC1.3
+	 */
+	private static void formatTime(long time, StringBuilder str)
+	{
+		long second = time / 1000;
+		if (second != tracedfSecond) {
+			tracedfPrefix = tracedf.format( new Date(second * 1000) );
+			tracedfSecond = second;
+		}
+		int millis = (int)(time - second * 1000);
+		str.append(tracedfPrefix);
+		if (millis < 100) { str.append('0'); }
+		if (millis < 10) { str.append('0'); }
+		str.append(millis);
+	}
+
 	/**
 	 * 以下のフォーマットでトレース出力を行う。
 	 * YY.MM/DD.HH:mm:ss.SSS : <br>
@@ -263,7 +793,7 @@ public class UdcTrace
 	 * @return	[0]正常/[非0]異常
 	 * @since	UDC1.0
 	 */
-	public synchronized static int trace(int level, Exception exp)
+	public static int trace(int level, Exception exp)
 	{
 		return trace(level, null, exp);
 	}
@@ -282,20 +812,31 @@ public class UdcTrace
 	 * @return	[0]正常/[非0]異常
 	 * @since	UDC1.0
 	 */
-	public synchronized static int trace(int level, String position, Exception exp)
+	public static int trace(int level, String position, Exception exp)
 	{
-		if (traceout == null || level < traceLevel) {
+		if (! isTrace(level)) {
 			return -1;
 		}
-		if (position == null) {
-			traceout.println( tracedf.format( new Date() ) + " : ");
-		} else {
-			traceout.println( tracedf.format( new Date() ) + " : [" + position + "]");
+		long time = System.currentTimeMillis();
+		int ret = -1;
+		UdcTraceRecorder rec = recorder;
+		if (rec != null && level >= recorderLevel) {
+			String data = "";
+			if (exp != null) {
+				StringWriter sw = new StringWriter();
+				exp.printStackTrace(new PrintWriter(sw));
+				data = System.lineSeparator() + sw.toString().trim();
+			}
+			ret = rec.record(time, level, position, data, null, 0, 0);
 		}
-		if (exp != null) {
-			exp.printStackTrace(traceout);
+		if (isText(level)) {
+			if (exp == null) {
+				ret = put( new UdcTraceRecord(time, position, "", null, null, null) );
+			} else {
+				ret = put( new UdcTraceRecord(time, position, null, null, exp, null) );
+			}
 		}
-		return 0;
+		return ret;
 	}
 
 	/**
@@ -321,5 +862,90 @@ public class UdcTrace
 	{
 		traceLevel = level;
 	}
+
+	/**
+	 * 送受信パケットのダンプを出力するか否かを設定する。
+	 * デフォルトではダンプを出力しません。許可した場合も、テキスト出力・バイナリ記録の
+	 * 許可レベルの判定は通常どおり行います。
+	 *
+	 * @param	enable		ダンプを出力するか否か
+	 * @since	UDC1.3
+	 */
+	public static void setPacketTrace(boolean enable)
+	{
+		packetTrace = enable;
+	}
 }
 
+
+
+
+/**
+ * トレース出力情報クラス。
+ * トレース呼び出し時の時刻と出力内容を保持し、同期出力時は呼び出し元スレッドで、
+ * 非同期出力時は出力スレッドで出力先ストリームに書き込まれます。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcTrace
+ * @since	UDC1.3
+ */
+class UdcTraceRecord
+{
+	/**
+	 * トレース呼び出し時刻(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	final long		time;
+
+	/**
+	 * トレース出力文字列1
+	 * @since	UDC1.3
+	 */
+	final String	position;
+
+	/**
+	 * トレース出力文字列2(argsが非nullの場合はフォーマット)
+	 * @since	UDC1.3
+	 */
+	final String	data;
+
+	/**
+	 * バイナリデータ列
+	 * @since	UDC1.3
+	 */
+	final byte[]	binaryData;
+
+	/**
+	 * トレース出力Exception
+	 * @since	UDC1.3
+	 */
+	final Exception	exp;
+
+	/**
+	 * フォーマットの引数
+	 * @since	UDC1.3
+	 */
+	final Object[]	args;
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	time		トレース呼び出し時刻(単位：ミリ秒)
+	 * @param	position	トレース出力文字列1
+	 * @param	data		トレース出力文字列2
+	 * @param	binaryData	バイナリデータ列
+	 * @param	exp			トレース出力Exception
+	 * @param	args		フォーマットの引数
+	 * @since	UDC1.3
+	 */
+	UdcTraceRecord(long time, String position, String data, byte[] binaryData, Exception exp, Object[] args)
+	{
+		this.time = time;
+		this.position = position;
+		this.data = data;
+		this.binaryData = binaryData;
+		this.exp = exp;
+		this.args = args;
+	}
+}
@@ -0,0 +1,522 @@
+/* *********************************************************************
+ * @(#)UdcTraceRecorder.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.text.SimpleDateFormat;
+
+/**
+ * トレースのバイナリ記録クラス(フライトレコーダ)。
+ * トレースを固定レイアウトのバイナリレコードとしてメモリマップドファイルに循環記録します。
+ * ファイルが満杯になると古いレコードから上書きするため、常時記録しておき障害発生時に
+ * 直前のトレースを参照する用途に使用します。記録したファイルは、本クラスのmainで
+ * UdcTraceと同じテキスト形式に変換できます。
+ *	java udc.util.UdcTraceRecorder 記録ファイル名 [出力ファイル名]
+ *
+ * ファイルは以下の領域で構成されます。
+ *	ヘッダ(64バイト)	… 識別子、各領域のサイズ、書き込み位置(head)、最古レコード位置(tail)
+ *	位置情報テーブル	… トレース出力文字列1(position)の一覧(レコードには位置番号を記録)
+ *	レコード領域		… 循環記録するレコード
+ * レコードは以下の固定レイアウトです(数値はビッグエンディアン)。
+ *	int		レコード長(-1はレコード領域の末尾までの読み飛ばし)
+ *	long	時刻(単位：ミリ秒)
+ *	int		トレース出力のレベル
+ *	int		位置番号(-1は位置情報なし)
+ *	int		トレース出力文字列2のバイト長
+ *	byte[]	トレース出力文字列2(UTF-8)
+ *	byte[]	バイナリデータ列(レコードの残り)
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcTrace#openRecorder(String,int,int)
+ * @since	UDC1.3
+ */
+public class UdcTraceRecorder
+{
+	/**
+	 * ファイル識別子("UDCTRACE")
+	 * @since	UDC1.3
+	 */
+	static final long	Magic				= 0x5544435452414345L;
+
+	/**
+	 * ファイルレイアウトのバージョン
+	 * @since	UDC1.3
+	 */
+	static final int	Version				= 1;
+
+	/**
+	 * ヘッダ長
+	 * @since	UDC1.3
+	 */
+	static final int	HeaderSize			= 64;
+
+	/**
+	 * 位置情報テーブルのサイズ
+	 * @since	UDC1.3
+	 */
+	static final int	PositionTableSize	= 65536;
+
+	/**
+	 * レコードの固定部の長さ
+	 * @since	UDC1.3
+	 */
+	static final int	RecordHeaderSize	= 24;
+
+	/**
+	 * 読み飛ばしを示すレコード長
+	 * @since	UDC1.3
+	 */
+	static final int	Skip				= -1;
+
+	/**
+	 * ヘッダ内の各情報の位置
+	 * @since	UDC1.3
+	 */
+	static final int	Offset_Magic		= 0;
+	static final int	Offset_Version		= 8;
+	static final int	Offset_TableSize	= 12;
+	static final int	Offset_DataSize		= 16;
+	static final int	Offset_PositionNum	= 20;
+	static final int	Offset_TableUsed	= 24;
+	static final int	Offset_Head			= 32;
+	static final int	Offset_Tail			= 40;
+
+	/**
+	 * 記録ファイル
+	 * @since	UDC1.3
+	 */
+	protected RandomAccessFile	file;
+
+	/**
+	 * 記録ファイルのマップ
+	 * @since	UDC1.3
+	 */
+	protected MappedByteBuffer	map;
+
+	/**
+	 * 記録ファイルのマップのバイト列書き込み用ビュー(位置を指定して相対書き込みを行う)
+	 * @since	UDC1.3
+	 */
+	protected ByteBuffer		view;
+
+	/**
+	 * レコード領域のサイズ
+	 * @since	UDC1.3
+	 */
+	protected int				dataSize;
+
+	/**
+	 * レコード領域の開始位置
+	 * @since	UDC1.3
+	 */
+	protected int				dataOffset;
+
+	/**
+	 * 書き込み位置(記録開始からの累積バイト数)
+	 * @since	UDC1.3
+	 */
+	protected long				head;
+
+	/**
+	 * 最古レコードの位置(記録開始からの累積バイト数)
+	 * @since	UDC1.3
+	 */
+	protected long				tail;
+
+	/**
+	 * 位置情報と位置番号の対応(キー:位置情報 値:Integer(位置番号))
+	 * @since	UDC1.3
+	 */
+	protected HashMap			positions = new HashMap();
+
+	/**
+	 * 位置情報テーブルの使用バイト数
+	 * @since	UDC1.3
+	 */
+	protected int				tableUsed;
+
+	/**
+	 * 記録したレコード数
+	 * @since	UDC1.3
+	 */
+	protected long				recordCount;
+
+	/**
+	 * 古いレコードの上書きにより失われたレコード数
+	 * @since	UDC1.3
+	 */
+	protected long				overwriteCount;
+
+	/**
+	 * コンストラクタ。
+	 * 記録ファイルを作成し、メモリにマップします。既存のファイルは上書きされます。
+	 *
+	 * @param	fileName	記録ファイル名
+	 * @param	size		レコード領域のサイズ(バイト数)
+	 * @exception	IOException	ファイル作成エラー
+	 * @since	UDC1.3
+	 */
+	public UdcTraceRecorder(String fileName, int size) throws IOException
+	{
+		if (size < RecordHeaderSize * 4) {
+			throw new IllegalArgumentException("size too small : " + size);
+		}
+		dataSize = size;
+		dataOffset = HeaderSize + PositionTableSize;
+		file = new RandomAccessFile(fileName, "rw");
+		try {
+			file.setLength(0);
+			file.setLength((long)dataOffset + dataSize);
+			map = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, (long)dataOffset + dataSize);
+			view = map.duplicate();
+		} catch (IOException exp) {
+			file.close();
+			throw exp;
+		}
+		map.putLong(Offset_Magic, Magic);
+		map.putInt(Offset_Version, Version);
+		map.putInt(Offset_TableSize, PositionTableSize);
+		map.putInt(Offset_DataSize, dataSize);
+		map.putInt(Offset_PositionNum, 0);
+		map.putInt(Offset_TableUsed, 0);
+		map.putLong(Offset_Head, 0);
+		map.putLong(Offset_Tail, 0);
+	}
+
+	/**
+	 * レコードを記録する。
+	 * レコードがレコード領域に収まらない場合は、バイナリデータ列、トレース出力文字列2の順に
+	 * 切り詰めて記録します。
+	 *
+	 * @param	time		時刻(単位：ミリ秒)
+	 * @param	level		トレース出力のレベル
+	 * @param	position	トレース出力文字列1(null可)
+	 * @param	traceData	トレース出力文字列2(null可)
+	 * @param	binaryData	バイナリデータ列(null可)
+	 * @param	offset		バイナリデータ列の開始位置
+	 * @param	length		バイナリデータ列の長さ
+	 * @return	[0]正常/[非0]異常
+	 * @since	UDC1.3
+	 */
+	public synchronized int record(long time, int level, String position, String traceData,
+								byte[] binaryData, int offset, int length)
+	{
+		if (map == null) {
+			return -1;
+		}
+		int posId = -1;
+		if (position != null) {
+			posId = positionId(position);
+			if (posId < 0) {
+				traceData = "[" + position + "]" + ((traceData != null) ? traceData : "");
+			}
+		}
+
+		byte[] text = null;
+		int textLen = 0;
+		boolean ascii = true;
+		if (traceData != null) {
+			textLen = traceData.length();
+			for (int i=0; i<textLen; i++) {
+				if (traceData.charAt(i) >= 0x80) {
+					ascii = false;
+					break;
+				}
+			}
+			if (! ascii) {
+				text = traceData.getBytes(StandardCharsets.UTF_8);
+				textLen = text.length;
+			}
+		}
+		if (binaryData == null) {
+			length = 0;
+		} else if (offset < 0 || length < 0 || offset + length > binaryData.length) {
+			return -1;
+		}
+		int limit = dataSize / 2 - RecordHeaderSize;
+		if (textLen > limit) {
+			textLen = limit;
+		}
+		if (length > limit - textLen) {
+			length = limit - textLen;
+		}
+		int recLen = RecordHeaderSize + textLen + length;
+
+		int pos = reserve(recLen);
+		map.putInt(pos, recLen);
+		map.putLong(pos + 4, time);
+		map.putInt(pos + 12, level);
+		map.putInt(pos + 16, posId);
+		map.putInt(pos + 20, textLen);
+		pos += RecordHeaderSize;
+		if (text != null) {
+			putBytes(pos, text, 0, textLen);
+		} else {
+			for (int i=0; i<textLen; i++) {
+				map.put(pos + i, (byte)traceData.charAt(i));
+			}
+		}
+		pos += textLen;
+		if (length > 0) {
+			putBytes(pos, binaryData, offset, length);
+		}
+		head += recLen;
+		map.putLong(Offset_Tail, tail);
+		map.putLong(Offset_Head, head);
+		recordCount ++;
+		return 0;
+	}
+
+	/**
+	 * レコードの書き込み領域を確保する。
+	 * レコード領域の末尾に収まらない場合は先頭から書き込み、書き込み先の古いレコードを破棄します。
+	 *
+	 * @param	recLen		レコード長
+	 * @return	書き込み位置(ファイル先頭からのバイト数)
+	 * @since	UDC1.3
+	 */
+	int reserve(int recLen)
+	{
+		int off = (int)(head % dataSize);
+		int rest = dataSize - off;
+		if (rest < recLen) {
+			release(rest);
+			if (rest >= 4) {
+				map.putInt(dataOffset + off, Skip);
+			}
+			head += rest;
+			off = 0;
+		}
+		release(recLen);
+		return dataOffset + off;
+	}
+
+	/**
+	 * 書き込み位置から指定バイト数が空くまで、最古のレコードを破棄する。
+	 *
+	 * @param	len		必要なバイト数
+	 * @since	UDC1.3
+	 */
+	void release(int len)
+	{
+		while (head + len - tail > dataSize) {
+			int off = (int)(tail % dataSize);
+			int rest = dataSize - off;
+			int recLen = (rest < 4) ? Skip : map.getInt(dataOffset + off);
+			if (recLen == Skip) {
+				tail += rest;
+			} else {
+				tail += recLen;
+				overwriteCount ++;
+			}
+		}
+	}
+
+	/**
+	 * 位置情報の位置番号を取得する。未登録の場合は位置情報テーブルに登録します。
+	 *
+	 * @param	position	位置情報
+	 * @return	位置番号(位置情報テーブルが満杯の場合は-1)
+	 * @since	UDC1.3
+	 */
+	int positionId(String position)
+	{
+		Integer id = (Integer)positions.get(position);
+		if (id != null) {
+			return id.intValue();
+		}
+		byte[] data = position.getBytes(StandardCharsets.UTF_8);
+		if (data.length > Short.MAX_VALUE || tableUsed + 2 + data.length > PositionTableSize) {
+			return -1;
+		}
+		int pos = HeaderSize + tableUsed;
+		map.putShort(pos, (short)data.length);
+		putBytes(pos + 2, data, 0, data.length);
+		tableUsed += 2 + data.length;
+		int num = positions.size();
+		positions.put(position, Integer.valueOf(num));
+		map.putInt(Offset_TableUsed, tableUsed);
+		map.putInt(Offset_PositionNum, num + 1);
+		return num;
+	}
+
+	/**
+	 * 記録ファイルの指定位置にバイト列を書き込む。
+	 * 絶対位置指定のバルク書き込み(JDK13以降)を使用せず、ビューの位置を設定して書き込みます。
+	 *
+	 * @param	index		書き込み位置
+	 * @param	src			書き込むバイト列
+	 * @param	offset		バイト列の開始位置
+	 * @param	length		書き込むバイト数
+	 * @since	UDC1.3
+	 */
+	private void putBytes(int index, byte[] src, int offset, int length)
+	{
+		view.position(index);
+		view.put(src, offset, length);
+	}
+
+	/**
+	 * 記録したレコード数を取得する。
+	 *
+	 * @return	レコード数
+	 * @since	UDC1.3
+	 */
+	public synchronized long getRecordCount() { return recordCount; }
+
+	/**
+	 * 古いレコードの上書きにより失われたレコード数を取得する。
+	 *
+	 * @return	レコード数
+	 * @since	UDC1.3
+	 */
+	public synchronized long getOverwriteCount() { return overwriteCount; }
+
+	/**
+	 * 記録内容をファイルに書き出し、記録を終了する。
+	 *
+	 * @return	[0]正常/[非0]異常
+	 * @since	UDC1.3
+	 */
+	public synchronized int close()
+	{
+		if (map == null) {
+			return -1;
+		}
+		int ret = 0;
+		map.force();
+		map = null;
+		view = null;
+		try {
+			file.close();
+		} catch (IOException exp) {
+			ret = -1;
+		}
+		return ret;
+	}
+
+	/**
+	 * 記録ファイルをUdcTraceと同じテキスト形式に変換して出力する。
+	 *
+	 * @param	fileName	記録ファイル名
+	 * @param	out			出力先
+	 * @return	出力したレコード数
+	 * @exception	IOException	ファイル読み込みエラー、記録ファイルの形式誤り
+	 * @since	UDC1.3
+	 */
+	public static long decode(String fileName, PrintStream out) throws IOException
+	{
+		ByteBuffer buf, rd;
+		RandomAccessFile in = new RandomAccessFile(fileName, "r");
+		try {
+			buf = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+		} finally {
+			in.close();
+		}
+		rd = buf.duplicate();
+		if (buf.capacity() < HeaderSize || buf.getLong(Offset_Magic) != Magic) {
+			throw new IOException("not a trace record file : " + fileName);
+		}
+		if (buf.getInt(Offset_Version) != Version) {
+			throw new IOException("unsupported version : " + buf.getInt(Offset_Version));
+		}
+		int tableSize = buf.getInt(Offset_TableSize);
+		int size = buf.getInt(Offset_DataSize);
+		int offset = HeaderSize + tableSize;
+		long head = buf.getLong(Offset_Head);
+		long tail = buf.getLong(Offset_Tail);
+
+		ArrayList table = new ArrayList();
+		int num = buf.getInt(Offset_PositionNum);
+		int pos = HeaderSize;
+		for (int i=0; i<num; i++) {
+			int len = buf.getShort(pos);
+			byte[] data = new byte[len];
+			rd.position(pos + 2);
+			rd.get(data);
+			table.add(new String(data, StandardCharsets.UTF_8));
+			pos += 2 + len;
+		}
+
+		SimpleDateFormat df = new SimpleDateFormat("yy.MM/dd.HH:mm:ss.SSS");
+		StringBuilder str = new StringBuilder(128);
+		long count = 0;
+		while (tail < head) {
+			int off = (int)(tail % size);
+			int rest = size - off;
+			int recLen = (rest < 4) ? Skip : buf.getInt(offset + off);
+			if (recLen == Skip) {
+				tail += rest;
+				continue;
+			}
+			if (recLen < RecordHeaderSize || recLen > rest) {
+				throw new IOException("broken record at " + tail);
+			}
+			pos = offset + off;
+			long time = buf.getLong(pos + 4);
+			int posId = buf.getInt(pos + 16);
+			int textLen = buf.getInt(pos + 20);
+			byte[] text = new byte[textLen];
+			byte[] binary = new byte[recLen - RecordHeaderSize - textLen];
+			rd.position(pos + RecordHeaderSize);
+			rd.get(text);
+			rd.get(binary);
+
+			str.setLength(0);
+			str.append(df.format(new Date(time))).append(" : ");
+			if (posId >= 0 && posId < table.size()) {
+				str.append('[').append(table.get(posId)).append(']');
+			}
+			str.append(new String(text, StandardCharsets.UTF_8));
+			out.println(str);
+			if (binary.length > 0) {
+				UdcTrace.printBinary(out, str, binary, 0, binary.length);
+			}
+			tail += recLen;
+			count ++;
+		}
+		return count;
+	}
+
+	/**
+	 * 記録ファイルをテキスト形式に変換する。
+	 *	java udc.util.UdcTraceRecorder 記録ファイル名 [出力ファイル名]
+	 * 出力ファイル名を省略した場合は標準出力に出力します。
+	 *
+	 * @param	args	記録ファイル名、出力ファイル名
+	 * @since	UDC1.3
+	 */
+	public static void main(String[] args)
+	{
+		if (args.length < 1) {
+			System.err.println("usage: java udc.util.UdcTraceRecorder recordfile [outfile]");
+			System.exit(1);
+		}
+		try {
+			PrintStream out = System.out;
+			if (args.length > 1) {
+				out = new PrintStream(new BufferedOutputStream(new FileOutputStream(args[1])));
+			}
+			decode(args[0], out);
+			out.flush();
+			if (out != System.out) {
+				out.close();
+			}
+		} catch (IOException exp) {
+			System.err.println(exp);
+			System.exit(1);
+		}
+	}
+}
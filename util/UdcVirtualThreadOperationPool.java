@@ -0,0 +1,340 @@
+/* *********************************************************************
+ * @(#)UdcVirtualThreadOperationPool.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * 仮想スレッドによるオペレーションスレッドの管理クラス。
+ * UdcThreadOperationPoolと同一のインタフェースを提供しますが、オペレーションスレッドを
+ * 事前に生成せず、確保(allocateOperationThread)毎にオペレーションスレッドを複製し、
+ * 仮想スレッド上でオペレーション処理(UdcOperationFace.action)を実行します。
+ * 同時に確保できるオペレーションスレッド数はセマフォによって制限します。
+ * そのため、JDBCやtelnet等のブロックする処理がOSスレッドを占有することがなく、
+ * 数万規模のオペレーションを同時に実行することができます。
+ *
+ * (注意)
+ *    仮想スレッドはJava21以降で使用可能です。仮想スレッドが使用できない実行環境では、
+ *    確保毎に通常のスレッドを生成します。
+ *    DB接続情報を設定したオペレーションスレッドを管理する場合、確保毎にDBコネクションが
+ *    確立されるため、UdcDBConnectionPool等との併用を推奨します。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcThreadOperationPool
+ * @see		UdcThreadOperation
+ * @since	UDC1.3
+ */
+public class UdcVirtualThreadOperationPool extends UdcThreadOperationPool
+{
+	/**
+	 * 仮想スレッドを生成するスレッドファクトリ(仮想スレッドが使用できない場合はnull)
+	 * @since	UDC1.3
+	 */
+	private static ThreadFactory	virtualFactory = getVirtualFactory();
+
+	/**
+	 * 同時確保数を制限するセマフォ
+	 * @since	UDC1.3
+	 */
+	protected Semaphore					permits;
+
+	/**
+	 * 使用状態の管理スレッド(スレッド識別子 → 管理スレッド)
+	 * @since	UDC1.3
+	 */
+	protected ConcurrentHashMap			usedMap = new ConcurrentHashMap();
+
+	/**
+	 * スレッド識別子管理
+	 * @since	UDC1.3
+	 */
+	protected UdcGenerateIndex			indexGen = new UdcGenerateIndex();
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	maxnum	同時に確保可能なオペレーションスレッド数の上限
+	 * @param	thread	スレッド管理クラス(確保毎に複製されます)
+	 * @param	timer	タイマ管理クラス
+	 * @since	UDC1.3
+	 */
+	public UdcVirtualThreadOperationPool(int maxnum, UdcThreadOperationBase thread, UdcTimerManager timer)
+				throws CloneNotSupportedException
+	{
+		super(0, thread, timer);
+		threadNum = maxnum;
+		template = thread;
+		permits = new Semaphore(maxnum, true);
+	}
+
+	/**
+	 * 仮想スレッドが使用可能か否かを取得する。
+	 *
+	 * @return	仮想スレッドが使用可能か否か
+	 * @since	UDC1.3
+	 */
+	public static boolean isVirtualThreadSupported()
+	{
+		return (virtualFactory != null);
+	}
+
+	/**
+	 * スレッド数(同時確保数の上限)を取得する。
+	 *
+	 * @return スレッド数
+	 * @since   UDC1.3
+	 */
+	public int getSize()
+	{
+		return threadNum;
+	}
+
+	/**
+	 * 未使用状態のスレッド数(確保可能なスレッド数)を取得する。
+	 *
+	 * @return 未使用状態のスレッド数
+	 * @since   UDC1.3
+	 */
+	public int getEmptySize()
+	{
+		return permits.availablePermits();
+	}
+
+	/**
+	 * 使用中状態のスレッド数を取得する。
+	 *
+	 * @return 使用中状態のスレッド数
+	 * @since   UDC1.3
+	 */
+	public int getUsedSize()
+	{
+		return usedMap.size();
+	}
+
+	/**
+	 * 使用中状態から未使用状態に遷移中のスレッド数を取得する。
+	 * 本クラスでは、解放と同時に管理スレッドを破棄するため常に0となります。
+	 *
+	 * @return 使用中状態から空き状態に遷移中のスレッド数
+	 * @since   UDC1.3
+	 */
+	public int getUsedToEmptySize()
+	{
+		return 0;
+	}
+
+	/**
+	 * 本インスタンスが開始されているか否かを取得する。
+	 *
+	 * @return	開始されているか否か
+	 * @since	UDC1.3
+	 */
+	public boolean isStartComplete()
+	{
+		return (status == 1);
+	}
+
+	/**
+	 * 本インスタンスを開始する。
+	 * オペレーションスレッドは確保時に生成されるため、本メンバ関数では状態の遷移のみ行います。
+	 *
+	 * @return	開始されたか否か(負値：異常)
+	 * @since	UDC1.3
+	 */
+	public int startOperation()
+	{
+		synchronized (emptyList) {
+			if (status != 0) {
+				return -1;
+			}
+			status = 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * 本インスタンスが管理する使用中のオペレーションスレッドを全て停止する。
+	 *
+	 * @return	管理スレッドが停止されたか否か(負値：異常)
+	 * @since	UDC1.3
+	 */
+	public int stopOperation()
+	{
+		int ret = 0;
+		synchronized (emptyList) {
+			if (status != 1) {
+				return -1;
+			}
+			status = -1;
+		}
+		Iterator it = usedMap.values().iterator();
+		while (it.hasNext()) {
+			UdcThreadOperationBase th = (UdcThreadOperationBase)it.next();
+			if (th.stopOperation() < 0) {
+				ret = -1;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * オペレーションスレッドを１つ確保する。
+	 * 同時確保数が上限に達している場合、waittimeで指定した時間を上限としていずれかの
+	 * オペレーションスレッドが解放されるのを待ち合わせます。
+	 * 確保したオペレーションスレッドは新たに複製・起動され、トランザクションが開始されます。
+	 *
+	 * @return	確保スレッド管理インスタンス(確保失敗時：null)
+	 * @param	waittime	同時確保数が上限に達している場合の確保待ち時間(単位：ミリ秒)
+	 * @see		UdcThreadOperationBase#startTransaction()
+	 * @since	UDC1.3
+	 */
+	public UdcThreadOperationBase allocateOperationThread(long waittime)
+	{
+		if (status != 1) {
+			return null;
+		}
+
+			/* 同時確保数の制限 */
+		try {
+			if (waittime <= 0) {
+				if (! permits.tryAcquire()) {
+					return null;
+				}
+			} else if (! permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+				Object fr = UdcFlightRecorder.poolBegin();
+				boolean acquired = permits.tryAcquire(waittime, TimeUnit.MILLISECONDS);
+				UdcFlightRecorder.poolAllocate(this, fr, waittime, acquired);
+				if (! acquired) {
+					return null;
+				}
+			}
+		} catch (InterruptedException exp) {
+			return null;
+		}
+
+			/* オペレーションスレッドの複製・起動 */
+		UdcThreadOperationBase thread = null;
+		try {
+			thread = (UdcThreadOperationBase)template.clone();
+			if (thread != null) {
+				thread.setPool(this);
+				thread.threadIndex = indexGen.allocateIndex();
+				thread.setStatus(UdcThreadOperationBase.Status_Used);
+				usedMap.put(Integer.valueOf(thread.threadIndex), thread);
+				if (thread.startOperation() != 0) {
+					UdcTrace.trace(UdcTrace.Level,"UdcVirtualThreadOperationPool.allocateOperationThread", " - Cannot start thread.");
+					usedMap.remove(Integer.valueOf(thread.threadIndex));
+					thread.stopOperation();
+					thread = null;
+				}
+			}
+		} catch (CloneNotSupportedException exp) {
+			thread = null;
+		} catch (InterruptedException exp) {
+			thread = null;
+		}
+		if (thread == null) {
+			permits.release();
+			return null;
+		}
+
+			/* トランザクション開始 */
+		thread.flightEvent = UdcFlightRecorder.transactionBegin();
+		if (thread.startTransaction() != 0) {
+			releaseOperationThread(thread.threadIndex);
+			return null;
+		}
+		return thread;
+	}
+
+	/**
+	 * 使用中のオペレーションスレッドを解放する。
+	 * トランザクションを終了した後、オペレーションスレッドを停止・破棄し、
+	 * 確保待ちのものがいればこれに確保を許可する。
+	 * オペレーションスレッド自身から呼び出された場合、スレッドは実行中のオペレーション処理の
+	 * 終了後に終了します。
+	 *
+	 * @param	index	使用中スレッド管理インスタンスの識別子
+	 * @see		UdcThreadOperationBase#stopTransaction()
+	 * @since	UDC1.3
+	 */
+	public void releaseOperationThread(int index)
+	{
+		UdcThreadOperationBase thread = (UdcThreadOperationBase)usedMap.remove(Integer.valueOf(index));
+		if (thread == null) {
+			return;
+		}
+		thread.setStatus(UdcThreadOperationBase.Status_UsedToEmpty);
+			/* トランザクション停止 */
+		int ret = thread.stopTransaction();
+		UdcFlightRecorder.transactionEnd(thread, thread.flightEvent, ret);
+		thread.flightEvent = null;
+		if (ret != 0) {
+			UdcTrace.trace(UdcTrace.Level,"UdcVirtualThreadOperationPool.releaseOperationThread", " - Cannot stop transaction, thIndex[" + index + "]");
+		}
+			/* オペレーションスレッドの停止 */
+		thread.stopOperation();
+		thread.setStatus(UdcThreadOperationBase.Status_Empty);
+		permits.release();
+	}
+
+	/**
+	 * 管理スレッドが処理を行うスレッドを生成する。
+	 * 仮想スレッドが使用可能な場合は仮想スレッドを生成します。
+	 *
+	 * @return	生成したスレッド(未起動)
+	 * @param	r	スレッドで実行する処理
+	 * @since	UDC1.3
+	 */
+	protected Thread createThread(Runnable r)
+	{
+		if (virtualFactory != null) {
+			return virtualFactory.newThread(r);
+		}
+		return super.createThread(r);
+	}
+
+	/**
+	 * 本インスタンスの文字列情報を取得する。
+	 *
+	 * @return	本インスタンス情報
+	 * @since	UDC1.3
+	 */
+	public String toString()
+	{
+		String str = "All Thread Number = " + getSize() + (isVirtualThreadSupported() ? " (virtual)" : "") + "\n";
+		str += "  EmptyThread = " + getEmptySize() + "\n";
+		str += "  UsedThread = " + getUsedSize() + "\n";
+		Iterator it = usedMap.values().iterator();
+		while (it.hasNext()) {
+			UdcThreadOperationBase th = (UdcThreadOperationBase)it.next();
+			str += "    Index[" + th.getThreadIndex() + "]  startComplete:" + th.isStartComplete() + " status:" + th.getStatus() + "\n";
+		}
+		return str;
+	}
+
+	/**
+	 * 仮想スレッドを生成するスレッドファクトリを取得する。
+	 * Java21より前の実行環境でもコンパイル・動作できるよう、リフレクションによって取得します。
+	 *
+	 * @return	スレッドファクトリ(仮想スレッドが使用できない場合はnull)
+	 * @since	UDC1.3
+	 */
+	private static ThreadFactory getVirtualFactory()
+	{
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual", new Class[0]).invoke(null, new Object[0]);
+			Class  cls = Class.forName("java.lang.Thread$Builder");
+			return (ThreadFactory)cls.getMethod("factory", new Class[0]).invoke(builder, new Object[0]);
+		} catch (Exception exp) {
+			return null;
+		}
+	}
+}
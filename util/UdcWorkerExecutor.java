@@ -0,0 +1,111 @@
+/* *********************************************************************
+ * @(#)UdcWorkerExecutor.java 1.0, 18 Oct 2026
+ *
+ * Copyright 2026 U-Software, Inc. All rights reserved.
+ * U-Soft PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ * ********************************************************************/
+package udc.util;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+
+/**
+ * 時間のかかる処理をタイマスレッド等から切り離して実行する作業スレッドの実行クラス。
+ * タイマ管理(UdcTimerManager)のタイムアウト通知で起動される処理のうち、スレッドの停止・
+ * DBコネクションのクローズ・DBへの書き込み等、ブロックする可能性のある処理を実行します。
+ * タイマスレッドでこれらを実行すると、他のタイマの通知が遅延するためです。<br>
+ * 作業スレッドはデーモンスレッドとして必要な時に生成され、一定時間(IdleTime)処理が
+ * なければ終了します。
+ *
+ * @author	Takayuki Uchida
+ * @version	1.0, 18 Oct 2026
+ * @see		UdcTimerManager
+ * @since	UDC1.3
+ */
+public class UdcWorkerExecutor extends ThreadPoolExecutor implements ThreadFactory
+{
+	/**
+	 * 作業スレッドが処理待ちのまま終了するまでの時間(単位：ミリ秒)
+	 * @since	UDC1.3
+	 */
+	final public static long	IdleTime	= 60000;
+
+	/**
+	 * 共用の作業スレッド実行クラス
+	 * @since	UDC1.3
+	 */
+	private static UdcWorkerExecutor	shared = null;
+
+	/**
+	 * 作業スレッド名
+	 * @since	UDC1.3
+	 */
+	private String				name;
+
+	/**
+	 * 作業スレッドの識別子管理
+	 * @since	UDC1.3
+	 */
+	private AtomicInteger		workerIndex = new AtomicInteger(0);
+
+	/**
+	 * コンストラクタ
+	 *
+	 * @param	name		作業スレッド名
+	 * @param	maxThreads	作業スレッド数の上限
+	 * @since	UDC1.3
+	 */
+	public UdcWorkerExecutor(String name, int maxThreads)
+	{
+		super(maxThreads, maxThreads, IdleTime, TimeUnit.MILLISECONDS, new LinkedBlockingQueue());
+		this.name = name;
+		setThreadFactory(this);
+		allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * 共用の作業スレッド実行クラスを取得する。
+	 * 初回の呼び出し時に生成されます。
+	 *
+	 * @return	共用の作業スレッド実行クラス
+	 * @since	UDC1.3
+	 */
+	public static synchronized UdcWorkerExecutor getShared()
+	{
+		if (shared == null) {
+			shared = new UdcWorkerExecutor("UdcWorker", 4);
+		}
+		return shared;
+	}
+
+	/**
+	 * ThreadFactory.newThreadの実装。
+	 * デーモンスレッドとして作業スレッドを生成する。
+	 *
+	 * @return	作業スレッド
+	 * @param	r	スレッドで実行する処理
+	 * @since	UDC1.3
+	 */
+	public Thread newThread(Runnable r)
+	{
+		Thread th = new Thread(r, name + "-" + workerIndex.incrementAndGet());
+		th.setDaemon(true);
+		return th;
+	}
+
+	/**
+	 * 処理の終了後に呼び出され、処理中に発生した例外をトレースする。
+	 *
+	 * @param	r	実行した処理
+	 * @param	t	処理中に発生した例外(正常終了時はnull)
+	 * @since	UDC1.3
+	 */
+	protected void afterExecute(Runnable r, Throwable t)
+	{
+		super.afterExecute(r, t);
+		if (t != null) {
+			UdcTrace.trace(UdcTrace.Level,"UdcWorkerExecutor.afterExecute", " - exception - " + t);
+		}
+	}
+}
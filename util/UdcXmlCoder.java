@@ -238,8 +238,9 @@ public class UdcXmlCoder
 		buffer.append("<" + node.getTagName());
 		LinkedList attrlist = node.getAttrList();
 		if (attrlist != null && attrlist.size() > 0) {
-			for (i=0; i<attrlist.size(); i++) {
-				elm = (UdcBranchElem)attrlist.get(i);
+			Iterator it = attrlist.iterator();
+			while (it.hasNext()) {
+				elm = (UdcBranchElem)it.next();
 				if (elm.getTagValue() == null) {
 					buffer.append(" " + elm.getTagName() + "=\"\"");
 				} else {